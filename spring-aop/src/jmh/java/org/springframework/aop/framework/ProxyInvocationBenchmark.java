@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for method invocations through JDK dynamic proxies and CGLIB proxies,
+ * comparing the default invocation path with {@link ProxyConfig#setFixedInvocationChains
+ * fixed invocation chains} for frozen configurations.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ProxyInvocationBenchmark {
+
+	@Benchmark
+	public int jdkProxy(BenchmarkState state) {
+		return state.jdkProxy.compute(state.argument);
+	}
+
+	@Benchmark
+	public int jdkProxyFrozen(BenchmarkState state) {
+		return state.jdkProxyFrozen.compute(state.argument);
+	}
+
+	@Benchmark
+	public int jdkProxyFixedChains(BenchmarkState state) {
+		return state.jdkProxyFixedChains.compute(state.argument);
+	}
+
+	@Benchmark
+	public int cglibProxy(BenchmarkState state) {
+		return state.cglibProxy.compute(state.argument);
+	}
+
+	@Benchmark
+	public int cglibProxyFrozen(BenchmarkState state) {
+		return state.cglibProxyFrozen.compute(state.argument);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"0", "3"})
+		int interceptorCount;
+
+		int argument = 42;
+
+		Service jdkProxy;
+
+		Service jdkProxyFrozen;
+
+		Service jdkProxyFixedChains;
+
+		Service cglibProxy;
+
+		Service cglibProxyFrozen;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.jdkProxy = createProxy(false, false, false);
+			this.jdkProxyFrozen = createProxy(false, true, false);
+			this.jdkProxyFixedChains = createProxy(false, true, true);
+			this.cglibProxy = createProxy(true, false, false);
+			this.cglibProxyFrozen = createProxy(true, true, false);
+		}
+
+		private Service createProxy(boolean proxyTargetClass, boolean frozen, boolean fixedInvocationChains) {
+			ProxyFactory pf = new ProxyFactory(new ServiceImpl());
+			pf.setProxyTargetClass(proxyTargetClass);
+			if (!proxyTargetClass) {
+				pf.addInterface(Service.class);
+			}
+			for (int i = 0; i < this.interceptorCount; i++) {
+				pf.addAdvice((MethodInterceptor) invocation -> invocation.proceed());
+			}
+			pf.setFixedInvocationChains(fixedInvocationChains);
+			pf.setFrozen(frozen);
+			return (Service) pf.getProxy();
+		}
+	}
+
+
+	public interface Service {
+
+		int compute(int value);
+	}
+
+
+	public static class ServiceImpl implements Service {
+
+		@Override
+		public int compute(int value) {
+			return value * 31;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -121,6 +121,9 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private transient Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<>(32);
 
+	@Nullable
+	private transient Map<Class<?>, Boolean> classMatchCache;
+
 
 	/**
 	 * Create a new default AspectJExpressionPointcut.
@@ -195,11 +198,41 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		}
 		if (this.pointcutExpression == null) {
 			this.pointcutClassLoader = determinePointcutClassLoader();
-			this.pointcutExpression = buildPointcutExpression(this.pointcutClassLoader);
+			this.pointcutExpression = obtainSharedPointcutExpression(this.pointcutClassLoader);
 		}
 		return this.pointcutExpression;
 	}
 
+	/**
+	 * Obtain the underlying AspectJ pointcut expression from the bean factory's
+	 * {@link SharedShadowMatchCache}, sharing the parsed expression as well as its
+	 * match results with all equal pointcuts in the same bean factory.
+	 * <p>Expressions using the {@code bean()} designator are not shared, since
+	 * their match results depend on the bean currently being proxied.
+	 */
+	private PointcutExpression obtainSharedPointcutExpression(@Nullable ClassLoader classLoader) {
+		SharedShadowMatchCache sharedCache = SharedShadowMatchCache.obtain(this.beanFactory);
+		if (sharedCache == null) {
+			return buildPointcutExpression(classLoader);
+		}
+		SharedShadowMatchCache.ExpressionKey key = new SharedShadowMatchCache.ExpressionKey(resolveExpression(),
+				this.pointcutDeclarationScope, this.pointcutParameterNames, this.pointcutParameterTypes, classLoader);
+		SharedShadowMatchCache.SharedExpression sharedExpression = sharedCache.getExpression(key);
+		if (sharedExpression == null) {
+			BeanPointcutDesignatorHandler beanHandler = new BeanPointcutDesignatorHandler(this);
+			PointcutExpression pointcutExpression = buildPointcutExpression(classLoader, beanHandler);
+			if (beanHandler.isUsed()) {
+				return pointcutExpression;
+			}
+			// The shared expression may outlive this pointcut: release the parser's reference to it.
+			beanHandler.detach();
+			sharedExpression = sharedCache.registerExpression(key, pointcutExpression);
+		}
+		this.shadowMatchCache = sharedExpression.shadowMatches;
+		this.classMatchCache = sharedExpression.classMatches;
+		return sharedExpression.pointcutExpression;
+	}
+
 	/**
 	 * Determine the ClassLoader to use for pointcut evaluation.
 	 */
@@ -218,7 +251,17 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	 * Build the underlying AspectJ pointcut expression.
 	 */
 	private PointcutExpression buildPointcutExpression(@Nullable ClassLoader classLoader) {
-		PointcutParser parser = initializePointcutParser(classLoader);
+		return buildPointcutExpression(classLoader, new BeanPointcutDesignatorHandler(this));
+	}
+
+	/**
+	 * Build the underlying AspectJ pointcut expression, parsing {@code bean()}
+	 * designators with the given handler.
+	 */
+	private PointcutExpression buildPointcutExpression(
+			@Nullable ClassLoader classLoader, BeanPointcutDesignatorHandler beanHandler) {
+
+		PointcutParser parser = initializePointcutParser(classLoader, beanHandler);
 		PointcutParameter[] pointcutParameters = new PointcutParameter[this.pointcutParameterNames.length];
 		for (int i = 0; i < pointcutParameters.length; i++) {
 			pointcutParameters[i] = parser.createPointcutParameter(
@@ -237,11 +280,13 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	/**
 	 * Initialize the underlying AspectJ pointcut parser.
 	 */
-	private PointcutParser initializePointcutParser(@Nullable ClassLoader classLoader) {
+	private PointcutParser initializePointcutParser(
+			@Nullable ClassLoader classLoader, BeanPointcutDesignatorHandler beanHandler) {
+
 		PointcutParser parser = PointcutParser
 				.getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(
 						SUPPORTED_PRIMITIVES, classLoader);
-		parser.registerPointcutDesignatorHandler(new BeanPointcutDesignatorHandler());
+		parser.registerPointcutDesignatorHandler(beanHandler);
 		return parser;
 	}
 
@@ -270,6 +315,19 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	@Override
 	public boolean matches(Class<?> targetClass) {
 		PointcutExpression pointcutExpression = obtainPointcutExpression();
+		Map<Class<?>, Boolean> classMatchCache = this.classMatchCache;
+		if (classMatchCache == null) {
+			return couldMatchJoinPointsInType(pointcutExpression, targetClass);
+		}
+		Boolean match = classMatchCache.get(targetClass);
+		if (match == null) {
+			match = couldMatchJoinPointsInType(pointcutExpression, targetClass);
+			classMatchCache.put(targetClass, match);
+		}
+		return match;
+	}
+
+	private boolean couldMatchJoinPointsInType(PointcutExpression pointcutExpression, Class<?> targetClass) {
 		try {
 			try {
 				return pointcutExpression.couldMatchJoinPointsInType(targetClass);
@@ -574,6 +632,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		// Initialize transient fields.
 		// pointcutExpression will be initialized lazily by checkReadyToMatch()
 		this.shadowMatchCache = new ConcurrentHashMap<>(32);
+		this.classMatchCache = null;
 	}
 
 
@@ -584,11 +643,22 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	 * handle the {@code bean()} PCD. Matching context is obtained
 	 * automatically by examining a thread local variable and therefore a matching
 	 * context need not be set on the pointcut.
+	 * <p>Each handler keeps track of whether it has been used for parsing, i.e.
+	 * whether the expression parsed with it contains the {@code bean()} PCD.
 	 */
-	private class BeanPointcutDesignatorHandler implements PointcutDesignatorHandler {
+	private static class BeanPointcutDesignatorHandler implements PointcutDesignatorHandler {
 
 		private static final String BEAN_DESIGNATOR_NAME = "bean";
 
+		@Nullable
+		private volatile AspectJExpressionPointcut pointcut;
+
+		private volatile boolean used;
+
+		BeanPointcutDesignatorHandler(AspectJExpressionPointcut pointcut) {
+			this.pointcut = pointcut;
+		}
+
 		@Override
 		public String getDesignatorName() {
 			return BEAN_DESIGNATOR_NAME;
@@ -596,7 +666,25 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 		@Override
 		public ContextBasedMatcher parse(String expression) {
-			return new BeanContextMatcher(expression);
+			AspectJExpressionPointcut pointcut = this.pointcut;
+			Assert.state(pointcut != null, "Pointcut designator handler has been detached");
+			this.used = true;
+			return pointcut.new BeanContextMatcher(expression);
+		}
+
+		/**
+		 * Return whether an expression containing the {@code bean()} PCD
+		 * has been parsed with this handler.
+		 */
+		boolean isUsed() {
+			return this.used;
+		}
+
+		/**
+		 * Release the reference to the pointcut, once parsing is done.
+		 */
+		void detach() {
+			this.pointcut = null;
 		}
 	}
 
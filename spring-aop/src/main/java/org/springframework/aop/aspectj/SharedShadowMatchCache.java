@@ -0,0 +1,177 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.weaver.tools.PointcutExpression;
+import org.aspectj.weaver.tools.ShadowMatch;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Bean factory wide cache of parsed AspectJ pointcut expressions and their
+ * match results, shared across equal {@link AspectJExpressionPointcut} instances.
+ *
+ * <p>Aspects commonly declare several advice methods against the same pointcut
+ * expression, each of which ends up with its own pointcut instance. Sharing the
+ * parsed expression along with its shadow matches and class matches means that
+ * each expression gets evaluated once per method and once per class, respectively,
+ * rather than once per advisor.
+ *
+ * <p>Kept in framework-internal state, weakly keyed by bean factory, so that it
+ * is discarded along with the bean factory without being exposed as a bean.
+ *
+ * @since 5.3
+ * @see AspectJExpressionPointcut
+ */
+final class SharedShadowMatchCache {
+
+	/**
+	 * Caches per bean factory, weakly keyed by the bean factory instance.
+	 */
+	private static final Map<BeanFactory, SharedShadowMatchCache> caches =
+			Collections.synchronizedMap(new WeakHashMap<>(4));
+
+
+	private final Map<ExpressionKey, SharedExpression> expressions = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Return the shared expression for the given key, if already registered.
+	 */
+	@Nullable
+	SharedExpression getExpression(ExpressionKey key) {
+		return this.expressions.get(key);
+	}
+
+	/**
+	 * Register the given parsed expression for the given key, unless another
+	 * thread registered an expression for the same key in the meantime.
+	 * @return the shared expression to use for the given key
+	 */
+	SharedExpression registerExpression(ExpressionKey key, PointcutExpression pointcutExpression) {
+		SharedExpression sharedExpression = new SharedExpression(pointcutExpression);
+		SharedExpression existing = this.expressions.putIfAbsent(key, sharedExpression);
+		return (existing != null ? existing : sharedExpression);
+	}
+
+	/**
+	 * Return the number of distinct expressions registered so far.
+	 */
+	int getExpressionCount() {
+		return this.expressions.size();
+	}
+
+
+	/**
+	 * Obtain the shared cache for the given bean factory, creating it on first access.
+	 * @param beanFactory the bean factory to obtain the cache for
+	 * @return the shared cache, or {@code null} if no bean factory is given
+	 */
+	@Nullable
+	static SharedShadowMatchCache obtain(@Nullable BeanFactory beanFactory) {
+		if (beanFactory == null) {
+			return null;
+		}
+		return caches.computeIfAbsent(beanFactory, key -> new SharedShadowMatchCache());
+	}
+
+
+	/**
+	 * A parsed pointcut expression along with its match results.
+	 */
+	static final class SharedExpression {
+
+		final PointcutExpression pointcutExpression;
+
+		final Map<Method, ShadowMatch> shadowMatches = new ConcurrentHashMap<>(32);
+
+		final Map<Class<?>, Boolean> classMatches = new ConcurrentHashMap<>(32);
+
+		SharedExpression(PointcutExpression pointcutExpression) {
+			this.pointcutExpression = pointcutExpression;
+		}
+	}
+
+
+	/**
+	 * Key for everything that a parsed pointcut expression depends on.
+	 */
+	static final class ExpressionKey {
+
+		private final String expression;
+
+		@Nullable
+		private final Class<?> declarationScope;
+
+		private final String[] parameterNames;
+
+		private final Class<?>[] parameterTypes;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		ExpressionKey(String expression, @Nullable Class<?> declarationScope,
+				String[] parameterNames, Class<?>[] parameterTypes, @Nullable ClassLoader classLoader) {
+
+			this.expression = expression;
+			this.declarationScope = declarationScope;
+			this.parameterNames = parameterNames.clone();
+			this.parameterTypes = parameterTypes.clone();
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ExpressionKey)) {
+				return false;
+			}
+			ExpressionKey otherKey = (ExpressionKey) other;
+			return (this.expression.equals(otherKey.expression) &&
+					this.declarationScope == otherKey.declarationScope &&
+					Arrays.equals(this.parameterNames, otherKey.parameterNames) &&
+					Arrays.equals(this.parameterTypes, otherKey.parameterTypes) &&
+					this.classLoader == otherKey.classLoader);
+		}
+
+		@Override
+		public int hashCode() {
+			int hashCode = this.expression.hashCode();
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(this.declarationScope);
+			hashCode = 31 * hashCode + Arrays.hashCode(this.parameterNames);
+			hashCode = 31 * hashCode + Arrays.hashCode(this.parameterTypes);
+			return hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return this.expression;
+		}
+	}
+
+}
@@ -112,13 +112,10 @@ public class BeanFactoryAspectInstanceFactory implements MetadataAwareAspectInst
 			// Rely on singleton semantics provided by the factory -> no local lock.
 			return null;
 		}
-		else if (this.beanFactory instanceof ConfigurableBeanFactory) {
-			// No singleton guarantees from the factory -> let's lock locally but
-			// reuse the factory's singleton lock, just in case a lazy dependency
-			// of our advice bean happens to trigger the singleton lock implicitly...
-			return ((ConfigurableBeanFactory) this.beanFactory).getSingletonMutex();
-		}
 		else {
+			// No singleton guarantees from the factory -> let's lock locally.
+			// Note that the factory's singleton mutex must not be held while
+			// obtaining a bean, since singletons get created under locks of their own.
 			return this;
 		}
 	}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.lang.Nullable;
+
+/**
+ * Invocation chain for a single method of a proxy with a frozen configuration
+ * and a static target, computed once and then reused for every invocation.
+ *
+ * <p>The target method is invoked through a generated CGLIB {@link FastClass}
+ * for the target class, avoiding reflection, if the target class allows for it.
+ * Methods without advice are invoked on the target directly, without creating
+ * a {@link ReflectiveMethodInvocation}.
+ *
+ * @since 5.3
+ * @see ProxyConfig#setFixedInvocationChains
+ */
+final class FixedInvocationChain {
+
+	private static final Log logger = LogFactory.getLog(FixedInvocationChain.class);
+
+
+	private final Method method;
+
+	@Nullable
+	private final Class<?> targetClass;
+
+	private final List<Object> interceptorsAndDynamicMethodMatchers;
+
+	@Nullable
+	private final FastClass targetFastClass;
+
+	private final int targetMethodIndex;
+
+
+	/**
+	 * Create a new invocation chain for the given method.
+	 * @param method the method invoked on the proxy
+	 * @param targetClass the class of the static target, if any
+	 * @param interceptorsAndDynamicMethodMatchers the interceptors for the method
+	 * @param targetFastClass the generated FastClass for the target class, if available
+	 */
+	FixedInvocationChain(Method method, @Nullable Class<?> targetClass,
+			List<Object> interceptorsAndDynamicMethodMatchers, @Nullable FastClass targetFastClass) {
+
+		this.method = method;
+		this.targetClass = targetClass;
+		this.interceptorsAndDynamicMethodMatchers = interceptorsAndDynamicMethodMatchers;
+		int index = -1;
+		if (targetFastClass != null && Modifier.isPublic(method.getModifiers())) {
+			index = targetFastClass.getIndex(method.getName(), method.getParameterTypes());
+		}
+		this.targetFastClass = (index >= 0 ? targetFastClass : null);
+		this.targetMethodIndex = index;
+	}
+
+
+	/**
+	 * Invoke the method through this chain.
+	 * @param proxy the proxy that the method was invoked on
+	 * @param target the target object
+	 * @param args the arguments for the method
+	 * @return the return value of the invocation, as returned by the chain
+	 */
+	@Nullable
+	public Object invoke(Object proxy, @Nullable Object target, Object[] args) throws Throwable {
+		if (this.interceptorsAndDynamicMethodMatchers.isEmpty()) {
+			return invokeTarget(target, AopProxyUtils.adaptArgumentsIfNecessary(this.method, args));
+		}
+		return new FixedChainMethodInvocation(this, proxy, target, args).proceed();
+	}
+
+	@Nullable
+	private Object invokeTarget(@Nullable Object target, Object[] args) throws Throwable {
+		if (this.targetFastClass != null && target != null) {
+			try {
+				return this.targetFastClass.invoke(this.targetMethodIndex, target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+		return AopUtils.invokeJoinpointUsingReflection(target, this.method, args);
+	}
+
+
+	/**
+	 * Generate a {@link FastClass} for invoking methods on instances of the given
+	 * target class, if possible.
+	 * @param targetClass the target class
+	 * @return the FastClass, or {@code null} if none could be generated for the
+	 * given class, in which case target methods get invoked via reflection
+	 */
+	@Nullable
+	static FastClass generateTargetFastClass(@Nullable Class<?> targetClass) {
+		if (targetClass == null || targetClass.isInterface() || Proxy.isProxyClass(targetClass)) {
+			return null;
+		}
+		try {
+			FastClass.Generator generator = new FastClass.Generator();
+			generator.setType(targetClass);
+			generator.setContextClass(targetClass);
+			generator.setClassLoader(targetClass.getClassLoader());
+			return generator.create();
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Unable to generate FastClass for target class [" + targetClass.getName() +
+						"] - invoking target methods via reflection: " + ex);
+			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * MethodInvocation through the fixed chain, invoking the target method
+	 * through the generated FastClass.
+	 */
+	private static final class FixedChainMethodInvocation extends ReflectiveMethodInvocation {
+
+		private final FixedInvocationChain chain;
+
+		FixedChainMethodInvocation(
+				FixedInvocationChain chain, Object proxy, @Nullable Object target, Object[] arguments) {
+
+			super(proxy, target, chain.method, arguments, chain.targetClass, chain.interceptorsAndDynamicMethodMatchers);
+			this.chain = chain;
+		}
+
+		@Override
+		@Nullable
+		protected Object invokeJoinpoint() throws Throwable {
+			return this.chain.invokeTarget(this.target, this.arguments);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,8 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.commons.logging.Log;
@@ -30,6 +32,7 @@ import org.springframework.aop.AopInvocationException;
 import org.springframework.aop.RawTargetAccess;
 import org.springframework.aop.TargetSource;
 import org.springframework.aop.support.AopUtils;
+import org.springframework.cglib.reflect.FastClass;
 import org.springframework.core.DecoratingProxy;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -92,6 +95,16 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	 */
 	private boolean hashCodeDefined;
 
+	/**
+	 * Fixed invocation chains per method, if enabled for a frozen config
+	 * with a static target; not retained on serialization.
+	 */
+	@Nullable
+	private transient Map<Method, FixedInvocationChain> fixedChains;
+
+	@Nullable
+	private transient FastClass targetFastClass;
+
 
 	/**
 	 * Construct a new JdkDynamicAopProxy for the given AOP configuration.
@@ -105,6 +118,9 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			throw new AopConfigException("No advisors and no TargetSource specified");
 		}
 		this.advised = config;
+		if (config.isFixedInvocationChains() && config.isFrozen() && config.getTargetSource().isStatic()) {
+			this.fixedChains = new ConcurrentHashMap<>(32);
+		}
 	}
 
 
@@ -212,6 +228,18 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			// 获取到目标对象的 class
 			Class<?> targetClass = (target != null ? target.getClass() : null);
 
+			Map<Method, FixedInvocationChain> fixedChains = this.fixedChains;
+			if (fixedChains != null) {
+				// Frozen config with static target: reuse the chain computed on first invocation.
+				FixedInvocationChain fixedChain = fixedChains.get(method);
+				if (fixedChain == null) {
+					fixedChain = createFixedChain(method, targetClass);
+					fixedChains.putIfAbsent(method, fixedChain);
+				}
+				retVal = fixedChain.invoke(proxy, target, args);
+				return processReturnValue(proxy, target, method, retVal);
+			}
+
 			// Get the interception chain for this method.
 			// 其实 这里是最关键的地方，查找适合该方法的 所有方法拦截器。
 			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
@@ -239,23 +267,7 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 				retVal = invocation.proceed();
 			}
 
-			// Massage return value if necessary.
-			// 方法 返回值类型
-			Class<?> returnType = method.getReturnType();
-			// 如果目标方法 返回 目标对象，这里 做个替换，返回 代理对象。
-			if (retVal != null && retVal == target &&
-					returnType != Object.class && returnType.isInstance(proxy) &&
-					!RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass())) {
-				// Special case: it returned "this" and the return type of the method
-				// is type-compatible. Note that we can't help if the target sets
-				// a reference to itself in another returned object.
-				retVal = proxy;
-			}
-			else if (retVal == null && returnType != Void.TYPE && returnType.isPrimitive()) {
-				throw new AopInvocationException(
-						"Null return value from advice does not match primitive return type for: " + method);
-			}
-			return retVal;
+			return processReturnValue(proxy, target, method, retVal);
 		}
 		finally {
 
@@ -276,6 +288,42 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	}
 
 
+	private FixedInvocationChain createFixedChain(Method method, @Nullable Class<?> targetClass) {
+		FastClass fastClass = this.targetFastClass;
+		if (fastClass == null) {
+			fastClass = FixedInvocationChain.generateTargetFastClass(targetClass);
+			this.targetFastClass = fastClass;
+		}
+		List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+		return new FixedInvocationChain(method, targetClass, chain, fastClass);
+	}
+
+	/**
+	 * Massage the return value of an invocation, if necessary.
+	 */
+	@Nullable
+	private static Object processReturnValue(
+			Object proxy, @Nullable Object target, Method method, @Nullable Object retVal) {
+
+		// 方法 返回值类型
+		Class<?> returnType = method.getReturnType();
+		// 如果目标方法 返回 目标对象，这里 做个替换，返回 代理对象。
+		if (retVal != null && retVal == target &&
+				returnType != Object.class && returnType.isInstance(proxy) &&
+				!RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass())) {
+			// Special case: it returned "this" and the return type of the method
+			// is type-compatible. Note that we can't help if the target sets
+			// a reference to itself in another returned object.
+			retVal = proxy;
+		}
+		else if (retVal == null && returnType != Void.TYPE && returnType.isPrimitive()) {
+			throw new AopInvocationException(
+					"Null return value from advice does not match primitive return type for: " + method);
+		}
+		return retVal;
+	}
+
+
 	/**
 	 * Equality means interfaces, advisors and TargetSource are equal.
 	 * <p>The compared object may be a JdkDynamicAopProxy instance itself
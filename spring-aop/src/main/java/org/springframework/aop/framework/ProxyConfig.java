@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -44,6 +44,8 @@ public class ProxyConfig implements Serializable {
 
 	private boolean frozen = false;
 
+	private boolean fixedInvocationChains = false;
+
 
 	/**
 	 * Set whether to proxy the target class directly, instead of just proxying
@@ -146,6 +148,35 @@ public class ProxyConfig implements Serializable {
 		return this.frozen;
 	}
 
+	/**
+	 * Set whether proxies should use a fixed invocation chain per method once
+	 * this config is {@link #setFrozen frozen} and the target is static.
+	 * Default is "false".
+	 * <p>If enabled, JDK dynamic proxies compute the interceptor chain of each
+	 * method once, instead of looking it up on every invocation, and invoke the
+	 * target method through a generated CGLIB {@code FastClass} rather than via
+	 * reflection, where possible. Methods without advice are invoked on the
+	 * target directly. CGLIB proxies for a frozen config with a static target
+	 * use fixed chains and generated target invocation in any case.
+	 * <p>Has no effect unless the config is frozen by the time the proxy is
+	 * created, since the chains would otherwise become stale on advice changes.
+	 * @since 5.3
+	 * @see #setFrozen
+	 * @see org.springframework.aop.TargetSource#isStatic()
+	 */
+	public void setFixedInvocationChains(boolean fixedInvocationChains) {
+		this.fixedInvocationChains = fixedInvocationChains;
+	}
+
+	/**
+	 * Return whether proxies should use a fixed invocation chain per method
+	 * once this config is frozen.
+	 * @since 5.3
+	 */
+	public boolean isFixedInvocationChains() {
+		return this.fixedInvocationChains;
+	}
+
 
 	/**
 	 * Copy configuration from the other config object.
@@ -162,6 +193,7 @@ public class ProxyConfig implements Serializable {
 
 		this.frozen = other.frozen;
 		this.opaque = other.opaque;
+		this.fixedInvocationChains = other.fixedInvocationChains;
 	}
 
 	@Override
@@ -171,7 +203,8 @@ public class ProxyConfig implements Serializable {
 		sb.append("optimize=").append(this.optimize).append("; ");
 		sb.append("opaque=").append(this.opaque).append("; ");
 		sb.append("exposeProxy=").append(this.exposeProxy).append("; ");
-		sb.append("frozen=").append(this.frozen);
+		sb.append("frozen=").append(this.frozen).append("; ");
+		sb.append("fixedInvocationChains=").append(this.fixedInvocationChains);
 		return sb.toString();
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,12 +21,16 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.aop.Advisor;
 import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.ClassFilter;
 import org.springframework.aop.IntroductionAdvisor;
 import org.springframework.aop.IntroductionAwareMethodMatcher;
 import org.springframework.aop.MethodMatcher;
@@ -343,21 +347,130 @@ public abstract class AopUtils {
 		boolean hasIntroductions = !eligibleAdvisors.isEmpty();
 
 
+		List<Advisor> remainingAdvisors = new ArrayList<>(candidateAdvisors.size());
 		for (Advisor candidate : candidateAdvisors) {
 			if (candidate instanceof IntroductionAdvisor) {
 				// already processed
 				continue;
 			}
+			remainingAdvisors.add(candidate);
+		}
 
-			// 判断当前advisor 是否匹配当前clazz
-			if (canApply(candidate, clazz, hasIntroductions)) {
-				eligibleAdvisors.add(candidate);
+		// 批量判断 剩余的advisor 是否匹配当前clazz，clazz 的方法只解析一次
+		eligibleAdvisors.addAll(filterAdvisorsThatCanApply(remainingAdvisors, clazz, hasIntroductions));
+
+		// 返回的都是匹配当前clazz的 advisors
+		return eligibleAdvisors;
+	}
+
+	/**
+	 * Determine which of the given advisors can apply at all on the given class.
+	 * <p>Equivalent to calling {@link #canApply(Advisor, Class, boolean)} for each
+	 * advisor, but evaluated in bulk: the methods of the target class and its
+	 * interfaces are introspected only once for all advisors, equal class filters
+	 * (e.g. for the same type pattern) are evaluated only once, and so are equal
+	 * pointcuts (e.g. the same AspectJ expression used by several advice methods).
+	 * The class filter of each pointcut gets checked before any method matching,
+	 * rejecting advisors for unrelated classes without introspecting methods at all.
+	 * @param advisors the advisors to check
+	 * @param targetClass the class to test
+	 * @param hasIntroductions whether or not the advisor chain for this bean includes
+	 * any introductions
+	 * @return the advisors which can apply, in their original order
+	 * @since 5.3
+	 */
+	public static <A extends Advisor> List<A> filterAdvisorsThatCanApply(
+			Collection<A> advisors, Class<?> targetClass, boolean hasIntroductions) {
+
+		List<A> eligibleAdvisors = new ArrayList<>(advisors.size());
+		Map<ClassFilter, Boolean> classFilterMatches = new HashMap<>();
+		Map<Pointcut, Boolean> pointcutMatches = new HashMap<>();
+		List<Method> candidateMethods = null;
+		for (A advisor : advisors) {
+			boolean match;
+			if (advisor instanceof IntroductionAdvisor) {
+				match = matchesClass(((IntroductionAdvisor) advisor).getClassFilter(), targetClass, classFilterMatches);
+			}
+			else if (advisor instanceof PointcutAdvisor) {
+				Pointcut pc = ((PointcutAdvisor) advisor).getPointcut();
+				Assert.notNull(pc, "Pointcut must not be null");
+				Boolean pointcutMatch = pointcutMatches.get(pc);
+				if (pointcutMatch == null) {
+					pointcutMatch = false;
+					if (matchesClass(pc.getClassFilter(), targetClass, classFilterMatches)) {
+						MethodMatcher methodMatcher = pc.getMethodMatcher();
+						if (methodMatcher == MethodMatcher.TRUE) {
+							pointcutMatch = true;
+						}
+						else {
+							if (candidateMethods == null) {
+								candidateMethods = getCandidateMethods(targetClass);
+							}
+							pointcutMatch = matchesAnyMethod(methodMatcher, candidateMethods, targetClass, hasIntroductions);
+						}
+					}
+					pointcutMatches.put(pc, pointcutMatch);
+				}
+				match = pointcutMatch;
+			}
+			else {
+				// It doesn't have a pointcut so we assume it applies.
+				match = true;
 			}
+			if (match) {
+				eligibleAdvisors.add(advisor);
+			}
+		}
+		return eligibleAdvisors;
+	}
+
+	private static boolean matchesClass(
+			ClassFilter classFilter, Class<?> targetClass, Map<ClassFilter, Boolean> classFilterMatches) {
 
+		if (classFilter == ClassFilter.TRUE) {
+			return true;
+		}
+		Boolean match = classFilterMatches.get(classFilter);
+		if (match == null) {
+			match = classFilter.matches(targetClass);
+			classFilterMatches.put(classFilter, match);
 		}
+		return match;
+	}
 
-		// 返回的都是匹配当前clazz的 advisors
-		return eligibleAdvisors;
+	/**
+	 * Collect the methods that {@link #canApply(Pointcut, Class, boolean)} checks
+	 * for the given class: the methods of the user class and of all its interfaces.
+	 */
+	private static List<Method> getCandidateMethods(Class<?> targetClass) {
+		Set<Class<?>> classes = new LinkedHashSet<>();
+		if (!Proxy.isProxyClass(targetClass)) {
+			classes.add(ClassUtils.getUserClass(targetClass));
+		}
+		classes.addAll(ClassUtils.getAllInterfacesForClassAsSet(targetClass));
+		List<Method> methods = new ArrayList<>();
+		for (Class<?> clazz : classes) {
+			for (Method method : ReflectionUtils.getAllDeclaredMethods(clazz)) {
+				methods.add(method);
+			}
+		}
+		return methods;
+	}
+
+	private static boolean matchesAnyMethod(
+			MethodMatcher methodMatcher, List<Method> methods, Class<?> targetClass, boolean hasIntroductions) {
+
+		IntroductionAwareMethodMatcher introductionAwareMethodMatcher =
+				(methodMatcher instanceof IntroductionAwareMethodMatcher ?
+						(IntroductionAwareMethodMatcher) methodMatcher : null);
+		for (Method method : methods) {
+			if (introductionAwareMethodMatcher != null ?
+					introductionAwareMethodMatcher.matches(method, targetClass, hasIntroductions) :
+					methodMatcher.matches(method, targetClass)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
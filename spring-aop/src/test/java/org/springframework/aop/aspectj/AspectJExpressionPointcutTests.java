@@ -31,6 +31,7 @@ import org.springframework.aop.MethodMatcher;
 import org.springframework.aop.Pointcut;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.testfixture.beans.IOther;
 import org.springframework.beans.testfixture.beans.ITestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
@@ -284,6 +285,47 @@ public class AspectJExpressionPointcutTests {
 		assertThat(expr.getPointcutExpression()).isEqualTo("execution(* *(..)) && args(String) && this(Object)");
 	}
 
+	@Test
+	public void testSharedPointcutExpressionWithinBeanFactory() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		AspectJExpressionPointcut pc1 = getPointcut("execution(* getAge())", beanFactory);
+		AspectJExpressionPointcut pc2 = getPointcut("execution(* getAge())", beanFactory);
+		AspectJExpressionPointcut pc3 = getPointcut("execution(* getName())", beanFactory);
+		AspectJExpressionPointcut pc4 = getPointcut("execution(* getAge())", new DefaultListableBeanFactory());
+
+		assertThat(pc1.getPointcutExpression()).isSameAs(pc2.getPointcutExpression());
+		assertThat(pc1.getPointcutExpression()).isNotSameAs(pc3.getPointcutExpression());
+		assertThat(pc1.getPointcutExpression()).isNotSameAs(pc4.getPointcutExpression());
+		assertThat(SharedShadowMatchCache.obtain(beanFactory).getExpressionCount()).isEqualTo(2);
+		assertThat(beanFactory.getSingletonCount()).isEqualTo(0);
+
+		assertMatchesGetAge(pc1);
+		assertMatchesGetAge(pc2);
+		assertMatchesTestBeanClass(pc1);
+		assertMatchesTestBeanClass(pc2);
+		assertThat(pc3.matches(TestBean.class.getMethod("getAge"), TestBean.class)).isFalse();
+		assertThat(pc3.matches(TestBean.class.getMethod("getName"), TestBean.class)).isTrue();
+	}
+
+	@Test
+	public void testBeanPointcutExpressionNotShared() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		AspectJExpressionPointcut pc1 = getPointcut("bean(myBean)", beanFactory);
+		AspectJExpressionPointcut pc2 = getPointcut("bean(myBean)", beanFactory);
+		assertThat(pc1.getPointcutExpression()).isNotSameAs(pc2.getPointcutExpression());
+		AspectJExpressionPointcut pc3 = getPointcut("execution(* getAge()) && !bean(myBean)", beanFactory);
+		AspectJExpressionPointcut pc4 = getPointcut("execution(* getAge()) && !bean(myBean)", beanFactory);
+		assertThat(pc3.getPointcutExpression()).isNotSameAs(pc4.getPointcutExpression());
+		assertThat(SharedShadowMatchCache.obtain(beanFactory).getExpressionCount()).isEqualTo(0);
+	}
+
+	private AspectJExpressionPointcut getPointcut(String expression, DefaultListableBeanFactory beanFactory) {
+		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+		pointcut.setExpression(expression);
+		pointcut.setBeanFactory(beanFactory);
+		return pointcut;
+	}
+
 	private Pointcut getPointcut(String expression) {
 		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
 		pointcut.setExpression(expression);
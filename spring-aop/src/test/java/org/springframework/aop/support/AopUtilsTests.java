@@ -17,15 +17,20 @@
 package org.springframework.aop.support;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.aop.Advisor;
 import org.springframework.aop.ClassFilter;
 import org.springframework.aop.MethodMatcher;
 import org.springframework.aop.Pointcut;
 import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
 import org.springframework.aop.target.EmptyTargetSource;
 import org.springframework.aop.testfixture.interceptor.NopInterceptor;
+import org.springframework.beans.testfixture.beans.ITestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
 import org.springframework.core.testfixture.io.SerializationTestUtils;
 import org.springframework.lang.Nullable;
@@ -72,6 +77,46 @@ public class AopUtilsTests {
 		assertThat(AopUtils.canApply(pc, Object.class)).isTrue();
 	}
 
+	@Test
+	public void testFilterAdvisorsThatCanApply() {
+		AtomicInteger classFilterCount = new AtomicInteger();
+		AtomicInteger methodMatcherCount = new AtomicInteger();
+		ClassFilter rejectingClassFilter = clazz -> {
+			classFilterCount.incrementAndGet();
+			return false;
+		};
+		StaticMethodMatcherPointcut getAgePointcut = new StaticMethodMatcherPointcut() {
+			@Override
+			public boolean matches(Method method, Class<?> targetClass) {
+				methodMatcherCount.incrementAndGet();
+				return method.getName().equals("getAge");
+			}
+		};
+		Advisor getAgeAdvisor1 = new DefaultPointcutAdvisor(getAgePointcut, new NopInterceptor());
+		Advisor rejectedAdvisor1 = new DefaultPointcutAdvisor(
+				new ComposablePointcut(rejectingClassFilter, MethodMatcher.TRUE), new NopInterceptor());
+		Advisor alwaysAdvisor = new DefaultPointcutAdvisor(new NopInterceptor());
+		Advisor rejectedAdvisor2 = new DefaultPointcutAdvisor(
+				new ComposablePointcut(rejectingClassFilter, MethodMatcher.TRUE), new NopInterceptor());
+		Advisor getAgeAdvisor2 = new DefaultPointcutAdvisor(getAgePointcut, new NopInterceptor());
+
+		List<Advisor> advisors = Arrays.asList(
+				getAgeAdvisor1, rejectedAdvisor1, alwaysAdvisor, rejectedAdvisor2, getAgeAdvisor2);
+		assertThat(AopUtils.filterAdvisorsThatCanApply(advisors, TestBean.class, false))
+				.containsExactly(getAgeAdvisor1, alwaysAdvisor, getAgeAdvisor2);
+		assertThat(classFilterCount.get()).isEqualTo(1);
+		int methodMatches = methodMatcherCount.get();
+		assertThat(methodMatches).isGreaterThan(0);
+
+		for (Advisor advisor : advisors) {
+			assertThat(AopUtils.canApply(advisor, TestBean.class)).isEqualTo(
+					AopUtils.filterAdvisorsThatCanApply(Arrays.asList(advisor), TestBean.class, false).contains(advisor));
+		}
+		assertThat(AopUtils.filterAdvisorsThatCanApply(advisors, ITestBean.class, false))
+				.containsExactly(getAgeAdvisor1, alwaysAdvisor, getAgeAdvisor2);
+		assertThat(AopUtils.findAdvisorsThatCanApply(advisors, Object.class)).containsExactly(alwaysAdvisor);
+	}
+
 	/**
 	 * Test that when we serialize and deserialize various canonical instances
 	 * of AOP classes, they return the same instance, not a new instance
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for concurrent {@code getBean} calls on lazy singletons in a
+ * {@link DefaultListableBeanFactory}, measuring the contention between threads
+ * creating unrelated singletons. Run with varying {@code -t} to compare.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(8)
+public class ConcurrentSingletonCreationBenchmark {
+
+	@Benchmark
+	public Object createUnrelatedLazySingletons(BenchmarkState state, ThreadState threadState) {
+		state.beanFactory.destroySingleton(threadState.beanName);
+		return state.beanFactory.getBean(threadState.beanName);
+	}
+
+	@Benchmark
+	public Object getSharedLazySingleton(BenchmarkState state) {
+		return state.beanFactory.getBean("shared");
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"64"})
+		int beanCount;
+
+		@Param({"1000"})
+		int creationTokens;
+
+		DefaultListableBeanFactory beanFactory;
+
+		final AtomicInteger threadIndex = new AtomicInteger();
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				this.beanFactory.registerBeanDefinition("bean" + i, lazyBeanDefinition(this.creationTokens));
+			}
+			this.beanFactory.registerBeanDefinition("shared", lazyBeanDefinition(this.creationTokens));
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.beanFactory.destroySingletons();
+		}
+
+		private static AbstractBeanDefinition lazyBeanDefinition(int creationTokens) {
+			return BeanDefinitionBuilder.rootBeanDefinition(CostlyBean.class)
+					.addConstructorArgValue(creationTokens).setLazyInit(true).getBeanDefinition();
+		}
+	}
+
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+
+		String beanName;
+
+		@Setup(Level.Trial)
+		public void setup(BenchmarkState state) {
+			this.beanName = "bean" + (state.threadIndex.getAndIncrement() % state.beanCount);
+		}
+	}
+
+
+	public static class CostlyBean {
+
+		public CostlyBean(int creationTokens) {
+			Blackhole.consumeCPU(creationTokens);
+		}
+	}
+
+}
@@ -926,6 +926,10 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 	 * @return representation of the parsed property tokens
 	 */
 	private PropertyTokenHolder getPropertyNameTokens(String propertyName) {
+		if (propertyName.indexOf(PROPERTY_KEY_PREFIX_CHAR) == -1) {
+			// Plain property name: nothing to parse
+			return new PropertyTokenHolder(propertyName);
+		}
 		String actualName = null;
 		List<String> keys = new ArrayList<>(2);
 		int searchIndex = 0;
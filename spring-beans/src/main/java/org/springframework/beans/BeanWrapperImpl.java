@@ -265,9 +265,14 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		private final PropertyDescriptor pd;
 
+		@Nullable
+		private final GeneratedPropertyAccessor generatedAccessor;
+
 		public BeanPropertyHandler(PropertyDescriptor pd) {
 			super(pd.getPropertyType(), pd.getReadMethod() != null, pd.getWriteMethod() != null);
 			this.pd = pd;
+			this.generatedAccessor = (System.getSecurityManager() == null ?
+					getCachedIntrospectionResults().getGeneratedAccessor(pd) : null);
 		}
 
 		@Override
@@ -289,6 +294,10 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		@Override
 		@Nullable
 		public Object getValue() throws Exception {
+			GeneratedPropertyAccessor generatedAccessor = this.generatedAccessor;
+			if (generatedAccessor != null && generatedAccessor.hasGetter()) {
+				return generatedAccessor.getValue(getWrappedInstance());
+			}
 			Method readMethod = this.pd.getReadMethod();
 			if (System.getSecurityManager() != null) {
 				AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
@@ -311,6 +320,11 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		@Override
 		public void setValue(@Nullable Object value) throws Exception {
+			GeneratedPropertyAccessor generatedAccessor = this.generatedAccessor;
+			if (generatedAccessor != null && generatedAccessor.canSet(value)) {
+				generatedAccessor.setValue(getWrappedInstance(), value);
+				return;
+			}
 			Method writeMethod = (this.pd instanceof GenericTypeAwarePropertyDescriptor ?
 					((GenericTypeAwarePropertyDescriptor) this.pd).getWriteMethodForActualAccess() :
 					this.pd.getWriteMethod());
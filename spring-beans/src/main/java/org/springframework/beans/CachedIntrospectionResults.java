@@ -37,6 +37,7 @@ import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StaticCaches;
 import org.springframework.util.StringUtils;
 
 /**
@@ -93,6 +94,22 @@ public final class CachedIntrospectionResults {
 	public static final String IGNORE_BEANINFO_PROPERTY_NAME = "spring.beaninfo.ignore";
 
 
+	/**
+	 * System property that instructs Spring to access bean properties through
+	 * generated getters and setters instead of reflective method invocation:
+	 * "spring.beaninfo.generate-accessors". Worthwhile for repeated access to
+	 * the same properties, e.g. data binding and row mapping in a hot path.
+	 * <p>The default is "false", invoking read and write methods reflectively.
+	 * Generated accessors are limited to public methods on public classes
+	 * that are visible to the ClassLoader of the Spring beans module.
+	 * @since 5.3
+	 */
+	public static final String GENERATE_ACCESSORS_PROPERTY_NAME = "spring.beaninfo.generate-accessors";
+
+	/** Marker for properties without generated accessor. */
+	private static final Object NO_GENERATED_ACCESSOR = new Object();
+
+
 	private static final boolean shouldIntrospectorIgnoreBeaninfoClasses =
 			SpringProperties.getFlag(IGNORE_BEANINFO_PROPERTY_NAME);
 
@@ -121,7 +138,7 @@ public final class CachedIntrospectionResults {
 	 * This variant is being used for non-cache-safe bean classes.
 	 */
 	static final ConcurrentMap<Class<?>, CachedIntrospectionResults> softClassCache =
-			new ConcurrentReferenceHashMap<>(64);
+			StaticCaches.createCache("CachedIntrospectionResults.softClassCache", 64);
 
 
 	/**
@@ -258,6 +275,10 @@ public final class CachedIntrospectionResults {
 	/** TypeDescriptor objects keyed by PropertyDescriptor. */
 	private final ConcurrentMap<PropertyDescriptor, TypeDescriptor> typeDescriptorCache;
 
+	/** GeneratedPropertyAccessor objects keyed by PropertyDescriptor, if enabled. */
+	@Nullable
+	private final ConcurrentMap<PropertyDescriptor, Object> generatedAccessorCache;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -303,6 +324,8 @@ public final class CachedIntrospectionResults {
 			}
 
 			this.typeDescriptorCache = new ConcurrentReferenceHashMap<>();
+			this.generatedAccessorCache = (SpringProperties.getFlag(GENERATE_ACCESSORS_PROPERTY_NAME) ?
+					new ConcurrentReferenceHashMap<>() : null);
 		}
 		catch (IntrospectionException ex) {
 			throw new FatalBeanException("Failed to obtain BeanInfo for class [" + beanClass.getName() + "]", ex);
@@ -381,4 +404,27 @@ public final class CachedIntrospectionResults {
 		return this.typeDescriptorCache.get(pd);
 	}
 
+	/**
+	 * Return the generated accessor for the given property, if enabled and available.
+	 * @see #GENERATE_ACCESSORS_PROPERTY_NAME
+	 */
+	@Nullable
+	GeneratedPropertyAccessor getGeneratedAccessor(PropertyDescriptor pd) {
+		if (this.generatedAccessorCache == null) {
+			return null;
+		}
+		Object accessor = this.generatedAccessorCache.get(pd);
+		if (accessor == null) {
+			accessor = GeneratedPropertyAccessor.forProperty(pd);
+			if (accessor == null) {
+				accessor = NO_GENERATED_ACCESSOR;
+			}
+			Object existing = this.generatedAccessorCache.putIfAbsent(pd, accessor);
+			if (existing != null) {
+				accessor = existing;
+			}
+		}
+		return (accessor != NO_GENERATED_ACCESSOR ? (GeneratedPropertyAccessor) accessor : null);
+	}
+
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Getter and setter for a bean property, generated through the
+ * {@link LambdaMetafactory} instead of invoking the read and write
+ * methods reflectively.
+ *
+ * <p>Only available for public methods on public types which are visible
+ * to the ClassLoader of this class. Invocation failures are exposed as
+ * {@link InvocationTargetException}, just like for reflective invocation.
+ *
+ * @since 5.3
+ * @see CachedIntrospectionResults#getGeneratedAccessor
+ */
+final class GeneratedPropertyAccessor {
+
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+
+	@Nullable
+	private final Function<Object, Object> getter;
+
+	@Nullable
+	private final BiConsumer<Object, Object> setter;
+
+	private final Class<?> setterParameterType;
+
+	private final boolean setterParameterPrimitive;
+
+
+	private GeneratedPropertyAccessor(@Nullable Function<Object, Object> getter,
+			@Nullable BiConsumer<Object, Object> setter, Class<?> setterParameterType) {
+
+		this.getter = getter;
+		this.setter = setter;
+		this.setterParameterType = ClassUtils.resolvePrimitiveIfNecessary(setterParameterType);
+		this.setterParameterPrimitive = setterParameterType.isPrimitive();
+	}
+
+
+	/**
+	 * Generate the accessor for the given property.
+	 * @param pd the property descriptor
+	 * @return the accessor, or {@code null} if neither the getter nor the
+	 * setter can be generated
+	 */
+	@Nullable
+	static GeneratedPropertyAccessor forProperty(PropertyDescriptor pd) {
+		Method readMethod = pd.getReadMethod();
+		Method writeMethod = (pd instanceof GenericTypeAwarePropertyDescriptor ?
+				((GenericTypeAwarePropertyDescriptor) pd).getWriteMethodForActualAccess() : pd.getWriteMethod());
+		Function<Object, Object> getter = (readMethod != null ? generateGetter(readMethod) : null);
+		BiConsumer<Object, Object> setter = (writeMethod != null ? generateSetter(writeMethod) : null);
+		if (getter == null && setter == null) {
+			return null;
+		}
+		return new GeneratedPropertyAccessor(getter, setter,
+				(setter != null ? writeMethod.getParameterTypes()[0] : Object.class));
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> generateGetter(Method readMethod) {
+		if (readMethod.getParameterCount() != 0 || !isAccessible(readMethod, readMethod.getReturnType())) {
+			return null;
+		}
+		try {
+			MethodHandle handle = lookup.unreflect(readMethod);
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+					MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class, Object.class), handle,
+					MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(readMethod.getReturnType()),
+							readMethod.getDeclaringClass()));
+			return (Function<Object, Object>) callSite.getTarget().invoke();
+		}
+		catch (Throwable ex) {
+			return null;
+		}
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> generateSetter(Method writeMethod) {
+		if (writeMethod.getParameterCount() != 1 || !isAccessible(writeMethod, writeMethod.getParameterTypes()[0])) {
+			return null;
+		}
+		try {
+			MethodHandle handle = lookup.unreflect(writeMethod);
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+					MethodType.methodType(BiConsumer.class),
+					MethodType.methodType(void.class, Object.class, Object.class), handle,
+					MethodType.methodType(void.class, writeMethod.getDeclaringClass(),
+							ClassUtils.resolvePrimitiveIfNecessary(writeMethod.getParameterTypes()[0])));
+			return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+		}
+		catch (Throwable ex) {
+			return null;
+		}
+	}
+
+	private static boolean isAccessible(Method method, Class<?> valueType) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers()) ||
+				!Modifier.isPublic(declaringClass.getModifiers())) {
+			return false;
+		}
+		// Generated classes link against the declaring class and the value type from here
+		ClassLoader classLoader = GeneratedPropertyAccessor.class.getClassLoader();
+		return (ClassUtils.isVisible(declaringClass, classLoader) &&
+				(valueType.isPrimitive() || ClassUtils.isVisible(valueType, classLoader)));
+	}
+
+
+	/**
+	 * Return whether a generated getter is available.
+	 */
+	boolean hasGetter() {
+		return (this.getter != null);
+	}
+
+	/**
+	 * Return whether the generated setter can set the given value:
+	 * otherwise, the write method needs to be invoked reflectively
+	 * for consistent argument checks.
+	 */
+	boolean canSet(@Nullable Object value) {
+		return (this.setter != null &&
+				(value != null ? this.setterParameterType.isInstance(value) : !this.setterParameterPrimitive));
+	}
+
+	/**
+	 * Invoke the generated getter on the given target.
+	 * @see #hasGetter()
+	 */
+	@Nullable
+	Object getValue(Object target) throws InvocationTargetException {
+		Function<Object, Object> getter = this.getter;
+		if (getter == null) {
+			throw new IllegalStateException("No generated getter available");
+		}
+		try {
+			return getter.apply(target);
+		}
+		catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	/**
+	 * Invoke the generated setter on the given target.
+	 * @see #canSet(Object)
+	 */
+	void setValue(Object target, @Nullable Object value) throws InvocationTargetException {
+		BiConsumer<Object, Object> setter = this.setter;
+		if (setter == null) {
+			throw new IllegalStateException("No generated setter available");
+		}
+		try {
+			setter.accept(target, value);
+		}
+		catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+}
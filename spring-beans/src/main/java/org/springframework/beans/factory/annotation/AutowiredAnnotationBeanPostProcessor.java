@@ -18,6 +18,9 @@ package org.springframework.beans.factory.annotation;
 
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -618,6 +621,14 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 	 */
 	@Nullable
 	private Object resolvedCachedArgument(@Nullable String beanName, @Nullable Object cachedArgument) {
+		if (cachedArgument instanceof ShortcutDependencyDescriptor) {
+			ShortcutDependencyDescriptor descriptor = (ShortcutDependencyDescriptor) cachedArgument;
+			Assert.state(this.beanFactory != null, "No BeanFactory available");
+			if (this.beanFactory.containsSingleton(descriptor.shortcut)) {
+				// Existing singleton: no dependency resolution (or injection point exposure) necessary
+				return this.beanFactory.getBean(descriptor.shortcut, descriptor.requiredType);
+			}
+		}
 		if (cachedArgument instanceof DependencyDescriptor) {
 			DependencyDescriptor descriptor = (DependencyDescriptor) cachedArgument;
 			Assert.state(this.beanFactory != null, "No BeanFactory available");
@@ -629,6 +640,42 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 	}
 
 
+	/**
+	 * Compile a setter for the given field, avoiding reflective access checks
+	 * on every injection once the field value has been resolved.
+	 * @return the setter, or {@code null} if not available
+	 */
+	@Nullable
+	private static MethodHandle compileSetter(Field field) {
+		try {
+			ReflectionUtils.makeAccessible(field);
+			return MethodHandles.lookup().unreflectSetter(field).asType(
+					MethodType.methodType(void.class, Object.class, Object.class));
+		}
+		catch (IllegalAccessException | RuntimeException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Compile an invoker for the given method, taking the target instance
+	 * and an argument array.
+	 * @return the invoker, or {@code null} if not available
+	 */
+	@Nullable
+	private static MethodHandle compileInvoker(Method method) {
+		try {
+			ReflectionUtils.makeAccessible(method);
+			return MethodHandles.lookup().unreflect(method).asFixedArity()
+					.asSpreader(Object[].class, method.getParameterCount())
+					.asType(MethodType.methodType(void.class, Object.class, Object[].class));
+		}
+		catch (IllegalAccessException | RuntimeException ex) {
+			return null;
+		}
+	}
+
+
 	/**
 	 * Class representing injection information about an annotated field.
 	 */
@@ -641,6 +688,9 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 		@Nullable
 		private volatile Object cachedFieldValue;
 
+		@Nullable
+		private volatile MethodHandle cachedSetter;
+
 		public AutowiredFieldElement(Field field, boolean required) {
 			super(field, null);
 			this.required = required;
@@ -686,15 +736,22 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 						else {
 							this.cachedFieldValue = null;
 						}
+						this.cachedSetter = compileSetter(field);
 						this.cached = true;
 					}
 				}
 			}
 			//条件成立：说明根据 依赖信息 到 容器内获取到依赖对象了..
 			if (value != null) {
-				//使用反射技术 将 value 赋值给 当前bean 的 该字段 field中。完成注入。
-				ReflectionUtils.makeAccessible(field);
-				field.set(bean, value);
+				MethodHandle setter = this.cachedSetter;
+				if (setter != null) {
+					setter.invokeExact(bean, value);
+				}
+				else {
+					//使用反射技术 将 value 赋值给 当前bean 的 该字段 field中。完成注入。
+					ReflectionUtils.makeAccessible(field);
+					field.set(bean, value);
+				}
 			}
 		}
 	}
@@ -712,6 +769,9 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 		@Nullable
 		private volatile Object[] cachedMethodArguments;
 
+		@Nullable
+		private volatile MethodHandle cachedInvoker;
+
 		public AutowiredMethodElement(Method method, boolean required, @Nullable PropertyDescriptor pd) {
 			super(method, pd);
 			this.required = required;
@@ -774,11 +834,17 @@ public class AutowiredAnnotationBeanPostProcessor implements SmartInstantiationA
 						else {
 							this.cachedMethodArguments = null;
 						}
+						this.cachedInvoker = compileInvoker(method);
 						this.cached = true;
 					}
 				}
 			}
 			if (arguments != null) {
+				MethodHandle invoker = this.cachedInvoker;
+				if (invoker != null) {
+					invoker.invokeExact(bean, arguments);
+					return;
+				}
 				try {
 					ReflectionUtils.makeAccessible(method);
 					method.invoke(bean, arguments);
@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
@@ -598,21 +599,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
 
 		// Allow post-processors to modify the merged bean definition.
-		synchronized (mbd.postProcessingLock) {
-
-			if (!mbd.postProcessed) {
-				try {
-					//后处理器调用点：合并bd信息，因为接下来就是populate处理依赖了..
-					applyMergedBeanDefinitionPostProcessors(mbd, beanType, beanName);
-				}
-				catch (Throwable ex) {
-					throw new BeanCreationException(mbd.getResourceDescription(), beanName,
-							"Post-processing of merged bean definition failed", ex);
-				}
-				mbd.postProcessed = true;
-			}
-
-		}
+		postProcessMergedBeanDefinition(mbd, beanType, beanName);
 
 
 
@@ -1070,7 +1057,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Nullable
 	private FactoryBean<?> getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
-		synchronized (getSingletonMutex()) {
+		Lock lock = tryLockSingleton(beanName);
+		if (lock == null) {
+			// Currently in creation in another thread -> no shortcut available.
+			return null;
+		}
+		try {
 			BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
 			if (bw != null) {
 				return (FactoryBean<?>) bw.getWrappedInstance();
@@ -1118,6 +1110,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			}
 			return fb;
 		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -1165,6 +1160,32 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		return getFactoryBean(beanName, instance);
 	}
 
+	/**
+	 * Apply MergedBeanDefinitionPostProcessors to the specified bean definition
+	 * once, unless already applied, e.g. ahead of the creation of the bean.
+	 * @param mbd the merged bean definition for the bean
+	 * @param beanType the actual type of the managed bean instance
+	 * @param beanName the name of the bean
+	 * @throws BeanCreationException if post-processing failed
+	 * @since 5.3
+	 * @see #applyMergedBeanDefinitionPostProcessors
+	 */
+	void postProcessMergedBeanDefinition(RootBeanDefinition mbd, Class<?> beanType, String beanName) {
+		synchronized (mbd.postProcessingLock) {
+			if (!mbd.postProcessed) {
+				try {
+					//后处理器调用点：合并bd信息，因为接下来就是populate处理依赖了..
+					applyMergedBeanDefinitionPostProcessors(mbd, beanType, beanName);
+				}
+				catch (Throwable ex) {
+					throw new BeanCreationException(mbd.getResourceDescription(), beanName,
+							"Post-processing of merged bean definition failed", ex);
+				}
+				mbd.postProcessed = true;
+			}
+		}
+	}
+
 	/**
 	 * Apply MergedBeanDefinitionPostProcessors to the specified bean definition,
 	 * invoking their {@code postProcessMergedBeanDefinition} methods.
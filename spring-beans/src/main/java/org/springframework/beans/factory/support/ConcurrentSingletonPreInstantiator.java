@@ -0,0 +1,349 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanReference;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Helper for pre-instantiating the non-lazy singletons of a
+ * {@link DefaultListableBeanFactory} concurrently on a given {@link Executor}.
+ *
+ * <p>Derives a dependency graph between the candidate singletons from depends-on
+ * declarations, factory bean references, bean references in property values
+ * and constructor arguments, autowire candidates for constructor and factory
+ * method parameters as well as for annotation-driven injection points, and
+ * dependencies that have already been registered with the factory. A singleton
+ * gets scheduled as soon as all of its known dependencies have been created;
+ * any further dependencies are resolved on demand by the creating thread.
+ * Singletons within a dependency cycle get created sequentially on the calling
+ * thread, after all other singletons.
+ *
+ * @since 5.3
+ * @see DefaultListableBeanFactory#setBootstrapExecutor
+ */
+final class ConcurrentSingletonPreInstantiator {
+
+	private static final Log logger = LogFactory.getLog(ConcurrentSingletonPreInstantiator.class);
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final Executor executor;
+
+	/** Known dependencies that have not been created yet, keyed by bean name. */
+	private final Map<String, Set<String>> pendingDependencies = new HashMap<>();
+
+	/** Candidates waiting for a given bean, keyed by the name of that bean. */
+	private final Map<String, List<String>> dependentCandidates = new HashMap<>();
+
+	private final Set<String> completed = new LinkedHashSet<>();
+
+	private int running;
+
+	@Nullable
+	private Throwable failure;
+
+
+	ConcurrentSingletonPreInstantiator(DefaultListableBeanFactory beanFactory, Executor executor) {
+		this.beanFactory = beanFactory;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Pre-instantiate the eligible singletons among the given bean names,
+	 * returning once all of them have been created.
+	 * @param beanNames the bean names to consider, in registration order
+	 */
+	public void preInstantiateSingletons(List<String> beanNames) {
+		Set<String> candidates = new LinkedHashSet<>();
+		for (String beanName : beanNames) {
+			if (this.beanFactory.isPreInstantiationCandidate(beanName)) {
+				candidates.add(beanName);
+			}
+		}
+		List<String> ready = new ArrayList<>();
+		for (String beanName : candidates) {
+			Set<String> dependencies = new LinkedHashSet<>();
+			for (String dependency : determineKnownDependencies(this.beanFactory, beanName)) {
+				if (!dependency.equals(beanName) && candidates.contains(dependency)) {
+					dependencies.add(dependency);
+					this.dependentCandidates.computeIfAbsent(dependency, key -> new ArrayList<>()).add(beanName);
+				}
+			}
+			if (dependencies.isEmpty()) {
+				ready.add(beanName);
+			}
+			else {
+				this.pendingDependencies.put(beanName, dependencies);
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Pre-instantiating " + candidates.size() + " singletons concurrently, " +
+					ready.size() + " of them without known dependencies");
+		}
+
+		synchronized (this) {
+			this.running += ready.size();
+		}
+		submit(ready);
+		awaitCompletion();
+
+		// Singletons within a dependency cycle or rejected by the Executor...
+		for (String beanName : candidates) {
+			if (!this.completed.contains(beanName)) {
+				this.beanFactory.preInstantiateSingleton(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Determine the dependencies of the specified bean that are known upfront,
+	 * i.e. before actually creating the bean.
+	 * @param beanFactory the bean factory that the bean is defined in
+	 * @param beanName the name of the bean
+	 * @return the canonical names of the known dependencies
+	 * @see SingletonWarmUp
+	 */
+	static Set<String> determineKnownDependencies(DefaultListableBeanFactory beanFactory, String beanName) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		RootBeanDefinition bd = beanFactory.getMergedLocalBeanDefinition(beanName);
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependency : dependsOn) {
+				addBeanName(beanFactory, dependencies, dependency);
+			}
+		}
+		String factoryBeanName = bd.getFactoryBeanName();
+		if (factoryBeanName != null) {
+			addBeanName(beanFactory, dependencies, factoryBeanName);
+		}
+		if (bd.hasPropertyValues()) {
+			for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+				addDependency(beanFactory, dependencies, pv.getValue());
+			}
+		}
+		if (bd.hasConstructorArgumentValues()) {
+			for (ValueHolder valueHolder : bd.getConstructorArgumentValues().getIndexedArgumentValues().values()) {
+				addDependency(beanFactory, dependencies, valueHolder.getValue());
+			}
+			for (ValueHolder valueHolder : bd.getConstructorArgumentValues().getGenericArgumentValues()) {
+				addDependency(beanFactory, dependencies, valueHolder.getValue());
+			}
+		}
+		addAutowiredDependencies(beanFactory, beanName, bd, dependencies);
+		for (String dependency : beanFactory.getDependenciesForBean(beanName)) {
+			addBeanName(beanFactory, dependencies, dependency);
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Add the autowire candidates for the parameters of the constructor or factory
+	 * method of the given bean, and for the fields and methods that annotation-driven
+	 * post-processors registered as injection points. The latter requires the merged
+	 * bean definition to be post-processed ahead of the creation of the bean.
+	 * <p>This may overestimate the actual dependencies (e.g. for lazy injection
+	 * points), delaying the creation of the bean or, for an apparent cycle, leaving
+	 * it to the calling thread.
+	 */
+	private static void addAutowiredDependencies(DefaultListableBeanFactory beanFactory, String beanName,
+			RootBeanDefinition bd, Set<String> dependencies) {
+
+		Method factoryMethod = bd.getResolvedFactoryMethod();
+		if (factoryMethod != null) {
+			addAutowireCandidates(beanFactory, dependencies, factoryMethod);
+			return;
+		}
+		if (bd.getFactoryMethodName() != null || !bd.hasBeanClass() || bd.hasMethodOverrides()) {
+			return;
+		}
+		Class<?> beanClass = bd.getBeanClass();
+		if (bd.getInstanceSupplier() == null) {
+			Constructor<?>[] ctors = beanFactory.determineConstructorsFromBeanPostProcessors(beanClass, beanName);
+			if (ctors == null) {
+				ctors = bd.getPreferredConstructors();
+			}
+			if (ctors != null) {
+				for (Constructor<?> ctor : ctors) {
+					addAutowireCandidates(beanFactory, dependencies, ctor);
+				}
+			}
+		}
+		beanFactory.postProcessMergedBeanDefinition(bd, beanClass, beanName);
+		for (Member member : bd.getExternallyManagedConfigMembers()) {
+			if (member instanceof Field) {
+				addAutowireCandidates(beanFactory, dependencies, ResolvableType.forField((Field) member));
+			}
+			else if (member instanceof Executable) {
+				addAutowireCandidates(beanFactory, dependencies, (Executable) member);
+			}
+		}
+	}
+
+	private static void addAutowireCandidates(
+			DefaultListableBeanFactory beanFactory, Set<String> dependencies, Executable executable) {
+
+		for (int i = 0; i < executable.getParameterCount(); i++) {
+			addAutowireCandidates(beanFactory, dependencies,
+					ResolvableType.forMethodParameter(MethodParameter.forExecutable(executable, i)));
+		}
+	}
+
+	private static void addAutowireCandidates(
+			DefaultListableBeanFactory beanFactory, Set<String> dependencies, ResolvableType type) {
+
+		Class<?> rawType = type.resolve();
+		if (rawType == null || ObjectFactory.class.isAssignableFrom(rawType) ||
+				rawType.getName().equals("javax.inject.Provider")) {
+			// Unresolvable or lazily resolved
+			return;
+		}
+		ResolvableType candidateType = type;
+		if (rawType == Optional.class) {
+			candidateType = type.getGeneric();
+		}
+		else if (type.isArray()) {
+			candidateType = type.getComponentType();
+		}
+		else if (Collection.class.isAssignableFrom(rawType)) {
+			candidateType = type.asCollection().getGeneric();
+		}
+		else if (Map.class.isAssignableFrom(rawType)) {
+			candidateType = type.asMap().getGeneric(1);
+		}
+		Class<?> candidateClass = candidateType.resolve();
+		if (candidateClass == null || candidateClass == Object.class || BeanUtils.isSimpleProperty(candidateClass)) {
+			return;
+		}
+		for (String candidateName : beanFactory.getBeanNamesForType(candidateType, true, false)) {
+			addBeanName(beanFactory, dependencies, candidateName);
+		}
+	}
+
+	private static void addDependency(
+			DefaultListableBeanFactory beanFactory, Set<String> dependencies, @Nullable Object value) {
+
+		if (value instanceof BeanReference) {
+			addBeanName(beanFactory, dependencies, ((BeanReference) value).getBeanName());
+		}
+	}
+
+	private static void addBeanName(DefaultListableBeanFactory beanFactory, Set<String> dependencies, String name) {
+		dependencies.add(beanFactory.canonicalName(BeanFactoryUtils.transformedBeanName(name)));
+	}
+
+	private void submit(List<String> beanNames) {
+		for (String beanName : beanNames) {
+			try {
+				this.executor.execute(() -> preInstantiateSingleton(beanName));
+			}
+			catch (RejectedExecutionException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Executor rejected pre-instantiation of singleton '" + beanName +
+							"' - creating it on the calling thread later on");
+				}
+				synchronized (this) {
+					this.running--;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	private void preInstantiateSingleton(String beanName) {
+		List<String> ready = new ArrayList<>();
+		try {
+			this.beanFactory.preInstantiateSingleton(beanName);
+			synchronized (this) {
+				this.completed.add(beanName);
+				if (this.failure == null) {
+					List<String> dependents = this.dependentCandidates.remove(beanName);
+					if (dependents != null) {
+						for (String dependent : dependents) {
+							Set<String> dependencies = this.pendingDependencies.get(dependent);
+							if (dependencies != null && dependencies.remove(beanName) && dependencies.isEmpty()) {
+								this.pendingDependencies.remove(dependent);
+								ready.add(dependent);
+							}
+						}
+					}
+					this.running += ready.size();
+				}
+			}
+		}
+		catch (Throwable ex) {
+			synchronized (this) {
+				if (this.failure == null) {
+					this.failure = ex;
+				}
+			}
+		}
+		finally {
+			synchronized (this) {
+				this.running--;
+				notifyAll();
+			}
+		}
+		submit(ready);
+	}
+
+	private void awaitCompletion() {
+		synchronized (this) {
+			while (this.running > 0) {
+				try {
+					wait();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while pre-instantiating singletons", ex);
+				}
+			}
+			if (this.failure != null) {
+				ReflectionUtils.rethrowRuntimeException(this.failure);
+			}
+		}
+	}
+
+}
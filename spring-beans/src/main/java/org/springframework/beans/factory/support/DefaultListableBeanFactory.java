@@ -30,6 +30,7 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
@@ -40,6 +41,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -77,6 +79,7 @@ import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.annotation.MergedAnnotations;
 import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
 import org.springframework.core.log.LogMessage;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -172,6 +175,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Map of singleton-only bean names, keyed by dependency type. */
 	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+	/** Map of singleton and non-singleton bean names, keyed by generic dependency type. */
+	private final Map<ResolvableType, String[]> allBeanNamesByGenericType = new ConcurrentHashMap<>(64);
+
+	/** Map of singleton-only bean names, keyed by generic dependency type. */
+	private final Map<ResolvableType, String[]> singletonBeanNamesByGenericType = new ConcurrentHashMap<>(64);
+
 	/** List of bean definition names, in registration order. */
 	private volatile List<String> beanDefinitionNames = new ArrayList<>(256);
 
@@ -185,6 +194,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether bean definition metadata may be cached for all beans. */
 	private volatile boolean configurationFrozen = false;
 
+	/** Optional Executor for concurrent pre-instantiation of singletons. */
+	@Nullable
+	private Executor bootstrapExecutor;
+
+	/** Names of singletons left out of pre-instantiation, e.g. for a background warm-up. */
+	private final Set<String> deferredSingletonNames = ConcurrentHashMap.newKeySet();
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -316,6 +332,60 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.autowireCandidateResolver;
 	}
 
+	/**
+	 * Set an {@link Executor} for pre-instantiating non-lazy singletons concurrently.
+	 * <p>Default is none, pre-instantiating all singletons one by one in registration
+	 * order on the calling thread. If specified, {@link #preInstantiateSingletons()}
+	 * derives a dependency graph from depends-on declarations, bean references in
+	 * the bean definitions and dependencies registered so far, and creates singletons
+	 * on the given Executor as soon as their known dependencies are available.
+	 * Dependencies only discovered during creation (e.g. autowired ones) are
+	 * resolved on demand by the creating thread, as usual.
+	 * <p>The given Executor is expected to be bounded; singletons that are part of
+	 * a cycle in the known dependency graph, as well as tasks rejected by the
+	 * Executor, are created on the calling thread afterwards.
+	 * {@link SmartInitializingSingleton} callbacks are always invoked on the
+	 * calling thread, in registration order, once all singletons are available.
+	 * @since 5.3
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setBootstrapExecutor(@Nullable Executor bootstrapExecutor) {
+		this.bootstrapExecutor = bootstrapExecutor;
+	}
+
+	/**
+	 * Return the {@link Executor} for concurrent pre-instantiation of singletons, if any.
+	 * @since 5.3
+	 */
+	@Nullable
+	public Executor getBootstrapExecutor() {
+		return this.bootstrapExecutor;
+	}
+
+	/**
+	 * Leave the given singletons out of {@link #preInstantiateSingletons()},
+	 * without changing their bean definitions, e.g. in order to create them in a
+	 * {@link SingletonWarmUp background warm-up} instead. Deferred singletons are
+	 * still created on demand when retrieved.
+	 * @param beanNames the names of the singletons to defer, replacing any
+	 * previously deferred names
+	 * @since 5.3
+	 * @see #isPreInstantiationCandidate(String)
+	 */
+	public void setDeferredSingletonNames(Collection<String> beanNames) {
+		this.deferredSingletonNames.clear();
+		this.deferredSingletonNames.addAll(beanNames);
+	}
+
+	/**
+	 * Return the names of the singletons currently left out of pre-instantiation.
+	 * @since 5.3
+	 * @see #setDeferredSingletonNames
+	 */
+	public Set<String> getDeferredSingletonNames() {
+		return Collections.unmodifiableSet(this.deferredSingletonNames);
+	}
+
 
 	@Override
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
@@ -325,6 +395,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
+			this.bootstrapExecutor = otherListableFactory.bootstrapExecutor;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware...
 			setAutowireCandidateResolver(otherListableFactory.getAutowireCandidateResolver().cloneIfNecessary());
 			// Make resolvable dependencies (e.g. ResourceLoader) available here as well...
@@ -514,9 +585,23 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		if (resolved != null && !type.hasGenerics()) {
 			return getBeanNamesForType(resolved, includeNonSingletons, allowEagerInit);
 		}
-		else {
+		if (resolved == null || !isConfigurationFrozen() || !allowEagerInit) {
 			return doGetBeanNamesForType(type, includeNonSingletons, allowEagerInit);
 		}
+		Map<ResolvableType, String[]> cache =
+				(includeNonSingletons ? this.allBeanNamesByGenericType : this.singletonBeanNamesByGenericType);
+		String[] resolvedBeanNames = cache.get(type);
+		if (resolvedBeanNames != null) {
+			return resolvedBeanNames;
+		}
+		// Only beans matching the raw type may match the generic type: no need to check any others.
+		String[] candidateNames = getBeanNamesForType(resolved, includeNonSingletons, true);
+		resolvedBeanNames = (candidateNames.length > 0 ?
+				doGetBeanNamesForType(type, includeNonSingletons, candidateNames) : candidateNames);
+		if (isCacheSafe(type)) {
+			cache.put(type, resolvedBeanNames);
+		}
+		return resolvedBeanNames;
 	}
 
 	@Override
@@ -542,11 +627,38 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return resolvedBeanNames;
 	}
 
+	/**
+	 * Determine the names of the beans matching the given generic type among
+	 * the given candidates, as previously determined for the raw type.
+	 */
+	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, String[] candidateNames) {
+		Set<String> beanDefinitionNames = new LinkedHashSet<>(candidateNames.length);
+		Set<String> manualSingletonNames = new LinkedHashSet<>();
+		for (String candidateName : candidateNames) {
+			// Check the bean itself as well as a FactoryBean, as for a full match
+			String beanName = BeanFactoryUtils.transformedBeanName(candidateName);
+			if (containsBeanDefinition(beanName)) {
+				beanDefinitionNames.add(beanName);
+			}
+			else {
+				manualSingletonNames.add(beanName);
+			}
+		}
+		return doGetBeanNamesForType(type, includeNonSingletons, true, beanDefinitionNames, manualSingletonNames);
+	}
+
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
+		return doGetBeanNamesForType(type, includeNonSingletons, allowEagerInit,
+				this.beanDefinitionNames, this.manualSingletonNames);
+	}
+
+	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit,
+			Collection<String> beanDefinitionNames, Collection<String> manualSingletonNames) {
+
 		List<String> result = new ArrayList<>();
 
 		// Check all bean definitions.
-		for (String beanName : this.beanDefinitionNames) {
+		for (String beanName : beanDefinitionNames) {
 			// Only consider bean as eligible if the bean name is not defined as alias for some other bean.
 			if (!isAlias(beanName)) {
 				try {
@@ -597,7 +709,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 
 		// Check manually registered singletons too.
-		for (String beanName : this.manualSingletonNames) {
+		for (String beanName : manualSingletonNames) {
 			try {
 				// In case of FactoryBean, match object created by FactoryBean.
 				if (isFactoryBean(beanName)) {
@@ -624,6 +736,27 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return StringUtils.toStringArray(result);
 	}
 
+	private boolean isCacheSafe(ResolvableType type) {
+		return isCacheSafe(type, 0);
+	}
+
+	private boolean isCacheSafe(ResolvableType type, int depth) {
+		if (depth > 8) {
+			// Self-referencing type variable bounds, for instance: better not cache
+			return false;
+		}
+		Class<?> resolved = type.resolve();
+		if (resolved != null && !ClassUtils.isCacheSafe(resolved, getBeanClassLoader())) {
+			return false;
+		}
+		for (ResolvableType generic : type.getGenerics()) {
+			if (!isCacheSafe(generic, depth + 1)) {
+				return false;
+			}
+		}
+		return (!type.isArray() || isCacheSafe(type.getComponentType(), depth + 1));
+	}
+
 	private boolean isSingleton(String beanName, RootBeanDefinition mbd, @Nullable BeanDefinitionHolder dbd) {
 		return (dbd != null ? mbd.isSingleton() : isSingleton(beanName));
 	}
@@ -903,40 +1036,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
-		for (String beanName : beanNames) {
-			// 获取bd信息。
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-
-			// 条件成立：说明bd是非抽象 且 是单实例 且 非懒加载，就需要预先实例化出来。
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				//当前beanDefinition对应的class可能是 普通的，也可能是 FactoryBean。
-
-				//条件成立：说明当前bd的class是FactoryBean
-				if (isFactoryBean(beanName)) {
-					// 获取FactoryBean实例本身。
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged(
-									(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							// 控制FactoryBean内部管理的真实bean，在refresh阶段 是否也初始化。
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-
-						}
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				else {
-					getBean(beanName);
-				}
+		if (this.bootstrapExecutor != null) {
+			new ConcurrentSingletonPreInstantiator(this, this.bootstrapExecutor).preInstantiateSingletons(beanNames);
+		}
+		else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -944,6 +1049,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		for (String beanName : beanNames) {
 			Object singletonInstance = getSingleton(beanName);
 			if (singletonInstance instanceof SmartInitializingSingleton) {
+				StartupStep smartInitialize = getApplicationStartup().start("spring.beans.smart-initialize")
+						.tag("beanName", beanName);
 				SmartInitializingSingleton smartSingleton = (SmartInitializingSingleton) singletonInstance;
 				if (System.getSecurityManager() != null) {
 					AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
@@ -954,11 +1061,76 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				else {
 					smartSingleton.afterSingletonsInstantiated();
 				}
+				smartInitialize.end();
 			}
 		}
 
 	}
 
+	/**
+	 * Determine whether the specified bean is eligible for pre-instantiation,
+	 * i.e. whether it is a non-abstract, non-lazy singleton that has not been
+	 * {@link #setDeferredSingletonNames deferred}.
+	 * @param beanName the name of the bean
+	 * @since 5.3
+	 */
+	boolean isPreInstantiationCandidate(String beanName) {
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		return (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit() &&
+				!this.deferredSingletonNames.contains(beanName));
+	}
+
+	/**
+	 * Pre-instantiate the specified singleton if it is eligible, also initializing
+	 * the object exposed by a {@link SmartFactoryBean} that requests eager init.
+	 * @param beanName the name of the bean
+	 * @since 5.3
+	 */
+	void preInstantiateSingleton(String beanName) {
+		// 条件成立：说明bd是非抽象 且 是单实例 且 非懒加载（且未被推迟），就需要预先实例化出来。
+		if (isPreInstantiationCandidate(beanName)) {
+			instantiateSingleton(beanName);
+		}
+	}
+
+	/**
+	 * Instantiate the specified singleton regardless of its lazy-init flag, also
+	 * initializing the object exposed by a {@link SmartFactoryBean} that requests
+	 * eager init.
+	 * @param beanName the name of the bean
+	 * @since 5.3
+	 */
+	void instantiateSingleton(String beanName) {
+		//当前beanDefinition对应的class可能是 普通的，也可能是 FactoryBean。
+
+		//条件成立：说明当前bd的class是FactoryBean
+		if (isFactoryBean(beanName)) {
+			// 获取FactoryBean实例本身。
+			Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+			if (bean instanceof FactoryBean) {
+				FactoryBean<?> factory = (FactoryBean<?>) bean;
+				boolean isEagerInit;
+				if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+					isEagerInit = AccessController.doPrivileged(
+							(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
+							getAccessControlContext());
+				}
+				else {
+					// 控制FactoryBean内部管理的真实bean，在refresh阶段 是否也初始化。
+					isEagerInit = (factory instanceof SmartFactoryBean &&
+							((SmartFactoryBean<?>) factory).isEagerInit());
+
+				}
+				if (isEagerInit) {
+					getBean(beanName);
+				}
+			}
+		}
+		else {
+			getBean(beanName);
+		}
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
@@ -1171,6 +1343,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private void clearByTypeCache() {
 		this.allBeanNamesByType.clear();
 		this.singletonBeanNamesByType.clear();
+		this.allBeanNamesByGenericType.clear();
+		this.singletonBeanNamesByGenericType.clear();
 	}
 
 
@@ -16,15 +16,20 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCreationNotAllowedException;
@@ -32,6 +37,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -61,6 +67,13 @@ import org.springframework.util.StringUtils;
  * (which inherit from it). Can alternatively also be used as a nested
  * helper to delegate to.
  *
+ * <p>As of 5.3, the creation of each singleton is guarded by a lock of its own
+ * rather than by the registry-wide {@link #getSingletonMutex() singleton mutex},
+ * so that unrelated singletons may get created concurrently. A thread asking for
+ * a singleton that is currently being created by another thread waits for that
+ * creation to complete; a circular wait between creating threads gets resolved
+ * through the early singleton reference where available.
+ *
  * @author Juergen Hoeller
  * @since 2.0
  * @see #registerSingleton
@@ -73,6 +86,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/** Maximum number of suppressed exceptions to preserve. */
 	private static final int SUPPRESSED_EXCEPTIONS_LIMIT = 100;
 
+	/** Interval in milliseconds for re-checking a circular wait on a singleton lock. */
+	private static final long SINGLETON_LOCK_CHECK_INTERVAL = 100;
+
 
 	/** Cache of singleton objects: bean name to bean instance. */
 	//一级缓存，key beanName，value就是beanName对应的单实例对象引用。
@@ -95,12 +111,18 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Set<String> inCreationCheckExclusions =
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
+	/** Creation locks for singletons: bean name to lock. */
+	private final Map<String, SingletonLock> singletonLocks = new ConcurrentHashMap<>(256);
+
+	/** Threads currently waiting for a singleton lock: thread to bean name. */
+	private final Map<Thread, String> threadsWaitingForSingletonLock = new ConcurrentHashMap<>(16);
+
 	/** Collection of suppressed Exceptions, available for associating related causes. */
-	@Nullable
-	private Set<Exception> suppressedExceptions;
+	private final ThreadLocal<Set<Exception>> suppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions of singletons currently in creation");
 
 	/** Flag that indicates whether we're currently within destroySingletons. */
-	private boolean singletonsCurrentlyInDestruction = false;
+	private volatile boolean singletonsCurrentlyInDestruction = false;
 
 	/** Disposable bean instances: bean name to disposable instance. */
 	private final Map<String, Object> disposableBeans = new LinkedHashMap<>();
@@ -119,13 +141,21 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		Assert.notNull(beanName, "Bean name must not be null");
 		Assert.notNull(singletonObject, "Singleton object must not be null");
-		synchronized (this.singletonObjects) {
-			Object oldObject = this.singletonObjects.get(beanName);
-			if (oldObject != null) {
-				throw new IllegalStateException("Could not register object [" + singletonObject +
-						"] under bean name '" + beanName + "': there is already object [" + oldObject + "] bound");
+		Lock lock = lockSingleton(beanName);
+		try {
+			synchronized (this.singletonObjects) {
+				Object oldObject = this.singletonObjects.get(beanName);
+				if (oldObject != null) {
+					throw new IllegalStateException("Could not register object [" + singletonObject +
+							"] under bean name '" + beanName + "': there is already object [" + oldObject + "] bound");
+				}
+				addSingleton(beanName, singletonObject);
+			}
+		}
+		finally {
+			if (lock != null) {
+				lock.unlock();
 			}
-			addSingleton(beanName, singletonObject);
 		}
 	}
 
@@ -201,32 +231,57 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		//4.处理B的依赖数据，检查发现，B它依赖了A对象，所以接下来，Spring就会去根据A类型到容器中去getBean(A.class)，去拿A对象，这个又递归了。
 		//5.程序还会走到当前这个方法。getSingleton这个方法。
 		//6.条件一成立，条件二也会成立。
-		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
-			synchronized (this.singletonObjects) {
-				//检查二级缓存
-				singletonObject = this.earlySingletonObjects.get(beanName);
-				//条件成立：说明二级没有，到三级缓存查看。
-				if (singletonObject == null && allowEarlyReference) {
-					//Spring为什么需要有3级缓存存在，而不是只有2级缓存呢？
-					//AOP，靠什么实现的呢？动态代理
-					//静态代理：需要手动写代码，实现一个新的java文件，这个java类 和 需要代理的对象 实现同一个接口，内部维护一个被代理对象（原生）
-					//代理类，在调用原生对象前后，可以加一些逻辑. 代理对象 和 被代理对象 是两个不同的对象，内存地址一定是不一样的。
-					//动态代理：不需要人为写代码了，而是依靠字节码框架动态生成class字节码文件，然后jvm再加载，然后也一样 也是去new代理对象，这个
-					//代理对象 没啥特殊的，也是内部保留了 原生对象，然后在调用原生对象前后 实现的 字节码增强。
-					//3级缓存在这里有什么目的呢？
-					//3级缓存里面保存的是对象工厂，这个对象工厂内部保留着最原生的对象引用，ObjectFactory的实现类，getObject()方法，它需要考虑一个问题。
-					//它到底要返回原生的，还是增强后的。
-					//getObject会判断当前这个早期实例 是否需要被增强，如果是，那么提前完成动态代理增强，返回代理对象。否则，返回原生对象。
-					ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-					//条件成立：3级有数据。这里涉及到缓存升级。
-					if (singletonFactory != null) {
-						singletonObject = singletonFactory.getObject();
-						//向2级缓存存数据
-						this.earlySingletonObjects.put(beanName, singletonObject);
-						//将3级缓存的数据干掉。
-						this.singletonFactories.remove(beanName);
-					}
-				}
+		//另一个线程正在创建的单实例，其早期引用对当前线程不可见：当前线程会在getSingleton(beanName, singletonFactory)中等待其创建完成。
+		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName) && !isSingletonLockedByOtherThread(beanName)) {
+			singletonObject = getEarlySingleton(beanName, allowEarlyReference);
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Return the early reference for the given singleton currently in creation,
+	 * promoting it from the singleton factory to the early singleton cache if necessary.
+	 * <p>The singleton factory gets invoked outside of the singleton mutex since it
+	 * may apply post-processors that obtain further beans.
+	 * @param beanName the name of the bean to look for
+	 * @param allowEarlyReference whether early references should be created or not
+	 * @return the early singleton object, or {@code null} if none available
+	 */
+	@Nullable
+	private Object getEarlySingleton(String beanName, boolean allowEarlyReference) {
+		ObjectFactory<?> singletonFactory;
+		synchronized (this.singletonObjects) {
+			//检查二级缓存
+			Object singletonObject = this.earlySingletonObjects.get(beanName);
+			//条件成立：说明二级没有，到三级缓存查看。
+			if (singletonObject != null || !allowEarlyReference) {
+				return singletonObject;
+			}
+			//Spring为什么需要有3级缓存存在，而不是只有2级缓存呢？
+			//AOP，靠什么实现的呢？动态代理
+			//静态代理：需要手动写代码，实现一个新的java文件，这个java类 和 需要代理的对象 实现同一个接口，内部维护一个被代理对象（原生）
+			//代理类，在调用原生对象前后，可以加一些逻辑. 代理对象 和 被代理对象 是两个不同的对象，内存地址一定是不一样的。
+			//动态代理：不需要人为写代码了，而是依靠字节码框架动态生成class字节码文件，然后jvm再加载，然后也一样 也是去new代理对象，这个
+			//代理对象 没啥特殊的，也是内部保留了 原生对象，然后在调用原生对象前后 实现的 字节码增强。
+			//3级缓存在这里有什么目的呢？
+			//3级缓存里面保存的是对象工厂，这个对象工厂内部保留着最原生的对象引用，ObjectFactory的实现类，getObject()方法，它需要考虑一个问题。
+			//它到底要返回原生的，还是增强后的。
+			//getObject会判断当前这个早期实例 是否需要被增强，如果是，那么提前完成动态代理增强，返回代理对象。否则，返回原生对象。
+			singletonFactory = this.singletonFactories.get(beanName);
+		}
+		//条件成立：3级有数据。这里涉及到缓存升级。
+		if (singletonFactory == null) {
+			return null;
+		}
+		Object singletonObject = singletonFactory.getObject();
+		synchronized (this.singletonObjects) {
+			Object earlySingletonObject = this.earlySingletonObjects.get(beanName);
+			if (earlySingletonObject != null) {
+				return earlySingletonObject;
+			}
+			if (this.singletonFactories.remove(beanName) != null) {
+				//将3级缓存的数据干掉，向2级缓存存数据
+				this.earlySingletonObjects.put(beanName, singletonObject);
 			}
 		}
 		return singletonObject;
@@ -242,9 +297,27 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
-		synchronized (this.singletonObjects) {
-			Object singletonObject = this.singletonObjects.get(beanName);
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		//只锁定当前beanName：不相关的单实例可以在不同线程中并发创建。
+		Lock lock = lockSingleton(beanName);
+		try {
+			singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
+				if (lock == null) {
+					// Circular wait with another thread currently creating this singleton:
+					// resolve it like a local circular reference, through the early reference.
+					singletonObject = getEarlySingleton(beanName, true);
+					if (singletonObject == null) {
+						// No thread in the cycle has an early reference to resolve it with.
+						throw new BeanCurrentlyInCreationException(beanName,
+								"Requested bean is currently in creation in another thread which in turn waits " +
+								"for a bean in creation in the current thread: Is there an unresolvable circular reference?");
+					}
+					return singletonObject;
+				}
 				//容器销毁时，会设置这个属性为true，这个时候就不能再创建bean实例了，直接抛错。
 				if (this.singletonsCurrentlyInDestruction) {
 					throw new BeanCreationNotAllowedException(beanName,
@@ -270,9 +343,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 
 
 				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
+				boolean recordSuppressedExceptions = (this.suppressedExceptions.get() == null);
 				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
+					this.suppressedExceptions.set(new LinkedHashSet<>());
 				}
 				try {
 					singletonObject = singletonFactory.getObject();
@@ -288,7 +361,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				catch (BeanCreationException ex) {
 					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
+						for (Exception suppressedException : this.suppressedExceptions.get()) {
 							ex.addRelatedCause(suppressedException);
 						}
 					}
@@ -296,7 +369,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				finally {
 					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
+						this.suppressedExceptions.remove();
 					}
 					afterSingletonCreation(beanName);
 				}
@@ -306,6 +379,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			}
 			return singletonObject;
 		}
+		finally {
+			if (lock != null) {
+				lock.unlock();
+			}
+		}
 	}
 
 	/**
@@ -318,10 +396,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see BeanCreationException#getRelatedCauses()
 	 */
 	protected void onSuppressedException(Exception ex) {
-		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
-				this.suppressedExceptions.add(ex);
-			}
+		Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+		if (suppressedExceptions != null && suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+			suppressedExceptions.add(ex);
 		}
 	}
 
@@ -338,6 +415,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.earlySingletonObjects.remove(beanName);
 			this.registeredSingletons.remove(beanName);
 		}
+		this.singletonLocks.computeIfPresent(beanName, (name, lock) -> (lock.isInUse() ? lock : null));
 	}
 
 	@Override
@@ -412,6 +490,183 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Acquire the creation lock for the given singleton, waiting for its
+	 * creation in another thread to complete if necessary.
+	 * <p>Returns {@code null} instead of waiting if the thread currently holding
+	 * the lock (transitively) waits for a singleton lock held by the current
+	 * thread, i.e. if waiting would deadlock, and the current thread is able to
+	 * resolve that cycle: that is, if an early reference to the given singleton
+	 * is available, or if no thread in the cycle has an early reference to the
+	 * singleton it waits for. The caller is expected to proceed without the lock
+	 * then, like for a circular reference within a single thread. Otherwise the
+	 * current thread keeps waiting for a peer in the cycle to resolve it through
+	 * its early reference, independent of which thread detects the cycle first.
+	 * @param beanName the name of the bean
+	 * @return the acquired lock (to be released by the caller),
+	 * or {@code null} in case of a circular wait
+	 * @since 5.3
+	 * @see #tryLockSingleton
+	 */
+	@Nullable
+	Lock lockSingleton(String beanName) {
+		Thread currentThread = Thread.currentThread();
+		boolean registered = false;
+		try {
+			while (true) {
+				SingletonLock lock = this.singletonLocks.computeIfAbsent(beanName, name -> new SingletonLock());
+				if (lock.tryLock()) {
+					if (isCurrentSingletonLock(beanName, lock)) {
+						return lock;
+					}
+					continue;
+				}
+				if (!registered) {
+					registerSingletonLockWaiter(currentThread, beanName);
+					registered = true;
+				}
+				List<String> awaitedBeanNames = getCircularWait(currentThread, lock);
+				if (awaitedBeanNames != null && !isCircularWaitResolvableByPeer(beanName, awaitedBeanNames)) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Not waiting for singleton bean '" + beanName + "' to be created in thread [" +
+								lock.getOwningThread() + "] since that thread waits for the current thread");
+					}
+					return null;
+				}
+				if (lock.tryLock(SINGLETON_LOCK_CHECK_INTERVAL, TimeUnit.MILLISECONDS) &&
+						isCurrentSingletonLock(beanName, lock)) {
+					return lock;
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			currentThread.interrupt();
+			throw new BeanCreationException(beanName,
+					"Interrupted while waiting for singleton creation in another thread", ex);
+		}
+		finally {
+			if (registered) {
+				this.threadsWaitingForSingletonLock.remove(currentThread);
+			}
+		}
+	}
+
+	/**
+	 * Register the given thread as waiting for the creation lock of the given
+	 * singleton, for the purpose of circular wait detection.
+	 * @param thread the waiting thread
+	 * @param beanName the name of the bean
+	 * @since 5.3
+	 */
+	void registerSingletonLockWaiter(Thread thread, String beanName) {
+		this.threadsWaitingForSingletonLock.put(thread, beanName);
+	}
+
+	/**
+	 * Acquire the creation lock for the given singleton only if it is not held
+	 * by another thread at the time of invocation.
+	 * @param beanName the name of the bean
+	 * @return the acquired lock (to be released by the caller),
+	 * or {@code null} if currently held by another thread
+	 * @since 5.3
+	 * @see #lockSingleton
+	 */
+	@Nullable
+	Lock tryLockSingleton(String beanName) {
+		while (true) {
+			SingletonLock lock = this.singletonLocks.computeIfAbsent(beanName, name -> new SingletonLock());
+			if (!lock.tryLock()) {
+				return null;
+			}
+			if (isCurrentSingletonLock(beanName, lock)) {
+				return lock;
+			}
+		}
+	}
+
+	/**
+	 * Check whether the given lock, just acquired by the current thread, is still
+	 * the registered creation lock for the given singleton. Since unused locks get
+	 * discarded on removal of a singleton, a lock obtained from the map may have
+	 * been replaced before it got acquired; it is released again in that case.
+	 * @param beanName the name of the bean
+	 * @param lock the acquired lock
+	 * @return {@code true} if the lock is current and remains held,
+	 * {@code false} if it got released and needs to be obtained again
+	 */
+	private boolean isCurrentSingletonLock(String beanName, SingletonLock lock) {
+		if (this.singletonLocks.get(beanName) == lock) {
+			return true;
+		}
+		lock.unlock();
+		return false;
+	}
+
+	/**
+	 * Return whether the creation lock for the given singleton is currently
+	 * held by a thread other than the current thread.
+	 * @param beanName the name of the bean
+	 */
+	private boolean isSingletonLockedByOtherThread(String beanName) {
+		SingletonLock lock = this.singletonLocks.get(beanName);
+		if (lock == null) {
+			return false;
+		}
+		Thread owner = lock.getOwningThread();
+		return (owner != null && owner != Thread.currentThread());
+	}
+
+	/**
+	 * Follow the chain of lock owners and the singleton locks they are waiting
+	 * for, checking whether it leads back to the given thread.
+	 * @return the names of the singletons awaited by the other threads in the
+	 * cycle, or {@code null} if there is no circular wait
+	 */
+	@Nullable
+	private List<String> getCircularWait(Thread currentThread, SingletonLock lock) {
+		List<String> awaitedBeanNames = new ArrayList<>();
+		Thread owner = lock.getOwningThread();
+		int remainingWaiters = this.threadsWaitingForSingletonLock.size();
+		while (owner != null && remainingWaiters-- >= 0) {
+			if (owner == currentThread) {
+				return awaitedBeanNames;
+			}
+			String awaitedBeanName = this.threadsWaitingForSingletonLock.get(owner);
+			if (awaitedBeanName == null) {
+				return null;
+			}
+			awaitedBeanNames.add(awaitedBeanName);
+			SingletonLock awaitedLock = this.singletonLocks.get(awaitedBeanName);
+			owner = (awaitedLock != null ? awaitedLock.getOwningThread() : null);
+		}
+		return null;
+	}
+
+	/**
+	 * Determine whether the current thread should keep waiting in a circular wait
+	 * for the given singleton: that is, if it has no early reference to resolve
+	 * the cycle itself but another thread in the cycle has.
+	 * @param beanName the name of the singleton awaited by the current thread
+	 * @param awaitedBeanNames the singletons awaited by the other threads in the cycle
+	 */
+	private boolean isCircularWaitResolvableByPeer(String beanName, List<String> awaitedBeanNames) {
+		synchronized (this.singletonObjects) {
+			if (hasEarlySingleton(beanName)) {
+				return false;
+			}
+			for (String awaitedBeanName : awaitedBeanNames) {
+				if (hasEarlySingleton(awaitedBeanName)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private boolean hasEarlySingleton(String beanName) {
+		return (this.earlySingletonObjects.containsKey(beanName) || this.singletonFactories.containsKey(beanName));
+	}
+
 
 	/**
 	 * Add the given bean to the list of disposable beans in this registry.
@@ -605,6 +860,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.registeredSingletons.clear();
 			this.singletonsCurrentlyInDestruction = false;
 		}
+		this.singletonLocks.values().removeIf(lock -> !lock.isInUse());
 	}
 
 	/**
@@ -704,14 +960,38 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 
 	/**
 	 * Exposes the singleton mutex to subclasses and external collaborators.
-	 * <p>Subclasses should synchronize on the given Object if they perform
-	 * any sort of extended singleton creation phase. In particular, subclasses
-	 * should <i>not</i> have their own mutexes involved in singleton creation,
-	 * to avoid the potential for deadlocks in lazy-init situations.
+	 * <p>The mutex guards compound updates of this registry's singleton caches.
+	 * As of 5.3, it is <i>not</i> held during the creation of a singleton anymore:
+	 * each singleton is created under a lock of its own instead. Callers should
+	 * therefore only hold the mutex for short-lived state changes and must not
+	 * obtain beans while holding it, to avoid the potential for deadlocks with
+	 * singletons concurrently created in other threads.
 	 */
 	@Override
 	public final Object getSingletonMutex() {
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * Reentrant lock guarding the creation of a specific singleton,
+	 * exposing its current owner for circular wait detection.
+	 */
+	@SuppressWarnings("serial")
+	private static class SingletonLock extends ReentrantLock {
+
+		@Nullable
+		public Thread getOwningThread() {
+			return getOwner();
+		}
+
+		/**
+		 * Return whether this lock is currently held or waited for,
+		 * i.e. whether it must not be discarded.
+		 */
+		public boolean isInUse() {
+			return (isLocked() || hasQueuedThreads());
+		}
+	}
+
 }
@@ -23,6 +23,7 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanCreationException;
@@ -96,8 +97,9 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 	protected Object getObjectFromFactoryBean(FactoryBean<?> factory, String beanName, boolean shouldPostProcess) {
 		//CASE1：FactoryBean内部维护的对象是单实例
 		if (factory.isSingleton() && containsSingleton(beanName)) {
-			//内部逻辑是串行化的，同步的，不存在并发。
-			synchronized (getSingletonMutex()) {
+			//内部逻辑是串行化的：基于当前beanName的单实例锁，不存在并发。
+			Lock lock = lockSingleton(beanName);
+			try {
 				Object object = this.factoryBeanObjectCache.get(beanName);
 				if (object == null) {
 					object = doGetObjectFromFactoryBean(factory, beanName);
@@ -131,7 +133,11 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 					}
 				}
 				return object;
-
+			}
+			finally {
+				if (lock != null) {
+					lock.unlock();
+				}
 			}
 		}
 		//CASE2：FactoryBean内部维护的对象非单实例
@@ -21,7 +21,9 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -393,6 +395,15 @@ public class RootBeanDefinition extends AbstractBeanDefinition {
 		this.isFactoryMethodUnique = false;
 	}
 
+	/**
+	 * Return whether the factory method name refers to a non-overloaded method.
+	 * @since 5.3
+	 * @see #setUniqueFactoryMethodName
+	 */
+	public boolean isFactoryMethodUnique() {
+		return this.isFactoryMethodUnique;
+	}
+
 	/**
 	 * Check whether the given candidate qualifies as a factory method.
 	 */
@@ -434,6 +445,18 @@ public class RootBeanDefinition extends AbstractBeanDefinition {
 		}
 	}
 
+	/**
+	 * Return a snapshot of the externally managed configuration members,
+	 * e.g. the fields and methods injected by annotation-driven post-processors.
+	 * @since 5.3
+	 */
+	Set<Member> getExternallyManagedConfigMembers() {
+		synchronized (this.postProcessingLock) {
+			return (this.externallyManagedConfigMembers != null ?
+					new LinkedHashSet<>(this.externallyManagedConfigMembers) : Collections.emptySet());
+		}
+	}
+
 	public void registerExternallyManagedInitMethod(String initMethod) {
 		synchronized (this.postProcessingLock) {
 			if (this.externallyManagedInitMethods == null) {
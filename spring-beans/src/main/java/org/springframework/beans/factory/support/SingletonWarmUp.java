@@ -0,0 +1,230 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+/**
+ * Creates a given set of singletons of a {@link DefaultListableBeanFactory} one
+ * after another, typically on a background thread after the singletons have been
+ * left out of {@link DefaultListableBeanFactory#preInstantiateSingletons()
+ * pre-instantiation} through
+ * {@link DefaultListableBeanFactory#setDeferredSingletonNames deferral}.
+ *
+ * <p>The singletons are created in dependency order, as far as dependencies are
+ * known from the bean definitions (depends-on declarations, factory beans and
+ * bean references), so that the recorded creation time of a singleton usually
+ * does not include the creation of its dependencies. Singletons that have been
+ * created on demand in the meantime are skipped. A singleton that fails to be
+ * created is logged and recorded, and will be attempted again on its next
+ * retrieval, as usual for singletons created on demand.
+ *
+ * <p>Once all singletons are available, {@link SmartInitializingSingleton}
+ * callbacks are invoked for them. All progress accessors may be called from any
+ * thread while the warm-up is running.
+ *
+ * @since 5.3
+ * @see DefaultListableBeanFactory#preInstantiateSingletons()
+ */
+public class SingletonWarmUp implements Runnable {
+
+	private static final Log logger = LogFactory.getLog(SingletonWarmUp.class);
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final List<String> beanNames;
+
+	private final Map<String, Long> creationTimes = new ConcurrentHashMap<>();
+
+	private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+	private final AtomicInteger completedCount = new AtomicInteger();
+
+	private final CountDownLatch completion = new CountDownLatch(1);
+
+	private volatile boolean cancelled;
+
+
+	/**
+	 * Create a new {@code SingletonWarmUp} for the given singletons.
+	 * @param beanFactory the bean factory to create the singletons in
+	 * @param beanNames the names of the singletons to create, in registration
+	 * order; non-singleton and abstract bean definitions are ignored
+	 */
+	public SingletonWarmUp(DefaultListableBeanFactory beanFactory, Collection<String> beanNames) {
+		this.beanFactory = beanFactory;
+		this.beanNames = Collections.unmodifiableList(sortByDependencies(beanNames));
+	}
+
+
+	/**
+	 * Create all singletons, one after another on the calling thread.
+	 * <p>Returns early if the warm-up has been {@link #cancel() cancelled}.
+	 */
+	@Override
+	public void run() {
+		long startTime = System.nanoTime();
+		try {
+			for (String beanName : this.beanNames) {
+				if (this.cancelled) {
+					return;
+				}
+				if (!this.beanFactory.containsSingleton(beanName)) {
+					long beanStartTime = System.nanoTime();
+					try {
+						this.beanFactory.instantiateSingleton(beanName);
+						this.creationTimes.put(beanName, System.nanoTime() - beanStartTime);
+					}
+					catch (Throwable ex) {
+						if (this.cancelled) {
+							return;
+						}
+						this.failures.put(beanName, ex);
+						if (logger.isWarnEnabled()) {
+							logger.warn("Failed to warm up singleton '" + beanName + "': " + ex);
+						}
+					}
+				}
+				this.completedCount.incrementAndGet();
+			}
+			for (String beanName : this.beanNames) {
+				Object singletonInstance = this.beanFactory.getSingleton(beanName, false);
+				if (singletonInstance instanceof SmartInitializingSingleton && !this.cancelled) {
+					((SmartInitializingSingleton) singletonInstance).afterSingletonsInstantiated();
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Warmed up " + this.creationTimes.size() + " of " + this.beanNames.size() +
+						" singletons in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms");
+			}
+		}
+		finally {
+			this.completion.countDown();
+		}
+	}
+
+	/**
+	 * Cancel the warm-up, leaving any remaining singletons to be created on demand.
+	 * <p>A singleton which is currently being created will still be completed;
+	 * use {@link #awaitCompletion} to wait for it.
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	/**
+	 * Wait for the warm-up to complete, or to return after being cancelled.
+	 * @param timeout the maximum time to wait
+	 * @param unit the time unit of the timeout argument
+	 * @return {@code true} if the warm-up has completed, {@code false} if the
+	 * waiting time elapsed before
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+		return this.completion.await(timeout, unit);
+	}
+
+	/**
+	 * Return whether the warm-up has completed, or returned after being cancelled.
+	 */
+	public boolean isCompleted() {
+		return (this.completion.getCount() == 0);
+	}
+
+	/**
+	 * Return the names of the singletons to create, in the order of creation.
+	 */
+	public List<String> getBeanNames() {
+		return this.beanNames;
+	}
+
+	/**
+	 * Return the number of singletons processed so far, including singletons
+	 * which had been created on demand already as well as failed ones.
+	 */
+	public int getCompletedCount() {
+		return this.completedCount.get();
+	}
+
+	/**
+	 * Return the time taken to create each singleton, in nanoseconds, keyed by
+	 * bean name.
+	 * <p>Only contains the singletons actually created by the warm-up. The time
+	 * includes the creation of dependencies which were not known upfront and
+	 * not available yet, e.g. autowired ones.
+	 */
+	public Map<String, Long> getCreationTimes() {
+		return Collections.unmodifiableMap(this.creationTimes);
+	}
+
+	/**
+	 * Return the exceptions thrown while creating singletons, keyed by bean name.
+	 */
+	public Map<String, Throwable> getFailures() {
+		return Collections.unmodifiableMap(this.failures);
+	}
+
+
+	private List<String> sortByDependencies(Collection<String> beanNames) {
+		Set<String> candidates = new LinkedHashSet<>();
+		for (String beanName : beanNames) {
+			if (this.beanFactory.containsBeanDefinition(beanName)) {
+				RootBeanDefinition bd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+				if (!bd.isAbstract() && bd.isSingleton()) {
+					candidates.add(beanName);
+				}
+			}
+		}
+		Set<String> sorted = new LinkedHashSet<>(candidates.size());
+		Set<String> visited = new HashSet<>(candidates.size());
+		for (String beanName : candidates) {
+			addInDependencyOrder(beanName, candidates, visited, sorted);
+		}
+		return new ArrayList<>(sorted);
+	}
+
+	private void addInDependencyOrder(String beanName, Set<String> candidates, Set<String> visited, Set<String> sorted) {
+		if (!visited.add(beanName)) {
+			// Already sorted or part of a dependency cycle
+			return;
+		}
+		for (String dependency :
+				ConcurrentSingletonPreInstantiator.determineKnownDependencies(this.beanFactory, beanName)) {
+			if (candidates.contains(dependency)) {
+				addInDependencyOrder(dependency, candidates, visited, sorted);
+			}
+		}
+		sorted.add(beanName);
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.core.SpringProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * {@link BeanWrapperImpl} tests with generated property accessors.
+ *
+ * @see CachedIntrospectionResults#GENERATE_ACCESSORS_PROPERTY_NAME
+ */
+public class BeanWrapperGeneratedAccessorTests extends BeanWrapperTests {
+
+	@BeforeEach
+	public void enableGeneratedAccessors() {
+		SpringProperties.setFlag(CachedIntrospectionResults.GENERATE_ACCESSORS_PROPERTY_NAME);
+		CachedIntrospectionResults.clearClassLoader(getClass().getClassLoader());
+	}
+
+	@AfterEach
+	public void disableGeneratedAccessors() {
+		SpringProperties.setProperty(CachedIntrospectionResults.GENERATE_ACCESSORS_PROPERTY_NAME, null);
+		CachedIntrospectionResults.clearClassLoader(getClass().getClassLoader());
+	}
+
+
+	@Test
+	public void generatedAccessorForPublicProperty() {
+		CachedIntrospectionResults results = CachedIntrospectionResults.forClass(TestBean.class);
+		GeneratedPropertyAccessor accessor = results.getGeneratedAccessor(results.getPropertyDescriptor("age"));
+		assertThat(accessor).isNotNull();
+		assertThat(accessor.hasGetter()).isTrue();
+		assertThat(accessor.canSet(1)).isTrue();
+		assertThat(accessor.canSet(null)).isFalse();
+		assertThat(accessor.canSet("1")).isFalse();
+
+		TestBean target = new TestBean();
+		BeanWrapper accessorWrapper = createAccessor(target);
+		accessorWrapper.setPropertyValue("age", "42");
+		assertThat(target.getAge()).isEqualTo(42);
+		assertThat(accessorWrapper.getPropertyValue("age")).isEqualTo(42);
+	}
+
+	@Test
+	public void noGeneratedAccessorForNonPublicClass() {
+		CachedIntrospectionResults results = CachedIntrospectionResults.forClass(NonPublicBean.class);
+		assertThat(results.getGeneratedAccessor(results.getPropertyDescriptor("name"))).isNull();
+
+		NonPublicBean target = new NonPublicBean();
+		createAccessor(target).setPropertyValue("name", "test");
+		assertThat(target.getName()).isEqualTo("test");
+	}
+
+	@Test
+	public void setterExceptionWithGeneratedAccessor() {
+		BeanWrapper accessor = createAccessor(new ThrowingBean());
+		assertThatExceptionOfType(MethodInvocationException.class).isThrownBy(() ->
+				accessor.setPropertyValue("name", "test"))
+			.withCauseInstanceOf(IllegalStateException.class);
+		assertThatExceptionOfType(InvalidPropertyException.class).isThrownBy(() ->
+				accessor.getPropertyValue("name"))
+			.withRootCauseInstanceOf(IllegalStateException.class);
+	}
+
+
+	static class NonPublicBean {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+
+	public static class ThrowingBean {
+
+		public String getName() {
+			throw new IllegalStateException("getName");
+		}
+
+		public void setName(String name) {
+			throw new IllegalStateException("setName");
+		}
+	}
+
+}
@@ -26,9 +26,11 @@ import java.security.Principal;
 import java.security.PrivilegedAction;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -1818,6 +1820,33 @@ class DefaultListableBeanFactoryTests {
 		assertThat(lbf.getBeanNamesForType(ResolvableType.forClassWithGenerics(FactoryBean.class, String.class), true, true).length).isEqualTo(0);
 	}
 
+	@Test
+	void getBeanNamesForGenericTypeWithFrozenConfiguration() {
+		RootBeanDefinition bd1 = new RootBeanDefinition(ArrayList.class);
+		bd1.setTargetType(ResolvableType.forClassWithGenerics(ArrayList.class, String.class));
+		lbf.registerBeanDefinition("strings", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(ArrayList.class);
+		bd2.setTargetType(ResolvableType.forClassWithGenerics(ArrayList.class, Integer.class));
+		bd2.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		lbf.registerBeanDefinition("integers", bd2);
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		lbf.freezeConfiguration();
+
+		ResolvableType stringList = ResolvableType.forClassWithGenerics(List.class, String.class);
+		ResolvableType integerList = ResolvableType.forClassWithGenerics(List.class, Integer.class);
+		String[] beanNames = lbf.getBeanNamesForType(stringList);
+		assertThat(beanNames).containsExactly("strings");
+		assertThat(lbf.getBeanNamesForType(ResolvableType.forClassWithGenerics(List.class, String.class))).isSameAs(beanNames);
+		assertThat(lbf.getBeanNamesForType(integerList)).containsExactly("integers");
+		assertThat(lbf.getBeanNamesForType(integerList, false, true)).isEmpty();
+		assertThat(lbf.getBeanNamesForType(ResolvableType.forClassWithGenerics(Set.class, String.class))).isEmpty();
+
+		RootBeanDefinition bd3 = new RootBeanDefinition(LinkedList.class);
+		bd3.setTargetType(ResolvableType.forClassWithGenerics(LinkedList.class, String.class));
+		lbf.registerBeanDefinition("moreStrings", bd3);
+		assertThat(lbf.getBeanNamesForType(stringList)).containsExactly("strings", "moreStrings");
+	}
+
 	private RootBeanDefinition createConstructorDependencyBeanDefinition(int age) {
 		RootBeanDefinition bd = new RootBeanDefinition(ConstructorDependency.class);
 		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
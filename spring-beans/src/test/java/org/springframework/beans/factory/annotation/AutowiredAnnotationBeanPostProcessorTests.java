@@ -1089,6 +1089,47 @@ public class AutowiredAnnotationBeanPostProcessorTests {
 		assertThat(bean.getTestBean()).isSameAs(bf.getBean("testBean"));
 	}
 
+	@Test
+	public void testResourceInjectionIntoPrototypeBeanWithRecreatedSingleton() {
+		RootBeanDefinition bd = new RootBeanDefinition(ResourceInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		bf.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+
+		ResourceInjectionBean bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		TestBean tb = bf.getBean("testBean", TestBean.class);
+		assertThat(bean.getTestBean()).isSameAs(tb);
+		assertThat(bean.getTestBean2()).isSameAs(tb);
+		bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		assertThat(bean.getTestBean()).isSameAs(tb);
+		assertThat(bean.getTestBean2()).isSameAs(tb);
+
+		bf.destroySingleton("testBean");
+		bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+		TestBean tb2 = bf.getBean("testBean", TestBean.class);
+		assertThat(tb2).isNotSameAs(tb);
+		assertThat(bean.getTestBean()).isSameAs(tb2);
+		assertThat(bean.getTestBean2()).isSameAs(tb2);
+	}
+
+	@Test
+	public void testPrototypeInjectionIntoPrototypeBeanExposesInjectionPoint() {
+		RootBeanDefinition bd = new RootBeanDefinition(ResourceInjectionBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("annotatedBean", bd);
+		RootBeanDefinition tbd = new RootBeanDefinition(InjectionPointTestBeanFactory.class);
+		tbd.setFactoryMethodName("createTestBean");
+		tbd.setAutowireMode(RootBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+		tbd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bf.registerBeanDefinition("testBean", tbd);
+
+		for (int i = 0; i < 3; i++) {
+			ResourceInjectionBean bean = (ResourceInjectionBean) bf.getBean("annotatedBean");
+			assertThat(bean.getTestBean().getName()).isEqualTo("testBean");
+			assertThat(bean.getTestBean2().getName()).isEqualTo("testBean2");
+		}
+	}
+
 	@Test
 	public void testObjectFactoryInjectionIntoPrototypeBean() {
 		RootBeanDefinition annotatedBeanDefinition = new RootBeanDefinition(ObjectFactoryFieldInjectionBean.class);
@@ -2166,6 +2207,15 @@ public class AutowiredAnnotationBeanPostProcessorTests {
 	private Repository<?> integerRepositoryQualifierProvider;
 
 
+	public static class InjectionPointTestBeanFactory {
+
+		public static TestBean createTestBean(InjectionPoint injectionPoint) {
+			return new TestBean(injectionPoint.getField() != null ? injectionPoint.getField().getName() :
+					injectionPoint.getMethodParameter().getParameterName());
+		}
+	}
+
+
 	public static class ResourceInjectionBean {
 
 		@Autowired(required = false)
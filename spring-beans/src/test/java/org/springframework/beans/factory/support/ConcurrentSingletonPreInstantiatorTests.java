@@ -0,0 +1,249 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for concurrent singleton pre-instantiation through
+ * {@link DefaultListableBeanFactory#setBootstrapExecutor}.
+ */
+class ConcurrentSingletonPreInstantiatorTests {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+
+	@AfterEach
+	void shutdownExecutor() {
+		this.executor.shutdownNow();
+	}
+
+
+	@Test
+	void createIndependentSingletonsOnExecutor() {
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		for (int i = 0; i < 20; i++) {
+			this.beanFactory.registerBeanDefinition("bean" + i, new RootBeanDefinition(RecordingBean.class));
+		}
+		RootBeanDefinition lazy = new RootBeanDefinition(RecordingBean.class);
+		lazy.setLazyInit(true);
+		this.beanFactory.registerBeanDefinition("lazy", lazy);
+		this.beanFactory.preInstantiateSingletons();
+
+		assertThat(this.beanFactory.getSingletonCount()).isEqualTo(20);
+		assertThat(this.beanFactory.containsSingleton("lazy")).isFalse();
+		RecordingBean bean = this.beanFactory.getBean("bean0", RecordingBean.class);
+		assertThat(bean.creationThread).isNotSameAs(Thread.currentThread());
+	}
+
+	@Test
+	void honourDependsOnAndBeanReferences() {
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		List<String> creationOrder = new CopyOnWriteArrayList<>();
+		this.beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				creationOrder.add(beanName);
+				return bean;
+			}
+		});
+		RootBeanDefinition first = new RootBeanDefinition(RecordingBean.class);
+		first.setDependsOn("second");
+		this.beanFactory.registerBeanDefinition("first", first);
+		RootBeanDefinition second = new RootBeanDefinition(TestBean.class);
+		second.getPropertyValues().add("spouse", new RuntimeBeanReference("third"));
+		this.beanFactory.registerBeanDefinition("second", second);
+		this.beanFactory.registerBeanDefinition("third", new RootBeanDefinition(TestBean.class));
+		this.beanFactory.preInstantiateSingletons();
+
+		assertThat(creationOrder).containsExactly("third", "second", "first");
+		assertThat(this.beanFactory.getBean("second", TestBean.class).getSpouse())
+				.isSameAs(this.beanFactory.getBean("third"));
+	}
+
+	@Test
+	void resolveCircularReferences() {
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		RootBeanDefinition first = new RootBeanDefinition(TestBean.class);
+		first.getPropertyValues().add("spouse", new RuntimeBeanReference("second"));
+		this.beanFactory.registerBeanDefinition("first", first);
+		RootBeanDefinition second = new RootBeanDefinition(TestBean.class);
+		second.getPropertyValues().add("spouse", new RuntimeBeanReference("first"));
+		this.beanFactory.registerBeanDefinition("second", second);
+		this.beanFactory.preInstantiateSingletons();
+
+		TestBean firstBean = this.beanFactory.getBean("first", TestBean.class);
+		TestBean secondBean = this.beanFactory.getBean("second", TestBean.class);
+		assertThat(firstBean.getSpouse()).isSameAs(secondBean);
+		assertThat(secondBean.getSpouse()).isSameAs(firstBean);
+	}
+
+	@Test
+	void determineAutowiredDependencies() {
+		registerAutowiredAnnotationBeanPostProcessor();
+		this.beanFactory.registerBeanDefinition("consumer", new RootBeanDefinition(AutowiredConsumer.class));
+		this.beanFactory.registerBeanDefinition("constructorDependency", new RootBeanDefinition(TestBean.class));
+		this.beanFactory.registerBeanDefinition("fieldDependency", new RootBeanDefinition(RecordingBean.class));
+		this.beanFactory.registerBeanDefinition("unrelated", new RootBeanDefinition(SmartBean.class));
+
+		assertThat(ConcurrentSingletonPreInstantiator.determineKnownDependencies(this.beanFactory, "consumer"))
+				.containsExactlyInAnyOrder("constructorDependency", "fieldDependency");
+	}
+
+	@Test
+	void resolveAutowiredCircularReferences() {
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		registerAutowiredAnnotationBeanPostProcessor();
+		this.beanFactory.registerBeanDefinition("first", new RootBeanDefinition(AutowiredFirst.class));
+		this.beanFactory.registerBeanDefinition("second", new RootBeanDefinition(AutowiredSecond.class));
+		this.beanFactory.preInstantiateSingletons();
+
+		AutowiredFirst first = this.beanFactory.getBean(AutowiredFirst.class);
+		AutowiredSecond second = this.beanFactory.getBean(AutowiredSecond.class);
+		assertThat(first.second).isSameAs(second);
+		assertThat(second.first).isSameAs(first);
+		// Singletons within a cycle get created on the calling thread
+		assertThat(first.creationThread).isSameAs(Thread.currentThread());
+	}
+
+	@Test
+	void invokeSmartInitializingSingletonsOnCallingThreadAfterAllSingletons() {
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.registerBeanDefinition("smart", new RootBeanDefinition(SmartBean.class));
+		for (int i = 0; i < 10; i++) {
+			this.beanFactory.registerBeanDefinition("bean" + i, new RootBeanDefinition(RecordingBean.class));
+		}
+		this.beanFactory.preInstantiateSingletons();
+
+		SmartBean smartBean = this.beanFactory.getBean(SmartBean.class);
+		assertThat(smartBean.callbackThread).isSameAs(Thread.currentThread());
+		assertThat(smartBean.singletonCount).isEqualTo(11);
+	}
+
+	@Test
+	void propagateCreationFailure() {
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.registerBeanDefinition("bean", new RootBeanDefinition(RecordingBean.class));
+		this.beanFactory.registerBeanDefinition("failing", new RootBeanDefinition(FailingBean.class));
+		assertThatExceptionOfType(BeanCreationException.class)
+				.isThrownBy(this.beanFactory::preInstantiateSingletons)
+				.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("failing"));
+	}
+
+	@Test
+	void createRejectedSingletonsOnCallingThread() {
+		this.beanFactory.setBootstrapExecutor(task -> {
+			throw new RejectedExecutionException();
+		});
+		this.beanFactory.registerBeanDefinition("bean", new RootBeanDefinition(RecordingBean.class));
+		this.beanFactory.preInstantiateSingletons();
+
+		RecordingBean bean = this.beanFactory.getBean("bean", RecordingBean.class);
+		assertThat(bean.creationThread).isSameAs(Thread.currentThread());
+	}
+
+
+	private void registerAutowiredAnnotationBeanPostProcessor() {
+		AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+		bpp.setBeanFactory(this.beanFactory);
+		this.beanFactory.addBeanPostProcessor(bpp);
+	}
+
+
+	static class RecordingBean {
+
+		final Thread creationThread = Thread.currentThread();
+	}
+
+
+	static class AutowiredConsumer {
+
+		@Autowired
+		RecordingBean fieldDependency;
+
+		AutowiredConsumer(TestBean constructorDependency) {
+		}
+	}
+
+
+	static class AutowiredFirst {
+
+		final Thread creationThread = Thread.currentThread();
+
+		@Autowired
+		AutowiredSecond second;
+	}
+
+
+	static class AutowiredSecond {
+
+		@Autowired
+		AutowiredFirst first;
+	}
+
+
+	static class FailingBean {
+
+		FailingBean() {
+			throw new IllegalStateException("Expected failure");
+		}
+	}
+
+
+	static class SmartBean implements SmartInitializingSingleton, BeanFactoryAware {
+
+		private DefaultListableBeanFactory beanFactory;
+
+		Thread callbackThread;
+
+		int singletonCount;
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			this.beanFactory = (DefaultListableBeanFactory) beanFactory;
+		}
+
+		@Override
+		public void afterSingletonsInstantiated() {
+			this.callbackThread = Thread.currentThread();
+			this.singletonCount = this.beanFactory.getSingletonCount();
+		}
+	}
+
+}
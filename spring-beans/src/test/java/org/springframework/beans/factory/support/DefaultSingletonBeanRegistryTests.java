@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,16 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.testfixture.beans.DerivedTestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
@@ -101,4 +108,164 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+	@Test
+	public void testConcurrentCreationOfUnrelatedSingletons() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CountDownLatch inCreation = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> a = executor.submit(() -> beanRegistry.getSingleton("a", () -> {
+				inCreation.countDown();
+				await(release);
+				return new TestBean("a");
+			}));
+			await(inCreation);
+
+			// Not blocked by the creation of 'a' in progress
+			TestBean b = (TestBean) beanRegistry.getSingleton("b", () -> new TestBean("b"));
+			assertThat(beanRegistry.getSingleton("b")).isSameAs(b);
+			assertThat(beanRegistry.isSingletonCurrentlyInCreation("a")).isTrue();
+			// Early reference of 'a' not exposed to other threads
+			assertThat(beanRegistry.getSingleton("a")).isNull();
+
+			release.countDown();
+			assertThat(beanRegistry.getSingleton("a", TestBean::new)).isSameAs(a.get(10, TimeUnit.SECONDS));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCircularWaitResolvedThroughEarlyReference() throws Exception {
+		CountDownLatch aWaitingForB = new CountDownLatch(1);
+		DefaultSingletonBeanRegistry beanRegistry = new LatchingSingletonBeanRegistry("b", aWaitingForB);
+		TestBean a = new TestBean("a");
+		CountDownLatch bInCreation = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> b = executor.submit(() -> beanRegistry.getSingleton("b", () -> {
+				bInCreation.countDown();
+				await(aWaitingForB);
+				TestBean tb = new TestBean("b");
+				tb.setSpouse((TestBean) beanRegistry.getSingleton("a", () -> new TestBean("other")));
+				return tb;
+			}));
+			await(bInCreation);
+
+			Object result = beanRegistry.getSingleton("a", () -> {
+				beanRegistry.addSingletonFactory("a", () -> a);
+				a.setSpouse((TestBean) beanRegistry.getSingleton("b", () -> new TestBean("other")));
+				return a;
+			});
+			assertThat(result).isSameAs(a);
+			assertThat(a.getSpouse()).isSameAs(b.get(10, TimeUnit.SECONDS));
+			assertThat(a.getSpouse().getSpouse()).isSameAs(a);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCircularWaitDetectedByThreadWithoutEarlyReference() throws Exception {
+		CountDownLatch aWaitingForB = new CountDownLatch(1);
+		DefaultSingletonBeanRegistry beanRegistry = new LatchingSingletonBeanRegistry("b", aWaitingForB);
+		CountDownLatch bInCreation = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// "b" gets field-injected: its early reference is exposed before it requests "a",
+			// and it only does so once "a" waits for it, thereby detecting the circular wait first.
+			Future<Object> b = executor.submit(() -> beanRegistry.getSingleton("b", () -> {
+				TestBean tb = new TestBean("b");
+				beanRegistry.addSingletonFactory("b", () -> tb);
+				bInCreation.countDown();
+				await(aWaitingForB);
+				tb.setSpouse((TestBean) beanRegistry.getSingleton("a", () -> new TestBean("other")));
+				return tb;
+			}));
+			await(bInCreation);
+
+			// "a" gets constructor-injected: no early reference available while resolving "b".
+			Object result = beanRegistry.getSingleton("a", () ->
+					new TestBean((TestBean) beanRegistry.getSingleton("b", () -> new TestBean("other"))));
+			assertThat(result).isInstanceOf(TestBean.class);
+			TestBean a = (TestBean) result;
+			assertThat(a.getSpouse()).isSameAs(b.get(10, TimeUnit.SECONDS));
+			assertThat(a.getSpouse().getSpouse()).isSameAs(a);
+			assertThat(beanRegistry.getSingleton("a")).isSameAs(a);
+			assertThat(beanRegistry.getSingleton("b")).isSameAs(a.getSpouse());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testUnresolvableCircularWait() throws Exception {
+		CountDownLatch aWaitingForB = new CountDownLatch(1);
+		DefaultSingletonBeanRegistry beanRegistry = new LatchingSingletonBeanRegistry("b", aWaitingForB);
+		CountDownLatch bInCreation = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> b = executor.submit(() -> beanRegistry.getSingleton("b", () -> {
+				bInCreation.countDown();
+				await(aWaitingForB);
+				try {
+					return beanRegistry.getSingleton("a", () -> new TestBean("other"));
+				}
+				catch (BeanCurrentlyInCreationException ex) {
+					return ex;
+				}
+			}));
+			await(bInCreation);
+
+			Object result = beanRegistry.getSingleton("a", () -> {
+				return beanRegistry.getSingleton("b", () -> new TestBean("other"));
+			});
+			assertThat(result).isInstanceOf(BeanCurrentlyInCreationException.class);
+			assertThat(b.get(10, TimeUnit.SECONDS)).isSameAs(result);
+			assertThat(((BeanCurrentlyInCreationException) result).getBeanName()).isEqualTo("a");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+		catch (InterruptedException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+
+	/**
+	 * Registry counting down a latch once a thread waits for the creation
+	 * lock of the given singleton.
+	 */
+	private static class LatchingSingletonBeanRegistry extends DefaultSingletonBeanRegistry {
+
+		private final String beanName;
+
+		private final CountDownLatch waiting;
+
+		LatchingSingletonBeanRegistry(String beanName, CountDownLatch waiting) {
+			this.beanName = beanName;
+			this.waiting = waiting;
+		}
+
+		@Override
+		void registerSingletonLockWaiter(Thread thread, String beanName) {
+			super.registerSingletonLockWaiter(thread, beanName);
+			if (this.beanName.equals(beanName)) {
+				this.waiting.countDown();
+			}
+		}
+	}
+
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SingletonWarmUp}.
+ */
+class SingletonWarmUpTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+
+	@Test
+	void createSingletonsInDependencyOrder() throws Exception {
+		registerLazyBean("a", "b");
+		registerLazyBean("b", "c");
+		registerLazyBean("c", null);
+		RootBeanDefinition prototype = new RootBeanDefinition(TestBean.class);
+		prototype.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		this.beanFactory.registerBeanDefinition("prototype", prototype);
+
+		SingletonWarmUp warmUp = new SingletonWarmUp(this.beanFactory, Arrays.asList("a", "b", "c", "prototype"));
+		assertThat(warmUp.getBeanNames()).containsExactly("c", "b", "a");
+		assertThat(warmUp.isCompleted()).isFalse();
+		warmUp.run();
+
+		assertThat(warmUp.awaitCompletion(0, TimeUnit.MILLISECONDS)).isTrue();
+		assertThat(warmUp.getCompletedCount()).isEqualTo(3);
+		assertThat(warmUp.getCreationTimes()).containsOnlyKeys("a", "b", "c");
+		assertThat(warmUp.getFailures()).isEmpty();
+		assertThat(this.beanFactory.containsSingleton("a")).isTrue();
+		assertThat(this.beanFactory.getBean("a", TestBean.class).getSpouse())
+				.isSameAs(this.beanFactory.getBean("b"));
+	}
+
+	@Test
+	void skipExistingSingletonsAndRecordFailures() {
+		registerLazyBean("a", null);
+		registerLazyBean("b", null);
+		RootBeanDefinition failing = new RootBeanDefinition(TestBean.class, () -> {
+			throw new IllegalStateException("Expected");
+		});
+		failing.setLazyInit(true);
+		this.beanFactory.registerBeanDefinition("failing", failing);
+		Object a = this.beanFactory.getBean("a");
+
+		SingletonWarmUp warmUp = new SingletonWarmUp(this.beanFactory, Arrays.asList("a", "failing", "b"));
+		warmUp.run();
+
+		assertThat(warmUp.isCompleted()).isTrue();
+		assertThat(warmUp.getCompletedCount()).isEqualTo(3);
+		assertThat(warmUp.getCreationTimes()).containsOnlyKeys("b");
+		assertThat(warmUp.getFailures()).containsOnlyKeys("failing");
+		assertThat(warmUp.getFailures().get("failing")).isInstanceOf(BeanCreationException.class);
+		assertThat(this.beanFactory.getBean("a")).isSameAs(a);
+		assertThat(this.beanFactory.containsSingleton("failing")).isFalse();
+	}
+
+	@Test
+	void invokeSmartInitializingSingletonCallbacks() {
+		RootBeanDefinition bd = new RootBeanDefinition(InitializingBean.class);
+		bd.setLazyInit(true);
+		this.beanFactory.registerBeanDefinition("initializing", bd);
+
+		new SingletonWarmUp(this.beanFactory, Arrays.asList("initializing")).run();
+
+		assertThat(this.beanFactory.getBean(InitializingBean.class).initialized).isTrue();
+	}
+
+	@Test
+	void cancelBeforeRun() {
+		registerLazyBean("a", null);
+
+		SingletonWarmUp warmUp = new SingletonWarmUp(this.beanFactory, Arrays.asList("a"));
+		warmUp.cancel();
+		warmUp.run();
+
+		assertThat(warmUp.isCompleted()).isTrue();
+		assertThat(warmUp.getCompletedCount()).isEqualTo(0);
+		assertThat(this.beanFactory.containsSingleton("a")).isFalse();
+	}
+
+
+	private void registerLazyBean(String beanName, String spouseName) {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setLazyInit(true);
+		if (spouseName != null) {
+			bd.getPropertyValues().add("spouse", new RuntimeBeanReference(spouseName));
+		}
+		this.beanFactory.registerBeanDefinition(beanName, bd);
+	}
+
+
+	static class InitializingBean implements SmartInitializingSingleton {
+
+		boolean initialized;
+
+		@Override
+		public void afterSingletonsInstantiated() {
+			this.initialized = true;
+		}
+	}
+
+}
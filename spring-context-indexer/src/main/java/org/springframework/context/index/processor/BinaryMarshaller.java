@@ -0,0 +1,110 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Marshaller to write {@link CandidateComponentsMetadata} in the binary,
+ * versioned index format.
+ *
+ * <p>In addition to the stereotypes of each candidate, the binary format holds
+ * the {@link TypeMetadataEncoder encoded metadata} of the candidate type, if
+ * available:
+ * <pre class="code">
+ * index := int magic, int version, int count, entry*
+ * entry := string type, int count, string stereotype*, int length, byte[length] metadata
+ * </pre>
+ * A length of {@code -1} indicates that no metadata is available for the
+ * candidate. Entries are sorted by type for a deterministic output.
+ *
+ * @since 5.3
+ * @see TypeMetadataEncoder
+ */
+abstract class BinaryMarshaller {
+
+	static final int MAGIC = 0x53504349;
+
+	static final int VERSION = 1;
+
+
+	public static void write(CandidateComponentsMetadata metadata, OutputStream out) throws IOException {
+		List<ItemMetadata> items = new ArrayList<>(metadata.getItems());
+		items.sort(Comparator.comparing(ItemMetadata::getType));
+		DataOutputStream dos = new DataOutputStream(out);
+		dos.writeInt(MAGIC);
+		dos.writeInt(VERSION);
+		dos.writeInt(items.size());
+		for (ItemMetadata item : items) {
+			dos.writeUTF(item.getType());
+			Set<String> stereotypes = new TreeSet<>(item.getStereotypes());
+			dos.writeInt(stereotypes.size());
+			for (String stereotype : stereotypes) {
+				dos.writeUTF(stereotype);
+			}
+			byte[] typeMetadata = item.getTypeMetadata();
+			if (typeMetadata != null) {
+				dos.writeInt(typeMetadata.length);
+				dos.write(typeMetadata);
+			}
+			else {
+				dos.writeInt(-1);
+			}
+		}
+		dos.flush();
+	}
+
+	public static CandidateComponentsMetadata read(InputStream in) throws IOException {
+		DataInputStream dis = new DataInputStream(in);
+		if (dis.readInt() != MAGIC) {
+			throw new IOException("Not a binary components index");
+		}
+		int version = dis.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported components index version: " + version);
+		}
+		CandidateComponentsMetadata result = new CandidateComponentsMetadata();
+		int count = dis.readInt();
+		for (int i = 0; i < count; i++) {
+			String type = dis.readUTF();
+			int stereotypeCount = dis.readInt();
+			Set<String> stereotypes = new LinkedHashSet<>(stereotypeCount);
+			for (int j = 0; j < stereotypeCount; j++) {
+				stereotypes.add(dis.readUTF());
+			}
+			byte[] typeMetadata = null;
+			int length = dis.readInt();
+			if (length >= 0) {
+				typeMetadata = new byte[length];
+				dis.readFully(typeMetadata);
+			}
+			result.add(new ItemMetadata(type, stereotypes, typeMetadata));
+		}
+		return result;
+	}
+
+}
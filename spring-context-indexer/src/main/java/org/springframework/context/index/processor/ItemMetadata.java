@@ -34,10 +34,17 @@ class ItemMetadata {
 
 	private final Set<String> stereotypes;
 
+	private final byte[] typeMetadata;
+
 
 	public ItemMetadata(String type, Set<String> stereotypes) {
+		this(type, stereotypes, null);
+	}
+
+	public ItemMetadata(String type, Set<String> stereotypes, byte[] typeMetadata) {
 		this.type = type;
 		this.stereotypes = new HashSet<>(stereotypes);
+		this.typeMetadata = typeMetadata;
 	}
 
 
@@ -49,4 +56,13 @@ class ItemMetadata {
 		return this.stereotypes;
 	}
 
+	/**
+	 * Return the encoded class-level metadata of the candidate, as written by
+	 * {@link TypeMetadataEncoder}, or {@code null} if not available.
+	 * @since 5.3
+	 */
+	public byte[] getTypeMetadata() {
+		return this.typeMetadata;
+	}
+
 }
@@ -34,6 +34,8 @@ class MetadataStore {
 
 	static final String METADATA_PATH = "META-INF/spring.components";
 
+	static final String BINARY_METADATA_PATH = "META-INF/spring.components.idx";
+
 	private final ProcessingEnvironment environment;
 
 
@@ -44,7 +46,13 @@ class MetadataStore {
 
 	public CandidateComponentsMetadata readMetadata() {
 		try {
-			return readMetadata(getMetadataResource().openInputStream());
+			return readMetadata(getMetadataResource(BINARY_METADATA_PATH).openInputStream(), true);
+		}
+		catch (IOException ex) {
+			// No binary index yet -> fall back to the properties format.
+		}
+		try {
+			return readMetadata(getMetadataResource(METADATA_PATH).openInputStream(), false);
 		}
 		catch (IOException ex) {
 			// Failed to read metadata -> ignore.
@@ -54,28 +62,31 @@ class MetadataStore {
 
 	public void writeMetadata(CandidateComponentsMetadata metadata) throws IOException {
 		if (!metadata.getItems().isEmpty()) {
-			try (OutputStream outputStream = createMetadataResource().openOutputStream()) {
+			try (OutputStream outputStream = createMetadataResource(METADATA_PATH).openOutputStream()) {
 				PropertiesMarshaller.write(metadata, outputStream);
 			}
+			try (OutputStream outputStream = createMetadataResource(BINARY_METADATA_PATH).openOutputStream()) {
+				BinaryMarshaller.write(metadata, outputStream);
+			}
 		}
 	}
 
 
-	private CandidateComponentsMetadata readMetadata(InputStream in) throws IOException {
+	private CandidateComponentsMetadata readMetadata(InputStream in, boolean binary) throws IOException {
 		try {
-			return PropertiesMarshaller.read(in);
+			return (binary ? BinaryMarshaller.read(in) : PropertiesMarshaller.read(in));
 		}
 		finally {
 			in.close();
 		}
 	}
 
-	private FileObject getMetadataResource() throws IOException {
-		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+	private FileObject getMetadataResource(String path) throws IOException {
+		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
-	private FileObject createMetadataResource() throws IOException {
-		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+	private FileObject createMetadataResource(String path) throws IOException {
+		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
 }
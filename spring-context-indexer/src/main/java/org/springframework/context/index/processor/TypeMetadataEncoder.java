@@ -0,0 +1,460 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Encode the class-level metadata of a candidate type, that is the information
+ * otherwise read from its class file at runtime: access flags, enclosing, super
+ * and member classes, implemented interfaces, runtime-visible annotations with
+ * their declared attribute values, as well as the signatures and annotations of
+ * annotated methods.
+ *
+ * <p>The binary layout is read back by
+ * {@code org.springframework.context.index.IndexedMetadataReader}:
+ * <pre class="code">
+ * metadata    := int access, string? enclosingClass, boolean independent,
+ *                string? superClass, strings interfaces, strings memberClasses,
+ *                annotations, int count, method*
+ * method      := string name, int access, string returnType, strings parameterTypes, annotations
+ * annotations := int count, (string type, int count, (string name, value)*)*
+ * value       := byte tag, [string enumType], payload (see {@code TAG_*} constants)
+ *              | '[', byte tag, [string enumType], int count, payload*
+ * </pre>
+ * Strings are written in modified UTF-8 as per {@link DataOutputStream#writeUTF},
+ * optional strings ({@code string?}) are preceded by a presence flag.
+ *
+ * @since 5.3
+ */
+class TypeMetadataEncoder {
+
+	static final int ACC_PUBLIC = 0x0001;
+
+	static final int ACC_PRIVATE = 0x0002;
+
+	static final int ACC_PROTECTED = 0x0004;
+
+	static final int ACC_STATIC = 0x0008;
+
+	static final int ACC_FINAL = 0x0010;
+
+	static final int ACC_INTERFACE = 0x0200;
+
+	static final int ACC_ABSTRACT = 0x0400;
+
+	static final int ACC_ANNOTATION = 0x2000;
+
+	static final int ACC_ENUM = 0x4000;
+
+	static final byte TAG_STRING = 's';
+
+	static final byte TAG_CLASS = 'c';
+
+	static final byte TAG_ENUM = 'e';
+
+	static final byte TAG_ANNOTATION = '@';
+
+	static final byte TAG_ARRAY = '[';
+
+	private static final String CONSTRUCTOR_NAME = "<init>";
+
+	private static final String RETENTION_ANNOTATION = "java.lang.annotation.Retention";
+
+
+	private final Elements elements;
+
+	private final Types types;
+
+	private final Map<String, Boolean> runtimeRetention = new HashMap<>();
+
+
+	TypeMetadataEncoder(ProcessingEnvironment env) {
+		this.elements = env.getElementUtils();
+		this.types = env.getTypeUtils();
+	}
+
+
+	/**
+	 * Encode the metadata of the specified type.
+	 * @param type the type to encode
+	 * @return the encoded metadata
+	 */
+	public byte[] encode(TypeElement type) {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+		try (DataOutputStream out = new DataOutputStream(bos)) {
+			writeType(out, type);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to encode metadata for " + type, ex);
+		}
+		return bos.toByteArray();
+	}
+
+	private void writeType(DataOutputStream out, TypeElement type) throws IOException {
+		out.writeInt(getTypeAccess(type));
+		boolean member = (type.getNestingKind() == NestingKind.MEMBER);
+		writeNullableString(out, member ? getBinaryName((TypeElement) type.getEnclosingElement()) : null);
+		out.writeBoolean(member && isStatic(type));
+		TypeMirror superClass = type.getSuperclass();
+		boolean hasSuperClass = (superClass.getKind() == TypeKind.DECLARED && !isInterface(type));
+		writeNullableString(out, hasSuperClass ? getTypeName(superClass) : null);
+		List<String> interfaceNames = new ArrayList<>();
+		for (TypeMirror interfaceType : type.getInterfaces()) {
+			interfaceNames.add(getTypeName(interfaceType));
+		}
+		writeStrings(out, interfaceNames);
+		List<String> memberClassNames = new ArrayList<>();
+		List<ExecutableElement> annotatedMethods = new ArrayList<>();
+		for (Element enclosed : type.getEnclosedElements()) {
+			if (enclosed instanceof TypeElement) {
+				memberClassNames.add(getBinaryName((TypeElement) enclosed));
+			}
+			else if ((enclosed.getKind() == ElementKind.METHOD || enclosed.getKind() == ElementKind.CONSTRUCTOR) &&
+					!getRuntimeAnnotations(enclosed).isEmpty()) {
+				annotatedMethods.add((ExecutableElement) enclosed);
+			}
+		}
+		writeStrings(out, memberClassNames);
+		writeAnnotations(out, getRuntimeAnnotations(type));
+		out.writeInt(annotatedMethods.size());
+		for (ExecutableElement method : annotatedMethods) {
+			boolean constructor = (method.getKind() == ElementKind.CONSTRUCTOR);
+			out.writeUTF(constructor ? CONSTRUCTOR_NAME : method.getSimpleName().toString());
+			out.writeInt(getMethodAccess(method, type));
+			out.writeUTF(constructor ? "void" : getTypeName(method.getReturnType()));
+			List<String> parameterTypes = new ArrayList<>();
+			for (VariableElement parameter : method.getParameters()) {
+				parameterTypes.add(getTypeName(parameter.asType()));
+			}
+			writeStrings(out, parameterTypes);
+			writeAnnotations(out, getRuntimeAnnotations(method));
+		}
+	}
+
+	private int getTypeAccess(TypeElement type) {
+		Set<Modifier> modifiers = type.getModifiers();
+		int access = 0;
+		if (modifiers.contains(Modifier.PUBLIC)) {
+			access |= ACC_PUBLIC;
+		}
+		if (modifiers.contains(Modifier.FINAL)) {
+			access |= ACC_FINAL;
+		}
+		if (modifiers.contains(Modifier.ABSTRACT)) {
+			access |= ACC_ABSTRACT;
+		}
+		if (isInterface(type)) {
+			access |= (ACC_INTERFACE | ACC_ABSTRACT);
+		}
+		if (type.getKind() == ElementKind.ANNOTATION_TYPE) {
+			access |= ACC_ANNOTATION;
+		}
+		if (type.getKind() == ElementKind.ENUM) {
+			access |= ACC_ENUM;
+		}
+		return access;
+	}
+
+	private int getMethodAccess(ExecutableElement method, TypeElement declaringType) {
+		Set<Modifier> modifiers = method.getModifiers();
+		int access = 0;
+		if (modifiers.contains(Modifier.PUBLIC)) {
+			access |= ACC_PUBLIC;
+		}
+		if (modifiers.contains(Modifier.PRIVATE)) {
+			access |= ACC_PRIVATE;
+		}
+		if (modifiers.contains(Modifier.PROTECTED)) {
+			access |= ACC_PROTECTED;
+		}
+		if (modifiers.contains(Modifier.STATIC)) {
+			access |= ACC_STATIC;
+		}
+		if (modifiers.contains(Modifier.FINAL)) {
+			access |= ACC_FINAL;
+		}
+		if (modifiers.contains(Modifier.ABSTRACT) || (isInterface(declaringType) &&
+				method.getKind() == ElementKind.METHOD && !method.isDefault() &&
+				!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.PRIVATE))) {
+			access |= ACC_ABSTRACT;
+		}
+		return access;
+	}
+
+	private boolean isInterface(TypeElement type) {
+		return (type.getKind() == ElementKind.INTERFACE || type.getKind() == ElementKind.ANNOTATION_TYPE);
+	}
+
+	private boolean isStatic(TypeElement type) {
+		return (type.getModifiers().contains(Modifier.STATIC) || type.getKind() != ElementKind.CLASS);
+	}
+
+	private List<AnnotationMirror> getRuntimeAnnotations(Element element) {
+		List<AnnotationMirror> result = null;
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			String annotationTypeName = getBinaryName(annotationType);
+			if (!isPlain(annotationTypeName) && hasRuntimeRetention(annotationType, annotationTypeName)) {
+				if (result == null) {
+					result = new ArrayList<>(4);
+				}
+				result.add(annotation);
+			}
+		}
+		return (result != null ? result : Collections.emptyList());
+	}
+
+	private boolean isPlain(String annotationTypeName) {
+		return (annotationTypeName.startsWith("java.lang.") ||
+				annotationTypeName.startsWith("org.springframework.lang."));
+	}
+
+	private boolean hasRuntimeRetention(TypeElement annotationType, String annotationTypeName) {
+		return this.runtimeRetention.computeIfAbsent(annotationTypeName, name -> {
+			for (AnnotationMirror candidate : annotationType.getAnnotationMirrors()) {
+				if (RETENTION_ANNOTATION.equals(getTypeName(candidate.getAnnotationType()))) {
+					for (AnnotationValue value : candidate.getElementValues().values()) {
+						Object policy = value.getValue();
+						return (policy instanceof VariableElement &&
+								((VariableElement) policy).getSimpleName().contentEquals("RUNTIME"));
+					}
+				}
+			}
+			return false;
+		});
+	}
+
+	private void writeAnnotations(DataOutputStream out, List<AnnotationMirror> annotations) throws IOException {
+		out.writeInt(annotations.size());
+		for (AnnotationMirror annotation : annotations) {
+			writeAnnotation(out, annotation);
+		}
+	}
+
+	private void writeAnnotation(DataOutputStream out, AnnotationMirror annotation) throws IOException {
+		out.writeUTF(getTypeName(annotation.getAnnotationType()));
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotation.getElementValues();
+		out.writeInt(values.size());
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+			ExecutableElement attribute = entry.getKey();
+			out.writeUTF(attribute.getSimpleName().toString());
+			TypeMirror attributeType = attribute.getReturnType();
+			Object value = entry.getValue().getValue();
+			if (attributeType.getKind() == TypeKind.ARRAY) {
+				List<?> elements = (value instanceof List ? (List<?>) value : Collections.singletonList(entry.getValue()));
+				writeArray(out, ((ArrayType) attributeType).getComponentType(), elements);
+			}
+			else {
+				writeValue(out, value);
+			}
+		}
+	}
+
+	private void writeArray(DataOutputStream out, TypeMirror componentType, List<?> elements) throws IOException {
+		out.writeByte(TAG_ARRAY);
+		byte tag = getTag(componentType);
+		out.writeByte(tag);
+		if (tag == TAG_ENUM) {
+			out.writeUTF(getTypeName(componentType));
+		}
+		out.writeInt(elements.size());
+		for (Object element : elements) {
+			writeElement(out, ((AnnotationValue) element).getValue());
+		}
+	}
+
+	private byte getTag(TypeMirror type) {
+		switch (type.getKind()) {
+			case BOOLEAN: return 'Z';
+			case BYTE: return 'B';
+			case CHAR: return 'C';
+			case SHORT: return 'S';
+			case INT: return 'I';
+			case LONG: return 'J';
+			case FLOAT: return 'F';
+			case DOUBLE: return 'D';
+			default:
+				Element element = this.types.asElement(type);
+				if (element != null && element.getKind() == ElementKind.ENUM) {
+					return TAG_ENUM;
+				}
+				if (element != null && element.getKind() == ElementKind.ANNOTATION_TYPE) {
+					return TAG_ANNOTATION;
+				}
+				if (type.getKind() == TypeKind.DECLARED && "java.lang.Class".equals(getTypeName(type))) {
+					return TAG_CLASS;
+				}
+				return TAG_STRING;
+		}
+	}
+
+	private void writeValue(DataOutputStream out, Object value) throws IOException {
+		byte tag = getValueTag(value);
+		out.writeByte(tag);
+		if (tag == TAG_ENUM) {
+			out.writeUTF(getTypeName(((VariableElement) value).asType()));
+		}
+		writeElement(out, value);
+	}
+
+	private byte getValueTag(Object value) {
+		if (value instanceof Boolean) {
+			return 'Z';
+		}
+		if (value instanceof Byte) {
+			return 'B';
+		}
+		if (value instanceof Character) {
+			return 'C';
+		}
+		if (value instanceof Short) {
+			return 'S';
+		}
+		if (value instanceof Integer) {
+			return 'I';
+		}
+		if (value instanceof Long) {
+			return 'J';
+		}
+		if (value instanceof Float) {
+			return 'F';
+		}
+		if (value instanceof Double) {
+			return 'D';
+		}
+		if (value instanceof String) {
+			return TAG_STRING;
+		}
+		if (value instanceof TypeMirror) {
+			return TAG_CLASS;
+		}
+		if (value instanceof VariableElement) {
+			return TAG_ENUM;
+		}
+		if (value instanceof AnnotationMirror) {
+			return TAG_ANNOTATION;
+		}
+		throw new IllegalStateException("Unsupported annotation value " + value);
+	}
+
+	/**
+	 * Write the specified value, without its tag: for arrays, the tag of the
+	 * elements (and the enum type, if any) is written once for all elements.
+	 */
+	private void writeElement(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof Boolean) {
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Byte) {
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof Short) {
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Integer) {
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Float) {
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Double) {
+			out.writeDouble((Double) value);
+		}
+		else if (value instanceof String) {
+			out.writeUTF((String) value);
+		}
+		else if (value instanceof TypeMirror) {
+			out.writeUTF(getTypeName((TypeMirror) value));
+		}
+		else if (value instanceof VariableElement) {
+			out.writeUTF(((VariableElement) value).getSimpleName().toString());
+		}
+		else if (value instanceof AnnotationMirror) {
+			writeAnnotation(out, (AnnotationMirror) value);
+		}
+		else {
+			throw new IllegalStateException("Unsupported annotation value " + value);
+		}
+	}
+
+	/**
+	 * Return the name of the specified type as exposed by a class file,
+	 * i.e. binary names for declared types and the erasure of generic types.
+	 */
+	private String getTypeName(TypeMirror type) {
+		TypeMirror erasure = this.types.erasure(type);
+		switch (erasure.getKind()) {
+			case ARRAY:
+				return getTypeName(((ArrayType) erasure).getComponentType()) + "[]";
+			case DECLARED:
+				return getBinaryName((TypeElement) ((DeclaredType) erasure).asElement());
+			default:
+				return erasure.toString();
+		}
+	}
+
+	private String getBinaryName(TypeElement type) {
+		return this.elements.getBinaryName(type).toString();
+	}
+
+	private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+		out.writeInt(values.size());
+		for (String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+}
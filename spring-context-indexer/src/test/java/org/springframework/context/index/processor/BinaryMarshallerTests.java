@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Tests for {@link BinaryMarshaller}.
+ */
+public class BinaryMarshallerTests {
+
+	@Test
+	public void readWrite() throws IOException {
+		CandidateComponentsMetadata metadata = new CandidateComponentsMetadata();
+		metadata.add(createItem("com.foo", new byte[] {1, 2, 3}, "first", "second"));
+		metadata.add(createItem("com.bar", null, "first"));
+
+		CandidateComponentsMetadata readMetadata = BinaryMarshaller.read(
+				new ByteArrayInputStream(write(metadata)));
+		assertThat(readMetadata).has(Metadata.of("com.foo", "first", "second"));
+		assertThat(readMetadata).has(Metadata.of("com.bar", "first"));
+		assertThat(readMetadata.getItems()).hasSize(2);
+		assertThat(getItem(readMetadata, "com.foo").getTypeMetadata()).containsExactly(1, 2, 3);
+		assertThat(getItem(readMetadata, "com.bar").getTypeMetadata()).isNull();
+	}
+
+	@Test
+	public void metadataIsWrittenDeterministically() throws IOException {
+		CandidateComponentsMetadata metadata = new CandidateComponentsMetadata();
+		metadata.add(createItem("com.b", null, "type", "other"));
+		metadata.add(createItem("com.c", null, "type"));
+		metadata.add(createItem("com.a", null, "type"));
+
+		CandidateComponentsMetadata reversed = new CandidateComponentsMetadata();
+		reversed.add(createItem("com.a", null, "type"));
+		reversed.add(createItem("com.c", null, "type"));
+		reversed.add(createItem("com.b", null, "other", "type"));
+		assertThat(write(metadata)).isEqualTo(write(reversed));
+	}
+
+	@Test
+	public void readWithUnsupportedVersion() throws IOException {
+		byte[] content = write(new CandidateComponentsMetadata());
+		content[7] = (byte) (BinaryMarshaller.VERSION + 1);
+		assertThatIOException().isThrownBy(() -> BinaryMarshaller.read(new ByteArrayInputStream(content)))
+				.withMessageContaining("version");
+	}
+
+	private static byte[] write(CandidateComponentsMetadata metadata) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		BinaryMarshaller.write(metadata, outputStream);
+		return outputStream.toByteArray();
+	}
+
+	private static ItemMetadata getItem(CandidateComponentsMetadata metadata, String type) {
+		return metadata.getItems().stream().filter(item -> item.getType().equals(type)).findFirst().get();
+	}
+
+	private static ItemMetadata createItem(String type, byte[] typeMetadata, String... stereotypes) {
+		return new ItemMetadata(type, new HashSet<>(Arrays.asList(stereotypes)), typeMetadata);
+	}
+
+}
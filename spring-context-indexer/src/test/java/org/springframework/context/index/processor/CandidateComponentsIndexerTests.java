@@ -19,7 +19,12 @@ package org.springframework.context.index.processor;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.ManagedBean;
 import javax.inject.Named;
@@ -33,9 +38,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
 import org.springframework.context.index.sample.AbstractController;
 import org.springframework.context.index.sample.MetaControllerIndexed;
 import org.springframework.context.index.sample.SampleComponent;
+import org.springframework.context.index.sample.SampleConfiguration;
 import org.springframework.context.index.sample.SampleController;
 import org.springframework.context.index.sample.SampleEmbedded;
 import org.springframework.context.index.sample.SampleMetaController;
@@ -58,6 +71,12 @@ import org.springframework.context.index.sample.type.SampleSpecializedRepo;
 import org.springframework.context.index.sample.type.SmartRepo;
 import org.springframework.context.index.sample.type.SpecializedRepo;
 import org.springframework.context.index.test.TestCompiler;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ClassUtils;
 
@@ -218,6 +237,104 @@ class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems()).hasSize(0);
 	}
 
+	@Test
+	void binaryIndexHasSameCandidates() throws IOException {
+		CandidateComponentsMetadata metadata = compile(SampleComponent.class, SampleService.class);
+		File binaryFile = new File(this.compiler.getOutputLocation(), MetadataStore.BINARY_METADATA_PATH);
+		try (FileInputStream fileInputStream = new FileInputStream(binaryFile)) {
+			CandidateComponentsMetadata binaryMetadata = BinaryMarshaller.read(fileInputStream);
+			assertThat(binaryMetadata).has(Metadata.of(SampleComponent.class, Component.class));
+			assertThat(binaryMetadata).has(Metadata.of(SampleService.class, Component.class));
+			assertThat(binaryMetadata.getItems()).hasSize(metadata.getItems().size());
+		}
+	}
+
+	@Test
+	void binaryIndexHasSameTypeMetadataAsClassFile() throws IOException {
+		compile(SampleConfiguration.class);
+		String type = SampleConfiguration.class.getName();
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {this.compiler.getOutputLocation().toURI().toURL()}, getClass().getClassLoader())) {
+			CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(classLoader);
+			assertThat(index).isNotNull();
+			assertThat(index.getCandidateTypes("org.springframework.context.index.sample",
+					Component.class.getName())).contains(type);
+			MetadataReader indexedReader = index.getMetadataReader(type);
+			assertThat(indexedReader).isNotNull();
+			assertThat(indexedReader.getResource().exists()).isTrue();
+			MetadataReader classFileReader = new SimpleMetadataReaderFactory(classLoader).getMetadataReader(type);
+			assertSameMetadata(indexedReader.getAnnotationMetadata(), classFileReader.getAnnotationMetadata());
+			assertThat(index.getMetadataReader(SampleComponent.class.getName())).isNull();
+
+			StandardEnvironment environment = new StandardEnvironment();
+			environment.setActiveProfiles("dev");
+			ClassPathScanningCandidateComponentProvider provider =
+					new ClassPathScanningCandidateComponentProvider(true, environment);
+			provider.setResourceLoader(new DefaultResourceLoader(classLoader));
+			Set<BeanDefinition> candidates = provider.findCandidateComponents("org.springframework.context.index.sample");
+			assertThat(candidates).hasSize(1);
+			AnnotatedBeanDefinition candidate = (AnnotatedBeanDefinition) candidates.iterator().next();
+			assertThat(candidate.getBeanClassName()).isEqualTo(type);
+			assertThat(candidate.getMetadata().isAnnotated(Configuration.class.getName())).isTrue();
+		}
+	}
+
+	private void assertSameMetadata(AnnotationMetadata actual, AnnotationMetadata expected) {
+		assertThat(actual.getClassName()).isEqualTo(expected.getClassName());
+		assertThat(actual.isInterface()).isEqualTo(expected.isInterface());
+		assertThat(actual.isAnnotation()).isEqualTo(expected.isAnnotation());
+		assertThat(actual.isAbstract()).isEqualTo(expected.isAbstract());
+		assertThat(actual.isFinal()).isEqualTo(expected.isFinal());
+		assertThat(actual.isIndependent()).isEqualTo(expected.isIndependent());
+		assertThat(actual.getEnclosingClassName()).isEqualTo(expected.getEnclosingClassName());
+		assertThat(actual.getSuperClassName()).isEqualTo(expected.getSuperClassName());
+		assertThat(actual.getInterfaceNames()).containsExactly(expected.getInterfaceNames());
+		assertThat(actual.getMemberClassNames()).containsExactly(expected.getMemberClassNames());
+		assertThat(actual.getAnnotationTypes()).isEqualTo(expected.getAnnotationTypes());
+		for (String annotationType : expected.getAnnotationTypes()) {
+			assertThat(actual.getMetaAnnotationTypes(annotationType))
+					.isEqualTo(expected.getMetaAnnotationTypes(annotationType));
+			assertSameValue(actual.getAnnotationAttributes(annotationType),
+					expected.getAnnotationAttributes(annotationType));
+		}
+		Set<MethodMetadata> expectedMethods = expected.getAnnotatedMethods(Bean.class.getName());
+		Set<MethodMetadata> actualMethods = actual.getAnnotatedMethods(Bean.class.getName());
+		assertThat(expectedMethods).hasSize(2);
+		assertThat(actualMethods).hasSameSizeAs(expectedMethods);
+		for (MethodMetadata expectedMethod : expectedMethods) {
+			MethodMetadata actualMethod = actualMethods.stream()
+					.filter(method -> method.getMethodName().equals(expectedMethod.getMethodName()))
+					.findFirst().orElseThrow(AssertionError::new);
+			assertThat(actualMethod.getDeclaringClassName()).isEqualTo(expectedMethod.getDeclaringClassName());
+			assertThat(actualMethod.getReturnTypeName()).isEqualTo(expectedMethod.getReturnTypeName());
+			assertThat(actualMethod.isStatic()).isEqualTo(expectedMethod.isStatic());
+			assertThat(actualMethod.isFinal()).isEqualTo(expectedMethod.isFinal());
+			assertThat(actualMethod.isOverridable()).isEqualTo(expectedMethod.isOverridable());
+			assertSameValue(actualMethod.getAllAnnotationAttributes(Bean.class.getName()),
+					expectedMethod.getAllAnnotationAttributes(Bean.class.getName()));
+		}
+	}
+
+	private void assertSameValue(Object actual, Object expected) {
+		if (expected instanceof Map) {
+			assertThat(actual).isInstanceOf(Map.class);
+			Map<?, ?> actualMap = (Map<?, ?>) actual;
+			Map<?, ?> expectedMap = (Map<?, ?>) expected;
+			assertThat(actualMap.keySet()).isEqualTo(expectedMap.keySet());
+			expectedMap.forEach((key, value) -> assertSameValue(actualMap.get(key), value));
+		}
+		else if (expected != null && expected.getClass().isArray()) {
+			assertThat(actual.getClass()).isEqualTo(expected.getClass());
+			assertThat(Array.getLength(actual)).isEqualTo(Array.getLength(expected));
+			for (int i = 0; i < Array.getLength(expected); i++) {
+				assertSameValue(Array.get(actual, i), Array.get(expected, i));
+			}
+		}
+		else {
+			assertThat(actual).isEqualTo(expected);
+		}
+	}
+
 	private void testComponent(Class<?>... classes) {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
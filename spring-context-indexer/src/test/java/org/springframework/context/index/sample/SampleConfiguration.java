@@ -0,0 +1,60 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.sample;
+
+import java.io.Serializable;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.ScopedProxyMode;
+
+/**
+ * Test candidate with a variety of annotation attributes and annotated methods.
+ */
+@Configuration(proxyBeanMethods = false)
+@Lazy
+@Profile({"dev", "test"})
+@Import({SampleComponent.class, SampleService.class})
+@ComponentScan(basePackages = "org.springframework.context.index.sample.none",
+		excludeFilters = @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = Deprecated.class))
+@org.springframework.context.annotation.Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
+public class SampleConfiguration implements Serializable {
+
+	@Bean(initMethod = "init", autowireCandidate = false)
+	public SampleService sampleService(SampleComponent component, int[] values) {
+		return new SampleService();
+	}
+
+	@Bean
+	@Lazy(false)
+	static SampleRepository sampleRepository() {
+		return new SampleRepository();
+	}
+
+	public void notAnnotated() {
+	}
+
+
+	public static class Member {
+	}
+
+}
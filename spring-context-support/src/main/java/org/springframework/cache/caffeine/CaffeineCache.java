@@ -16,9 +16,15 @@
 
 package org.springframework.cache.caffeine;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
@@ -29,7 +35,13 @@ import org.springframework.util.Assert;
  * Spring {@link org.springframework.cache.Cache} adapter implementation
  * on top of a Caffeine {@link com.github.benmanes.caffeine.cache.Cache} instance.
  *
- * <p>Requires Caffeine 2.1 or higher.
+ * <p>As of 5.3, can also be created on top of a Caffeine {@link AsyncCache},
+ * in which case {@link #retrieve(Object)}, {@link #retrieve(Object, Supplier)}
+ * and {@link #store(Object, Object)} operate on the asynchronous cache, with
+ * Caffeine coalescing concurrent loads for the same key.
+ *
+ * <p>Requires Caffeine 2.1 or higher, and Caffeine 2.7 or higher for
+ * {@link AsyncCache} support.
  *
  * @author Ben Manes
  * @author Juergen Hoeller
@@ -43,6 +55,9 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 
 	private final com.github.benmanes.caffeine.cache.Cache<Object, Object> cache;
 
+	@Nullable
+	private final AsyncCache<Object, Object> asyncCache;
+
 
 	/**
 	 * Create a {@link CaffeineCache} instance with the specified name and the
@@ -70,6 +85,26 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		Assert.notNull(cache, "Cache must not be null");
 		this.name = name;
 		this.cache = cache;
+		this.asyncCache = null;
+	}
+
+	/**
+	 * Create a {@link CaffeineCache} instance with the specified name and the
+	 * given internal {@link AsyncCache} to use, exposing its synchronous view
+	 * as the native cache.
+	 * @param name the name of the cache
+	 * @param cache the backing Caffeine AsyncCache instance
+	 * @param allowNullValues whether to accept and convert {@code null}
+	 * values for this cache
+	 * @since 5.3
+	 */
+	public CaffeineCache(String name, AsyncCache<Object, Object> cache, boolean allowNullValues) {
+		super(allowNullValues);
+		Assert.notNull(name, "Name must not be null");
+		Assert.notNull(cache, "Cache must not be null");
+		this.name = name;
+		this.cache = cache.synchronous();
+		this.asyncCache = cache;
 	}
 
 
@@ -83,6 +118,16 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return this.cache;
 	}
 
+	/**
+	 * Return the internal {@link AsyncCache}, if this cache has been created
+	 * on top of one.
+	 * @since 5.3
+	 */
+	@Nullable
+	public final AsyncCache<Object, Object> getAsyncCache() {
+		return this.asyncCache;
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper get(Object key) {
@@ -93,6 +138,20 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return super.get(key);
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, Object> storeValues = (this.cache instanceof LoadingCache ?
+				((LoadingCache<Object, Object>) this.cache).getAll(keys) : this.cache.getAllPresent(keys));
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(storeValues.size());
+		for (Object key : keys) {
+			Object storeValue = storeValues.get(key);
+			if (storeValue != null) {
+				result.put(key, toValueWrapper(storeValue));
+			}
+		}
+		return result;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	@Nullable
@@ -106,11 +165,49 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return this.cache.getIfPresent(key);
 	}
 
+	@Override
+	public CompletableFuture<ValueWrapper> retrieve(Object key) {
+		if (this.asyncCache == null) {
+			return super.retrieve(key);
+		}
+		CompletableFuture<Object> result = this.asyncCache.getIfPresent(key);
+		if (result == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return result.thenApply(this::toValueWrapper);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		if (this.asyncCache == null) {
+			return super.retrieve(key, valueLoader);
+		}
+		// A future completing with null is not cached by Caffeine
+		return this.asyncCache.get(key, (k, executor) -> valueLoader.get().thenApply(
+				value -> (value != null || isAllowNullValues() ? toStoreValue(value) : null)))
+				.thenApply(storeValue -> (T) fromStoreValue(storeValue));
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.cache.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		this.cache.putAll(toStoreValues(entries));
+	}
+
+	@Override
+	public CompletableFuture<Void> store(Object key, @Nullable Object value) {
+		if (this.asyncCache == null) {
+			return super.store(key, value);
+		}
+		this.asyncCache.put(key, CompletableFuture.completedFuture(toStoreValue(value)));
+		return CompletableFuture.completedFuture(null);
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable final Object value) {
@@ -141,6 +238,14 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return notEmpty;
 	}
 
+	private Map<Object, Object> toStoreValues(Map<?, ?> entries) {
+		Map<Object, Object> storeValues = new LinkedHashMap<>(entries.size());
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			storeValues.put(entry.getKey(), toStoreValue(entry.getValue()));
+		}
+		return storeValues;
+	}
+
 
 	private class PutIfAbsentFunction implements Function<Object, Object> {
 
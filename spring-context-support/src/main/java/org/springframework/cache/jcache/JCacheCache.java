@@ -16,6 +16,11 @@
 
 package org.springframework.cache.jcache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 import javax.cache.Cache;
@@ -79,6 +84,20 @@ public class JCacheCache extends AbstractValueAdaptingCache {
 		return this.cache.get(key);
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Set<Object> keysToUse = new LinkedHashSet<>(keys);
+		Map<Object, Object> storeValues = this.cache.getAll(keysToUse);
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(storeValues.size());
+		for (Object key : keysToUse) {
+			Object storeValue = storeValues.get(key);
+			if (storeValue != null) {
+				result.put(key, toValueWrapper(storeValue));
+			}
+		}
+		return result;
+	}
+
 	@Override
 	@Nullable
 	public <T> T get(Object key, Callable<T> valueLoader) {
@@ -95,6 +114,15 @@ public class JCacheCache extends AbstractValueAdaptingCache {
 		this.cache.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		Map<Object, Object> storeValues = new LinkedHashMap<>(entries.size());
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			storeValues.put(entry.getKey(), toStoreValue(entry.getValue()));
+		}
+		this.cache.putAll(storeValues);
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
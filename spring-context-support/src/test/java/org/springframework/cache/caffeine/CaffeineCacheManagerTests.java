@@ -211,4 +211,18 @@ public class CaffeineCacheManagerTests {
 		assertThat(cm.getCache("c2") == cache2).isTrue();
 	}
 
+	@Test
+	public void asyncCacheMode() {
+		CaffeineCacheManager cm = new CaffeineCacheManager("c1");
+		Cache cache1 = cm.getCache("c1");
+		assertThat(((CaffeineCache) cache1).getAsyncCache()).isNull();
+
+		cm.setAsyncCacheMode(true);
+		assertThat(cm.isAsyncCacheMode()).isTrue();
+		CaffeineCache cache1x = (CaffeineCache) cm.getCache("c1");
+		assertThat(cache1x != cache1).isTrue();
+		assertThat(cache1x.getAsyncCache()).isNotNull();
+		assertThat(cache1x.getNativeCache()).isSameAs(cache1x.getAsyncCache().synchronous());
+	}
+
 }
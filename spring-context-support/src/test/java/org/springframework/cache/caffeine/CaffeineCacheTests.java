@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.cache.caffeine;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -79,4 +82,43 @@ public class CaffeineCacheTests extends AbstractValueAdaptingCacheTests<Caffeine
 		assertThat(cache.get(key).get()).isEqualTo(value);
 	}
 
+	@Test
+	public void testAsyncCacheRetrieveAndStore() throws Exception {
+		CaffeineCache cache = new CaffeineCache(CACHE_NAME, Caffeine.newBuilder().buildAsync(), true);
+		Object key = new Object();
+
+		assertThat(cache.retrieve(key).get()).isNull();
+		cache.store(key, null).get();
+		assertThat(cache.retrieve(key).get().get()).isNull();
+		cache.store(key, "value").get();
+		assertThat(cache.retrieve(key).get().get()).isEqualTo("value");
+		assertThat(cache.get(key).get()).isEqualTo("value");
+	}
+
+	@Test
+	public void testAsyncCacheRetrieveCoalescesLoads() throws Exception {
+		CaffeineCache cache = new CaffeineCache(CACHE_NAME, Caffeine.newBuilder().buildAsync(), false);
+		Object key = new Object();
+		AtomicInteger loads = new AtomicInteger();
+		CompletableFuture<String> pending = new CompletableFuture<>();
+
+		CompletableFuture<String> first = cache.retrieve(key, () -> {
+			loads.incrementAndGet();
+			return pending;
+		});
+		CompletableFuture<String> second = cache.retrieve(key, () -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture("other");
+		});
+		pending.complete("value");
+
+		assertThat(first.get()).isEqualTo("value");
+		assertThat(second.get()).isEqualTo("value");
+		assertThat(loads.get()).isEqualTo(1);
+
+		Object otherKey = new Object();
+		assertThat(cache.retrieve(otherKey, () -> CompletableFuture.completedFuture(null)).get()).isNull();
+		assertThat(cache.retrieve(otherKey).get()).isNull();
+	}
+
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Opcodes;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Benchmark for classpath scanning of a synthetic classpath with 20k classes
+ * spread over directories and jar files, every tenth class being a component,
+ * comparing sequential with {@link ForkJoinPool}-based scanning.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClassPathScanningBenchmark {
+
+	private static final String BASE_PACKAGE = "org.springframework.context.annotation.scanbenchmark";
+
+	@Benchmark
+	public Set<BeanDefinition> scan(BenchmarkState state) {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		// Fresh resource loader: no metadata cached from previous invocations
+		provider.setResourceLoader(new DefaultResourceLoader(state.classLoader));
+		provider.setScanningExecutor(state.executor);
+		return provider.findCandidateComponents(BASE_PACKAGE);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"20000"})
+		int classCount;
+
+		@Param({"2"})
+		int directoryCount;
+
+		@Param({"2"})
+		int jarCount;
+
+		@Param({"false", "true"})
+		boolean parallel;
+
+		File root;
+
+		URLClassLoader classLoader;
+
+		ForkJoinPool executor;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			this.root = Files.createTempDirectory("scanbenchmark").toFile();
+			int rootCount = this.directoryCount + this.jarCount;
+			URL[] urls = new URL[rootCount];
+			for (int i = 0; i < rootCount; i++) {
+				int from = this.classCount * i / rootCount;
+				int to = this.classCount * (i + 1) / rootCount;
+				File location = (i < this.directoryCount ? writeDirectory(i, from, to) : writeJar(i, from, to));
+				urls[i] = location.toURI().toURL();
+			}
+			this.classLoader = new URLClassLoader(urls, getClass().getClassLoader());
+			this.executor = (this.parallel ? new ForkJoinPool() : null);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			if (this.executor != null) {
+				this.executor.shutdown();
+			}
+			this.classLoader.close();
+			FileSystemUtils.deleteRecursively(this.root);
+		}
+
+		private File writeDirectory(int index, int from, int to) throws IOException {
+			File directory = new File(this.root, "classes" + index);
+			for (int i = from; i < to; i++) {
+				File classFile = new File(directory, getClassName(i).replace('.', '/') + ".class");
+				classFile.getParentFile().mkdirs();
+				try (OutputStream out = new FileOutputStream(classFile)) {
+					out.write(generateClass(i));
+				}
+			}
+			return directory;
+		}
+
+		private File writeJar(int index, int from, int to) throws IOException {
+			File jarFile = new File(this.root, "classes" + index + ".jar");
+			try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+				String packagePath = "";
+				for (String segment : BASE_PACKAGE.split("\\.")) {
+					packagePath += segment + "/";
+					out.putNextEntry(new ZipEntry(packagePath));
+					out.closeEntry();
+				}
+				String subPackagePath = null;
+				for (int i = from; i < to; i++) {
+					String className = getClassName(i).replace('.', '/');
+					String classPackagePath = className.substring(0, className.lastIndexOf('/') + 1);
+					if (!classPackagePath.equals(subPackagePath)) {
+						subPackagePath = classPackagePath;
+						out.putNextEntry(new ZipEntry(subPackagePath));
+						out.closeEntry();
+					}
+					out.putNextEntry(new ZipEntry(className + ".class"));
+					out.write(generateClass(i));
+					out.closeEntry();
+				}
+			}
+			return jarFile;
+		}
+
+		private static String getClassName(int index) {
+			return BASE_PACKAGE + ".p" + (index / 500) + ".Synthetic" + index;
+		}
+
+		private static byte[] generateClass(int index) {
+			ClassWriter writer = new ClassWriter(0);
+			writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER,
+					getClassName(index).replace('.', '/'), null, "java/lang/Object", null);
+			if (index % 10 == 0) {
+				AnnotationVisitor annotation = writer.visitAnnotation(
+						"L" + Component.class.getName().replace('.', '/') + ";", true);
+				annotation.visitEnd();
+			}
+			writer.visitEnd();
+			return writer.toByteArray();
+		}
+	}
+
+}
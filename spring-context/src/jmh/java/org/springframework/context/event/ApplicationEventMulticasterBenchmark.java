@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.Currency;
+import java.util.Date;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+
+/**
+ * Benchmark for multi-threaded event publication through a
+ * {@link SimpleApplicationEventMulticaster} with listeners for distinct
+ * payload event types, with and without listeners being registered and
+ * removed concurrently.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ApplicationEventMulticasterBenchmark {
+
+	private static final Class<?>[] PAYLOAD_TYPES = {String.class, Integer.class, Long.class, Short.class,
+			Byte.class, Double.class, Float.class, Character.class, Boolean.class, BigDecimal.class,
+			BigInteger.class, Date.class, UUID.class, Locale.class, Currency.class, URI.class};
+
+
+	@Benchmark
+	@Threads(4)
+	public void publishEvent(BenchmarkState state) {
+		state.publishRandomEvent();
+	}
+
+	@Benchmark
+	@Group("publishWhileRegistering")
+	@GroupThreads(3)
+	public void publish(BenchmarkState state) {
+		state.publishRandomEvent();
+	}
+
+	@Benchmark
+	@Group("publishWhileRegistering")
+	@GroupThreads(1)
+	public void register(BenchmarkState state) {
+		state.multicaster.addApplicationListener(state.transientListener);
+		state.multicaster.removeApplicationListener(state.transientListener);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"4", "16"})
+		int eventTypeCount;
+
+		@Param({"8"})
+		int listenersPerEventType;
+
+		SimpleApplicationEventMulticaster multicaster;
+
+		ApplicationEvent[] events;
+
+		ResolvableType[] eventTypes;
+
+		PayloadListener transientListener;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.multicaster = new SimpleApplicationEventMulticaster();
+			this.events = new ApplicationEvent[this.eventTypeCount];
+			this.eventTypes = new ResolvableType[this.eventTypeCount];
+			for (int i = 0; i < this.eventTypeCount; i++) {
+				Class<?> payloadType = PAYLOAD_TYPES[i];
+				this.events[i] = new PayloadApplicationEvent<>(this, payloadType.getName());
+				this.eventTypes[i] = ResolvableType.forClassWithGenerics(PayloadApplicationEvent.class, payloadType);
+				for (int j = 0; j < this.listenersPerEventType; j++) {
+					this.multicaster.addApplicationListener(new PayloadListener(payloadType, j));
+				}
+			}
+			this.transientListener = new PayloadListener(PAYLOAD_TYPES[0], this.listenersPerEventType);
+		}
+
+		void publishRandomEvent() {
+			int index = ThreadLocalRandom.current().nextInt(this.eventTypeCount);
+			this.multicaster.multicastEvent(this.events[index], this.eventTypes[index]);
+		}
+	}
+
+
+	private static class PayloadListener implements GenericApplicationListener {
+
+		private final Class<?> payloadType;
+
+		private final int order;
+
+		private final LongAdder count = new LongAdder();
+
+		PayloadListener(Class<?> payloadType, int order) {
+			this.payloadType = payloadType;
+			this.order = order;
+		}
+
+		@Override
+		public boolean supportsEventType(ResolvableType eventType) {
+			return (PayloadApplicationEvent.class.isAssignableFrom(eventType.toClass()) &&
+					eventType.getGeneric().toClass() == this.payloadType);
+		}
+
+		@Override
+		public boolean supportsSourceType(@Nullable Class<?> sourceType) {
+			return true;
+		}
+
+		@Override
+		public void onApplicationEvent(ApplicationEvent event) {
+			this.count.increment();
+		}
+
+		@Override
+		public int getOrder() {
+			return this.order;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,12 @@
 
 package org.springframework.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
 
@@ -100,6 +105,97 @@ public interface Cache {
 	@Nullable
 	<T> T get(Object key, Callable<T> valueLoader);
 
+	/**
+	 * Return the values to which this cache maps the specified keys.
+	 * <p>The returned map contains a {@link ValueWrapper} (which may hold a
+	 * cached {@code null} value) for each of the given keys that this cache
+	 * contains a mapping for, with keys that are not present in the cache
+	 * being absent from the returned map, analogous to {@link #get(Object)}.
+	 * <p>The default implementation delegates to {@link #get(Object)} for each
+	 * key. Implementations are encouraged to override this method with a bulk
+	 * lookup in the native cache, e.g. to save round trips to a remote store.
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a map of the keys found in the cache to their values, in the
+	 * iteration order of the given keys (never {@code null})
+	 * @since 5.3
+	 * @see #get(Object)
+	 * @see #putAll(Map)
+	 */
+	default Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper valueWrapper = get(key);
+			if (valueWrapper != null) {
+				result.put(key, valueWrapper);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the value to which this cache maps the specified key, asynchronously.
+	 * <p>The returned future completes with a {@link ValueWrapper} (which may hold
+	 * a cached {@code null} value) if the cache contains a mapping for this key,
+	 * and with {@code null} otherwise, analogous to {@link #get(Object)}.
+	 * <p>The default implementation delegates to {@link #get(Object)}, returning
+	 * an already completed future. Implementations backed by a remote store or by
+	 * a native asynchronous cache are encouraged to override this method.
+	 * @param key the key whose associated value is to be returned
+	 * @return a future for the value to which this cache maps the specified key
+	 * @since 5.3
+	 * @see #get(Object)
+	 * @see #retrieve(Object, Supplier)
+	 */
+	default CompletableFuture<ValueWrapper> retrieve(Object key) {
+		return CompletableFuture.completedFuture(get(key));
+	}
+
+	/**
+	 * Return the value to which this cache maps the specified key, asynchronously
+	 * obtaining that value from {@code valueLoader} if necessary. This is the
+	 * asynchronous counterpart of {@link #get(Object, Callable)}.
+	 * <p>If possible, implementations should ensure that the loading operation
+	 * is coalesced so that the specified {@code valueLoader} is only called once
+	 * in case of concurrent access on the same key, with all callers receiving
+	 * the loaded value. A future completing exceptionally is not cached.
+	 * <p>The default implementation checks {@link #get(Object)} first, otherwise
+	 * calling the {@code valueLoader} and putting its value into the cache on
+	 * completion, without any coalescing of concurrent loads.
+	 * @param key the key whose associated value is to be returned
+	 * @param valueLoader the loader for a future of the value
+	 * @return a future for the value to which this cache maps the specified key
+	 * @since 5.3
+	 * @see #get(Object, Callable)
+	 */
+	@SuppressWarnings("unchecked")
+	default <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper valueWrapper = get(key);
+		if (valueWrapper != null) {
+			return CompletableFuture.completedFuture((T) valueWrapper.get());
+		}
+		return valueLoader.get().thenApply(value -> {
+			put(key, value);
+			return value;
+		});
+	}
+
+	/**
+	 * Associate the specified value with the specified key in this cache,
+	 * asynchronously. This is the asynchronous counterpart of
+	 * {@link #put(Object, Object)}, with the same semantics otherwise.
+	 * <p>The default implementation delegates to {@link #put(Object, Object)},
+	 * returning an already completed future.
+	 * @param key the key with which the specified value is to be associated
+	 * @param value the value to be associated with the specified key
+	 * @return a future completing once the value has been stored
+	 * @since 5.3
+	 * @see #put(Object, Object)
+	 */
+	default CompletableFuture<Void> store(Object key, @Nullable Object value) {
+		put(key, value);
+		return CompletableFuture.completedFuture(null);
+	}
+
 	/**
 	 * Associate the specified value with the specified key in this cache.
 	 * <p>If the cache previously contained a mapping for this key, the old
@@ -114,6 +210,23 @@ public interface Cache {
 	 */
 	void put(Object key, @Nullable Object value);
 
+	/**
+	 * Associate each of the values in the given map with its key in this cache,
+	 * with the same semantics as {@link #put(Object, Object)} otherwise.
+	 * <p>The default implementation delegates to {@link #put(Object, Object)}
+	 * for each entry. Implementations are encouraged to override this method
+	 * with a bulk update of the native cache.
+	 * @param entries the keys and values to put into this cache
+	 * @since 5.3
+	 * @see #put(Object, Object)
+	 * @see #getAll(Collection)
+	 */
+	default void putAll(Map<?, ?> entries) {
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
 	/**
 	 * Atomically associate the specified value with the specified key in this cache
 	 * if it is not set already.
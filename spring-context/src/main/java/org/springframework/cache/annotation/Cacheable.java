@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -179,4 +179,57 @@ public @interface Cacheable {
 	 */
 	boolean sync() default false;
 
+	/**
+	 * The time in milliseconds after which a cached value is considered stale
+	 * and gets refreshed ahead of its actual expiration.
+	 * <p>The first caller finding a stale value invokes the method and updates
+	 * the cache, while concurrent callers keep being served the stale value.
+	 * The age of a value is tracked from the time it has been put into the cache
+	 * by the caching infrastructure, or otherwise from the time it has first been
+	 * found in the cache. A refresh attempt resets the age of the value even if
+	 * its result does not get cached, e.g. if vetoed through {@link #unless()}
+	 * or if the method fails, serving the stale value until it is considered
+	 * stale again.
+	 * <p>Default is {@code -1}, meaning that cached values are never refreshed.
+	 * Not supported in combination with {@link #sync()} or with other cache
+	 * operations on the same method.
+	 * @since 5.3
+	 */
+	long refreshAfter() default -1;
+
+	/**
+	 * The time in milliseconds for which a {@code null} result is remembered,
+	 * serving subsequent calls for the same key without invoking the method.
+	 * <p>Negative results are kept apart from the actual cache, so this applies
+	 * to caches which do not allow for {@code null} values as well as to
+	 * results vetoed through {@link #unless()}. An eviction of the key or a
+	 * clearing of the cache discards remembered negative results.
+	 * <p>Default is {@code -1}, meaning that {@code null} results are only
+	 * cached like any other value. Not supported in combination with
+	 * {@link #sync()} or with other cache operations on the same method.
+	 * @since 5.3
+	 */
+	long negativeTtl() default -1;
+
+	/**
+	 * Whether to cache the values of the method per key of a collection of keys.
+	 * <p>If {@code true}, the method needs to declare a {@link java.util.Collection}
+	 * parameter with the keys to look up (e.g. a {@code Collection}, {@code List}
+	 * or {@code Set}) and to return a {@link java.util.Map} from key to value.
+	 * The keys are looked up in the cache in bulk, and the method only gets
+	 * invoked for the keys which were not found, with the cached values being
+	 * merged back into the returned map. Each entry of the map returned by the
+	 * method gets cached under its key.
+	 * <p>The elements of the collection are used as cache keys as-is, so that a
+	 * bulk method can share its cache entries with a single-key method. The
+	 * {@link #condition()} is evaluated once against the original arguments.
+	 * <p>Default is {@code false}. Not supported in combination with
+	 * {@link #key()}, {@link #unless()}, {@link #sync()}, {@link #refreshAfter()},
+	 * {@link #negativeTtl()}, asynchronous return types or other cache operations
+	 * on the same method. Requires proxy-based interception, since the collection
+	 * argument is replaced for the actual invocation.
+	 * @since 5.3
+	 */
+	boolean bulk() default false;
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -128,6 +128,9 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		builder.setCacheManager(cacheable.cacheManager());
 		builder.setCacheResolver(cacheable.cacheResolver());
 		builder.setSync(cacheable.sync());
+		builder.setRefreshAfter(cacheable.refreshAfter());
+		builder.setNegativeTtl(cacheable.negativeTtl());
+		builder.setBulk(cacheable.bulk());
 
 		defaultConfig.applyDefault(builder);
 		CacheableOperation op = builder.build();
@@ -16,9 +16,14 @@
 
 package org.springframework.cache.concurrent;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 import org.springframework.core.serializer.support.SerializationDelegate;
@@ -38,6 +43,9 @@ import org.springframework.util.Assert;
  * them with a predefined internal object. This behavior can be changed through the
  * {@link #ConcurrentMapCache(String, ConcurrentMap, boolean)} constructor.
  *
+ * <p>As of 5.3, concurrent asynchronous loads for the same key through
+ * {@link #retrieve(Object, Supplier)} are coalesced into a single load.
+ *
  * @author Costin Leau
  * @author Juergen Hoeller
  * @author Stephane Nicoll
@@ -53,6 +61,8 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 	@Nullable
 	private final SerializationDelegate serialization;
 
+	private final ConcurrentMap<Object, CompletableFuture<Object>> pendingLoads = new ConcurrentHashMap<>(16);
+
 
 	/**
 	 * Create a new ConcurrentMapCache with the specified name.
@@ -135,6 +145,18 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 		return this.store.get(key);
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			Object storeValue = this.store.get(key);
+			if (storeValue != null) {
+				result.put(key, toValueWrapper(storeValue));
+			}
+		}
+		return result;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	@Nullable
@@ -149,11 +171,85 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 		}));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		Object storeValue = this.store.get(key);
+		if (storeValue != null) {
+			return CompletableFuture.completedFuture((T) fromStoreValue(storeValue));
+		}
+		CompletableFuture<Object> load = new CompletableFuture<>();
+		CompletableFuture<Object> existingLoad = this.pendingLoads.putIfAbsent(key, load);
+		if (existingLoad == null) {
+			startLoad(key, valueLoader, load);
+			existingLoad = load;
+		}
+		// Derived future per caller: the shared load cannot be completed from outside
+		return existingLoad.thenApply(value -> (T) fromStoreValue(value));
+	}
+
+	private void startLoad(Object key, Supplier<? extends CompletableFuture<?>> valueLoader,
+			CompletableFuture<Object> load) {
+
+		// Re-check: a concurrent load may have completed in the meantime
+		Object storeValue = this.store.get(key);
+		if (storeValue != null) {
+			completeLoad(key, load, storeValue, null);
+			return;
+		}
+		CompletableFuture<?> loaded;
+		try {
+			loaded = valueLoader.get();
+		}
+		catch (Throwable ex) {
+			completeLoad(key, load, null, ex);
+			return;
+		}
+		loaded.whenComplete((value, ex) -> {
+			if (ex != null) {
+				completeLoad(key, load, null, ex);
+				return;
+			}
+			Object valueToStore;
+			try {
+				valueToStore = toStoreValue(value);
+			}
+			catch (Throwable ex2) {
+				completeLoad(key, load, null, ex2);
+				return;
+			}
+			this.store.put(key, valueToStore);
+			completeLoad(key, load, valueToStore, null);
+		});
+	}
+
+	private void completeLoad(Object key, CompletableFuture<Object> load,
+			@Nullable Object storeValue, @Nullable Throwable ex) {
+
+		this.pendingLoads.remove(key, load);
+		if (ex != null) {
+			load.completeExceptionally(ex);
+		}
+		else {
+			load.complete(storeValue);
+		}
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.store.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		Map<Object, Object> storeValues = new LinkedHashMap<>(entries.size());
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			storeValues.put(entry.getKey(), toStoreValue(entry.getValue()));
+		}
+		// Only update the store once all values have been converted successfully
+		this.store.putAll(storeValues);
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
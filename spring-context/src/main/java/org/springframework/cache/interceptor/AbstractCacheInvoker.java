@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,14 @@
 
 package org.springframework.cache.interceptor;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
 import org.springframework.cache.Cache;
 import org.springframework.lang.Nullable;
 import org.springframework.util.function.SingletonSupplier;
@@ -91,6 +99,138 @@ public abstract class AbstractCacheInvoker {
 		}
 	}
 
+	/**
+	 * Execute {@link Cache#getAll(Collection)} on the specified {@link Cache} and
+	 * invoke the error handler if an exception occurs. Return an empty map
+	 * if the handler does not throw any exception, which simulates a cache
+	 * miss for all keys in case of error.
+	 * @since 5.3
+	 * @see Cache#getAll(Collection)
+	 */
+	protected Map<Object, Cache.ValueWrapper> doGetAll(Cache cache, Collection<?> keys) {
+		try {
+			return cache.getAll(keys);
+		}
+		catch (RuntimeException ex) {
+			getErrorHandler().handleCacheGetError(ex, cache, keys);
+			return Collections.emptyMap();  // If the exception is handled, return a cache miss
+		}
+	}
+
+	/**
+	 * Execute {@link Cache#putAll(Map)} on the specified {@link Cache}
+	 * and invoke the error handler if an exception occurs.
+	 * @since 5.3
+	 */
+	protected void doPutAll(Cache cache, Map<?, ?> entries) {
+		try {
+			cache.putAll(entries);
+		}
+		catch (RuntimeException ex) {
+			getErrorHandler().handleCachePutError(ex, cache, entries.keySet(), entries);
+		}
+	}
+
+	/**
+	 * Execute {@link Cache#retrieve(Object)} on the specified {@link Cache} and
+	 * invoke the error handler if the retrieval fails. Complete with {@code null}
+	 * if the handler does not throw any exception, which simulates a cache miss
+	 * in case of error.
+	 * @since 5.3
+	 * @see Cache#retrieve(Object)
+	 */
+	protected CompletableFuture<Cache.ValueWrapper> doRetrieve(Cache cache, Object key) {
+		CompletableFuture<Cache.ValueWrapper> result;
+		try {
+			result = cache.retrieve(key);
+		}
+		catch (RuntimeException ex) {
+			result = failedFuture(ex);
+		}
+		return result.handle((wrapper, ex) -> {
+			if (ex != null) {
+				getErrorHandler().handleCacheGetError(unwrapFailure(ex), cache, key);
+				return null;  // If the exception is handled, return a cache miss
+			}
+			return wrapper;
+		});
+	}
+
+	/**
+	 * Execute {@link Cache#retrieve(Object, Supplier)} on the specified {@link Cache}
+	 * and invoke the error handler if the retrieval fails for any other reason than
+	 * a failure of the value loader. Fall back to the value loader if the handler
+	 * does not throw any exception, which simulates a cache miss in case of error.
+	 * A failure of the value loader is propagated as-is.
+	 * @since 5.3
+	 * @see Cache#retrieve(Object, Supplier)
+	 */
+	protected <T> CompletableFuture<T> doRetrieve(
+			Cache cache, Object key, Supplier<CompletableFuture<T>> valueLoader) {
+
+		AtomicReference<CompletableFuture<T>> loaded = new AtomicReference<>();
+		Supplier<CompletableFuture<T>> markingLoader = () -> {
+			CompletableFuture<T> future;
+			try {
+				future = valueLoader.get();
+			}
+			catch (RuntimeException ex) {
+				future = failedFuture(ex);
+			}
+			loaded.set(future);
+			// Mark value loader failures, which the cache may share with concurrent callers
+			return future.handle((value, ex) -> {
+				if (ex != null) {
+					throw new ValueLoaderFailure(
+							ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+				}
+				return value;
+			});
+		};
+		CompletableFuture<T> result;
+		try {
+			result = cache.retrieve(key, markingLoader);
+		}
+		catch (RuntimeException ex) {
+			result = failedFuture(ex);
+		}
+		return result.handle((value, ex) -> {
+			if (ex == null) {
+				return CompletableFuture.completedFuture(value);
+			}
+			Throwable loaderFailure = findValueLoaderFailure(ex);
+			if (loaderFailure != null) {
+				return AbstractCacheInvoker.<T>failedFuture(loaderFailure);
+			}
+			getErrorHandler().handleCacheGetError(unwrapFailure(ex), cache, key);
+			// If the exception is handled, fall back to the value loader
+			CompletableFuture<T> future = loaded.get();
+			return (future != null ? future : valueLoader.get());
+		}).thenCompose(future -> future);
+	}
+
+	/**
+	 * Execute {@link Cache#store(Object, Object)} on the specified {@link Cache}
+	 * and invoke the error handler if the store operation fails.
+	 * @since 5.3
+	 * @see Cache#store(Object, Object)
+	 */
+	protected CompletableFuture<Void> doStore(Cache cache, Object key, @Nullable Object result) {
+		CompletableFuture<Void> future;
+		try {
+			future = cache.store(key, result);
+		}
+		catch (RuntimeException ex) {
+			future = failedFuture(ex);
+		}
+		return future.handle((value, ex) -> {
+			if (ex != null) {
+				getErrorHandler().handleCachePutError(unwrapFailure(ex), cache, key, result);
+			}
+			return null;
+		});
+	}
+
 	/**
 	 * Execute {@link Cache#evict(Object)}/{@link Cache#evictIfPresent(Object)} on the
 	 * specified {@link Cache} and invoke the error handler if an exception occurs.
@@ -127,4 +267,43 @@ public abstract class AbstractCacheInvoker {
 		}
 	}
 
+
+	private static <T> CompletableFuture<T> failedFuture(Throwable ex) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(ex);
+		return future;
+	}
+
+	@Nullable
+	private static Throwable findValueLoaderFailure(Throwable ex) {
+		Throwable current = ex;
+		while (current != null) {
+			if (current instanceof ValueLoaderFailure) {
+				return current.getCause();
+			}
+			current = current.getCause();
+		}
+		return null;
+	}
+
+	private static RuntimeException unwrapFailure(Throwable ex) {
+		Throwable cause = (ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return (cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause));
+	}
+
+
+	/**
+	 * Marks a failure of the value loader passed to {@link #doRetrieve(Cache, Object, Supplier)}.
+	 */
+	@SuppressWarnings("serial")
+	private static class ValueLoaderFailure extends RuntimeException {
+
+		ValueLoaderFailure(Throwable cause) {
+			super(cause);
+		}
+	}
+
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Adapts the asynchronous return value of a cacheable method to a
+ * {@link CompletableFuture} of the value to cache, and a future of the
+ * value to return back to the method's return type.
+ *
+ * <p>Supports {@link CompletableFuture} and {@link CompletionStage} return
+ * types, as well as any reactive type known to the shared
+ * {@link ReactiveAdapterRegistry} if Reactor is present. The resolved values
+ * of single-value types are cached as-is, whereas the elements of multi-value
+ * types get collected into a {@link List} for caching.
+ *
+ * @since 5.3
+ * @see CacheAspectSupport
+ */
+abstract class AsyncResultAdapter {
+
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Mono", AsyncResultAdapter.class.getClassLoader());
+
+	private static final AsyncResultAdapter futureAdapter = new FutureResultAdapter();
+
+
+	/**
+	 * Return an adapter for the given method return type.
+	 * @return the adapter, or {@code null} if the return type is not asynchronous
+	 */
+	@Nullable
+	static AsyncResultAdapter forReturnType(Class<?> returnType) {
+		if (returnType == CompletableFuture.class || returnType == CompletionStage.class) {
+			return futureAdapter;
+		}
+		if (reactorPresent) {
+			ReactiveAdapter adapter = ReactiveAdapterRegistry.getSharedInstance().getAdapter(returnType);
+			if (adapter != null && !adapter.isNoValue()) {
+				return new ReactiveResultAdapter(adapter);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Adapt the given method return value to a future of the value to cache.
+	 */
+	abstract CompletableFuture<Object> toFuture(@Nullable Object returnValue);
+
+	/**
+	 * Adapt the future of a (cached or freshly resolved) value, as obtained from
+	 * the given supplier, to the method's return type.
+	 * <p>Lazy return types such as reactive publishers only obtain the future
+	 * on subscription, i.e. perform the cache lookup and potential method
+	 * invocation for each subscriber.
+	 */
+	abstract Object fromFuture(Supplier<CompletableFuture<Object>> futureSupplier);
+
+
+	/**
+	 * Adapter for {@link CompletableFuture} and {@link CompletionStage}.
+	 */
+	private static class FutureResultAdapter extends AsyncResultAdapter {
+
+		@Override
+		@SuppressWarnings("unchecked")
+		CompletableFuture<Object> toFuture(@Nullable Object returnValue) {
+			if (returnValue == null) {
+				return CompletableFuture.completedFuture(null);
+			}
+			return ((CompletionStage<Object>) returnValue).toCompletableFuture();
+		}
+
+		@Override
+		Object fromFuture(Supplier<CompletableFuture<Object>> futureSupplier) {
+			return futureSupplier.get();
+		}
+	}
+
+
+	/**
+	 * Adapter for reactive types, based on a {@link ReactiveAdapter}.
+	 * Only loaded if Reactor is present.
+	 */
+	private static class ReactiveResultAdapter extends AsyncResultAdapter {
+
+		private final ReactiveAdapter adapter;
+
+		ReactiveResultAdapter(ReactiveAdapter adapter) {
+			this.adapter = adapter;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		CompletableFuture<Object> toFuture(@Nullable Object returnValue) {
+			if (returnValue == null) {
+				return CompletableFuture.completedFuture(null);
+			}
+			if (this.adapter.isMultiValue()) {
+				return (CompletableFuture<Object>) (CompletableFuture<?>)
+						Flux.from(this.adapter.toPublisher(returnValue)).collectList().toFuture();
+			}
+			return Mono.from(this.adapter.toPublisher(returnValue)).toFuture();
+		}
+
+		@Override
+		Object fromFuture(Supplier<CompletableFuture<Object>> futureSupplier) {
+			Mono<Object> mono = Mono.defer(() -> Mono.fromFuture(futureSupplier.get()));
+			if (this.adapter.isMultiValue()) {
+				return this.adapter.fromPublisher(mono.flatMapMany(value -> Flux.fromIterable((List<?>) value)));
+			}
+			return this.adapter.fromPublisher(mono);
+		}
+	}
+
+}
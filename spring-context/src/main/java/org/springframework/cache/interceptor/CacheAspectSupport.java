@@ -21,11 +21,16 @@ import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
@@ -44,6 +49,7 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.CollectionFactory;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -70,6 +76,25 @@ import org.springframework.util.function.SupplierUtils;
  * used for determining caching operations, a {@link KeyGenerator} will build the
  * cache keys, and a {@link CacheResolver} will resolve the actual cache(s) to use.
  *
+ * <p>Concurrent cache misses for the same key on methods with {@code @Cacheable}
+ * operations only may be coalesced into a single invocation of the method, with
+ * the other callers waiting for its result; see {@link #setCoalesceCacheMisses}.
+ * Such operations may also refresh stale values ahead of their expiration and
+ * remember {@code null} results for a limited time; see
+ * {@link CacheableOperation#getRefreshAfter()} and
+ * {@link CacheableOperation#getNegativeTtl()}.
+ *
+ * <p>Methods returning a {@link CompletableFuture}, a {@link java.util.concurrent.CompletionStage}
+ * or a reactive type (if Reactor is present) are cached asynchronously: cache
+ * entries are retrieved and stored through {@link Cache#retrieve(Object)} and
+ * {@link Cache#store(Object, Object)}, caching the resolved value of the returned
+ * future or publisher rather than the future or publisher itself, without blocking
+ * the calling thread.
+ *
+ * <p>Methods with a {@code @Cacheable(bulk=true)} operation look up the keys of
+ * their collection argument in bulk through {@link Cache#getAll}, only getting
+ * invoked for the missing keys; see {@link CacheableOperation#isBulk()}.
+ *
  * <p>Note: A cache aspect is serializable but does not perform any actual caching
  * after deserialization.
  *
@@ -90,6 +115,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
+	private final CacheLoadCoordinator loadCoordinator = new CacheLoadCoordinator();
+
 	@Nullable
 	private CacheOperationSource cacheOperationSource;
 
@@ -101,6 +128,10 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	@Nullable
 	private BeanFactory beanFactory;
 
+	private boolean coalesceCacheMisses = false;
+
+	private long coalesceTimeout = 10000;
+
 	private boolean initialized = false;
 
 
@@ -195,6 +226,53 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		this.cacheResolver = SingletonSupplier.of(new SimpleCacheResolver(cacheManager));
 	}
 
+	/**
+	 * Specify whether concurrent cache misses for the same key should be coalesced
+	 * into a single invocation of the underlying method, with the other callers
+	 * waiting for its result instead of invoking the method themselves.
+	 * <p>Default is {@code false}. Applies to methods with {@code @Cacheable}
+	 * operations only, coalescing on the key and the first cache of the first
+	 * operation whose condition passes. A method reentering its own load for
+	 * the same key on the same thread does not wait for itself, and callers
+	 * waiting longer than the {@linkplain #setCoalesceTimeout coalesce timeout}
+	 * invoke the method themselves. If the method fails, the waiting callers
+	 * receive the very same exception instance as the invoking caller.
+	 * @since 5.3
+	 * @see #setCoalesceTimeout
+	 * @see CacheableOperation#isSync()
+	 */
+	public void setCoalesceCacheMisses(boolean coalesceCacheMisses) {
+		this.coalesceCacheMisses = coalesceCacheMisses;
+	}
+
+	/**
+	 * Return whether concurrent cache misses for the same key get coalesced.
+	 * @since 5.3
+	 */
+	public boolean isCoalesceCacheMisses() {
+		return this.coalesceCacheMisses;
+	}
+
+	/**
+	 * Specify the maximum time in milliseconds to wait for a concurrent load
+	 * of the same key when {@linkplain #setCoalesceCacheMisses coalescing cache
+	 * misses}, before invoking the underlying method instead.
+	 * <p>Default is 10 seconds.
+	 * @since 5.3
+	 */
+	public void setCoalesceTimeout(long coalesceTimeout) {
+		Assert.isTrue(coalesceTimeout >= 0, "Coalesce timeout must not be negative");
+		this.coalesceTimeout = coalesceTimeout;
+	}
+
+	/**
+	 * Return the maximum time in milliseconds to wait for a concurrent load.
+	 * @since 5.3
+	 */
+	public long getCoalesceTimeout() {
+		return this.coalesceTimeout;
+	}
+
 	/**
 	 * Set the containing {@link BeanFactory} for {@link CacheManager} and other
 	 * service lookups.
@@ -373,6 +451,12 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	@Nullable
 	private Object execute(final CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+		// Non-blocking handling of asynchronous return types
+		AsyncResultAdapter asyncAdapter = contexts.getAsyncAdapter();
+		if (asyncAdapter != null) {
+			return asyncAdapter.fromFuture(() -> executeAsync(invoker, asyncAdapter, contexts));
+		}
+
 		// Special handling of synchronized invocation
 		if (contexts.isSynchronized()) {
 			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
@@ -394,6 +478,16 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			}
 		}
 
+		// Bulk lookup of a collection of keys
+		if (contexts.isBulk()) {
+			return executeBulk(invoker, method, contexts);
+		}
+
+		// Coalesced loading, refresh-ahead and negative results for @Cacheable-only methods
+		if (contexts.isCoordinated()) {
+			return executeCacheable(invoker, method, contexts.get(CacheableOperation.class));
+		}
+
 
 		// Process any early evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
@@ -437,6 +531,289 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return returnValue;
 	}
 
+	/**
+	 * Execute a method with an asynchronous return type, operating on a future
+	 * of the resolved value instead of on the actual return value.
+	 */
+	private CompletableFuture<Object> executeAsync(
+			CacheOperationInvoker invoker, AsyncResultAdapter asyncAdapter, CacheOperationContexts contexts) {
+
+		if (contexts.isSynchronized()) {
+			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
+			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
+				Cache cache = context.getCaches().iterator().next();
+				return doRetrieve(cache, key, () -> invokeAsync(invoker, asyncAdapter));
+			}
+			else {
+				// No caching required, only call the underlying method
+				return invokeAsync(invoker, asyncAdapter);
+			}
+		}
+
+		// Process any early evictions
+		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
+				CacheOperationExpressionEvaluator.NO_RESULT);
+
+		return findCachedItemAsync(contexts.get(CacheableOperation.class)).thenCompose(cacheHit -> {
+			// Collect puts from any @Cacheable miss, if no cached item is found
+			List<CachePutRequest> cachePutRequests = new LinkedList<>();
+			if (cacheHit == null) {
+				collectPutRequests(contexts.get(CacheableOperation.class),
+						CacheOperationExpressionEvaluator.NO_RESULT, cachePutRequests);
+			}
+
+			CompletableFuture<Object> cacheValue;
+			if (cacheHit != null && !hasCachePut(contexts)) {
+				// If there are no put requests, just use the cache hit
+				cacheValue = CompletableFuture.completedFuture(cacheHit.get());
+			}
+			else {
+				// Invoke the method if we don't have a cache hit
+				cacheValue = invokeAsync(invoker, asyncAdapter);
+			}
+
+			return cacheValue.thenCompose(value -> {
+				// Collect any explicit @CachePuts
+				collectPutRequests(contexts.get(CachePutOperation.class), value, cachePutRequests);
+
+				// Process any collected put requests, either from @CachePut or a @Cacheable miss
+				CompletableFuture<?>[] stores = new CompletableFuture<?>[cachePutRequests.size()];
+				int i = 0;
+				for (CachePutRequest cachePutRequest : cachePutRequests) {
+					stores[i++] = cachePutRequest.applyAsync(value);
+				}
+				return CompletableFuture.allOf(stores).thenApply(done -> {
+					// Process any late evictions
+					processCacheEvicts(contexts.get(CacheEvictOperation.class), false, value);
+					return value;
+				});
+			});
+		});
+	}
+
+	/**
+	 * Invoke the underlying method, adapting its asynchronous return value to
+	 * a future of the value to cache. An exception thrown by the method itself
+	 * is exposed through a failed future.
+	 */
+	private CompletableFuture<Object> invokeAsync(CacheOperationInvoker invoker, AsyncResultAdapter asyncAdapter) {
+		try {
+			return asyncAdapter.toFuture(invokeOperation(invoker));
+		}
+		catch (CacheOperationInvoker.ThrowableWrapper ex) {
+			CompletableFuture<Object> future = new CompletableFuture<>();
+			future.completeExceptionally(ex.getOriginal());
+			return future;
+		}
+	}
+
+	/**
+	 * Execute a method with a {@code @Cacheable(bulk=true)} operation, invoking
+	 * it for the keys not found in the cache(s) only.
+	 */
+	@Nullable
+	private Object executeBulk(CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+		CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
+		int keysIndex = context.metadata.bulkKeysIndex;
+		Object[] args = contexts.args;
+		Collection<?> keys = (Collection<?>) args[keysIndex];
+		if (keys == null || !isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+			// No caching required, only call the underlying method
+			return invokeOperation(invoker);
+		}
+
+		Map<Object, Object> hits = new HashMap<>();
+		Collection<Object> missingKeys = new LinkedHashSet<>(keys);
+		for (Cache cache : context.getCaches()) {
+			if (missingKeys.isEmpty()) {
+				break;
+			}
+			for (Map.Entry<Object, Cache.ValueWrapper> entry : doGetAll(cache, missingKeys).entrySet()) {
+				hits.put(entry.getKey(), entry.getValue().get());
+				missingKeys.remove(entry.getKey());
+			}
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace(hits.size() + " of " + keys.size() + " keys found in cache(s) " + context.getCacheNames());
+		}
+
+		Map<?, ?> loaded = Collections.emptyMap();
+		if (!missingKeys.isEmpty()) {
+			Collection<Object> keysToLoad =
+					CollectionFactory.createCollection(context.metadata.bulkKeysType, missingKeys.size());
+			keysToLoad.addAll(missingKeys);
+			// Invoke the method for the missing keys only
+			args[keysIndex] = keysToLoad;
+			Object returnValue;
+			try {
+				returnValue = invokeOperation(invoker);
+			}
+			finally {
+				args[keysIndex] = keys;
+			}
+			if (returnValue != null) {
+				loaded = (Map<?, ?>) returnValue;
+				if (!loaded.isEmpty()) {
+					for (Cache cache : context.getCaches()) {
+						doPutAll(cache, loaded);
+					}
+				}
+			}
+		}
+
+		// Merge cache hits and loaded values in the order of the requested keys
+		Map<Object, Object> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			if (hits.containsKey(key)) {
+				result.put(key, hits.get(key));
+			}
+			else if (loaded.containsKey(key)) {
+				result.put(key, loaded.get(key));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Execute a method with {@code @Cacheable} operations only, coordinating
+	 * the loading of values through the {@link CacheLoadCoordinator}.
+	 */
+	@Nullable
+	private Object executeCacheable(
+			CacheOperationInvoker invoker, Method method, Collection<CacheOperationContext> contexts) {
+
+		List<CachePutRequest> cachePutRequests = new ArrayList<>(contexts.size());
+		for (CacheOperationContext context : contexts) {
+			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
+				for (Cache cache : context.getCaches()) {
+					Cache.ValueWrapper cacheHit = doGet(cache, key);
+					if (cacheHit != null) {
+						if (logger.isTraceEnabled()) {
+							logger.trace("Cache entry for key '" + key + "' found in cache '" + cache.getName() + "'");
+						}
+						return handleCacheHit(invoker, method, context, cache, key, cacheHit);
+					}
+				}
+				if (logger.isTraceEnabled()) {
+					logger.trace("No cache entry for key '" + key + "' in cache(s) " + context.getCacheNames());
+				}
+				cachePutRequests.add(new CachePutRequest(context, key));
+			}
+		}
+
+		if (cachePutRequests.isEmpty()) {
+			// No caching required, only call the underlying method
+			return invokeOperation(invoker);
+		}
+
+		CachePutRequest primaryRequest = cachePutRequests.get(0);
+		if (isNegativeResult(primaryRequest)) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Negative result remembered for key '" + primaryRequest.key + "' in cache(s) " +
+						primaryRequest.context.getCacheNames());
+			}
+			return wrapCacheValue(method, null);
+		}
+		if (!this.coalesceCacheMisses) {
+			return loadAndPut(invoker, cachePutRequests);
+		}
+
+		Cache cache = primaryRequest.context.getCaches().iterator().next();
+		CacheLoadCoordinator.Load load = new CacheLoadCoordinator.Load();
+		CacheLoadCoordinator.Load existingLoad = this.loadCoordinator.startLoad(cache, primaryRequest.key, load);
+		if (existingLoad == null) {
+			return loadAndPut(invoker, cachePutRequests, cache, primaryRequest.key, load);
+		}
+		if (!existingLoad.isOwnedByCurrentThread()) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Waiting for concurrent load of key '" + primaryRequest.key + "' in cache '" +
+						cache.getName() + "'");
+			}
+			try {
+				return wrapCacheValue(method, existingLoad.await(this.coalesceTimeout));
+			}
+			catch (TimeoutException ex) {
+				// Stop waiting and load the value ourselves
+				if (logger.isDebugEnabled()) {
+					logger.debug("Timed out waiting for concurrent load of key '" + primaryRequest.key +
+							"' in cache '" + cache.getName() + "' - invoking method instead");
+				}
+			}
+			catch (InterruptedException ex) {
+				// Stop waiting and load the value ourselves
+				Thread.currentThread().interrupt();
+			}
+		}
+		return loadAndPut(invoker, cachePutRequests);
+	}
+
+	@Nullable
+	private Object handleCacheHit(CacheOperationInvoker invoker, Method method,
+			CacheOperationContext context, Cache cache, Object key, Cache.ValueWrapper cacheHit) {
+
+		long refreshAfter = ((CacheableOperation) context.metadata.operation).getRefreshAfter();
+		if (refreshAfter >= 0 && this.loadCoordinator.isStale(cache, key, refreshAfter)) {
+			CacheLoadCoordinator.Load load = new CacheLoadCoordinator.Load();
+			if (this.loadCoordinator.startLoad(cache, key, load) == null) {
+				// We are the one to refresh - others keep being served the stale value
+				if (logger.isTraceEnabled()) {
+					logger.trace("Refreshing stale cache entry for key '" + key + "' in cache '" + cache.getName() + "'");
+				}
+				// Track the age from this attempt on, in case the result does not get cached
+				this.loadCoordinator.recordWrite(cache, key);
+				return loadAndPut(invoker, Collections.singletonList(new CachePutRequest(context, key)), cache, key, load);
+			}
+		}
+		return wrapCacheValue(method, cacheHit.get());
+	}
+
+	@Nullable
+	private Object loadAndPut(CacheOperationInvoker invoker, List<CachePutRequest> cachePutRequests,
+			Cache cache, Object key, CacheLoadCoordinator.Load load) {
+
+		Object cacheValue = null;
+		Throwable failure = null;
+		try {
+			Object returnValue = invokeOperation(invoker);
+			cacheValue = unwrapReturnValue(returnValue);
+			for (CachePutRequest cachePutRequest : cachePutRequests) {
+				cachePutRequest.apply(cacheValue);
+			}
+			return returnValue;
+		}
+		catch (RuntimeException | Error ex) {
+			failure = ex;
+			throw ex;
+		}
+		finally {
+			this.loadCoordinator.complete(cache, key, load, cacheValue, failure);
+		}
+	}
+
+	@Nullable
+	private Object loadAndPut(CacheOperationInvoker invoker, List<CachePutRequest> cachePutRequests) {
+		Object returnValue = invokeOperation(invoker);
+		Object cacheValue = unwrapReturnValue(returnValue);
+		for (CachePutRequest cachePutRequest : cachePutRequests) {
+			cachePutRequest.apply(cacheValue);
+		}
+		return returnValue;
+	}
+
+	private boolean isNegativeResult(CachePutRequest cachePutRequest) {
+		if (((CacheableOperation) cachePutRequest.context.metadata.operation).getNegativeTtl() < 0) {
+			return false;
+		}
+		for (Cache cache : cachePutRequest.context.getCaches()) {
+			if (!this.loadCoordinator.isNegative(cache, cachePutRequest.key)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Nullable
 	private Object wrapCacheValue(Method method, @Nullable Object cacheValue) {
 		if (method.getReturnType() == Optional.class &&
@@ -488,6 +865,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			if (operation.isCacheWide()) {
 				logInvalidating(context, operation, null);
 				doClear(cache, operation.isBeforeInvocation());
+				this.loadCoordinator.clear(cache);
 			}
 			else {
 				if (key == null) {
@@ -495,6 +873,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				}
 				logInvalidating(context, operation, key);
 				doEvict(cache, key, operation.isBeforeInvocation());
+				this.loadCoordinator.evict(cache, key);
 			}
 		}
 	}
@@ -532,6 +911,38 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return null;
 	}
 
+	/**
+	 * Find a cached item only for {@link CacheableOperation} that passes the condition,
+	 * asynchronously retrieving entries from one cache after the other.
+	 * @param contexts the cacheable operations
+	 * @return a future for the {@link Cache.ValueWrapper} holding the cached item,
+	 * completing with {@code null} if none is found
+	 */
+	private CompletableFuture<Cache.ValueWrapper> findCachedItemAsync(Collection<CacheOperationContext> contexts) {
+		Object result = CacheOperationExpressionEvaluator.NO_RESULT;
+		CompletableFuture<Cache.ValueWrapper> cached = CompletableFuture.completedFuture(null);
+		for (CacheOperationContext context : contexts) {
+			if (isConditionPassing(context, result)) {
+				Object key = generateKey(context, result);
+				for (Cache cache : context.getCaches()) {
+					cached = cached.thenCompose(wrapper ->
+							(wrapper != null ? CompletableFuture.completedFuture(wrapper) : retrieveInCache(cache, key)));
+				}
+			}
+		}
+		return cached;
+	}
+
+	private CompletableFuture<Cache.ValueWrapper> retrieveInCache(Cache cache, Object key) {
+		return doRetrieve(cache, key).thenApply(wrapper -> {
+			if (logger.isTraceEnabled()) {
+				logger.trace((wrapper != null ? "Cache entry for key '" + key + "' found in cache '" :
+						"No cache entry for key '" + key + "' in cache '") + cache.getName() + "'");
+			}
+			return wrapper;
+		});
+	}
+
 	/**
 	 * Collect the {@link CachePutRequest} for all {@link CacheOperation} using
 	 * the specified result item.
@@ -590,8 +1001,17 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final MultiValueMap<Class<? extends CacheOperation>, CacheOperationContext> contexts;
 
+		private final Object[] args;
+
+		@Nullable
+		private final AsyncResultAdapter asyncAdapter;
+
+		private final boolean bulk;
+
 		private final boolean sync;
 
+		private final boolean coordinated;
+
 		public CacheOperationContexts(Collection<? extends CacheOperation> operations, Method method,
 				Object[] args, Object target, Class<?> targetClass) {
 
@@ -599,7 +1019,11 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			for (CacheOperation op : operations) {
 				this.contexts.add(op.getClass(), getOperationContext(op, method, args, target, targetClass));
 			}
+			this.args = args;
+			this.asyncAdapter = determineAsyncAdapter(method);
+			this.bulk = determineBulkFlag(method);
 			this.sync = determineSyncFlag(method);
+			this.coordinated = determineCoordinatedFlag(method);
 		}
 
 		public Collection<CacheOperationContext> get(Class<? extends CacheOperation> operationClass) {
@@ -607,10 +1031,83 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			return (result != null ? result : Collections.emptyList());
 		}
 
+		@Nullable
+		public AsyncResultAdapter getAsyncAdapter() {
+			return this.asyncAdapter;
+		}
+
+		public boolean isBulk() {
+			return this.bulk;
+		}
+
 		public boolean isSynchronized() {
 			return this.sync;
 		}
 
+		public boolean isCoordinated() {
+			return this.coordinated;
+		}
+
+		@Nullable
+		private AsyncResultAdapter determineAsyncAdapter(Method method) {
+			if (this.contexts.isEmpty()) {
+				return null;
+			}
+			AsyncResultAdapter asyncAdapter = this.contexts.values().iterator().next().get(0).metadata.asyncAdapter;
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (asyncAdapter != null && cacheOperationContexts != null) {
+				for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
+					CacheableOperation operation = (CacheableOperation) cacheOperationContext.getOperation();
+					if (operation.getRefreshAfter() >= 0 || operation.getNegativeTtl() >= 0) {
+						throw new IllegalStateException("@Cacheable on asynchronous method '" + method +
+								"' does not support refreshAfter and negativeTtl attributes");
+					}
+				}
+			}
+			return asyncAdapter;
+		}
+
+		private boolean determineBulkFlag(Method method) {
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
+				return false;
+			}
+			boolean bulkEnabled = false;
+			for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
+				if (((CacheableOperation) cacheOperationContext.getOperation()).isBulk()) {
+					bulkEnabled = true;
+					break;
+				}
+			}
+			if (!bulkEnabled) {
+				return false;
+			}
+			if (this.contexts.size() > 1 || cacheOperationContexts.size() > 1) {
+				throw new IllegalStateException(
+						"@Cacheable(bulk=true) cannot be combined with other cache operations on '" + method + "'");
+			}
+			CacheOperationContext cacheOperationContext = cacheOperationContexts.get(0);
+			CacheableOperation operation = (CacheableOperation) cacheOperationContext.getOperation();
+			if (operation.isSync() || operation.getRefreshAfter() >= 0 || operation.getNegativeTtl() >= 0) {
+				throw new IllegalStateException("@Cacheable(bulk=true) does not support " +
+						"sync, refreshAfter and negativeTtl attributes on '" + operation + "'");
+			}
+			if (StringUtils.hasText(operation.getKey()) || StringUtils.hasText(operation.getUnless())) {
+				throw new IllegalStateException(
+						"@Cacheable(bulk=true) does not support key and unless attributes on '" + operation + "'");
+			}
+			if (this.asyncAdapter != null) {
+				throw new IllegalStateException(
+						"@Cacheable(bulk=true) does not support asynchronous return types on '" + method + "'");
+			}
+			if (cacheOperationContext.metadata.bulkKeysIndex < 0 ||
+					!method.getReturnType().isAssignableFrom(LinkedHashMap.class)) {
+				throw new IllegalStateException("@Cacheable(bulk=true) requires a method with a " +
+						"Collection parameter and a Map return type: '" + method + "'");
+			}
+			return true;
+		}
+
 		private boolean determineSyncFlag(Method method) {
 			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
 			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
@@ -642,10 +1139,37 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 					throw new IllegalStateException(
 							"@Cacheable(sync=true) does not support unless attribute on '" + operation + "'");
 				}
+				if (operation.getRefreshAfter() >= 0 || operation.getNegativeTtl() >= 0) {
+					throw new IllegalStateException("@Cacheable(sync=true) does not support " +
+							"refreshAfter and negativeTtl attributes on '" + operation + "'");
+				}
 				return true;
 			}
 			return false;
 		}
+
+		private boolean determineCoordinatedFlag(Method method) {
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (cacheOperationContexts == null || this.sync || this.bulk || this.asyncAdapter != null) {
+				return false;
+			}
+			boolean refreshOrNegative = false;
+			for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
+				CacheableOperation operation = (CacheableOperation) cacheOperationContext.getOperation();
+				if (operation.getRefreshAfter() >= 0 || operation.getNegativeTtl() >= 0) {
+					refreshOrNegative = true;
+					break;
+				}
+			}
+			if (this.contexts.size() > 1) {
+				if (refreshOrNegative) {
+					throw new IllegalStateException("@Cacheable with refreshAfter or negativeTtl attributes " +
+							"cannot be combined with other cache operations on '" + method + "'");
+				}
+				return false;
+			}
+			return (coalesceCacheMisses || refreshOrNegative);
+		}
 	}
 
 
@@ -669,6 +1193,14 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final CacheResolver cacheResolver;
 
+		@Nullable
+		private final AsyncResultAdapter asyncAdapter;
+
+		private final int bulkKeysIndex;
+
+		@Nullable
+		private final Class<?> bulkKeysType;
+
 		public CacheOperationMetadata(CacheOperation operation, Method method, Class<?> targetClass,
 				KeyGenerator keyGenerator, CacheResolver cacheResolver) {
 
@@ -680,6 +1212,20 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			this.methodKey = new AnnotatedElementKey(this.targetMethod, targetClass);
 			this.keyGenerator = keyGenerator;
 			this.cacheResolver = cacheResolver;
+			this.asyncAdapter = AsyncResultAdapter.forReturnType(this.method.getReturnType());
+			this.bulkKeysIndex = (operation instanceof CacheableOperation && ((CacheableOperation) operation).isBulk() ?
+					findCollectionParameter(this.method) : -1);
+			this.bulkKeysType = (this.bulkKeysIndex >= 0 ? this.method.getParameterTypes()[this.bulkKeysIndex] : null);
+		}
+
+		private static int findCollectionParameter(Method method) {
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			for (int i = 0; i < parameterTypes.length; i++) {
+				if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+					return i;
+				}
+			}
+			return -1;
 		}
 	}
 
@@ -817,12 +1363,38 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 
 		public void apply(@Nullable Object result) {
+			CacheOperation operation = this.context.metadata.operation;
+			if (result == null && operation instanceof CacheableOperation &&
+					((CacheableOperation) operation).getNegativeTtl() >= 0) {
+				for (Cache cache : this.context.getCaches()) {
+					loadCoordinator.recordNegative(cache, this.key, ((CacheableOperation) operation).getNegativeTtl());
+				}
+				return;
+			}
 			if (this.context.canPutToCache(result)) {
+				boolean recordWrite = (operation instanceof CacheableOperation &&
+						((CacheableOperation) operation).getRefreshAfter() >= 0);
 				for (Cache cache : this.context.getCaches()) {
 					doPut(cache, this.key, result);
+					if (recordWrite) {
+						loadCoordinator.recordWrite(cache, this.key);
+					}
 				}
 			}
 		}
+
+		public CompletableFuture<Void> applyAsync(@Nullable Object result) {
+			if (!this.context.canPutToCache(result)) {
+				return CompletableFuture.completedFuture(null);
+			}
+			Collection<? extends Cache> caches = this.context.getCaches();
+			CompletableFuture<?>[] stores = new CompletableFuture<?>[caches.size()];
+			int i = 0;
+			for (Cache cache : caches) {
+				stores[i++] = doStore(cache, this.key, result);
+			}
+			return CompletableFuture.allOf(stores);
+		}
 	}
 
 
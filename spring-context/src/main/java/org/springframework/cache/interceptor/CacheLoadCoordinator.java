@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Coordinates the loading of values for {@code @Cacheable} operations on behalf
+ * of a {@link CacheAspectSupport} instance: keeps track of in-flight loads per
+ * cache key, so that concurrent cache misses for the same key can be coalesced
+ * into a single method invocation, as well as of the write times of cached
+ * values (for refresh-ahead) and of remembered {@code null} results.
+ *
+ * <p>Write times and negative results are held in soft-referenced maps: if
+ * discarded under memory pressure, values are considered fresh again and
+ * negative results get reloaded.
+ *
+ * @since 5.3
+ * @see CacheableOperation#getRefreshAfter()
+ * @see CacheableOperation#getNegativeTtl()
+ */
+final class CacheLoadCoordinator {
+
+	private final ConcurrentMap<EntryKey, Load> loads = new ConcurrentHashMap<>(64);
+
+	private final ConcurrentMap<EntryKey, Long> writeTimes = new ConcurrentReferenceHashMap<>(256);
+
+	private final ConcurrentMap<EntryKey, Long> negativeExpirations = new ConcurrentReferenceHashMap<>(64);
+
+
+	/**
+	 * Register a new load for the given cache entry, unless a load for it is
+	 * in progress already.
+	 * @return the load in progress, or {@code null} if the given load has been
+	 * registered and needs to be completed by the calling thread
+	 * @see #complete
+	 */
+	@Nullable
+	Load startLoad(Cache cache, Object key, Load load) {
+		return this.loads.putIfAbsent(new EntryKey(cache, key), load);
+	}
+
+	/**
+	 * Complete the given load with the given value or exception, releasing
+	 * any threads waiting for it.
+	 */
+	void complete(Cache cache, Object key, Load load, @Nullable Object value, @Nullable Throwable ex) {
+		this.loads.remove(new EntryKey(cache, key), load);
+		if (ex != null) {
+			load.future.completeExceptionally(ex);
+		}
+		else {
+			load.future.complete(value);
+		}
+	}
+
+	/**
+	 * Record that a value for the given cache entry has just been written.
+	 */
+	void recordWrite(Cache cache, Object key) {
+		this.writeTimes.put(new EntryKey(cache, key), System.nanoTime());
+	}
+
+	/**
+	 * Determine whether the value for the given cache entry is older than the
+	 * given time to live. A value of unknown age is considered fresh, tracking
+	 * its age from now on.
+	 */
+	boolean isStale(Cache cache, Object key, long refreshAfterMillis) {
+		long now = System.nanoTime();
+		Long writeTime = this.writeTimes.putIfAbsent(new EntryKey(cache, key), now);
+		return (writeTime != null && now - writeTime >= TimeUnit.MILLISECONDS.toNanos(refreshAfterMillis));
+	}
+
+	/**
+	 * Remember a {@code null} result for the given cache entry.
+	 */
+	void recordNegative(Cache cache, Object key, long ttlMillis) {
+		this.negativeExpirations.put(new EntryKey(cache, key),
+				System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+	}
+
+	/**
+	 * Determine whether a {@code null} result is remembered for the given cache entry.
+	 */
+	boolean isNegative(Cache cache, Object key) {
+		EntryKey entryKey = new EntryKey(cache, key);
+		Long expiration = this.negativeExpirations.get(entryKey);
+		if (expiration == null) {
+			return false;
+		}
+		if (System.nanoTime() - expiration < 0) {
+			return true;
+		}
+		this.negativeExpirations.remove(entryKey, expiration);
+		return false;
+	}
+
+	/**
+	 * Discard any write time and remembered {@code null} result for the given cache entry.
+	 */
+	void evict(Cache cache, Object key) {
+		if (!this.writeTimes.isEmpty() || !this.negativeExpirations.isEmpty()) {
+			EntryKey entryKey = new EntryKey(cache, key);
+			this.writeTimes.remove(entryKey);
+			this.negativeExpirations.remove(entryKey);
+		}
+	}
+
+	/**
+	 * Discard all write times and remembered {@code null} results for the given cache.
+	 */
+	void clear(Cache cache) {
+		this.writeTimes.keySet().removeIf(entryKey -> entryKey.cache == cache);
+		this.negativeExpirations.keySet().removeIf(entryKey -> entryKey.cache == cache);
+	}
+
+
+	/**
+	 * A load of a value in progress, owned by the thread which started it.
+	 */
+	static final class Load {
+
+		private final Thread owner = Thread.currentThread();
+
+		private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+		/**
+		 * Return whether this load has been started by the current thread,
+		 * i.e. whether the current thread is reentering its own load.
+		 */
+		boolean isOwnedByCurrentThread() {
+			return (this.owner == Thread.currentThread());
+		}
+
+		/**
+		 * Wait for this load to complete, returning its value or rethrowing the
+		 * exception that it failed with.
+		 * <p>A failure is not wrapped, so that callers see the exception thrown by
+		 * the cached method: the same exception instance gets rethrown in the
+		 * owning thread and in every waiting thread.
+		 * @param timeoutMillis the maximum time to wait, in milliseconds
+		 * @throws InterruptedException if interrupted while waiting
+		 * @throws TimeoutException if the load did not complete in time
+		 */
+		@Nullable
+		Object await(long timeoutMillis) throws InterruptedException, TimeoutException {
+			try {
+				return this.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+			}
+			catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException("Unexpected exception from cache load", cause);
+			}
+		}
+	}
+
+
+	/**
+	 * Key for a cache entry, identifying the cache by identity.
+	 */
+	private static final class EntryKey {
+
+		private final Cache cache;
+
+		private final Object key;
+
+		EntryKey(Cache cache, Object key) {
+			this.cache = cache;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof EntryKey)) {
+				return false;
+			}
+			EntryKey otherKey = (EntryKey) other;
+			return (this.cache == otherKey.cache && this.key.equals(otherKey.key));
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(this.cache) * 31 + this.key.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return this.cache.getName() + ":" + this.key;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,12 @@ public class CacheableOperation extends CacheOperation {
 
 	private final boolean sync;
 
+	private final long refreshAfter;
+
+	private final long negativeTtl;
+
+	private final boolean bulk;
+
 
 	/**
 	 * Create a new {@link CacheableOperation} instance from the given builder.
@@ -42,6 +48,9 @@ public class CacheableOperation extends CacheOperation {
 		super(b);
 		this.unless = b.unless;
 		this.sync = b.sync;
+		this.refreshAfter = b.refreshAfter;
+		this.negativeTtl = b.negativeTtl;
+		this.bulk = b.bulk;
 	}
 
 
@@ -54,6 +63,32 @@ public class CacheableOperation extends CacheOperation {
 		return this.sync;
 	}
 
+	/**
+	 * Return the time in milliseconds after which a cached value gets refreshed,
+	 * or {@code -1} if cached values are never refreshed.
+	 * @since 5.3
+	 */
+	public long getRefreshAfter() {
+		return this.refreshAfter;
+	}
+
+	/**
+	 * Return the time in milliseconds for which a {@code null} result is
+	 * remembered, or {@code -1} if negative results are not remembered separately.
+	 * @since 5.3
+	 */
+	public long getNegativeTtl() {
+		return this.negativeTtl;
+	}
+
+	/**
+	 * Return whether values are cached per element of a collection of keys.
+	 * @since 5.3
+	 */
+	public boolean isBulk() {
+		return this.bulk;
+	}
+
 
 	/**
 	 * A builder that can be used to create a {@link CacheableOperation}.
@@ -66,6 +101,12 @@ public class CacheableOperation extends CacheOperation {
 
 		private boolean sync;
 
+		private long refreshAfter = -1;
+
+		private long negativeTtl = -1;
+
+		private boolean bulk;
+
 		public void setUnless(String unless) {
 			this.unless = unless;
 		}
@@ -74,6 +115,30 @@ public class CacheableOperation extends CacheOperation {
 			this.sync = sync;
 		}
 
+		/**
+		 * Set the time in milliseconds after which a cached value gets refreshed.
+		 * @since 5.3
+		 */
+		public void setRefreshAfter(long refreshAfter) {
+			this.refreshAfter = refreshAfter;
+		}
+
+		/**
+		 * Set the time in milliseconds for which a {@code null} result is remembered.
+		 * @since 5.3
+		 */
+		public void setNegativeTtl(long negativeTtl) {
+			this.negativeTtl = negativeTtl;
+		}
+
+		/**
+		 * Set whether values are cached per element of a collection of keys.
+		 * @since 5.3
+		 */
+		public void setBulk(boolean bulk) {
+			this.bulk = bulk;
+		}
+
 		@Override
 		protected StringBuilder getOperationDescription() {
 			StringBuilder sb = super.getOperationDescription();
@@ -83,6 +148,15 @@ public class CacheableOperation extends CacheOperation {
 			sb.append(" | sync='");
 			sb.append(this.sync);
 			sb.append("'");
+			sb.append(" | refreshAfter='");
+			sb.append(this.refreshAfter);
+			sb.append("'");
+			sb.append(" | negativeTtl='");
+			sb.append(this.negativeTtl);
+			sb.append("'");
+			sb.append(" | bulk='");
+			sb.append(this.bulk);
+			sb.append("'");
 			return sb;
 		}
 
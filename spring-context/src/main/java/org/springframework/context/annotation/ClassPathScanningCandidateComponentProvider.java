@@ -18,11 +18,18 @@ package org.springframework.context.annotation;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +42,7 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
@@ -59,6 +67,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ResourceUtils;
 
 /**
  * A component provider that provides candidate components from a base package. Can
@@ -88,6 +97,17 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/**
+	 * System property that instructs Spring to scan the classpath concurrently
+	 * on the {@link ForkJoinPool#commonPool() common pool} by default:
+	 * "spring.scan.parallel". See {@link #setScanningExecutor} for details.
+	 * <p>The default is "false", scanning on the calling thread only.
+	 * @since 5.3
+	 */
+	public static final String PARALLEL_SCANNING_PROPERTY_NAME = "spring.scan.parallel";
+
+	private static final int METADATA_READING_BATCH_SIZE = 64;
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -112,6 +132,10 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	@Nullable
+	private Executor scanningExecutor =
+			(SpringProperties.getFlag(PARALLEL_SCANNING_PROPERTY_NAME) ? ForkJoinPool.commonPool() : null);
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -301,6 +325,33 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return this.metadataReaderFactory;
 	}
 
+	/**
+	 * Set an {@link Executor} for scanning the classpath concurrently, typically
+	 * a {@link ForkJoinPool}: The resources of each classpath root (jar file or
+	 * directory) are resolved concurrently, and so is the class file metadata
+	 * read for them, whereas type filters and conditions are still evaluated
+	 * on the calling thread. Candidate components are returned in the same
+	 * order as in a sequential scan.
+	 * <p>Concurrent metadata reading requires a thread-safe
+	 * {@link #setMetadataReaderFactory MetadataReaderFactory}, like the default
+	 * {@link CachingMetadataReaderFactory}.
+	 * <p>Default is {@code null}, scanning on the calling thread only, unless the
+	 * {@value #PARALLEL_SCANNING_PROPERTY_NAME} property has been set to "true".
+	 * @since 5.3
+	 */
+	public void setScanningExecutor(@Nullable Executor scanningExecutor) {
+		this.scanningExecutor = scanningExecutor;
+	}
+
+	/**
+	 * Return the {@link Executor} for concurrent classpath scanning, if any.
+	 * @since 5.3
+	 */
+	@Nullable
+	public Executor getScanningExecutor() {
+		return this.scanningExecutor;
+	}
+
 
 	/**
 	 * Scan the class path for candidate components.
@@ -383,7 +434,11 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
 			for (String type : types) {
-				MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(type);
+				// Binary index: use the metadata recorded at build time rather than reading the class file
+				MetadataReader metadataReader = index.getMetadataReader(type);
+				if (metadataReader == null) {
+					metadataReader = getMetadataReaderFactory().getMetadataReader(type);
+				}
 				if (isCandidateComponent(metadataReader)) {
 					ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
 					sbd.setSource(metadataReader.getResource());
@@ -415,18 +470,31 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	private Set<BeanDefinition> scanCandidateComponents(String basePackage) {
 		Set<BeanDefinition> candidates = new LinkedHashSet<>();
 		try {
-			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
-					resolveBasePackage(basePackage) + '/' + this.resourcePattern;
-			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
+			String basePackagePath = resolveBasePackage(basePackage);
+			Executor executor = this.scanningExecutor;
+			Resource[] resources;
+			Object[] metadataReaders = null;
+			if (executor != null) {
+				resources = findResourcesConcurrently(basePackagePath, executor);
+				metadataReaders = readMetadataConcurrently(resources, executor);
+			}
+			else {
+				String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
+						basePackagePath + '/' + this.resourcePattern;
+				resources = getResourcePatternResolver().getResources(packageSearchPath);
+			}
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
-			for (Resource resource : resources) {
+			for (int i = 0; i < resources.length; i++) {
+				Resource resource = resources[i];
 				if (traceEnabled) {
 					logger.trace("Scanning " + resource);
 				}
-				if (resource.isReadable()) {
+				if (metadataReaders != null ? metadataReaders[i] != null : resource.isReadable()) {
 					try {
-						MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						MetadataReader metadataReader = (metadataReaders != null ?
+								obtainMetadataReader(metadataReaders[i]) :
+								getMetadataReaderFactory().getMetadataReader(resource));
 						if (isCandidateComponent(metadataReader)) {
 							ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
 							sbd.setSource(resource);
@@ -466,6 +534,99 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
+	/**
+	 * Find the class file resources in the given base package, resolving the
+	 * resources of each classpath root concurrently. Falls back to a single
+	 * resolution step for package patterns and non-file classpath roots.
+	 */
+	private Resource[] findResourcesConcurrently(String basePackagePath, Executor executor) throws IOException {
+		ResourcePatternResolver resourcePatternResolver = getResourcePatternResolver();
+		String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
+				basePackagePath + '/' + this.resourcePattern;
+		if (basePackagePath.isEmpty() || isPattern(basePackagePath)) {
+			return resourcePatternResolver.getResources(packageSearchPath);
+		}
+		Resource[] rootDirResources = resourcePatternResolver.getResources(
+				ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + basePackagePath + '/');
+		List<String> rootSearchPaths = new ArrayList<>(rootDirResources.length);
+		for (Resource rootDirResource : rootDirResources) {
+			URL rootDirUrl = rootDirResource.getURL();
+			if (!ResourceUtils.isFileURL(rootDirUrl) && !ResourceUtils.isJarURL(rootDirUrl)) {
+				return resourcePatternResolver.getResources(packageSearchPath);
+			}
+			String rootDirPath = rootDirUrl.toString();
+			rootSearchPaths.add(rootDirPath + (rootDirPath.endsWith("/") ? "" : "/") + this.resourcePattern);
+		}
+		if (rootSearchPaths.size() < 2) {
+			return resourcePatternResolver.getResources(packageSearchPath);
+		}
+		List<CompletableFuture<Resource[]>> futures = new ArrayList<>(rootSearchPaths.size());
+		for (String rootSearchPath : rootSearchPaths) {
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return resourcePatternResolver.getResources(rootSearchPath);
+				}
+				catch (IOException ex) {
+					throw new CompletionException(ex);
+				}
+			}, executor));
+		}
+		// Collect in classpath order, as a sequential resolution step would
+		Set<Resource> resources = new LinkedHashSet<>();
+		for (CompletableFuture<Resource[]> future : futures) {
+			try {
+				Collections.addAll(resources, future.join());
+			}
+			catch (CompletionException ex) {
+				if (ex.getCause() instanceof IOException) {
+					throw (IOException) ex.getCause();
+				}
+				throw ex;
+			}
+		}
+		return resources.toArray(new Resource[0]);
+	}
+
+	private static boolean isPattern(String path) {
+		return (path.indexOf('*') != -1 || path.indexOf('?') != -1 || path.indexOf('{') != -1);
+	}
+
+	/**
+	 * Read the metadata for the given resources concurrently, in batches.
+	 * @return an array with the {@link MetadataReader} for each resource, the
+	 * {@link Throwable} thrown while reading it, or {@code null} if not readable
+	 */
+	private Object[] readMetadataConcurrently(Resource[] resources, Executor executor) {
+		Object[] metadataReaders = new Object[resources.length];
+		MetadataReaderFactory metadataReaderFactory = getMetadataReaderFactory();
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (int start = 0; start < resources.length; start += METADATA_READING_BATCH_SIZE) {
+			int from = start;
+			int to = Math.min(start + METADATA_READING_BATCH_SIZE, resources.length);
+			futures.add(CompletableFuture.runAsync(() -> {
+				for (int i = from; i < to; i++) {
+					try {
+						if (resources[i].isReadable()) {
+							metadataReaders[i] = metadataReaderFactory.getMetadataReader(resources[i]);
+						}
+					}
+					catch (Throwable ex) {
+						metadataReaders[i] = ex;
+					}
+				}
+			}, executor));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		return metadataReaders;
+	}
+
+	private static MetadataReader obtainMetadataReader(Object metadataReader) throws Throwable {
+		if (metadataReader instanceof Throwable) {
+			throw (Throwable) metadataReader;
+		}
+		return (MetadataReader) metadataReader;
+	}
+
 
 	/**
 	 * Resolve the specified base package into a pattern specification for
@@ -109,6 +109,25 @@ class ComponentScanAnnotationParser {
 			scanner.getBeanDefinitionDefaults().setLazyInit(true);
 		}
 
+		Set<String> basePackages = resolveBasePackages(componentScan, declaringClass);
+
+		scanner.addExcludeFilter(new AbstractTypeHierarchyTraversingFilter(false, false) {
+			@Override
+			protected boolean matchClassName(String className) {
+				return declaringClass.equals(className);
+			}
+		});
+		return scanner.doScan(StringUtils.toStringArray(basePackages));
+	}
+
+	/**
+	 * Resolve the base packages to scan for the given {@code @ComponentScan} attributes.
+	 * @param componentScan the {@code @ComponentScan} attributes
+	 * @param declaringClass the name of the class declaring the annotation
+	 * @return the base packages, defaulting to the package of the declaring class
+	 * @since 5.3
+	 */
+	public Set<String> resolveBasePackages(AnnotationAttributes componentScan, String declaringClass) {
 		Set<String> basePackages = new LinkedHashSet<>();
 		String[] basePackagesArray = componentScan.getStringArray("basePackages");
 		for (String pkg : basePackagesArray) {
@@ -122,14 +141,7 @@ class ComponentScanAnnotationParser {
 		if (basePackages.isEmpty()) {
 			basePackages.add(ClassUtils.getPackageName(declaringClass));
 		}
-
-		scanner.addExcludeFilter(new AbstractTypeHierarchyTraversingFilter(false, false) {
-			@Override
-			protected boolean matchClassName(String className) {
-				return declaringClass.equals(className);
-			}
-		});
-		return scanner.doScan(StringUtils.toStringArray(basePackages));
+		return basePackages;
 	}
 
 	private List<TypeFilter> typeFiltersFor(AnnotationAttributes filterAttributes) {
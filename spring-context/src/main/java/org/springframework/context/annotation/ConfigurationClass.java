@@ -16,6 +16,7 @@
 
 package org.springframework.context.annotation;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -62,6 +63,8 @@ final class ConfigurationClass {
 	private final Map<String, Class<? extends BeanDefinitionReader>> importedResources =
 			new LinkedHashMap<>();
 
+	private final Set<String> scannedPackages = new LinkedHashSet<>(1);
+
 	private final Map<ImportBeanDefinitionRegistrar, AnnotationMetadata> importBeanDefinitionRegistrars =
 			new LinkedHashMap<>();
 
@@ -193,6 +196,22 @@ final class ConfigurationClass {
 		return this.beanMethods;
 	}
 
+	/**
+	 * Register base packages that this configuration class scans for components.
+	 * @since 5.3
+	 */
+	public void addScannedPackages(Collection<String> basePackages) {
+		this.scannedPackages.addAll(basePackages);
+	}
+
+	/**
+	 * Return the base packages that this configuration class scans for components.
+	 * @since 5.3
+	 */
+	public Set<String> getScannedPackages() {
+		return this.scannedPackages;
+	}
+
 	public void addImportedResource(String importedResource, Class<? extends BeanDefinitionReader> readerClass) {
 		this.importedResources.put(importedResource, readerClass);
 	}
@@ -44,6 +44,7 @@ import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.context.annotation.ConfigurationCondition.ConfigurationPhase;
+import org.springframework.context.support.BeanDefinitionSnapshot;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.Resource;
@@ -140,6 +141,13 @@ class ConfigurationClassBeanDefinitionReader {
 		if (configClass.isImported()) {
 			registerBeanDefinitionForImportedConfigurationClass(configClass);
 		}
+		String configBeanName = configClass.getBeanName();
+		if (!configClass.getScannedPackages().isEmpty() && configBeanName != null &&
+				this.registry.containsBeanDefinition(configBeanName)) {
+			// Recorded for staleness checks of bean definition snapshots
+			this.registry.getBeanDefinition(configBeanName).setAttribute(BeanDefinitionSnapshot.SCANNED_PACKAGES_ATTRIBUTE,
+					StringUtils.collectionToCommaDelimitedString(configClass.getScannedPackages()));
+		}
 		for (BeanMethod beanMethod : configClass.getBeanMethods()) {
 			loadBeanDefinitionsForBeanMethod(beanMethod);
 		}
@@ -159,6 +167,10 @@ class ConfigurationClassBeanDefinitionReader {
 		configBeanDef.setScope(scopeMetadata.getScopeName());
 		String configBeanName = this.importBeanNameGenerator.generateBeanName(configBeanDef, this.registry);
 		AnnotationConfigUtils.processCommonDefinitionAnnotations(configBeanDef, metadata);
+		AnnotationMetadata importingClass = this.importRegistry.getImportingClassFor(metadata.getClassName());
+		if (importingClass != null) {
+			configBeanDef.setAttribute(ConfigurationClassUtils.IMPORTING_CLASS_ATTRIBUTE, importingClass.getClassName());
+		}
 
 		BeanDefinitionHolder definitionHolder = new BeanDefinitionHolder(configBeanDef, configBeanName);
 		definitionHolder = AnnotationConfigUtils.applyScopedProxyMode(scopeMetadata, definitionHolder, this.registry);
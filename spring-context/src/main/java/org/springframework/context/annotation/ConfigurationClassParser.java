@@ -140,6 +140,8 @@ class ConfigurationClassParser {
 
 	private final List<String> propertySourceNames = new ArrayList<>();
 
+	private final List<AnnotationAttributes> processedPropertySources = new ArrayList<>();
+
 	private final ImportStack importStack = new ImportStack();
 
 	private final DeferredImportSelectorHandler deferredImportSelectorHandler = new DeferredImportSelectorHandler();
@@ -220,6 +222,14 @@ class ConfigurationClassParser {
 		return this.configurationClasses.keySet();
 	}
 
+	/**
+	 * Return the <code>@PropertySource</code> annotation metadata processed
+	 * so far, in processing order.
+	 */
+	List<AnnotationAttributes> getPropertySources() {
+		return this.processedPropertySources;
+	}
+
 
 	protected void processConfigurationClass(ConfigurationClass configClass, Predicate<String> filter) throws IOException {
 		if (this.conditionEvaluator.shouldSkip(configClass.getMetadata(), ConfigurationPhase.PARSE_CONFIGURATION)) {
@@ -276,6 +286,7 @@ class ConfigurationClassParser {
 				sourceClass.getMetadata(), PropertySources.class,
 				org.springframework.context.annotation.PropertySource.class)) {
 			if (this.environment instanceof ConfigurableEnvironment) {
+				this.processedPropertySources.add(propertySource);
 				processPropertySource(propertySource);
 			}
 			else {
@@ -291,8 +302,10 @@ class ConfigurationClassParser {
 				!this.conditionEvaluator.shouldSkip(sourceClass.getMetadata(), ConfigurationPhase.REGISTER_BEAN)) {
 			for (AnnotationAttributes componentScan : componentScans) {
 				// The config class is annotated with @ComponentScan -> perform the scan immediately
+				String declaringClass = sourceClass.getMetadata().getClassName();
+				configClass.addScannedPackages(this.componentScanParser.resolveBasePackages(componentScan, declaringClass));
 				Set<BeanDefinitionHolder> scannedBeanDefinitions =
-						this.componentScanParser.parse(componentScan, sourceClass.getMetadata().getClassName());
+						this.componentScanParser.parse(componentScan, declaringClass);
 				// Check the set of scanned definitions for any further config classes and parse recursively if needed
 				for (BeanDefinitionHolder holder : scannedBeanDefinitions) {
 					BeanDefinition bdCand = holder.getBeanDefinition().getOriginatingBeanDefinition();
@@ -433,6 +446,25 @@ class ConfigurationClassParser {
 	}
 
 
+	/**
+	 * Process the given <code>@PropertySource</code> annotation metadata,
+	 * as recorded through {@link #getPropertySources()} (e.g. in a snapshot),
+	 * adding the corresponding property sources to the environment in the
+	 * same order as during configuration class parsing.
+	 * @param propertySources metadata for the <code>@PropertySource</code> annotations
+	 * @throws IOException if loading a property source failed
+	 */
+	void processPropertySources(Collection<AnnotationAttributes> propertySources) throws IOException {
+		if (!(this.environment instanceof ConfigurableEnvironment)) {
+			logger.info("Ignoring recorded @PropertySource annotations. " +
+					"Reason: Environment must implement ConfigurableEnvironment");
+			return;
+		}
+		for (AnnotationAttributes propertySource : propertySources) {
+			processPropertySource(propertySource);
+		}
+	}
+
 	/**
 	 * Process the given <code>@PropertySource</code> annotation metadata.
 	 * @param propertySource metadata for the <code>@PropertySource</code> annotation found
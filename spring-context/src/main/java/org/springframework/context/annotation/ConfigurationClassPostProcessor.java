@@ -16,14 +16,17 @@
 
 package org.springframework.context.annotation;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -48,15 +51,20 @@ import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.BeanNameGenerator;
+import org.springframework.context.ApplicationStartupAware;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
+import org.springframework.context.support.BeanDefinitionSnapshot;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
@@ -84,7 +92,7 @@ import org.springframework.util.ClassUtils;
  * @since 3.0
  */
 public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPostProcessor,
-		PriorityOrdered, ResourceLoaderAware, BeanClassLoaderAware, EnvironmentAware {
+		PriorityOrdered, ResourceLoaderAware, ApplicationStartupAware, BeanClassLoaderAware, EnvironmentAware {
 
 	/**
 	 * A {@code BeanNameGenerator} using fully qualified class names as default bean names.
@@ -135,6 +143,8 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	/* Using fully qualified class names as default bean names by default. */
 	private BeanNameGenerator importBeanNameGenerator = IMPORT_BEAN_NAME_GENERATOR;
 
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
 
 	@Override
 	public int getOrder() {
@@ -216,6 +226,11 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+	@Override
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		this.applicationStartup = applicationStartup;
+	}
+
 
 	/**
 	 * Derive further bean definitions from the configuration classes in the registry.
@@ -263,6 +278,15 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 * {@link Configuration} classes.
 	 */
 	public void processConfigBeanDefinitions(BeanDefinitionRegistry registry) {
+		if (registry instanceof SingletonBeanRegistry &&
+				((SingletonBeanRegistry) registry).containsSingleton(BeanDefinitionSnapshot.BEAN_NAME)) {
+			// Configuration classes have been processed at build time already
+			registerSnapshotImportRegistry(registry, (SingletonBeanRegistry) registry);
+			registerSnapshotPropertySources(registry, (BeanDefinitionSnapshot)
+					((SingletonBeanRegistry) registry).getSingleton(BeanDefinitionSnapshot.BEAN_NAME));
+			return;
+		}
+
 		List<BeanDefinitionHolder> configCandidates = new ArrayList<>();
 		String[] candidateNames = registry.getBeanDefinitionNames();
 
@@ -316,6 +340,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		Set<BeanDefinitionHolder> candidates = new LinkedHashSet<>(configCandidates);
 		Set<ConfigurationClass> alreadyParsed = new HashSet<>(configCandidates.size());
 		do {
+			StartupStep processConfig = this.applicationStartup.start("spring.context.config-classes.parse");
 			parser.parse(candidates);
 			parser.validate();
 
@@ -330,6 +355,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			}
 			this.reader.loadBeanDefinitions(configClasses);
 			alreadyParsed.addAll(configClasses);
+			processConfig.tag("classCount", () -> String.valueOf(configClasses.size())).end();
 
 			candidates.clear();
 			if (registry.getBeanDefinitionCount() > candidateNames.length) {
@@ -353,6 +379,12 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 		while (!candidates.isEmpty());
 
+		// Record the processed @PropertySource declarations for a bean definition snapshot being captured
+		if (sbr != null && sbr.containsSingleton(BeanDefinitionSnapshot.PROPERTY_SOURCES_BEAN_NAME)) {
+			recordPropertySources(sbr.getSingleton(BeanDefinitionSnapshot.PROPERTY_SOURCES_BEAN_NAME),
+					parser.getPropertySources());
+		}
+
 		// Register the ImportRegistry as a bean in order to support ImportAware @Configuration classes
 		if (sbr != null && !sbr.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
 			sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, parser.getImportRegistry());
@@ -365,6 +397,58 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+	/**
+	 * Register an {@link ImportRegistry} for the imported configuration classes
+	 * recorded in a {@link BeanDefinitionSnapshot}, based on their
+	 * {@link ConfigurationClassUtils#IMPORTING_CLASS_ATTRIBUTE}.
+	 */
+	private void registerSnapshotImportRegistry(BeanDefinitionRegistry registry, SingletonBeanRegistry sbr) {
+		if (sbr.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
+			return;
+		}
+		Map<String, String> importingClassNames = new ConcurrentHashMap<>();
+		for (String beanName : registry.getBeanDefinitionNames()) {
+			BeanDefinition beanDef = registry.getBeanDefinition(beanName);
+			Object importingClass = beanDef.getAttribute(ConfigurationClassUtils.IMPORTING_CLASS_ATTRIBUTE);
+			if (importingClass instanceof String && beanDef.getBeanClassName() != null) {
+				importingClassNames.put(beanDef.getBeanClassName(), (String) importingClass);
+			}
+		}
+		sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME,
+				new SnapshotImportRegistry(importingClassNames, this.metadataReaderFactory));
+	}
+
+	/**
+	 * Add the {@code @PropertySource} declarations recorded in a
+	 * {@link BeanDefinitionSnapshot} to the environment, in their original
+	 * processing order.
+	 */
+	private void registerSnapshotPropertySources(BeanDefinitionRegistry registry, BeanDefinitionSnapshot snapshot) {
+		List<AnnotationAttributes> propertySources = snapshot.getPropertySources(this.beanClassLoader);
+		if (propertySources.isEmpty()) {
+			return;
+		}
+		if (this.environment == null) {
+			this.environment = new StandardEnvironment();
+		}
+		ConfigurationClassParser parser = new ConfigurationClassParser(
+				this.metadataReaderFactory, this.problemReporter, this.environment,
+				this.resourceLoader, this.componentScanBeanNameGenerator, registry);
+		try {
+			parser.processPropertySources(propertySources);
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("Failed to load @PropertySource recorded in snapshot", ex);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void recordPropertySources(@Nullable Object recorder, List<AnnotationAttributes> propertySources) {
+		if (recorder instanceof Collection) {
+			((Collection<AnnotationAttributes>) recorder).addAll(propertySources);
+		}
+	}
+
 	/**
 	 * Post-processes a BeanFactory in search of Configuration class BeanDefinitions;
 	 * any candidates are then enhanced by a {@link ConfigurationClassEnhancer}.
@@ -372,6 +456,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 * @see ConfigurationClassEnhancer
 	 */
 	public void enhanceConfigurationClasses(ConfigurableListableBeanFactory beanFactory) {
+		StartupStep enhanceConfigClasses = this.applicationStartup.start("spring.context.config-classes.enhance");
 		Map<String, AbstractBeanDefinition> configBeanDefs = new LinkedHashMap<>();
 		for (String beanName : beanFactory.getBeanDefinitionNames()) {
 			BeanDefinition beanDef = beanFactory.getBeanDefinition(beanName);
@@ -410,6 +495,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 		if (configBeanDefs.isEmpty()) {
 			// nothing to enhance -> return immediately
+			enhanceConfigClasses.end();
 			return;
 		}
 
@@ -429,6 +515,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 				beanDef.setBeanClass(enhancedClass);
 			}
 		}
+		enhanceConfigClasses.tag("classCount", () -> String.valueOf(configBeanDefs.keySet().size())).end();
 	}
 
 
@@ -463,4 +550,43 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+
+	/**
+	 * {@link ImportRegistry} restored from a {@link BeanDefinitionSnapshot},
+	 * lazily reading the metadata of importing classes.
+	 */
+	private static class SnapshotImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> importingClassNames;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		public SnapshotImportRegistry(Map<String, String> importingClassNames,
+				MetadataReaderFactory metadataReaderFactory) {
+
+			this.importingClassNames = importingClassNames;
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.importingClassNames.get(importedClass);
+			if (importingClass == null) {
+				return null;
+			}
+			try {
+				return this.metadataReaderFactory.getMetadataReader(importingClass).getAnnotationMetadata();
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read metadata of importing class " + importingClass, ex);
+			}
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			this.importingClassNames.values().removeIf(importingClass::equals);
+		}
+	}
+
 }
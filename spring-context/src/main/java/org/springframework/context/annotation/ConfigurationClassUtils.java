@@ -57,6 +57,14 @@ abstract class ConfigurationClassUtils {
 	public static final String CONFIGURATION_CLASS_ATTRIBUTE =
 			Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "configurationClass");
 
+	/**
+	 * Attribute exposing the name of the importing class on the bean definition
+	 * of an imported configuration class, for restoring {@link ImportAware}
+	 * metadata from a {@link org.springframework.context.support.BeanDefinitionSnapshot}.
+	 */
+	public static final String IMPORTING_CLASS_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "importingClass");
+
 	private static final String ORDER_ATTRIBUTE =
 			Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "order");
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,11 +18,13 @@ package org.springframework.context.event;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.beans.factory.BeanClassLoaderAware;
@@ -54,6 +56,11 @@ import org.springframework.util.ObjectUtils;
  * all events to all registered listeners, invoking them in the calling thread.
  * Alternative implementations could be more sophisticated in those respects.
  *
+ * <p>As of 5.3, the registered listeners are kept in copy-on-write fashion:
+ * listener retrieval and type matching happen without acquiring the retrieval
+ * mutex, and registration changes for listener instances only evict the cached
+ * retrievers affected by the change rather than the entire retriever cache.
+ *
  * @author Juergen Hoeller
  * @author Stephane Nicoll
  * @since 1.2.3
@@ -63,7 +70,7 @@ import org.springframework.util.ObjectUtils;
 public abstract class AbstractApplicationEventMulticaster
 		implements ApplicationEventMulticaster, BeanClassLoaderAware, BeanFactoryAware {
 
-	private final ListenerRetriever defaultRetriever = new ListenerRetriever(false);
+	private final DefaultListenerRetriever defaultRetriever = new DefaultListenerRetriever();
 
 	final Map<ListenerCacheKey, ListenerRetriever> retrieverCache = new ConcurrentHashMap<>(64);
 
@@ -104,61 +111,105 @@ public abstract class AbstractApplicationEventMulticaster
 
 	@Override
 	public void addApplicationListener(ApplicationListener<?> listener) {
+		// Explicitly remove target for a proxy, if registered already,
+		// in order to avoid double invocations of the same listener.
+		Object singletonTarget = AopProxyUtils.getSingletonTarget(listener);
 		synchronized (this.retrievalMutex) {
-			// Explicitly remove target for a proxy, if registered already,
-			// in order to avoid double invocations of the same listener.
-			Object singletonTarget = AopProxyUtils.getSingletonTarget(listener);
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
 			if (singletonTarget instanceof ApplicationListener) {
-				this.defaultRetriever.applicationListeners.remove(singletonTarget);
+				listeners.remove(singletonTarget);
 			}
-			this.defaultRetriever.applicationListeners.add(listener);
-			this.retrieverCache.clear();
+			listeners.add(listener);
+			this.defaultRetriever.applicationListeners = listeners;
 		}
+		// Type matching outside of the mutex: only evict retrievers for
+		// event types that the new listener is interested in.
+		evictRetrievers((cacheKey, retriever) -> retriever.contains(singletonTarget) ||
+				supportsEvent(listener, cacheKey.eventType, cacheKey.sourceType));
 	}
 
 	@Override
 	public void addApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
-			this.retrieverCache.clear();
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.add(listenerBeanName);
+			this.defaultRetriever.applicationListenerBeans = listenerBeans;
 		}
+		this.retrieverCache.clear();
 	}
 
 	@Override
 	public void removeApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListeners.remove(listener);
-			this.retrieverCache.clear();
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
+			listeners.remove(listener);
+			this.defaultRetriever.applicationListeners = listeners;
 		}
+		evictRetrievers((cacheKey, retriever) -> retriever.contains(listener));
 	}
 
 	@Override
 	public void removeApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
-			this.retrieverCache.clear();
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.remove(listenerBeanName);
+			this.defaultRetriever.applicationListenerBeans = listenerBeans;
 		}
+		this.retrieverCache.clear();
 	}
 
 	@Override
 	public void removeAllListeners() {
 		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListeners.clear();
-			this.defaultRetriever.applicationListenerBeans.clear();
-			this.retrieverCache.clear();
+			this.defaultRetriever.applicationListeners = Collections.emptySet();
+			this.defaultRetriever.applicationListenerBeans = Collections.emptySet();
 		}
+		this.retrieverCache.clear();
+	}
+
+	/**
+	 * Evict the cached retrievers which match the given predicate, as well as
+	 * the ones which are not fully populated yet: those might have been based
+	 * on a listener registration state from before the current change.
+	 */
+	private void evictRetrievers(BiPredicate<ListenerCacheKey, ListenerRetriever> predicate) {
+		this.retrieverCache.entrySet().removeIf(entry ->
+				!entry.getValue().populated || predicate.test(entry.getKey(), entry.getValue()));
 	}
 
 
+	/**
+	 * Determine whether the given listener is a shared instance, i.e. registered
+	 * as a listener instance or obtained from a singleton listener bean, as
+	 * opposed to an instance obtained for the current event only (e.g. from a
+	 * prototype listener bean).
+	 * @param listener the listener to check
+	 * @since 5.3
+	 */
+	boolean isSharedListener(ApplicationListener<?> listener) {
+		if (this.defaultRetriever.applicationListeners.contains(listener)) {
+			return true;
+		}
+		Set<String> listenerBeans = this.defaultRetriever.applicationListenerBeans;
+		if (!listenerBeans.isEmpty() && this.beanFactory != null) {
+			for (String listenerBeanName : listenerBeans) {
+				if (this.beanFactory.getSingleton(listenerBeanName) == listener) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Return a Collection containing all ApplicationListeners.
 	 * @return a Collection of ApplicationListeners
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener<?>> getApplicationListeners() {
-		synchronized (this.retrievalMutex) {
-			return this.defaultRetriever.getApplicationListeners();
-		}
+		// Obtain listener beans outside of the singleton mutex: singletons may
+		// concurrently be in creation in other threads, registering further listeners.
+		return this.defaultRetriever.getApplicationListeners();
 	}
 
 	/**
@@ -177,32 +228,33 @@ public abstract class AbstractApplicationEventMulticaster
 		Class<?> sourceType = (source != null ? source.getClass() : null);
 		ListenerCacheKey cacheKey = new ListenerCacheKey(eventType, sourceType);
 
-		// Quick check for existing entry on ConcurrentHashMap...
-		ListenerRetriever retriever = this.retrieverCache.get(cacheKey);
-		if (retriever != null) {
-			return retriever.getApplicationListeners();
-		}
+		// Potential new retriever to populate
+		ListenerRetriever newRetriever = null;
 
-		if (this.beanClassLoader == null ||
-				(ClassUtils.isCacheSafe(event.getClass(), this.beanClassLoader) &&
-						(sourceType == null || ClassUtils.isCacheSafe(sourceType, this.beanClassLoader)))) {
-			// Fully synchronized building and caching of a ListenerRetriever
-			synchronized (this.retrievalMutex) {
-				retriever = this.retrieverCache.get(cacheKey);
-				if (retriever != null) {
-					return retriever.getApplicationListeners();
+		// Quick check for existing entry on ConcurrentHashMap...
+		ListenerRetriever existingRetriever = this.retrieverCache.get(cacheKey);
+		if (existingRetriever == null) {
+			// Caching a new ListenerRetriever if possible
+			if (this.beanClassLoader == null ||
+					(ClassUtils.isCacheSafe(event.getClass(), this.beanClassLoader) &&
+							(sourceType == null || ClassUtils.isCacheSafe(sourceType, this.beanClassLoader)))) {
+				// Registered before retrieval, so that concurrent listener changes evict it again.
+				// The retrieval itself happens outside of the singleton mutex since it may
+				// obtain listener beans, potentially in creation in other threads.
+				newRetriever = new ListenerRetriever();
+				existingRetriever = this.retrieverCache.putIfAbsent(cacheKey, newRetriever);
+				if (existingRetriever != null) {
+					newRetriever = null;  // no need to populate it in retrieveApplicationListeners
 				}
-				retriever = new ListenerRetriever(true);
-				Collection<ApplicationListener<?>> listeners =
-						retrieveApplicationListeners(eventType, sourceType, retriever);
-				this.retrieverCache.put(cacheKey, retriever);
-				return listeners;
 			}
 		}
-		else {
-			// No ListenerRetriever caching -> no synchronization necessary
-			return retrieveApplicationListeners(eventType, sourceType, null);
+
+		if (existingRetriever != null && existingRetriever.populated) {
+			return existingRetriever.getApplicationListeners();
 		}
+		// If the existing retriever is not fully populated yet by another thread,
+		// proceed like caching wasn't possible for this current local attempt.
+		return retrieveApplicationListeners(eventType, sourceType, newRetriever);
 	}
 
 	/**
@@ -216,12 +268,9 @@ public abstract class AbstractApplicationEventMulticaster
 			ResolvableType eventType, @Nullable Class<?> sourceType, @Nullable ListenerRetriever retriever) {
 
 		List<ApplicationListener<?>> allListeners = new ArrayList<>();
-		Set<ApplicationListener<?>> listeners;
-		Set<String> listenerBeans;
-		synchronized (this.retrievalMutex) {
-			listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
-			listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
-		}
+		// Copy-on-write snapshots: no need to hold the retrieval mutex
+		Set<ApplicationListener<?>> listeners = this.defaultRetriever.applicationListeners;
+		Set<String> listenerBeans = this.defaultRetriever.applicationListenerBeans;
 
 		// Add programmatically registered listeners, including ones coming
 		// from ApplicationListenerDetector (singleton beans and inner beans).
@@ -274,9 +323,12 @@ public abstract class AbstractApplicationEventMulticaster
 		}
 
 		AnnotationAwareOrderComparator.sort(allListeners);
-		if (retriever != null && retriever.applicationListenerBeans.isEmpty()) {
-			retriever.applicationListeners.clear();
-			retriever.applicationListeners.addAll(allListeners);
+		if (retriever != null) {
+			if (retriever.applicationListenerBeans.isEmpty()) {
+				retriever.applicationListeners.clear();
+				retriever.applicationListeners.addAll(allListeners);
+			}
+			retriever.populated = true;
 		}
 		return allListeners;
 	}
@@ -421,10 +473,10 @@ public abstract class AbstractApplicationEventMulticaster
 
 		public final Set<String> applicationListenerBeans = new LinkedHashSet<>();
 
-		private final boolean preFiltered;
+		public volatile boolean populated;
 
-		public ListenerRetriever(boolean preFiltered) {
-			this.preFiltered = preFiltered;
+		public boolean contains(@Nullable Object listener) {
+			return (listener != null && this.applicationListeners.contains(listener));
 		}
 
 		public Collection<ApplicationListener<?>> getApplicationListeners() {
@@ -434,9 +486,42 @@ public abstract class AbstractApplicationEventMulticaster
 			if (!this.applicationListenerBeans.isEmpty()) {
 				BeanFactory beanFactory = getBeanFactory();
 				for (String listenerBeanName : this.applicationListenerBeans) {
+					try {
+						allListeners.add(beanFactory.getBean(listenerBeanName, ApplicationListener.class));
+					}
+					catch (NoSuchBeanDefinitionException ex) {
+						// Singleton listener instance (without backing bean definition) disappeared -
+						// probably in the middle of the destruction phase
+					}
+				}
+				AnnotationAwareOrderComparator.sort(allListeners);
+			}
+			return allListeners;
+		}
+	}
+
+
+	/**
+	 * Helper class that holds the registered listeners, replacing its sets
+	 * on every change so that they can be read without synchronization.
+	 */
+	private class DefaultListenerRetriever {
+
+		public volatile Set<ApplicationListener<?>> applicationListeners = Collections.emptySet();
+
+		public volatile Set<String> applicationListenerBeans = Collections.emptySet();
+
+		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			Set<ApplicationListener<?>> listeners = this.applicationListeners;
+			Set<String> listenerBeans = this.applicationListenerBeans;
+			List<ApplicationListener<?>> allListeners = new ArrayList<>(listeners.size() + listenerBeans.size());
+			allListeners.addAll(listeners);
+			if (!listenerBeans.isEmpty()) {
+				BeanFactory beanFactory = getBeanFactory();
+				for (String listenerBeanName : listenerBeans) {
 					try {
 						ApplicationListener<?> listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
-						if (this.preFiltered || !allListeners.contains(listener)) {
+						if (!allListeners.contains(listener)) {
 							allListeners.add(listener);
 						}
 					}
@@ -446,9 +531,7 @@ public abstract class AbstractApplicationEventMulticaster
 					}
 				}
 			}
-			if (!this.preFiltered || !this.applicationListenerBeans.isEmpty()) {
-				AnnotationAwareOrderComparator.sort(allListeners);
-			}
+			AnnotationAwareOrderComparator.sort(allListeners);
 			return allListeners;
 		}
 	}
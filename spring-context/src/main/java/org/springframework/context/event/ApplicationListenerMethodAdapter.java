@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -86,6 +86,8 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 	@Nullable
 	private final String condition;
 
+	private final boolean batch;
+
 	private final int order;
 
 	@Nullable
@@ -105,6 +107,7 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		EventListener ann = AnnotatedElementUtils.findMergedAnnotation(this.targetMethod, EventListener.class);
 		this.declaredEventTypes = resolveDeclaredEventTypes(method, ann);
 		this.condition = (ann != null ? ann.condition() : null);
+		this.batch = (ann != null && ann.batch());
 		this.order = resolveOrder(this.targetMethod);
 	}
 
@@ -114,6 +117,11 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 			throw new IllegalStateException(
 					"Maximum one parameter is allowed for event listener method: " + method);
 		}
+		boolean batch = (ann != null && ann.batch());
+		if (batch && (count == 0 || List.class != method.getParameterTypes()[0])) {
+			throw new IllegalStateException(
+					"Batch event listener method must declare a single List parameter: " + method);
+		}
 
 		if (ann != null) {
 			Class<?>[] classes = ann.classes();
@@ -130,7 +138,16 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 			throw new IllegalStateException(
 					"Event parameter is mandatory for event listener method: " + method);
 		}
-		return Collections.singletonList(ResolvableType.forMethodParameter(method, 0));
+		ResolvableType parameterType = ResolvableType.forMethodParameter(method, 0);
+		if (batch) {
+			ResolvableType elementType = parameterType.getGeneric();
+			if (elementType.resolve() == null) {
+				throw new IllegalStateException(
+						"Batch event listener method must declare the event type as List element type: " + method);
+			}
+			return Collections.singletonList(elementType);
+		}
+		return Collections.singletonList(parameterType);
 	}
 
 	private static int resolveOrder(Method method) {
@@ -179,6 +196,16 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		return this.order;
 	}
 
+	/**
+	 * Return whether the underlying method accepts a {@code List} of events,
+	 * as indicated by {@link EventListener#batch()}.
+	 * @since 5.3
+	 * @see #processEvents(List)
+	 */
+	public boolean isBatchListener() {
+		return this.batch;
+	}
+
 
 	/**
 	 * Process the specified {@link ApplicationEvent}, checking if the condition
@@ -187,6 +214,9 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 	public void processEvent(ApplicationEvent event) {
 		Object[] args = resolveArguments(event);
 		if (shouldHandle(event, args)) {
+			if (this.batch) {
+				args = new Object[] {Collections.singletonList(args[0])};
+			}
 			Object result = doInvoke(args);
 			if (result != null) {
 				handleResult(result);
@@ -197,6 +227,40 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		}
 	}
 
+	/**
+	 * Process the specified batch of {@link ApplicationEvent ApplicationEvents}.
+	 * <p>For a {@linkplain #isBatchListener() batch listener}, the underlying method
+	 * gets invoked once with all events that match the declared event type and
+	 * the condition (evaluated per event). Otherwise, each event gets processed
+	 * individually through {@link #processEvent}.
+	 * @param events the events to process
+	 * @since 5.3
+	 */
+	public void processEvents(List<ApplicationEvent> events) {
+		if (!this.batch) {
+			for (ApplicationEvent event : events) {
+				processEvent(event);
+			}
+			return;
+		}
+		List<Object> batch = new ArrayList<>(events.size());
+		for (ApplicationEvent event : events) {
+			Object[] args = resolveArguments(event);
+			if (shouldHandle(event, args)) {
+				batch.add(args[0]);
+			}
+		}
+		if (!batch.isEmpty()) {
+			Object result = doInvoke(batch);
+			if (result != null) {
+				handleResult(result);
+			}
+			else {
+				logger.trace("No result object given - no result to handle");
+			}
+		}
+	}
+
 	/**
 	 * Resolve the method arguments to use for the specified {@link ApplicationEvent}.
 	 * <p>These arguments will be used to invoke the method handled by this instance.
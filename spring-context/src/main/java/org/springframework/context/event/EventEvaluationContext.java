@@ -0,0 +1,187 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.lang.Nullable;
+
+/**
+ * Lightweight {@link EvaluationContext} for a single event listener condition
+ * evaluation, delegating to a shared context for all evaluation infrastructure.
+ *
+ * <p>Exposes the method arguments as variables the same way as
+ * {@link org.springframework.context.expression.MethodBasedEvaluationContext}:
+ * as {@code aX}, {@code pX} and - if discoverable - by parameter name,
+ * resolving them on lookup instead of registering them upfront.
+ *
+ * @since 5.3
+ * @see EventExpressionEvaluator
+ */
+class EventEvaluationContext implements EvaluationContext {
+
+	private final EvaluationContext sharedContext;
+
+	private final TypedValue rootObject;
+
+	private final Object[] arguments;
+
+	private final String[] parameterNames;
+
+	@Nullable
+	private Map<String, Object> variables;
+
+
+	/**
+	 * Create a new context for the given root object and method arguments.
+	 * @param sharedContext the thread-safe context to take the evaluation
+	 * infrastructure from
+	 * @param rootObject the root object
+	 * @param arguments the method arguments
+	 * @param parameterNames the parameter names of the method, with a
+	 * {@code null} element for each parameter whose name is unknown
+	 */
+	EventEvaluationContext(EvaluationContext sharedContext, Object rootObject,
+			Object[] arguments, String[] parameterNames) {
+
+		this.sharedContext = sharedContext;
+		this.rootObject = new TypedValue(rootObject);
+		this.arguments = arguments;
+		this.parameterNames = parameterNames;
+	}
+
+
+	@Override
+	public TypedValue getRootObject() {
+		return this.rootObject;
+	}
+
+	@Override
+	public List<PropertyAccessor> getPropertyAccessors() {
+		return this.sharedContext.getPropertyAccessors();
+	}
+
+	@Override
+	public List<ConstructorResolver> getConstructorResolvers() {
+		return this.sharedContext.getConstructorResolvers();
+	}
+
+	@Override
+	public List<MethodResolver> getMethodResolvers() {
+		return this.sharedContext.getMethodResolvers();
+	}
+
+	@Override
+	@Nullable
+	public BeanResolver getBeanResolver() {
+		return this.sharedContext.getBeanResolver();
+	}
+
+	@Override
+	public TypeLocator getTypeLocator() {
+		return this.sharedContext.getTypeLocator();
+	}
+
+	@Override
+	public TypeConverter getTypeConverter() {
+		return this.sharedContext.getTypeConverter();
+	}
+
+	@Override
+	public TypeComparator getTypeComparator() {
+		return this.sharedContext.getTypeComparator();
+	}
+
+	@Override
+	public OperatorOverloader getOperatorOverloader() {
+		return this.sharedContext.getOperatorOverloader();
+	}
+
+	@Override
+	public void setVariable(@Nullable String name, @Nullable Object value) {
+		if (name != null) {
+			if (value != null) {
+				if (this.variables == null) {
+					this.variables = new HashMap<>(4);
+				}
+				this.variables.put(name, value);
+			}
+			else if (this.variables != null) {
+				this.variables.remove(name);
+			}
+		}
+	}
+
+	@Override
+	@Nullable
+	public Object lookupVariable(String name) {
+		if (this.variables != null) {
+			Object variable = this.variables.get(name);
+			if (variable != null) {
+				return variable;
+			}
+		}
+		int index = getArgumentIndex(name);
+		if (index != -1) {
+			return getArgument(index);
+		}
+		for (int i = 0; i < this.parameterNames.length; i++) {
+			if (name.equals(this.parameterNames[i])) {
+				return getArgument(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the parameter index for an {@code aX} or {@code pX} variable name,
+	 * or -1 if the given name does not refer to an existing parameter that way.
+	 */
+	private int getArgumentIndex(String name) {
+		int length = name.length();
+		if (length < 2 || length > 4 || (name.charAt(0) != 'a' && name.charAt(0) != 'p')) {
+			return -1;
+		}
+		int index = 0;
+		for (int i = 1; i < length; i++) {
+			char ch = name.charAt(i);
+			if (ch < '0' || ch > '9') {
+				return -1;
+			}
+			index = index * 10 + (ch - '0');
+		}
+		return (index < this.parameterNames.length && (length == 2 || name.charAt(1) != '0') ? index : -1);
+	}
+
+	@Nullable
+	private Object getArgument(int index) {
+		return (index < this.arguments.length ? this.arguments[index] : null);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,22 +25,47 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
-import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.SpringProperties;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.lang.Nullable;
 
 /**
  * Utility class for handling SpEL expression parsing for application events.
  * <p>Meant to be used as a reusable, thread-safe component.
  *
+ * <p>As of 5.3, conditions are compiled in {@link SpelCompilerMode#MIXED} mode
+ * unless the "spring.expression.compiler.mode" property has been set explicitly,
+ * and get evaluated against a lightweight {@link EventEvaluationContext} that
+ * shares its evaluation infrastructure across events.
+ *
  * @author Stephane Nicoll
  * @since 4.2
  * @see CachedExpressionEvaluator
  */
 class EventExpressionEvaluator extends CachedExpressionEvaluator {
 
+	private static final String COMPILER_MODE_PROPERTY_NAME = "spring.expression.compiler.mode";
+
+
 	private final Map<ExpressionKey, Expression> conditionCache = new ConcurrentHashMap<>(64);
 
+	private final Map<Method, String[]> parameterNamesCache = new ConcurrentHashMap<>(64);
+
+	@Nullable
+	private volatile SharedContext sharedContext;
+
+
+	public EventExpressionEvaluator() {
+		super(new SpelExpressionParser(new SpelParserConfiguration(
+				SpringProperties.getProperty(COMPILER_MODE_PROPERTY_NAME) == null ? SpelCompilerMode.MIXED : null,
+				EventExpressionEvaluator.class.getClassLoader())));
+	}
+
 
 	/**
 	 * Determine if the condition defined by the specified expression evaluates
@@ -50,14 +75,57 @@ class EventExpressionEvaluator extends CachedExpressionEvaluator {
 			AnnotatedElementKey methodKey, Object[] args, @Nullable BeanFactory beanFactory) {
 
 		EventExpressionRootObject root = new EventExpressionRootObject(event, args);
-		MethodBasedEvaluationContext evaluationContext = new MethodBasedEvaluationContext(
-				root, targetMethod, args, getParameterNameDiscoverer());
-		if (beanFactory != null) {
-			evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
-		}
+		EvaluationContext evaluationContext = new EventEvaluationContext(
+				getSharedContext(beanFactory), root, args, getParameterNames(targetMethod));
 
 		return (Boolean.TRUE.equals(getExpression(this.conditionCache, methodKey, conditionExpression).getValue(
 				evaluationContext, Boolean.class)));
 	}
 
+	private EvaluationContext getSharedContext(@Nullable BeanFactory beanFactory) {
+		SharedContext sharedContext = this.sharedContext;
+		if (sharedContext == null || sharedContext.beanFactory != beanFactory) {
+			sharedContext = new SharedContext(beanFactory);
+			this.sharedContext = sharedContext;
+		}
+		return sharedContext.evaluationContext;
+	}
+
+	private String[] getParameterNames(Method method) {
+		String[] parameterNames = this.parameterNamesCache.get(method);
+		if (parameterNames == null) {
+			parameterNames = getParameterNameDiscoverer().getParameterNames(method);
+			if (parameterNames == null) {
+				parameterNames = new String[method.getParameterCount()];
+			}
+			this.parameterNamesCache.put(method, parameterNames);
+		}
+		return parameterNames;
+	}
+
+
+	/**
+	 * Evaluation infrastructure shared by all conditions for a given BeanFactory.
+	 */
+	private static class SharedContext {
+
+		@Nullable
+		final BeanFactory beanFactory;
+
+		final StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+
+		SharedContext(@Nullable BeanFactory beanFactory) {
+			this.beanFactory = beanFactory;
+			if (beanFactory != null) {
+				this.evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
+			}
+			// Initialize lazily created infrastructure upfront, for safe sharing across threads
+			this.evaluationContext.getPropertyAccessors();
+			this.evaluationContext.getConstructorResolvers();
+			this.evaluationContext.getMethodResolvers();
+			this.evaluationContext.getTypeLocator();
+			this.evaluationContext.getTypeConverter();
+		}
+	}
+
 }
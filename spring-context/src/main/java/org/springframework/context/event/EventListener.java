@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -128,4 +128,18 @@ public @interface EventListener {
 	 */
 	String condition() default "";
 
+	/**
+	 * Whether the annotated method receives events in batches, declaring a
+	 * single {@code java.util.List} parameter with the event type as element
+	 * type, e.g. {@code List<OrderPlacedEvent>}.
+	 * <p>With {@link SimpleApplicationEventMulticaster#setListenerQueueCapacity
+	 * queued delivery}, the method gets invoked once per drained batch of
+	 * queued events. Otherwise, it gets invoked with a single-element list
+	 * for each event.
+	 * <p>The {@link #condition} is evaluated for each event individually,
+	 * with the method argument referring to the individual event.
+	 * @since 5.3
+	 */
+	boolean batch() default false;
+
 }
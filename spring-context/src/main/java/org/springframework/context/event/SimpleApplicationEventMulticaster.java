@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,19 @@
 
 package org.springframework.context.event;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -26,7 +38,9 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.ResolvableType;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ErrorHandler;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Simple implementation of the {@link ApplicationEventMulticaster} interface.
@@ -41,6 +55,13 @@ import org.springframework.util.ErrorHandler;
  * but adds minimal overhead. Specify an alternative task executor to have
  * listeners executed in different threads, for example from a thread pool.
  *
+ * <p>In combination with a task executor, a {@linkplain #setListenerQueueCapacity
+ * listener queue capacity} can be specified to deliver events through a bounded
+ * queue per listener instead of one task per listener and event: queued events
+ * get drained in batches, with listener methods declared as
+ * {@link EventListener#batch() batch listeners} receiving each batch in a single
+ * invocation.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @author Stephane Nicoll
@@ -54,6 +75,19 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	@Nullable
 	private ErrorHandler errorHandler;
 
+	private int listenerQueueCapacity;
+
+	private int maxBatchSize = 100;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private long listenerQueueShutdownTimeout = 10000;
+
+	private final Map<ApplicationListener<?>, ListenerQueue> listenerQueues = new ConcurrentHashMap<>(16);
+
+	/** Monitor signalled whenever a listener queue becomes idle. */
+	private final Object listenerQueueMonitor = new Object();
+
 
 	/**
 	 * Create a new SimpleApplicationEventMulticaster.
@@ -121,6 +155,138 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return this.errorHandler;
 	}
 
+	/**
+	 * Set the capacity of the event queue to keep per listener, switching to
+	 * queued delivery through the {@linkplain #setTaskExecutor task executor}.
+	 * <p>Default is 0, delivering each event through a separate task per listener.
+	 * With a positive capacity, events get added to a bounded queue per listener
+	 * instance, with a single task at a time draining each queue in batches of up
+	 * to {@link #setMaxBatchSize maxBatchSize} events. This preserves the order of
+	 * events per listener. Queues are only kept for shared listener instances,
+	 * i.e. registered listeners and singleton listener beans: any other listener
+	 * (e.g. a prototype listener bean) receives each event through a separate task.
+	 * <p>Only applies if a task executor has been specified.
+	 * @since 5.3
+	 * @see #setOverflowPolicy
+	 * @see #getListenerQueueMetrics()
+	 */
+	public void setListenerQueueCapacity(int listenerQueueCapacity) {
+		Assert.isTrue(listenerQueueCapacity >= 0, "Listener queue capacity must not be negative");
+		this.listenerQueueCapacity = listenerQueueCapacity;
+	}
+
+	/**
+	 * Set the maximum number of queued events to deliver to a listener at once.
+	 * <p>Default is 100.
+	 * @since 5.3
+	 * @see EventListener#batch()
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "Max batch size must be positive");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Set the policy to apply when publishing an event to a full listener queue.
+	 * <p>Default is {@link OverflowPolicy#BLOCK}, blocking the publisher until the
+	 * queue has capacity again.
+	 * @since 5.3
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds to wait for queued events to be
+	 * delivered on {@link #flushListenerQueues()}, i.e. on context close.
+	 * <p>Default is 10 seconds. Events still pending after this time get
+	 * discarded, with a warning being logged.
+	 * @since 5.3
+	 */
+	public void setListenerQueueShutdownTimeout(long listenerQueueShutdownTimeout) {
+		Assert.isTrue(listenerQueueShutdownTimeout >= 0, "Shutdown timeout must not be negative");
+		this.listenerQueueShutdownTimeout = listenerQueueShutdownTimeout;
+	}
+
+	/**
+	 * Return a snapshot of the metrics for each listener queue, in case of
+	 * {@linkplain #setListenerQueueCapacity queued delivery}.
+	 * @return a map from listener to the metrics of its queue
+	 * @since 5.3
+	 */
+	public Map<ApplicationListener<?>, ListenerQueueMetrics> getListenerQueueMetrics() {
+		Map<ApplicationListener<?>, ListenerQueueMetrics> metrics = new LinkedHashMap<>(this.listenerQueues.size());
+		this.listenerQueues.forEach((listener, queue) -> metrics.put(listener, queue.getMetrics()));
+		return metrics;
+	}
+
+
+	/**
+	 * Wait for all queued events to be delivered to their listeners, up to the
+	 * {@linkplain #setListenerQueueShutdownTimeout shutdown timeout}, then discard
+	 * all listener queues, logging a warning for any events still pending.
+	 * <p>Called on context close, after the {@link ContextClosedEvent} has been
+	 * published, in case of {@linkplain #setListenerQueueCapacity queued delivery}.
+	 * @since 5.3
+	 */
+	public void flushListenerQueues() {
+		if (this.listenerQueues.isEmpty()) {
+			return;
+		}
+		long deadline = System.currentTimeMillis() + this.listenerQueueShutdownTimeout;
+		try {
+			synchronized (this.listenerQueueMonitor) {
+				long remaining = this.listenerQueueShutdownTimeout;
+				while (!this.listenerQueues.values().stream().allMatch(ListenerQueue::isIdle) && remaining > 0) {
+					this.listenerQueueMonitor.wait(remaining);
+					remaining = deadline - System.currentTimeMillis();
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		for (Iterator<ListenerQueue> it = this.listenerQueues.values().iterator(); it.hasNext();) {
+			it.next().discard();
+			it.remove();
+		}
+	}
+
+	@Override
+	public void removeApplicationListener(ApplicationListener<?> listener) {
+		super.removeApplicationListener(listener);
+		ListenerQueue queue = this.listenerQueues.remove(listener);
+		if (queue != null) {
+			queue.discard();
+		}
+	}
+
+	@Override
+	public void removeApplicationListenerBean(String listenerBeanName) {
+		super.removeApplicationListenerBean(listenerBeanName);
+		if (!this.listenerQueues.isEmpty()) {
+			// Discard the queues of listeners which are not registered anymore
+			Collection<ApplicationListener<?>> listeners = getApplicationListeners();
+			for (Iterator<ListenerQueue> it = this.listenerQueues.values().iterator(); it.hasNext();) {
+				ListenerQueue queue = it.next();
+				if (!listeners.contains(queue.listener)) {
+					queue.discard();
+					it.remove();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void removeAllListeners() {
+		super.removeAllListeners();
+		for (Iterator<ListenerQueue> it = this.listenerQueues.values().iterator(); it.hasNext();) {
+			it.next().discard();
+			it.remove();
+		}
+	}
+
 
 	@Override
 	public void multicastEvent(ApplicationEvent event) {
@@ -131,8 +297,13 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	public void multicastEvent(final ApplicationEvent event, @Nullable ResolvableType eventType) {
 		ResolvableType type = (eventType != null ? eventType : resolveDefaultEventType(event));
 		Executor executor = getTaskExecutor();
+		boolean queued = (executor != null && this.listenerQueueCapacity > 0);
 		for (ApplicationListener<?> listener : getApplicationListeners(event, type)) {
-			if (executor != null) {
+			ListenerQueue queue = (queued ? obtainListenerQueue(listener, executor) : null);
+			if (queue != null) {
+				queue.add(event);
+			}
+			else if (executor != null) {
 				executor.execute(() -> invokeListener(listener, event));
 			}
 			else {
@@ -145,6 +316,20 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return ResolvableType.forInstance(event);
 	}
 
+	/**
+	 * Obtain the queue for the given listener, creating it if necessary.
+	 * @return the listener queue, or {@code null} if the listener is not
+	 * a shared instance and should not be queued for
+	 */
+	@Nullable
+	private ListenerQueue obtainListenerQueue(ApplicationListener<?> listener, Executor executor) {
+		ListenerQueue queue = this.listenerQueues.get(listener);
+		if (queue == null && isSharedListener(listener)) {
+			queue = this.listenerQueues.computeIfAbsent(listener, key -> new ListenerQueue(key, executor));
+		}
+		return queue;
+	}
+
 	/**
 	 * Invoke the given listener with the given event.
 	 * @param listener the ApplicationListener to invoke
@@ -166,6 +351,54 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		}
 	}
 
+	/**
+	 * Invoke the given listener with the given batch of queued events.
+	 * <p>The default implementation passes the entire batch to an
+	 * {@link ApplicationListenerMethodAdapter} for a {@link EventListener#batch()
+	 * batch listener} method, and invokes any other listener for each event.
+	 * @param listener the ApplicationListener to invoke
+	 * @param events the queued events to propagate
+	 * @since 5.3
+	 * @see #setListenerQueueCapacity
+	 */
+	protected void invokeListener(ApplicationListener<?> listener, List<ApplicationEvent> events) {
+		if (listener instanceof ApplicationListenerMethodAdapter &&
+				((ApplicationListenerMethodAdapter) listener).isBatchListener()) {
+			ErrorHandler errorHandler = getErrorHandler();
+			if (errorHandler != null) {
+				try {
+					((ApplicationListenerMethodAdapter) listener).processEvents(events);
+				}
+				catch (Throwable err) {
+					errorHandler.handleError(err);
+				}
+			}
+			else {
+				((ApplicationListenerMethodAdapter) listener).processEvents(events);
+			}
+		}
+		else {
+			// Deliver every event of the batch, even if the listener fails for some of them
+			Throwable failure = null;
+			for (ApplicationEvent event : events) {
+				try {
+					invokeListener(listener, event);
+				}
+				catch (Throwable ex) {
+					if (failure == null) {
+						failure = ex;
+					}
+					else {
+						failure.addSuppressed(ex);
+					}
+				}
+			}
+			if (failure != null) {
+				ReflectionUtils.rethrowRuntimeException(failure);
+			}
+		}
+	}
+
 	@SuppressWarnings({"rawtypes", "unchecked"})
 	private void doInvokeListener(ApplicationListener listener, ApplicationEvent event) {
 		try {
@@ -205,4 +438,292 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return false;
 	}
 
+
+	/**
+	 * Policy for publishing an event to a full listener queue.
+	 * @since 5.3
+	 * @see #setOverflowPolicy
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Block the publishing thread until the queue has capacity again.
+		 * <p>Note that a listener publishing events to itself may block its
+		 * own queue with this policy.
+		 */
+		BLOCK,
+
+		/**
+		 * Drop the event being published.
+		 */
+		DISCARD_NEWEST,
+
+		/**
+		 * Drop the oldest queued event in favor of the event being published.
+		 */
+		DISCARD_OLDEST,
+
+		/**
+		 * Invoke the listener in the publishing thread, bypassing the queue.
+		 * <p>Note that events may be delivered out of order with this policy.
+		 */
+		CALLER_RUNS
+	}
+
+
+	/**
+	 * Snapshot of the metrics of a listener queue.
+	 * @since 5.3
+	 * @see #getListenerQueueMetrics()
+	 */
+	public static final class ListenerQueueMetrics {
+
+		private final int queueDepth;
+
+		private final long deliveredCount;
+
+		private final long discardedCount;
+
+		private final long batchCount;
+
+		private final long totalLatency;
+
+		private final long maxLatency;
+
+		ListenerQueueMetrics(int queueDepth, long deliveredCount, long discardedCount,
+				long batchCount, long totalLatency, long maxLatency) {
+
+			this.queueDepth = queueDepth;
+			this.deliveredCount = deliveredCount;
+			this.discardedCount = discardedCount;
+			this.batchCount = batchCount;
+			this.totalLatency = totalLatency;
+			this.maxLatency = maxLatency;
+		}
+
+		/**
+		 * Return the number of events currently waiting in the queue.
+		 */
+		public int getQueueDepth() {
+			return this.queueDepth;
+		}
+
+		/**
+		 * Return the number of events delivered to the listener so far.
+		 */
+		public long getDeliveredCount() {
+			return this.deliveredCount;
+		}
+
+		/**
+		 * Return the number of events discarded because of a full queue.
+		 */
+		public long getDiscardedCount() {
+			return this.discardedCount;
+		}
+
+		/**
+		 * Return the number of batches delivered to the listener so far.
+		 */
+		public long getBatchCount() {
+			return this.batchCount;
+		}
+
+		/**
+		 * Return the average time in nanoseconds that delivered events spent
+		 * in the queue.
+		 */
+		public long getAverageLatency() {
+			return (this.deliveredCount > 0 ? this.totalLatency / this.deliveredCount : 0);
+		}
+
+		/**
+		 * Return the maximum time in nanoseconds that a delivered event spent
+		 * in the queue.
+		 */
+		public long getMaxLatency() {
+			return this.maxLatency;
+		}
+
+		@Override
+		public String toString() {
+			return "ListenerQueueMetrics [queueDepth = " + this.queueDepth +
+					", deliveredCount = " + this.deliveredCount + ", discardedCount = " + this.discardedCount +
+					", batchCount = " + this.batchCount + ", averageLatency = " + getAverageLatency() +
+					", maxLatency = " + this.maxLatency + "]";
+		}
+	}
+
+
+	/**
+	 * Bounded event queue for a specific listener, drained in batches
+	 * by at most one task at a time.
+	 */
+	private class ListenerQueue implements Runnable {
+
+		private final ApplicationListener<?> listener;
+
+		private final Executor executor;
+
+		private final BlockingQueue<QueuedEvent> queue;
+
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		private final LongAdder deliveredCount = new LongAdder();
+
+		private final LongAdder discardedCount = new LongAdder();
+
+		private final LongAdder batchCount = new LongAdder();
+
+		private final LongAdder totalLatency = new LongAdder();
+
+		private final AtomicLong maxLatency = new AtomicLong();
+
+		public ListenerQueue(ApplicationListener<?> listener, Executor executor) {
+			this.listener = listener;
+			this.executor = executor;
+			this.queue = new ArrayBlockingQueue<>(listenerQueueCapacity);
+		}
+
+		public void add(ApplicationEvent event) {
+			QueuedEvent queuedEvent = new QueuedEvent(event);
+			if (!this.queue.offer(queuedEvent)) {
+				switch (overflowPolicy) {
+					case BLOCK:
+						try {
+							this.queue.put(queuedEvent);
+						}
+						catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+							this.discardedCount.increment();
+							return;
+						}
+						break;
+					case DISCARD_NEWEST:
+						this.discardedCount.increment();
+						return;
+					case DISCARD_OLDEST:
+						while (!this.queue.offer(queuedEvent)) {
+							if (this.queue.poll() != null) {
+								this.discardedCount.increment();
+							}
+						}
+						break;
+					case CALLER_RUNS:
+						invokeListener(this.listener, event);
+						this.deliveredCount.increment();
+						return;
+				}
+			}
+			if (this.draining.compareAndSet(false, true)) {
+				schedule();
+			}
+		}
+
+		private void schedule() {
+			try {
+				this.executor.execute(this);
+			}
+			catch (RuntimeException ex) {
+				this.draining.set(false);
+				signalIdle();
+				throw ex;
+			}
+		}
+
+		@Override
+		public void run() {
+			List<QueuedEvent> batch = new ArrayList<>(Math.min(this.queue.size(), maxBatchSize));
+			this.queue.drainTo(batch, maxBatchSize);
+			Throwable failure = null;
+			try {
+				if (!batch.isEmpty()) {
+					deliver(batch);
+				}
+			}
+			catch (Throwable ex) {
+				failure = ex;
+			}
+			try {
+				// One task per batch: reschedule for remaining events, or stop
+				// draining unless events have been added in the meantime
+				if (!this.queue.isEmpty()) {
+					schedule();
+				}
+				else {
+					this.draining.set(false);
+					if (!this.queue.isEmpty() && this.draining.compareAndSet(false, true)) {
+						schedule();
+					}
+					else {
+						signalIdle();
+					}
+				}
+			}
+			catch (RuntimeException ex) {
+				if (failure == null) {
+					throw ex;
+				}
+				// Keep the listener exception as the primary one
+				failure.addSuppressed(ex);
+			}
+			if (failure != null) {
+				ReflectionUtils.rethrowRuntimeException(failure);
+			}
+		}
+
+		public boolean isIdle() {
+			return (this.queue.isEmpty() && !this.draining.get());
+		}
+
+		private void signalIdle() {
+			synchronized (listenerQueueMonitor) {
+				listenerQueueMonitor.notifyAll();
+			}
+		}
+
+		public void discard() {
+			List<QueuedEvent> pending = new ArrayList<>();
+			this.queue.drainTo(pending);
+			if (!pending.isEmpty()) {
+				this.discardedCount.add(pending.size());
+				Log logger = LogFactory.getLog(SimpleApplicationEventMulticaster.class);
+				if (logger.isWarnEnabled()) {
+					logger.warn("Discarding " + pending.size() + " undelivered event(s) for listener " + this.listener);
+				}
+			}
+		}
+
+		private void deliver(List<QueuedEvent> batch) {
+			long now = System.nanoTime();
+			List<ApplicationEvent> events = new ArrayList<>(batch.size());
+			for (QueuedEvent queuedEvent : batch) {
+				long latency = now - queuedEvent.timestamp;
+				this.totalLatency.add(latency);
+				this.maxLatency.accumulateAndGet(latency, Math::max);
+				events.add(queuedEvent.event);
+			}
+			this.deliveredCount.add(events.size());
+			this.batchCount.increment();
+			invokeListener(this.listener, events);
+		}
+
+		public ListenerQueueMetrics getMetrics() {
+			return new ListenerQueueMetrics(this.queue.size(), this.deliveredCount.sum(),
+					this.discardedCount.sum(), this.batchCount.sum(), this.totalLatency.sum(), this.maxLatency.get());
+		}
+	}
+
+
+	private static final class QueuedEvent {
+
+		final ApplicationEvent event;
+
+		final long timestamp = System.nanoTime();
+
+		QueuedEvent(ApplicationEvent event) {
+			this.event = event;
+		}
+	}
+
 }
@@ -16,12 +16,20 @@
 
 package org.springframework.context.index;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
@@ -43,6 +51,10 @@ import org.springframework.util.MultiValueMap;
  * not a rule. Similarly, the {@code stereotype} is usually the fully qualified name of
  * a target type but it can be any marker really.
  *
+ * <p>As of 5.3, the index may also be read from the binary, versioned
+ * {@code META-INF/spring.components.idx} format which additionally holds the
+ * annotation metadata of each candidate type: see {@link #getMetadataReader(String)}.
+ *
  * @author Stephane Nicoll
  * @since 5.0
  */
@@ -50,11 +62,37 @@ public class CandidateComponentsIndex {
 
 	private static final AntPathMatcher pathMatcher = new AntPathMatcher(".");
 
+	/**
+	 * The magic number at the start of a binary index.
+	 */
+	static final int BINARY_MAGIC = 0x53504349;
+
+	/**
+	 * The binary index format version supported by this class.
+	 */
+	static final int BINARY_VERSION = 1;
+
+
 	private final MultiValueMap<String, Entry> index;
 
+	private final Map<String, ByteBuffer> typeMetadata = new HashMap<>();
+
+	@Nullable
+	private final ClassLoader classLoader;
+
 
 	CandidateComponentsIndex(List<Properties> content) {
+		this(content, Collections.emptyList(), null);
+	}
+
+	CandidateComponentsIndex(List<Properties> content, List<ByteBuffer> binaryContent,
+			@Nullable ClassLoader classLoader) {
+
 		this.index = parseIndex(content);
+		for (ByteBuffer buffer : binaryContent) {
+			parseBinaryIndex(buffer.duplicate(), this.index, this.typeMetadata);
+		}
+		this.classLoader = classLoader;
 	}
 
 	private static MultiValueMap<String, Entry> parseIndex(List<Properties> content) {
@@ -70,6 +108,39 @@ public class CandidateComponentsIndex {
 		return index;
 	}
 
+	private static void parseBinaryIndex(ByteBuffer buffer, MultiValueMap<String, Entry> index,
+			Map<String, ByteBuffer> typeMetadata) {
+
+		// DataInputStream does not buffer: the position of the buffer always
+		// matches what has been read so far
+		DataInputStream in = new DataInputStream(new IndexedMetadataReader.ByteBufferInputStream(buffer));
+		try {
+			if (in.readInt() != BINARY_MAGIC || in.readInt() != BINARY_VERSION) {
+				throw new IllegalArgumentException("Unsupported binary components index");
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String type = in.readUTF();
+				Entry entry = new Entry(type);
+				int stereotypeCount = in.readInt();
+				for (int j = 0; j < stereotypeCount; j++) {
+					index.add(in.readUTF(), entry);
+				}
+				int length = in.readInt();
+				if (length >= 0) {
+					int start = buffer.position();
+					ByteBuffer metadata = buffer.duplicate();
+					((Buffer) metadata).limit(start + length);
+					typeMetadata.put(type, metadata.slice());
+					((Buffer) buffer).position(start + length);
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalArgumentException("Corrupted binary components index", ex);
+		}
+	}
+
 
 	/**
 	 * Return the candidate types that are associated with the specified stereotype.
@@ -89,6 +160,34 @@ public class CandidateComponentsIndex {
 		return Collections.emptySet();
 	}
 
+	/**
+	 * Return a {@link MetadataReader} for the specified candidate type, based on
+	 * the metadata recorded in a binary index at build time. Such a reader does
+	 * not need to read nor parse the class file of the candidate.
+	 * @param type the fully qualified name of the candidate type
+	 * @return a reader for the indexed metadata, or {@code null} if the type
+	 * has no such metadata (or if it cannot be resolved against the current
+	 * class loader), in which case the class file has to be read instead
+	 * @since 5.3
+	 */
+	@Nullable
+	public MetadataReader getMetadataReader(String type) {
+		ByteBuffer metadata = this.typeMetadata.get(type);
+		if (metadata == null) {
+			return null;
+		}
+		try {
+			return new IndexedMetadataReader(type, metadata, this.classLoader);
+		}
+		catch (IOException | IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	boolean isEmpty() {
+		return this.index.isEmpty();
+	}
+
 
 	private static class Entry {
 
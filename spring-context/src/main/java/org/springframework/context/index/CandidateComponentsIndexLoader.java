@@ -17,11 +17,18 @@
 package org.springframework.context.index;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
@@ -32,6 +39,8 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StreamUtils;
 
 /**
  * Candidate components index loading mechanism for internal use within the framework.
@@ -47,6 +56,14 @@ public final class CandidateComponentsIndexLoader {
 	 */
 	public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring.components";
 
+	/**
+	 * The location to look for components in the binary, versioned format.
+	 * <p>Can be present in multiple JAR files. Takes precedence over the
+	 * {@value #COMPONENTS_RESOURCE_LOCATION} file next to it, if any.
+	 * @since 5.3
+	 */
+	public static final String COMPONENTS_INDEX_RESOURCE_LOCATION = COMPONENTS_RESOURCE_LOCATION + ".idx";
+
 	/**
 	 * System property that instructs Spring to ignore the index, i.e.
 	 * to always return {@code null} from {@link #loadIndex(ClassLoader)}.
@@ -73,8 +90,9 @@ public final class CandidateComponentsIndexLoader {
 
 	/**
 	 * Load and instantiate the {@link CandidateComponentsIndex} from
-	 * {@value #COMPONENTS_RESOURCE_LOCATION}, using the given class loader. If no
-	 * index is available, return {@code null}.
+	 * {@value #COMPONENTS_INDEX_RESOURCE_LOCATION} and
+	 * {@value #COMPONENTS_RESOURCE_LOCATION}, using the given class loader.
+	 * If no index is available, return {@code null}.
 	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
 	 * @return the index to use or {@code null} if no index was found
 	 * @throws IllegalArgumentException if any module index cannot
@@ -96,21 +114,37 @@ public final class CandidateComponentsIndexLoader {
 		}
 
 		try {
-			Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
-			if (!urls.hasMoreElements()) {
-				return null;
+			List<ByteBuffer> binaryResult = new ArrayList<>();
+			Set<String> binaryLocations = new HashSet<>();
+			Enumeration<URL> binaryUrls = classLoader.getResources(COMPONENTS_INDEX_RESOURCE_LOCATION);
+			while (binaryUrls.hasMoreElements()) {
+				URL url = binaryUrls.nextElement();
+				ByteBuffer buffer = loadBinaryIndex(url);
+				if (isSupportedBinaryIndex(buffer)) {
+					binaryResult.add(buffer);
+					binaryLocations.add(url.toExternalForm());
+				}
+				else if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring unsupported binary index [" + url + "]");
+				}
 			}
 			List<Properties> result = new ArrayList<>();
+			Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
 			while (urls.hasMoreElements()) {
 				URL url = urls.nextElement();
-				Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(url));
-				result.add(properties);
+				if (!binaryLocations.contains(url.toExternalForm() + ".idx")) {
+					Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(url));
+					result.add(properties);
+				}
+			}
+			if (result.isEmpty() && binaryResult.isEmpty()) {
+				return null;
 			}
 			if (logger.isDebugEnabled()) {
-				logger.debug("Loaded " + result.size() + "] index(es)");
+				logger.debug("Loaded " + (result.size() + binaryResult.size()) + "] index(es)");
 			}
-			int totalCount = result.stream().mapToInt(Properties::size).sum();
-			return (totalCount > 0 ? new CandidateComponentsIndex(result) : null);
+			CandidateComponentsIndex index = new CandidateComponentsIndex(result, binaryResult, classLoader);
+			return (!index.isEmpty() ? index : null);
 		}
 		catch (IOException ex) {
 			throw new IllegalStateException("Unable to load indexes from location [" +
@@ -118,4 +152,28 @@ public final class CandidateComponentsIndexLoader {
 		}
 	}
 
+	/**
+	 * Load the binary index at the given location: memory-mapped if it is
+	 * available in the file system, read in memory otherwise.
+	 */
+	private static ByteBuffer loadBinaryIndex(URL url) throws IOException {
+		if (ResourceUtils.URL_PROTOCOL_FILE.equals(url.getProtocol())) {
+			try (FileChannel channel = FileChannel.open(Paths.get(ResourceUtils.toURI(url)))) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			catch (URISyntaxException ex) {
+				// Fall back to regular stream access
+			}
+		}
+		try (InputStream in = url.openStream()) {
+			return ByteBuffer.wrap(StreamUtils.copyToByteArray(in));
+		}
+	}
+
+	private static boolean isSupportedBinaryIndex(ByteBuffer buffer) {
+		return (buffer.remaining() >= 12 &&
+				buffer.getInt(0) == CandidateComponentsIndex.BINARY_MAGIC &&
+				buffer.getInt(4) == CandidateComponentsIndex.BINARY_VERSION);
+	}
+
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.annotation.AnnotationFilter;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link MetadataReader} implementation based on the type metadata recorded
+ * in a binary components index, avoiding to read the class file.
+ *
+ * <p>The metadata is laid out as written by the {@code spring-context-indexer}
+ * annotation processor: access flags, enclosing class and independence flag,
+ * super class, interface and member class names, the runtime-visible class
+ * annotations and the annotated methods (including constructors), each with
+ * their runtime-visible annotations. Annotation attributes hold the values as
+ * declared in source, just like in the class file.
+ *
+ * @since 5.3
+ * @see CandidateComponentsIndex#getMetadataReader(String)
+ */
+final class IndexedMetadataReader implements MetadataReader {
+
+	private static final byte TAG_STRING = 's';
+
+	private static final byte TAG_CLASS = 'c';
+
+	private static final byte TAG_ENUM = 'e';
+
+	private static final byte TAG_ANNOTATION = '@';
+
+	private static final byte TAG_ARRAY = '[';
+
+
+	private final Resource resource;
+
+	private final AnnotationMetadata annotationMetadata;
+
+
+	IndexedMetadataReader(String className, ByteBuffer metadata, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		this.resource = new ClassPathResource(
+				ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX, classLoader);
+		this.annotationMetadata = readMetadata(
+				className, new DataInputStream(new ByteBufferInputStream(metadata.duplicate())), classLoader);
+	}
+
+
+	@Override
+	public Resource getResource() {
+		return this.resource;
+	}
+
+	@Override
+	public ClassMetadata getClassMetadata() {
+		return this.annotationMetadata;
+	}
+
+	@Override
+	public AnnotationMetadata getAnnotationMetadata() {
+		return this.annotationMetadata;
+	}
+
+
+	private static AnnotationMetadata readMetadata(String className, DataInputStream in,
+			@Nullable ClassLoader classLoader) throws IOException {
+
+		int access = in.readInt();
+		String enclosingClassName = readNullableString(in);
+		boolean independentInnerClass = in.readBoolean();
+		String superClassName = readNullableString(in);
+		String[] interfaceNames = readStrings(in);
+		String[] memberClassNames = readStrings(in);
+		MergedAnnotations annotations = readAnnotations(in, classLoader, className);
+		int methodCount = in.readInt();
+		MethodMetadata[] annotatedMethods = new MethodMetadata[methodCount];
+		for (int i = 0; i < methodCount; i++) {
+			String methodName = in.readUTF();
+			int methodAccess = in.readInt();
+			String returnTypeName = in.readUTF();
+			String[] parameterTypes = readStrings(in);
+			String source = className + '.' + methodName + '(' + String.join(",", parameterTypes) + ')';
+			annotatedMethods[i] = new IndexedMethodMetadata(methodName, methodAccess, className,
+					returnTypeName, readAnnotations(in, classLoader, source));
+		}
+		return new IndexedAnnotationMetadata(className, access, enclosingClassName, superClassName,
+				independentInnerClass, interfaceNames, memberClassNames, annotatedMethods, annotations);
+	}
+
+	private static MergedAnnotations readAnnotations(DataInputStream in, @Nullable ClassLoader classLoader,
+			Object source) throws IOException {
+
+		int count = in.readInt();
+		List<MergedAnnotation<?>> annotations = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			MergedAnnotation<?> annotation = readAnnotation(in, classLoader, source);
+			if (annotation != null) {
+				annotations.add(annotation);
+			}
+		}
+		return MergedAnnotations.of(annotations);
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static <A extends Annotation> MergedAnnotation<A> readAnnotation(DataInputStream in,
+			@Nullable ClassLoader classLoader, Object source) throws IOException {
+
+		String typeName = in.readUTF();
+		int count = in.readInt();
+		Map<String, Object> attributes = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			Object value = readValue(in, classLoader, source);
+			if (value != null) {
+				attributes.put(name, value);
+			}
+		}
+		if (AnnotationFilter.PLAIN.matches(typeName)) {
+			return null;
+		}
+		try {
+			Class<A> annotationType = (Class<A>) ClassUtils.forName(typeName, classLoader);
+			return MergedAnnotation.of(classLoader, source, annotationType, attributes);
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			return null;
+		}
+	}
+
+	@Nullable
+	private static Object readValue(DataInputStream in, @Nullable ClassLoader classLoader, Object source)
+			throws IOException {
+
+		byte tag = in.readByte();
+		if (tag == TAG_ARRAY) {
+			return readArray(in, classLoader, source);
+		}
+		if (tag == TAG_ENUM) {
+			return readEnum(ClassUtils.resolveClassName(in.readUTF(), classLoader), in.readUTF());
+		}
+		return readElement(in, tag, classLoader, source);
+	}
+
+	@Nullable
+	private static Object readElement(DataInputStream in, byte tag, @Nullable ClassLoader classLoader,
+			Object source) throws IOException {
+
+		switch (tag) {
+			case 'Z':
+				return in.readBoolean();
+			case 'B':
+				return in.readByte();
+			case 'C':
+				return in.readChar();
+			case 'S':
+				return in.readShort();
+			case 'I':
+				return in.readInt();
+			case 'J':
+				return in.readLong();
+			case 'F':
+				return in.readFloat();
+			case 'D':
+				return in.readDouble();
+			case TAG_STRING:
+			case TAG_CLASS:
+				return in.readUTF();
+			case TAG_ANNOTATION:
+				return readAnnotation(in, classLoader, source);
+			default:
+				throw new IOException("Unknown annotation value tag in components index: " + tag);
+		}
+	}
+
+	private static Object readArray(DataInputStream in, @Nullable ClassLoader classLoader, Object source)
+			throws IOException {
+
+		byte tag = in.readByte();
+		Class<?> enumType = (tag == TAG_ENUM ? ClassUtils.resolveClassName(in.readUTF(), classLoader) : null);
+		int count = in.readInt();
+		if (count == 0) {
+			// Consistent with ASM-based metadata: empty arrays remain untyped
+			return new Object[0];
+		}
+		List<Object> elements = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Object element = (enumType != null ? readEnum(enumType, in.readUTF()) :
+					readElement(in, tag, classLoader, source));
+			if (element != null) {
+				elements.add(element);
+			}
+		}
+		Class<?> componentType = getComponentType(tag, enumType);
+		Object array = Array.newInstance(componentType, elements.size());
+		for (int i = 0; i < elements.size(); i++) {
+			Array.set(array, i, elements.get(i));
+		}
+		return array;
+	}
+
+	private static Class<?> getComponentType(byte tag, @Nullable Class<?> enumType) {
+		switch (tag) {
+			case 'Z':
+				return boolean.class;
+			case 'B':
+				return byte.class;
+			case 'C':
+				return char.class;
+			case 'S':
+				return short.class;
+			case 'I':
+				return int.class;
+			case 'J':
+				return long.class;
+			case 'F':
+				return float.class;
+			case 'D':
+				return double.class;
+			case TAG_ENUM:
+				return (enumType != null ? enumType : Object.class);
+			case TAG_ANNOTATION:
+				return MergedAnnotation.class;
+			default:
+				return String.class;
+		}
+	}
+
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static Object readEnum(Class<?> enumType, String name) {
+		return Enum.valueOf((Class<? extends Enum>) enumType, name);
+	}
+
+	@Nullable
+	private static String readNullableString(DataInputStream in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	private static String[] readStrings(DataInputStream in) throws IOException {
+		String[] values = new String[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readUTF();
+		}
+		return values;
+	}
+
+
+	/**
+	 * {@link InputStream} view on a {@link ByteBuffer}, possibly memory-mapped.
+	 */
+	static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return (this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			if (!this.buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(len, this.buffer.remaining());
+			this.buffer.get(bytes, off, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+	}
+
+}
@@ -20,12 +20,15 @@ import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
@@ -36,9 +39,14 @@ import org.springframework.beans.CachedIntrospectionResults;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.SingletonWarmUp;
 import org.springframework.beans.support.ResourceEditorRegistrar;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
@@ -46,6 +54,7 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.ApplicationStartupAware;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.context.EnvironmentAware;
@@ -66,6 +75,7 @@ import org.springframework.context.event.SimpleApplicationEventMulticaster;
 import org.springframework.context.expression.StandardBeanExpressionResolver;
 import org.springframework.context.weaving.LoadTimeWeaverAware;
 import org.springframework.context.weaving.LoadTimeWeaverAwareProcessor;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.convert.ConversionService;
@@ -77,6 +87,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -152,6 +164,25 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 */
 	public static final String APPLICATION_EVENT_MULTICASTER_BEAN_NAME = "applicationEventMulticaster";
 
+	/**
+	 * {@link Thread#getName() Name} of the thread warming up singletons after
+	 * refresh, if {@link #setBackgroundWarmUp background warm-up} is enabled.
+	 */
+	private static final String WARM_UP_THREAD_NAME = "SpringContextWarmUp";
+
+	/**
+	 * Time in milliseconds to wait for a background warm-up on close, unless the
+	 * context uses a {@link DefaultLifecycleProcessor} with its own shutdown timeout.
+	 */
+	private static final long DEFAULT_WARM_UP_SHUTDOWN_TIMEOUT = 30000;
+
+	/**
+	 * The context that the current thread is pre-instantiating singletons for
+	 * on behalf of the {@link #BOOTSTRAP_EXECUTOR_BEAN_NAME bootstrap executor}.
+	 */
+	private static final ThreadLocal<AbstractApplicationContext> currentBootstrapContext =
+			new NamedThreadLocal<>("Context being bootstrapped");
+
 
 	static {
 		// Eagerly load the ContextClosedEvent class to avoid weird classloader issues
@@ -222,6 +253,20 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Nullable
 	private Set<ApplicationEvent> earlyApplicationEvents;
 
+	/** Application startup metrics. **/
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+	/** Whether to create singletons lazily and warm them up in the background. */
+	private boolean backgroundWarmUp = false;
+
+	/** Names of the singletons deferred to the background warm-up during refresh. */
+	@Nullable
+	private Set<String> deferredSingletonNames;
+
+	/** Background warm-up of the deferred singletons, if started. */
+	@Nullable
+	private volatile SingletonWarmUp singletonWarmUp;
+
 
 	/**
 	 * Create a new AbstractApplicationContext with no parent.
@@ -330,6 +375,62 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		return new StandardEnvironment();
 	}
 
+	@Override
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "applicationStartup should not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	@Override
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
+	/**
+	 * Specify whether singletons should be created lazily on first use, with
+	 * a background thread warming them up once {@link #refresh()} has returned.
+	 * <p>Default is "false", pre-instantiating all non-lazy singletons within
+	 * {@link #refresh()}. Switch this to "true" in order for refresh to return
+	 * as soon as the infrastructure is in place: all singletons that would
+	 * otherwise be pre-instantiated are left out of pre-instantiation after bean
+	 * factory post-processing (without changing their bean definitions), except for infrastructure beans, beans explicitly marked
+	 * as non-lazy and {@link SmartInitializingSingleton} beans. A daemon thread
+	 * then creates the deferred singletons one after another in dependency
+	 * order, unless they have been retrieved on demand in the meantime.
+	 * <p>Only applies to contexts with a {@link DefaultListableBeanFactory}.
+	 * Note that application code will typically run concurrently with the
+	 * warm-up thread, so singletons are subject to concurrent creation. On close,
+	 * the context waits for the singleton currently being warmed up for at most
+	 * the {@link DefaultLifecycleProcessor#setTimeoutPerShutdownPhase shutdown
+	 * timeout per phase}.
+	 * @since 5.3
+	 * @see #getSingletonWarmUp()
+	 * @see SingletonWarmUp
+	 */
+	public void setBackgroundWarmUp(boolean backgroundWarmUp) {
+		this.backgroundWarmUp = backgroundWarmUp;
+	}
+
+	/**
+	 * Return whether singletons are created lazily and warmed up in the background.
+	 * @since 5.3
+	 */
+	public boolean isBackgroundWarmUp() {
+		return this.backgroundWarmUp;
+	}
+
+	/**
+	 * Return the background warm-up of this context's singletons, exposing
+	 * its progress and the creation time of each singleton.
+	 * @return the warm-up, or {@code null} if no
+	 * {@link #setBackgroundWarmUp background warm-up} has been started
+	 * @since 5.3
+	 */
+	@Nullable
+	public SingletonWarmUp getSingletonWarmUp() {
+		return this.singletonWarmUp;
+	}
+
 	/**
 	 * Return this context's internal bean factory as AutowireCapableBeanFactory,
 	 * if already available.
@@ -515,7 +616,10 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 
 	@Override
 	public void refresh() throws BeansException, IllegalStateException {
+		assertNotBootstrapThread("refresh");
 		synchronized (this.startupShutdownMonitor) {
+			StartupStep contextRefresh = this.applicationStartup.start("spring.context.refresh");
+
 			// Prepare this context for refreshing.
 			// 刷新容器 预准备工作
 			prepareRefresh();
@@ -533,13 +637,19 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				// 空方法，留给子类实现，用于注册一些 beanFactoryPostProcessor
 				postProcessBeanFactory(beanFactory);
 
-				// Invoke factory processors registered as beans in the context.
-				// 查找 并 执行 bfpp 后处理器
-				invokeBeanFactoryPostProcessors(beanFactory);
+				StartupStep beanPostProcess = this.applicationStartup.start("spring.context.beans.post-process");
+				try {
+					// Invoke factory processors registered as beans in the context.
+					// 查找 并 执行 bfpp 后处理器
+					invokeBeanFactoryPostProcessors(beanFactory);
 
-				// Register bean processors that intercept bean creation.
-				// 注册后处理器
-				registerBeanPostProcessors(beanFactory);
+					// Register bean processors that intercept bean creation.
+					// 注册后处理器
+					registerBeanPostProcessors(beanFactory);
+				}
+				finally {
+					beanPostProcess.end();
+				}
 
 				// Initialize message source for this context.
 				initMessageSource();
@@ -563,6 +673,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				// Last step: publish corresponding event.
 				// 完成刷新 后做的一些事情，主要是启动生命周期对象。
 				finishRefresh();
+
+				// Create deferred singletons in the background, if any.
+				startSingletonWarmUp(beanFactory);
 			}
 
 			catch (BeansException ex) {
@@ -585,6 +698,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				// Reset common introspection caches in Spring's core, since we
 				// might not ever need metadata for singleton beans anymore...
 				resetCommonCaches();
+				contextRefresh.end();
 			}
 		}
 	}
@@ -594,6 +708,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 * active flag as well as performing any initialization of property sources.
 	 */
 	protected void prepareRefresh() {
+		// Wait for a warm-up from a previous refresh, if any.
+		stopSingletonWarmUp();
+		this.singletonWarmUp = null;
+		this.deferredSingletonNames = null;
+
 		// Switch to active.
 		//设置容器启动时间
 		this.startupDate = System.currentTimeMillis();
@@ -682,6 +801,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		beanFactory.ignoreDependencyInterface(ApplicationEventPublisherAware.class);
 		beanFactory.ignoreDependencyInterface(MessageSourceAware.class);
 		beanFactory.ignoreDependencyInterface(ApplicationContextAware.class);
+		beanFactory.ignoreDependencyInterface(ApplicationStartupAware.class);
 
 
 
@@ -717,6 +837,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		if (!beanFactory.containsLocalBean(SYSTEM_ENVIRONMENT_BEAN_NAME)) {
 			beanFactory.registerSingleton(SYSTEM_ENVIRONMENT_BEAN_NAME, getEnvironment().getSystemEnvironment());
 		}
+		if (!beanFactory.containsLocalBean(APPLICATION_STARTUP_BEAN_NAME)) {
+			beanFactory.registerSingleton(APPLICATION_STARTUP_BEAN_NAME, getApplicationStartup());
+		}
 	}
 
 	/**
@@ -737,6 +860,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	protected void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {
 		PostProcessorRegistrationDelegate.invokeBeanFactoryPostProcessors(beanFactory, getBeanFactoryPostProcessors());
 
+		// Defer the creation of singletons to the background warm-up, if requested.
+		if (this.backgroundWarmUp && beanFactory instanceof DefaultListableBeanFactory) {
+			this.deferredSingletonNames = deferSingletons(beanFactory);
+		}
+
 		// Detect a LoadTimeWeaver and prepare for weaving, if found in the meantime
 		// (e.g. through an @Bean method registered by ConfigurationClassPostProcessor)
 		if (beanFactory.getTempClassLoader() == null && beanFactory.containsBean(LOAD_TIME_WEAVER_BEAN_NAME)) {
@@ -745,6 +873,35 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		}
 	}
 
+	/**
+	 * Leave all singletons that would otherwise be pre-instantiated out of
+	 * pre-instantiation, except for infrastructure beans, beans explicitly marked
+	 * as non-lazy and {@link SmartInitializingSingleton} beans.
+	 * @return the names of the deferred singletons
+	 * @see DefaultListableBeanFactory#setDeferredSingletonNames
+	 */
+	private Set<String> deferSingletons(ConfigurableListableBeanFactory beanFactory) {
+		Set<String> beanNames = new LinkedHashSet<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+			BeanDefinition mbd = beanFactory.getMergedBeanDefinition(beanName);
+			if (mbd.isAbstract() || !mbd.isSingleton() || mbd.isLazyInit() ||
+					bd.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE ||
+					(bd instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) bd).getLazyInit() != null)) {
+				continue;
+			}
+			Class<?> beanType = beanFactory.getType(beanName, false);
+			if (beanType == null || !SmartInitializingSingleton.class.isAssignableFrom(beanType)) {
+				beanNames.add(beanName);
+			}
+		}
+		((DefaultListableBeanFactory) beanFactory).setDeferredSingletonNames(beanNames);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Deferred creation of " + beanNames.size() + " singletons to background warm-up");
+		}
+		return beanNames;
+	}
+
 	/**
 	 * Instantiate and register all BeanPostProcessor beans,
 	 * respecting explicit order if given.
@@ -896,6 +1053,15 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 					beanFactory.getBean(CONVERSION_SERVICE_BEAN_NAME, ConversionService.class));
 		}
 
+		// Initialize bootstrap executor for concurrent singleton pre-instantiation, if any.
+		if (beanFactory instanceof DefaultListableBeanFactory &&
+				beanFactory.containsBean(BOOTSTRAP_EXECUTOR_BEAN_NAME) &&
+				beanFactory.isTypeMatch(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class)) {
+			Executor bootstrapExecutor = beanFactory.getBean(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class);
+			((DefaultListableBeanFactory) beanFactory).setBootstrapExecutor(
+					task -> bootstrapExecutor.execute(() -> runBootstrapTask(task)));
+		}
+
 		// Register a default embedded value resolver if no bean post-processor
 		// (such as a PropertyPlaceholderConfigurer bean) registered any before:
 		// at this point, primarily for resolution in annotation attribute values.
@@ -943,6 +1109,48 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		LiveBeansView.registerApplicationContext(this);
 	}
 
+	/**
+	 * Start creating the singletons deferred during this refresh on a daemon thread.
+	 * @see #setBackgroundWarmUp
+	 */
+	private void startSingletonWarmUp(ConfigurableListableBeanFactory beanFactory) {
+		Set<String> beanNames = this.deferredSingletonNames;
+		if (beanNames != null) {
+			this.deferredSingletonNames = null;
+			DefaultListableBeanFactory dlbf = (DefaultListableBeanFactory) beanFactory;
+			dlbf.setDeferredSingletonNames(Collections.emptySet());
+			SingletonWarmUp warmUp = new SingletonWarmUp(dlbf, beanNames);
+			this.singletonWarmUp = warmUp;
+			Thread thread = new Thread(warmUp, WARM_UP_THREAD_NAME);
+			thread.setContextClassLoader(getClassLoader());
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Cancel the background warm-up, if any, waiting for the singleton that
+	 * is currently being created to be completed within the shutdown timeout.
+	 */
+	private void stopSingletonWarmUp() {
+		SingletonWarmUp warmUp = this.singletonWarmUp;
+		if (warmUp != null) {
+			warmUp.cancel();
+			long timeout = (this.lifecycleProcessor instanceof DefaultLifecycleProcessor ?
+					((DefaultLifecycleProcessor) this.lifecycleProcessor).getTimeoutPerShutdownPhase() :
+					DEFAULT_WARM_UP_SHUTDOWN_TIMEOUT);
+			try {
+				if (!warmUp.awaitCompletion(timeout, TimeUnit.MILLISECONDS) && logger.isWarnEnabled()) {
+					logger.warn("Background warm-up of singletons did not complete within " + timeout +
+							" ms - proceeding while a singleton may still be in creation");
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
 	/**
 	 * Cancel this context's refresh attempt, resetting the {@code active} flag
 	 * after an exception got thrown.
@@ -996,6 +1204,40 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		}
 	}
 
+	/**
+	 * Run the given pre-instantiation task on behalf of the bootstrap executor,
+	 * marking the current thread as bootstrapping this context.
+	 * @see #assertNotBootstrapThread
+	 */
+	private void runBootstrapTask(Runnable task) {
+		AbstractApplicationContext previousContext = currentBootstrapContext.get();
+		currentBootstrapContext.set(this);
+		try {
+			task.run();
+		}
+		finally {
+			if (previousContext != null) {
+				currentBootstrapContext.set(previousContext);
+			}
+			else {
+				currentBootstrapContext.remove();
+			}
+		}
+	}
+
+	/**
+	 * Reject the given lifecycle operation when called from a thread that is
+	 * pre-instantiating singletons on the bootstrap executor during refresh:
+	 * the refreshing thread waits for such threads while holding the
+	 * startup/shutdown monitor, so the operation would deadlock.
+	 */
+	private void assertNotBootstrapThread(String operation) {
+		if (currentBootstrapContext.get() == this && !Thread.holdsLock(this.startupShutdownMonitor)) {
+			throw new IllegalStateException("Cannot " + operation + " " + getDisplayName() +
+					" from a singleton pre-instantiation task on its bootstrap executor");
+		}
+	}
+
 	/**
 	 * Callback for destruction of this instance, originally attached
 	 * to a {@code DisposableBean} implementation (not anymore in 5.0).
@@ -1017,6 +1259,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 */
 	@Override
 	public void close() {
+		assertNotBootstrapThread("close");
 		synchronized (this.startupShutdownMonitor) {
 			doClose();
 			// If we registered a JVM shutdown hook, we don't need it anymore now:
@@ -1058,6 +1301,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				logger.warn("Exception thrown from ApplicationListener handling ContextClosedEvent", ex);
 			}
 
+			// Deliver (or discard) events still queued for asynchronous listeners.
+			if (this.applicationEventMulticaster instanceof SimpleApplicationEventMulticaster) {
+				((SimpleApplicationEventMulticaster) this.applicationEventMulticaster).flushListenerQueues();
+			}
+
 			// Stop all Lifecycle beans, to avoid delays during individual destruction.
 			if (this.lifecycleProcessor != null) {
 				try {
@@ -1068,6 +1316,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				}
 			}
 
+			// Stop creating singletons in the background before destroying them.
+			stopSingletonWarmUp();
+
 			// Destroy all cached singletons in the context's BeanFactory.
 			destroyBeans();
 
@@ -130,6 +130,7 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 			DefaultListableBeanFactory beanFactory = createBeanFactory();
 
 			beanFactory.setSerializationId(getId());
+			beanFactory.setApplicationStartup(getApplicationStartup());
 
 			customizeBeanFactory(beanFactory);
 			// 加载bd信息，这一步完成之后，所有的配置信息（bd）就注册到 bf内了。
@@ -0,0 +1,1151 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.MethodOverride;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.Conventions;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Build-time snapshot of the bean definitions of an application context,
+ * as produced by {@code BeanDefinitionRegistryPostProcessors} such as
+ * {@link org.springframework.context.annotation.ConfigurationClassPostProcessor}
+ * (configuration class parsing, component scanning, condition evaluation).
+ *
+ * <p>A snapshot is typically created at build time through
+ * {@link GenericApplicationContext#createBeanDefinitionSnapshot()}, written out
+ * via {@link #writeTo(OutputStream)} and loaded at runtime through
+ * {@link GenericApplicationContext#loadBeanDefinitionSnapshot(Resource)},
+ * skipping the scanning and parsing steps on startup.
+ *
+ * <p>The snapshot uses a compact binary format which covers all common bean
+ * definition settings, constructor argument and property values (including
+ * inner beans and managed collections), attributes with simple values, as well
+ * as lookup method overrides. Bean definitions with instance suppliers or other
+ * programmatic state cannot be captured and get rejected at build time.
+ * {@code @PropertySource} declarations processed at build time are recorded
+ * as well, getting added to the environment again when the snapshot is loaded
+ * (with their locations resolved against the runtime environment).
+ *
+ * <p>The snapshot also records a fingerprint of the classpath packages that
+ * the captured bean classes reside in, as well as of the base packages scanned
+ * for components (including their subpackages): Any class added, removed or
+ * modified in one of those packages renders the snapshot {@link #isStale stale}.
+ * Classes in other packages, e.g. configuration classes that are not referenced
+ * by any captured bean definition, are not covered. Note that conditions and
+ * profiles are evaluated at build time; a snapshot needs to be rebuilt for a
+ * different environment setup.
+ *
+ * @since 5.3
+ * @see GenericApplicationContext#createBeanDefinitionSnapshot()
+ * @see GenericApplicationContext#loadBeanDefinitionSnapshot(Resource)
+ */
+public final class BeanDefinitionSnapshot {
+
+	/**
+	 * Name of the singleton marking a bean factory as populated from a snapshot.
+	 * Bean definition registry post-processors may check for its presence in
+	 * order to skip work that has been performed at build time already.
+	 */
+	public static final String BEAN_NAME = "org.springframework.context.support.internalBeanDefinitionSnapshot";
+
+	/**
+	 * Name of the bean definition attribute holding the comma-delimited base
+	 * packages that a configuration class scans for components. Set by
+	 * configuration class processing; fingerprinted recursively by snapshots.
+	 */
+	public static final String SCANNED_PACKAGES_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(BeanDefinitionSnapshot.class, "scannedPackages");
+
+	/**
+	 * Name of the singleton collecting the attributes of the {@code @PropertySource}
+	 * annotations processed while capturing a snapshot, as a {@code List} of
+	 * {@link AnnotationAttributes} in processing order. Registered for the
+	 * duration of {@link GenericApplicationContext#createBeanDefinitionSnapshot()}.
+	 */
+	public static final String PROPERTY_SOURCES_BEAN_NAME =
+			"org.springframework.context.support.internalBeanDefinitionSnapshotPropertySources";
+
+	private static final String RECURSIVE_PACKAGE_SUFFIX = ".**";
+
+	private static final int MAGIC = 0x53424453;
+
+	private static final int VERSION = 3;
+
+	private static final byte ROOT_BEAN_DEFINITION = 0;
+
+	private static final byte GENERIC_BEAN_DEFINITION = 1;
+
+	private static final byte CLASS_DERIVED_BEAN_DEFINITION = 2;
+
+	private static final byte BEAN_METHOD_BEAN_DEFINITION = 3;
+
+	private static final byte NULL = 0;
+
+	private static final byte STRING = 1;
+
+	private static final byte TYPED_STRING = 2;
+
+	private static final byte BEAN_REFERENCE = 3;
+
+	private static final byte BEAN_TYPE_REFERENCE = 4;
+
+	private static final byte BEAN_NAME_REFERENCE = 5;
+
+	private static final byte BOOLEAN = 6;
+
+	private static final byte INTEGER = 7;
+
+	private static final byte LONG = 8;
+
+	private static final byte DOUBLE = 9;
+
+	private static final byte FLOAT = 10;
+
+	private static final byte SHORT = 11;
+
+	private static final byte BYTE = 12;
+
+	private static final byte CHARACTER = 13;
+
+	private static final byte CLASS = 14;
+
+	private static final byte ENUM = 15;
+
+	private static final byte BEAN_DEFINITION = 16;
+
+	private static final byte BEAN_DEFINITION_HOLDER = 17;
+
+	private static final byte LIST = 18;
+
+	private static final byte ARRAY = 19;
+
+	private static final byte SET = 20;
+
+	private static final byte MAP = 21;
+
+	private static final byte PROPERTIES = 22;
+
+
+	private final List<String> beanNames;
+
+	private final Map<String, Long> packageFingerprints;
+
+	private final List<AnnotationAttributes> propertySources;
+
+	private final byte[] definitionData;
+
+
+	private BeanDefinitionSnapshot(List<String> beanNames, Map<String, Long> packageFingerprints,
+			List<AnnotationAttributes> propertySources, byte[] definitionData) {
+
+		this.beanNames = beanNames;
+		this.packageFingerprints = packageFingerprints;
+		this.propertySources = propertySources;
+		this.definitionData = definitionData;
+	}
+
+
+	/**
+	 * Return the names of the bean definitions contained in this snapshot,
+	 * in registration order.
+	 */
+	public List<String> getBeanNames() {
+		return Collections.unmodifiableList(this.beanNames);
+	}
+
+	/**
+	 * Return the attributes of the {@code @PropertySource} annotations processed
+	 * when capturing this snapshot, in processing order.
+	 * @param classLoader the ClassLoader to resolve property source factories against
+	 * (may be {@code null} to indicate the default class loader)
+	 * @return the attributes, with their {@code value} locations still unresolved
+	 * @throws IllegalStateException if a property source factory cannot be resolved
+	 */
+	public List<AnnotationAttributes> getPropertySources(@Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		List<AnnotationAttributes> result = new ArrayList<>(this.propertySources.size());
+		for (AnnotationAttributes recorded : this.propertySources) {
+			AnnotationAttributes attributes = new AnnotationAttributes(recorded);
+			try {
+				attributes.put("factory", ClassUtils.forName(recorded.getString("factory"), classLoaderToUse));
+			}
+			catch (ClassNotFoundException ex) {
+				throw new IllegalStateException("Failed to resolve property source factory in snapshot", ex);
+			}
+			result.add(attributes);
+		}
+		return result;
+	}
+
+	/**
+	 * Determine whether this snapshot is stale against the given class loader,
+	 * i.e. whether any class has been added, removed or modified in one of the
+	 * packages that the snapshot's bean classes reside in, or in one of the
+	 * scanned base packages or their subpackages.
+	 * @param classLoader the ClassLoader to check the classpath of
+	 * (may be {@code null} to indicate the default class loader)
+	 * @return {@code true} if the snapshot needs to be rebuilt
+	 */
+	public boolean isStale(@Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		try {
+			Map<String, Long> current = computePackageFingerprints(this.packageFingerprints.keySet(), classLoaderToUse);
+			return !current.equals(this.packageFingerprints);
+		}
+		catch (IOException ex) {
+			return true;
+		}
+	}
+
+	/**
+	 * Register the bean definitions (and aliases) contained in this snapshot
+	 * with the given registry. Bean definitions which are present in the
+	 * registry already (e.g. common annotation processors) are left as-is.
+	 * @param registry the registry to register the bean definitions with
+	 * @param classLoader the ClassLoader to resolve class values against
+	 * (may be {@code null} to indicate the default class loader)
+	 * @return the number of bean definitions registered
+	 * @throws IllegalStateException if the snapshot content cannot be resolved
+	 */
+	public int registerBeanDefinitions(BeanDefinitionRegistry registry, @Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(this.definitionData));
+		try {
+			int count = 0;
+			int beanCount = in.readInt();
+			for (int i = 0; i < beanCount; i++) {
+				String beanName = in.readUTF();
+				AbstractBeanDefinition beanDefinition = readBeanDefinition(in, classLoaderToUse);
+				String[] aliases = readStringArray(in);
+				if (!registry.containsBeanDefinition(beanName)) {
+					registry.registerBeanDefinition(beanName, beanDefinition);
+					count++;
+				}
+				for (String alias : aliases) {
+					if (!registry.isAlias(alias)) {
+						registry.registerAlias(beanName, alias);
+					}
+				}
+			}
+			return count;
+		}
+		catch (IOException | ClassNotFoundException ex) {
+			throw new IllegalStateException("Failed to resolve bean definition snapshot", ex);
+		}
+	}
+
+	/**
+	 * Write this snapshot to the given stream in its binary format.
+	 * @param out the stream to write to (not closed by this method)
+	 * @throws IOException in case of I/O errors
+	 * @see #readFrom(InputStream)
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream dos = new DataOutputStream(out);
+		dos.writeInt(MAGIC);
+		dos.writeInt(VERSION);
+		dos.writeInt(this.beanNames.size());
+		for (String beanName : this.beanNames) {
+			dos.writeUTF(beanName);
+		}
+		dos.writeInt(this.packageFingerprints.size());
+		for (Map.Entry<String, Long> entry : this.packageFingerprints.entrySet()) {
+			dos.writeUTF(entry.getKey());
+			dos.writeLong(entry.getValue());
+		}
+		dos.writeInt(this.propertySources.size());
+		for (AnnotationAttributes propertySource : this.propertySources) {
+			dos.writeUTF(propertySource.getString("name"));
+			writeStringArray(dos, propertySource.getStringArray("value"));
+			dos.writeUTF(propertySource.getString("encoding"));
+			dos.writeBoolean(propertySource.getBoolean("ignoreResourceNotFound"));
+			dos.writeUTF(propertySource.getString("factory"));
+		}
+		dos.writeInt(this.definitionData.length);
+		dos.write(this.definitionData);
+		dos.flush();
+	}
+
+
+	/**
+	 * Capture the current bean definitions of the given bean factory,
+	 * along with a fingerprint of the packages their classes reside in
+	 * and of the base packages scanned for components.
+	 * <p>{@code @PropertySource} declarations are captured from the
+	 * {@link #PROPERTY_SOURCES_BEAN_NAME} singleton, if registered.
+	 * @param beanFactory the bean factory to capture
+	 * @return the snapshot
+	 * @throws IllegalStateException if a bean definition cannot be captured
+	 */
+	public static BeanDefinitionSnapshot capture(ConfigurableListableBeanFactory beanFactory) {
+		Set<String> classNames = new LinkedHashSet<>();
+		Set<String> packageNames = new TreeSet<>();
+		String[] beanNames = beanFactory.getBeanDefinitionNames();
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(beanNames.length * 128);
+		DataOutputStream out = new DataOutputStream(bos);
+		try {
+			out.writeInt(beanNames.length);
+			for (String beanName : beanNames) {
+				out.writeUTF(beanName);
+				BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+				Object scannedPackages = bd.getAttribute(SCANNED_PACKAGES_ATTRIBUTE);
+				if (scannedPackages instanceof String) {
+					for (String scannedPackage : StringUtils.commaDelimitedListToStringArray((String) scannedPackages)) {
+						packageNames.add(scannedPackage + RECURSIVE_PACKAGE_SUFFIX);
+					}
+				}
+				try {
+					writeBeanDefinition(out, bd, classNames);
+				}
+				catch (IllegalArgumentException ex) {
+					throw new IllegalStateException(
+							"Cannot capture bean definition '" + beanName + "' in snapshot: " + ex.getMessage());
+				}
+				writeStringArray(out, beanFactory.getAliases(beanName));
+			}
+			List<AnnotationAttributes> propertySources = new ArrayList<>();
+			Object recordedPropertySources = beanFactory.getSingleton(PROPERTY_SOURCES_BEAN_NAME);
+			if (recordedPropertySources instanceof Collection) {
+				for (Object recorded : (Collection<?>) recordedPropertySources) {
+					AnnotationAttributes propertySource = new AnnotationAttributes((AnnotationAttributes) recorded);
+					Class<?> factoryClass = propertySource.getClass("factory");
+					if (factoryClass != PropertySourceFactory.class) {
+						addClassName(factoryClass.getName(), classNames);
+					}
+					propertySource.put("factory", factoryClass.getName());
+					propertySources.add(propertySource);
+				}
+			}
+			ClassLoader classLoader = beanFactory.getBeanClassLoader();
+			for (String className : classNames) {
+				String packageName = ClassUtils.getPackageName(className);
+				if (!packageName.isEmpty() && !packageName.startsWith("java.")) {
+					packageNames.add(packageName);
+				}
+			}
+			Map<String, Long> packageFingerprints = computePackageFingerprints(packageNames,
+					(classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader()));
+			return new BeanDefinitionSnapshot(
+					Arrays.asList(beanNames), packageFingerprints, propertySources, bos.toByteArray());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to capture bean definition snapshot", ex);
+		}
+	}
+
+	/**
+	 * Read a snapshot from the given stream in its binary format.
+	 * <p>Bean definitions get resolved on
+	 * {@link #registerBeanDefinitions registration} only, after a potential
+	 * {@link #isStale staleness check}.
+	 * @param in the stream to read from (not closed by this method)
+	 * @return the snapshot
+	 * @throws IOException in case of I/O errors or an invalid format
+	 * @see #writeTo(OutputStream)
+	 */
+	public static BeanDefinitionSnapshot readFrom(InputStream in) throws IOException {
+		DataInputStream dis = new DataInputStream(in);
+		if (dis.readInt() != MAGIC) {
+			throw new IOException("Not a bean definition snapshot");
+		}
+		int version = dis.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported bean definition snapshot version: " + version);
+		}
+		int beanCount = dis.readInt();
+		List<String> beanNames = new ArrayList<>(beanCount);
+		for (int i = 0; i < beanCount; i++) {
+			beanNames.add(dis.readUTF());
+		}
+		int packageCount = dis.readInt();
+		Map<String, Long> packageFingerprints = new LinkedHashMap<>(packageCount);
+		for (int i = 0; i < packageCount; i++) {
+			packageFingerprints.put(dis.readUTF(), dis.readLong());
+		}
+		int propertySourceCount = dis.readInt();
+		List<AnnotationAttributes> propertySources = new ArrayList<>(propertySourceCount);
+		for (int i = 0; i < propertySourceCount; i++) {
+			AnnotationAttributes propertySource = new AnnotationAttributes(PropertySource.class);
+			propertySource.put("name", dis.readUTF());
+			propertySource.put("value", readStringArray(dis));
+			propertySource.put("encoding", dis.readUTF());
+			propertySource.put("ignoreResourceNotFound", dis.readBoolean());
+			propertySource.put("factory", dis.readUTF());
+			propertySources.add(propertySource);
+		}
+		byte[] definitionData = new byte[dis.readInt()];
+		dis.readFully(definitionData);
+		return new BeanDefinitionSnapshot(beanNames, packageFingerprints, propertySources, definitionData);
+	}
+
+
+	private static void writeBeanDefinition(DataOutputStream out, BeanDefinition bd, Set<String> classNames)
+			throws IOException {
+
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			throw new IllegalArgumentException("unsupported bean definition type " + bd.getClass().getName());
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		if (abd.getInstanceSupplier() != null) {
+			throw new IllegalArgumentException("instance supplier present");
+		}
+		boolean classDerived = (abd instanceof GenericApplicationContext.ClassDerivedBeanDefinition);
+		boolean beanMethod = (abd instanceof RootBeanDefinition && abd instanceof AnnotatedBeanDefinition &&
+				((AnnotatedBeanDefinition) abd).getFactoryMethodMetadata() != null);
+		if (abd.getParentName() != null) {
+			out.writeByte(GENERIC_BEAN_DEFINITION);
+			out.writeUTF(abd.getParentName());
+		}
+		else if (beanMethod) {
+			out.writeByte(BEAN_METHOD_BEAN_DEFINITION);
+		}
+		else {
+			out.writeByte(classDerived ? CLASS_DERIVED_BEAN_DEFINITION : ROOT_BEAN_DEFINITION);
+		}
+		String beanClassName = abd.getBeanClassName();
+		if (classDerived && beanClassName == null) {
+			throw new IllegalArgumentException("no bean class specified");
+		}
+		addClassName(beanClassName, classNames);
+		writeNullableString(out, beanClassName);
+		writeNullableString(out, abd.getScope());
+		out.writeBoolean(abd.isAbstract());
+		Boolean lazyInit = abd.getLazyInit();
+		out.writeByte(lazyInit == null ? -1 : (lazyInit ? 1 : 0));
+		out.writeInt(abd.getAutowireMode());
+		out.writeInt(abd.getDependencyCheck());
+		writeStringArray(out, abd.getDependsOn());
+		out.writeBoolean(abd.isAutowireCandidate());
+		out.writeBoolean(abd.isPrimary());
+		Set<AutowireCandidateQualifier> qualifiers = abd.getQualifiers();
+		out.writeInt(qualifiers.size());
+		for (AutowireCandidateQualifier qualifier : qualifiers) {
+			addClassName(qualifier.getTypeName(), classNames);
+			out.writeUTF(qualifier.getTypeName());
+			writeAttributes(out, qualifier.attributeNames(), qualifier::getAttribute, classNames);
+		}
+		out.writeBoolean(abd.isNonPublicAccessAllowed());
+		out.writeBoolean(abd.isLenientConstructorResolution());
+		writeNullableString(out, abd.getFactoryBeanName());
+		writeNullableString(out, abd.getFactoryMethodName());
+
+		ConstructorArgumentValues cav = abd.getConstructorArgumentValues();
+		Map<Integer, ConstructorArgumentValues.ValueHolder> indexedArgs = cav.getIndexedArgumentValues();
+		out.writeInt(indexedArgs.size());
+		for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : indexedArgs.entrySet()) {
+			out.writeInt(entry.getKey());
+			writeValueHolder(out, entry.getValue(), classNames);
+		}
+		List<ConstructorArgumentValues.ValueHolder> genericArgs = cav.getGenericArgumentValues();
+		out.writeInt(genericArgs.size());
+		for (ConstructorArgumentValues.ValueHolder valueHolder : genericArgs) {
+			writeValueHolder(out, valueHolder, classNames);
+		}
+		PropertyValue[] pvs = abd.getPropertyValues().getPropertyValues();
+		out.writeInt(pvs.length);
+		for (PropertyValue pv : pvs) {
+			out.writeUTF(pv.getName());
+			writeValue(out, pv.getValue(), classNames);
+			out.writeBoolean(pv.isOptional());
+		}
+		Set<MethodOverride> overrides = abd.getMethodOverrides().getOverrides();
+		out.writeInt(overrides.size());
+		for (MethodOverride override : overrides) {
+			if (!(override instanceof LookupOverride)) {
+				throw new IllegalArgumentException("unsupported method override " + override);
+			}
+			out.writeUTF(override.getMethodName());
+			writeNullableString(out, ((LookupOverride) override).getBeanName());
+		}
+
+		writeNullableString(out, abd.getInitMethodName());
+		out.writeBoolean(abd.isEnforceInitMethod());
+		writeNullableString(out, abd.getDestroyMethodName());
+		out.writeBoolean(abd.isEnforceDestroyMethod());
+		out.writeBoolean(abd.isSynthetic());
+		out.writeInt(abd.getRole());
+		writeNullableString(out, abd.getDescription());
+		writeNullableString(out, abd.getResourceDescription());
+		writeAttributes(out, abd.attributeNames(), abd::getAttribute, classNames);
+
+		if (abd.getParentName() == null) {
+			RootBeanDefinition rbd = (abd instanceof RootBeanDefinition ? (RootBeanDefinition) abd : null);
+			Class<?> targetType = (rbd != null ? rbd.getTargetType() : null);
+			if (targetType != null) {
+				addClassName(targetType.getName(), classNames);
+			}
+			writeNullableString(out, (targetType != null ? targetType.getName() : null));
+			BeanDefinitionHolder decoratedDefinition = (rbd != null ? rbd.getDecoratedDefinition() : null);
+			if (decoratedDefinition != null) {
+				out.writeBoolean(true);
+				writeValue(out, decoratedDefinition, classNames);
+			}
+			else {
+				out.writeBoolean(false);
+			}
+			out.writeBoolean(rbd != null && rbd.isFactoryMethodUnique() && abd.getFactoryMethodName() != null);
+		}
+	}
+
+	private static AbstractBeanDefinition readBeanDefinition(DataInputStream in, ClassLoader classLoader)
+			throws IOException, ClassNotFoundException {
+
+		byte type = in.readByte();
+		String parentName = (type == GENERIC_BEAN_DEFINITION ? in.readUTF() : null);
+		String beanClassName = readNullableString(in);
+		AbstractBeanDefinition abd;
+		if (type == GENERIC_BEAN_DEFINITION) {
+			abd = new GenericBeanDefinition();
+			abd.setParentName(parentName);
+			abd.setBeanClassName(beanClassName);
+		}
+		else if (type == CLASS_DERIVED_BEAN_DEFINITION) {
+			Assert.state(beanClassName != null, "No bean class name for class-derived bean definition");
+			abd = new GenericApplicationContext.ClassDerivedBeanDefinition(
+					ClassUtils.forName(beanClassName, classLoader));
+		}
+		else if (type == BEAN_METHOD_BEAN_DEFINITION) {
+			abd = new BeanMethodBeanDefinition();
+			abd.setBeanClassName(beanClassName);
+		}
+		else {
+			abd = new RootBeanDefinition();
+			abd.setBeanClassName(beanClassName);
+		}
+		abd.setScope(readNullableString(in));
+		abd.setAbstract(in.readBoolean());
+		byte lazyInit = in.readByte();
+		if (lazyInit >= 0) {
+			abd.setLazyInit(lazyInit == 1);
+		}
+		abd.setAutowireMode(in.readInt());
+		abd.setDependencyCheck(in.readInt());
+		String[] dependsOn = readStringArray(in);
+		abd.setDependsOn(dependsOn.length > 0 ? dependsOn : null);
+		abd.setAutowireCandidate(in.readBoolean());
+		abd.setPrimary(in.readBoolean());
+		int qualifierCount = in.readInt();
+		for (int i = 0; i < qualifierCount; i++) {
+			AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(in.readUTF());
+			readAttributes(in, classLoader, qualifier::setAttribute);
+			abd.addQualifier(qualifier);
+		}
+		abd.setNonPublicAccessAllowed(in.readBoolean());
+		abd.setLenientConstructorResolution(in.readBoolean());
+		abd.setFactoryBeanName(readNullableString(in));
+		abd.setFactoryMethodName(readNullableString(in));
+
+		ConstructorArgumentValues cav = abd.getConstructorArgumentValues();
+		int indexedCount = in.readInt();
+		for (int i = 0; i < indexedCount; i++) {
+			int index = in.readInt();
+			cav.addIndexedArgumentValue(index, readValueHolder(in, classLoader));
+		}
+		int genericCount = in.readInt();
+		for (int i = 0; i < genericCount; i++) {
+			cav.addGenericArgumentValue(readValueHolder(in, classLoader));
+		}
+		MutablePropertyValues pvs = abd.getPropertyValues();
+		int propertyCount = in.readInt();
+		for (int i = 0; i < propertyCount; i++) {
+			PropertyValue pv = new PropertyValue(in.readUTF(), readValue(in, classLoader));
+			pv.setOptional(in.readBoolean());
+			pvs.addPropertyValue(pv);
+		}
+		int overrideCount = in.readInt();
+		for (int i = 0; i < overrideCount; i++) {
+			abd.getMethodOverrides().addOverride(new LookupOverride(in.readUTF(), readNullableString(in)));
+		}
+
+		abd.setInitMethodName(readNullableString(in));
+		abd.setEnforceInitMethod(in.readBoolean());
+		abd.setDestroyMethodName(readNullableString(in));
+		abd.setEnforceDestroyMethod(in.readBoolean());
+		abd.setSynthetic(in.readBoolean());
+		abd.setRole(in.readInt());
+		abd.setDescription(readNullableString(in));
+		abd.setResourceDescription(readNullableString(in));
+		readAttributes(in, classLoader, abd::setAttribute);
+
+		if (abd instanceof RootBeanDefinition) {
+			RootBeanDefinition rbd = (RootBeanDefinition) abd;
+			String targetTypeName = readNullableString(in);
+			if (targetTypeName != null) {
+				rbd.setTargetType(ClassUtils.forName(targetTypeName, classLoader));
+			}
+			if (in.readBoolean()) {
+				rbd.setDecoratedDefinition((BeanDefinitionHolder) readValue(in, classLoader));
+			}
+			String factoryMethodName = rbd.getFactoryMethodName();
+			if (in.readBoolean() && factoryMethodName != null) {
+				rbd.setUniqueFactoryMethodName(factoryMethodName);
+			}
+		}
+		return abd;
+	}
+
+	private static void writeValueHolder(DataOutputStream out, ConstructorArgumentValues.ValueHolder valueHolder,
+			Set<String> classNames) throws IOException {
+
+		writeValue(out, valueHolder.getValue(), classNames);
+		writeNullableString(out, valueHolder.getType());
+		writeNullableString(out, valueHolder.getName());
+	}
+
+	private static ConstructorArgumentValues.ValueHolder readValueHolder(DataInputStream in, ClassLoader classLoader)
+			throws IOException, ClassNotFoundException {
+
+		Object value = readValue(in, classLoader);
+		return new ConstructorArgumentValues.ValueHolder(value, readNullableString(in), readNullableString(in));
+	}
+
+	private static void writeAttributes(DataOutputStream out, String[] attributeNames,
+			AttributeSource attributeSource, Set<String> classNames) throws IOException {
+
+		out.writeInt(attributeNames.length);
+		for (String attributeName : attributeNames) {
+			Object value = attributeSource.getAttribute(attributeName);
+			if (value != null && !isSimpleValue(value)) {
+				throw new IllegalArgumentException("unsupported value for attribute '" + attributeName +
+						"' of type " + value.getClass().getName());
+			}
+			out.writeUTF(attributeName);
+			writeValue(out, value, classNames);
+		}
+	}
+
+	private static void readAttributes(DataInputStream in, ClassLoader classLoader, AttributeTarget attributeTarget)
+			throws IOException, ClassNotFoundException {
+
+		int attributeCount = in.readInt();
+		for (int i = 0; i < attributeCount; i++) {
+			String attributeName = in.readUTF();
+			attributeTarget.setAttribute(attributeName, readValue(in, classLoader));
+		}
+	}
+
+	private static boolean isSimpleValue(Object value) {
+		return (value instanceof String || value instanceof Boolean || value instanceof Number ||
+				value instanceof Character || value instanceof Class || value instanceof Enum);
+	}
+
+	private static void writeValue(DataOutputStream out, @Nullable Object value, Set<String> classNames)
+			throws IOException {
+
+		if (value == null) {
+			out.writeByte(NULL);
+		}
+		else if (value instanceof String) {
+			out.writeByte(STRING);
+			out.writeUTF((String) value);
+		}
+		else if (value instanceof TypedStringValue) {
+			TypedStringValue typedValue = (TypedStringValue) value;
+			out.writeByte(TYPED_STRING);
+			writeNullableString(out, typedValue.getValue());
+			String targetTypeName = typedValue.getTargetTypeName();
+			addClassName(targetTypeName, classNames);
+			writeNullableString(out, targetTypeName);
+			writeNullableString(out, typedValue.getSpecifiedTypeName());
+			out.writeBoolean(typedValue.isDynamic());
+		}
+		else if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			Class<?> beanType = reference.getBeanType();
+			if (beanType != null) {
+				out.writeByte(BEAN_TYPE_REFERENCE);
+				addClassName(beanType.getName(), classNames);
+				out.writeUTF(beanType.getName());
+			}
+			else {
+				out.writeByte(BEAN_REFERENCE);
+				out.writeUTF(reference.getBeanName());
+			}
+			out.writeBoolean(reference.isToParent());
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			out.writeByte(BEAN_NAME_REFERENCE);
+			out.writeUTF(((RuntimeBeanNameReference) value).getBeanName());
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Byte) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			out.writeByte(CHARACTER);
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof Class) {
+			out.writeByte(CLASS);
+			String className = ((Class<?>) value).getName();
+			addClassName(className, classNames);
+			out.writeUTF(className);
+		}
+		else if (value instanceof Enum) {
+			Enum<?> enumValue = (Enum<?>) value;
+			out.writeByte(ENUM);
+			String className = enumValue.getDeclaringClass().getName();
+			addClassName(className, classNames);
+			out.writeUTF(className);
+			out.writeUTF(enumValue.name());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+			out.writeByte(BEAN_DEFINITION_HOLDER);
+			out.writeUTF(holder.getBeanName());
+			writeStringArray(out, holder.getAliases());
+			writeBeanDefinition(out, holder.getBeanDefinition(), classNames);
+		}
+		else if (value instanceof BeanDefinition) {
+			out.writeByte(BEAN_DEFINITION);
+			writeBeanDefinition(out, (BeanDefinition) value, classNames);
+		}
+		else if (value instanceof ManagedArray) {
+			ManagedArray array = (ManagedArray) value;
+			out.writeByte(ARRAY);
+			writeNullableString(out, array.getElementTypeName());
+			out.writeBoolean(array.isMergeEnabled());
+			writeElements(out, array, classNames);
+		}
+		else if (value instanceof ManagedList) {
+			ManagedList<?> list = (ManagedList<?>) value;
+			out.writeByte(LIST);
+			writeNullableString(out, list.getElementTypeName());
+			out.writeBoolean(list.isMergeEnabled());
+			writeElements(out, list, classNames);
+		}
+		else if (value instanceof ManagedSet) {
+			ManagedSet<?> set = (ManagedSet<?>) value;
+			out.writeByte(SET);
+			writeNullableString(out, set.getElementTypeName());
+			out.writeBoolean(set.isMergeEnabled());
+			writeElements(out, set, classNames);
+		}
+		else if (value instanceof ManagedMap) {
+			ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+			out.writeByte(MAP);
+			writeNullableString(out, map.getKeyTypeName());
+			writeNullableString(out, map.getValueTypeName());
+			out.writeBoolean(map.isMergeEnabled());
+			writeEntries(out, map, classNames);
+		}
+		else if (value instanceof Properties) {
+			out.writeByte(PROPERTIES);
+			out.writeBoolean(value instanceof ManagedProperties && ((ManagedProperties) value).isMergeEnabled());
+			writeEntries(out, (Properties) value, classNames);
+		}
+		else {
+			throw new IllegalArgumentException("unsupported value of type " + value.getClass().getName());
+		}
+	}
+
+	@Nullable
+	private static Object readValue(DataInputStream in, ClassLoader classLoader)
+			throws IOException, ClassNotFoundException {
+
+		byte type = in.readByte();
+		switch (type) {
+			case NULL:
+				return null;
+			case STRING:
+				return in.readUTF();
+			case TYPED_STRING: {
+				TypedStringValue typedValue = new TypedStringValue(readNullableString(in));
+				typedValue.setTargetTypeName(readNullableString(in));
+				typedValue.setSpecifiedTypeName(readNullableString(in));
+				if (in.readBoolean()) {
+					typedValue.setDynamic();
+				}
+				return typedValue;
+			}
+			case BEAN_REFERENCE:
+				return new RuntimeBeanReference(in.readUTF(), in.readBoolean());
+			case BEAN_TYPE_REFERENCE:
+				return new RuntimeBeanReference(ClassUtils.forName(in.readUTF(), classLoader), in.readBoolean());
+			case BEAN_NAME_REFERENCE:
+				return new RuntimeBeanNameReference(in.readUTF());
+			case BOOLEAN:
+				return in.readBoolean();
+			case INTEGER:
+				return in.readInt();
+			case LONG:
+				return in.readLong();
+			case DOUBLE:
+				return in.readDouble();
+			case FLOAT:
+				return in.readFloat();
+			case SHORT:
+				return in.readShort();
+			case BYTE:
+				return in.readByte();
+			case CHARACTER:
+				return in.readChar();
+			case CLASS:
+				return ClassUtils.forName(in.readUTF(), classLoader);
+			case ENUM:
+				return readEnum(ClassUtils.forName(in.readUTF(), classLoader), in.readUTF());
+			case BEAN_DEFINITION_HOLDER: {
+				String beanName = in.readUTF();
+				String[] aliases = readStringArray(in);
+				return new BeanDefinitionHolder(readBeanDefinition(in, classLoader), beanName, aliases);
+			}
+			case BEAN_DEFINITION:
+				return readBeanDefinition(in, classLoader);
+			case ARRAY: {
+				String elementTypeName = readNullableString(in);
+				boolean mergeEnabled = in.readBoolean();
+				int size = in.readInt();
+				ManagedArray array = new ManagedArray(elementTypeName != null ? elementTypeName : "", size);
+				readElements(in, classLoader, array, size);
+				array.setMergeEnabled(mergeEnabled);
+				return array;
+			}
+			case LIST: {
+				ManagedList<Object> list = new ManagedList<>();
+				String elementTypeName = readNullableString(in);
+				if (elementTypeName != null) {
+					list.setElementTypeName(elementTypeName);
+				}
+				list.setMergeEnabled(in.readBoolean());
+				readElements(in, classLoader, list, in.readInt());
+				return list;
+			}
+			case SET: {
+				ManagedSet<Object> set = new ManagedSet<>();
+				set.setElementTypeName(readNullableString(in));
+				set.setMergeEnabled(in.readBoolean());
+				readElements(in, classLoader, set, in.readInt());
+				return set;
+			}
+			case MAP: {
+				ManagedMap<Object, Object> map = new ManagedMap<>();
+				map.setKeyTypeName(readNullableString(in));
+				map.setValueTypeName(readNullableString(in));
+				map.setMergeEnabled(in.readBoolean());
+				readEntries(in, classLoader, map);
+				return map;
+			}
+			case PROPERTIES: {
+				ManagedProperties properties = new ManagedProperties();
+				properties.setMergeEnabled(in.readBoolean());
+				readEntries(in, classLoader, properties);
+				return properties;
+			}
+			default:
+				throw new IOException("Unknown value type in bean definition snapshot: " + type);
+		}
+	}
+
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static Object readEnum(Class<?> enumType, String name) {
+		return Enum.valueOf((Class<? extends Enum>) enumType, name);
+	}
+
+	private static void writeElements(DataOutputStream out, Iterable<?> elements, Set<String> classNames)
+			throws IOException {
+
+		List<Object> elementsToWrite = new ArrayList<>();
+		elements.forEach(elementsToWrite::add);
+		out.writeInt(elementsToWrite.size());
+		for (Object element : elementsToWrite) {
+			writeValue(out, element, classNames);
+		}
+	}
+
+	private static void readElements(DataInputStream in, ClassLoader classLoader,
+			Collection<Object> elements, int size) throws IOException, ClassNotFoundException {
+
+		for (int i = 0; i < size; i++) {
+			elements.add(readValue(in, classLoader));
+		}
+	}
+
+	private static void writeEntries(DataOutputStream out, Map<?, ?> map, Set<String> classNames)
+			throws IOException {
+
+		out.writeInt(map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			writeValue(out, entry.getKey(), classNames);
+			writeValue(out, entry.getValue(), classNames);
+		}
+	}
+
+	private static void readEntries(DataInputStream in, ClassLoader classLoader, Map<Object, Object> map)
+			throws IOException, ClassNotFoundException {
+
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			Object key = readValue(in, classLoader);
+			map.put(key, readValue(in, classLoader));
+		}
+	}
+
+	private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	@Nullable
+	private static String readNullableString(DataInputStream in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	private static void writeStringArray(DataOutputStream out, @Nullable String[] values) throws IOException {
+		String[] valuesToWrite = (values != null ? values : new String[0]);
+		out.writeInt(valuesToWrite.length);
+		for (String value : valuesToWrite) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String[] readStringArray(DataInputStream in) throws IOException {
+		String[] values = new String[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readUTF();
+		}
+		return values;
+	}
+
+	private static void addClassName(@Nullable String className, Set<String> classNames) {
+		if (className != null && !className.startsWith("[") &&
+				ClassUtils.resolvePrimitiveClassName(className) == null) {
+			classNames.add(className);
+		}
+	}
+
+
+	/**
+	 * Compute a fingerprint for each of the given packages, covering the names,
+	 * sizes and timestamps or checksums of the class files in the package across
+	 * all classpath locations.
+	 */
+	private static Map<String, Long> computePackageFingerprints(Set<String> packageNames, ClassLoader classLoader)
+			throws IOException {
+
+		Map<String, Long> fingerprints = new LinkedHashMap<>(packageNames.size());
+		Map<String, JarFile> jarFiles = new LinkedHashMap<>();
+		try {
+			for (String packageName : packageNames) {
+				boolean recursive = packageName.endsWith(RECURSIVE_PACKAGE_SUFFIX);
+				String packagePath = ClassUtils.convertClassNameToResourcePath(recursive ?
+						packageName.substring(0, packageName.length() - RECURSIVE_PACKAGE_SUFFIX.length()) :
+						packageName) + "/";
+				Set<String> entries = new TreeSet<>();
+				Enumeration<URL> urls = classLoader.getResources(packagePath);
+				while (urls.hasMoreElements()) {
+					URL url = urls.nextElement();
+					if (ResourceUtils.URL_PROTOCOL_FILE.equals(url.getProtocol())) {
+						addFileEntries(ResourceUtils.getFile(url), "", recursive, entries);
+					}
+					else if (ResourceUtils.isJarURL(url)) {
+						URLConnection con = url.openConnection();
+						if (con instanceof JarURLConnection) {
+							JarURLConnection jarCon = (JarURLConnection) con;
+							jarCon.setUseCaches(false);
+							String jarFileUrl = jarCon.getJarFileURL().toExternalForm();
+							JarFile jarFile = jarFiles.get(jarFileUrl);
+							if (jarFile == null) {
+								jarFile = jarCon.getJarFile();
+								jarFiles.put(jarFileUrl, jarFile);
+							}
+							addJarEntries(jarFile, packagePath, recursive, entries);
+						}
+						else {
+							entries.add(url.toExternalForm());
+						}
+					}
+					else {
+						entries.add(url.toExternalForm());
+					}
+				}
+				CRC32 crc = new CRC32();
+				for (String entry : entries) {
+					crc.update(entry.getBytes("UTF-8"));
+				}
+				fingerprints.put(packageName, crc.getValue());
+			}
+		}
+		finally {
+			for (JarFile jarFile : jarFiles.values()) {
+				try {
+					jarFile.close();
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+			}
+		}
+		return fingerprints;
+	}
+
+	private static void addFileEntries(File packageDir, String pathPrefix, boolean recursive, Set<String> entries) {
+		File[] files = packageDir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.isFile() && file.getName().endsWith(ClassUtils.CLASS_FILE_SUFFIX)) {
+					entries.add(pathPrefix + file.getName() + ':' + file.length() + ':' + file.lastModified());
+				}
+				else if (recursive && file.isDirectory()) {
+					addFileEntries(file, pathPrefix + file.getName() + '/', true, entries);
+				}
+			}
+		}
+	}
+
+	private static void addJarEntries(JarFile jarFile, String packagePath, boolean recursive, Set<String> entries) {
+		Enumeration<JarEntry> jarEntries = jarFile.entries();
+		while (jarEntries.hasMoreElements()) {
+			JarEntry jarEntry = jarEntries.nextElement();
+			String name = jarEntry.getName();
+			if (name.startsWith(packagePath) && name.endsWith(ClassUtils.CLASS_FILE_SUFFIX) &&
+					(recursive || name.indexOf('/', packagePath.length()) == -1)) {
+				entries.add(name.substring(packagePath.length()) + ':' + jarEntry.getSize() + ':' +
+						ObjectUtils.getDisplayString(jarEntry.getCrc()));
+			}
+		}
+	}
+
+
+	/**
+	 * Bean definition restored for a {@code @Bean} method, only accepting
+	 * {@code @Bean}-annotated methods as factory method candidates,
+	 * like the original configuration class bean definition.
+	 */
+	@SuppressWarnings("serial")
+	private static class BeanMethodBeanDefinition extends RootBeanDefinition {
+
+		BeanMethodBeanDefinition() {
+		}
+
+		BeanMethodBeanDefinition(BeanMethodBeanDefinition original) {
+			super(original);
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && AnnotatedElementUtils.hasAnnotation(candidate, Bean.class));
+		}
+
+		@Override
+		public BeanMethodBeanDefinition cloneBeanDefinition() {
+			return new BeanMethodBeanDefinition(this);
+		}
+	}
+
+
+	@FunctionalInterface
+	private interface AttributeSource {
+
+		@Nullable
+		Object getAttribute(String name);
+	}
+
+
+	@FunctionalInterface
+	private interface AttributeTarget {
+
+		void setAttribute(String name, @Nullable Object value);
+	}
+
+}
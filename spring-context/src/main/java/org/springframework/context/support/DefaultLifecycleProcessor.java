@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,8 +25,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -46,6 +51,14 @@ import org.springframework.util.Assert;
 /**
  * Default implementation of the {@link LifecycleProcessor} strategy.
  *
+ * <p>By default, the beans within a phase are started and stopped one after
+ * another on the calling thread. If a {@link #setTaskExecutor task executor}
+ * has been specified, the beans within a phase are started and stopped
+ * concurrently on that executor instead, still respecting the dependencies
+ * between them. In both modes, the time taken to start and to stop each bean
+ * is recorded and exposed through {@link #getStartDurations()} and
+ * {@link #getStopDurations()}.
+ *
  * @author Mark Fisher
  * @author Juergen Hoeller
  * @since 3.0
@@ -56,11 +69,18 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 
 	private volatile long timeoutPerShutdownPhase = 30000;
 
+	@Nullable
+	private volatile Executor taskExecutor;
+
 	private volatile boolean running;
 
 	@Nullable
 	private volatile ConfigurableListableBeanFactory beanFactory;
 
+	private final Map<String, Long> startDurations = new ConcurrentHashMap<>();
+
+	private final Map<String, Long> stopDurations = new ConcurrentHashMap<>();
+
 
 	/**
 	 * Specify the maximum time allotted in milliseconds for the shutdown of
@@ -71,6 +91,54 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 		this.timeoutPerShutdownPhase = timeoutPerShutdownPhase;
 	}
 
+	/**
+	 * Return the maximum time allotted in milliseconds for the shutdown of any phase.
+	 * @since 5.3
+	 */
+	public long getTimeoutPerShutdownPhase() {
+		return this.timeoutPerShutdownPhase;
+	}
+
+	/**
+	 * Set a {@link Executor} to start and stop the beans of each phase with,
+	 * e.g. a {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor}
+	 * with a bounded pool size.
+	 * <p>Beans within the same phase are then started and stopped concurrently,
+	 * with a bean only being started once the beans it depends on have been
+	 * started, and only being stopped once the beans depending on it have been
+	 * stopped. Phases are still processed one after another: the next phase
+	 * begins once all beans of the current phase have been started, or once all
+	 * beans of the current phase have been stopped or the
+	 * {@link #setTimeoutPerShutdownPhase shutdown timeout} has been reached.
+	 * <p>Default is none, starting and stopping the beans of each phase one
+	 * after another on the calling thread.
+	 * @since 5.3
+	 */
+	public void setTaskExecutor(@Nullable Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Return the time taken to start each bean, in nanoseconds, keyed by bean name.
+	 * <p>Only contains the beans which have actually been started by this
+	 * processor, reflecting the most recent start of each bean.
+	 * @since 5.3
+	 */
+	public Map<String, Long> getStartDurations() {
+		return Collections.unmodifiableMap(this.startDurations);
+	}
+
+	/**
+	 * Return the time taken to stop each bean, in nanoseconds, keyed by bean name.
+	 * <p>For a {@link SmartLifecycle} bean, this is the time until its stop
+	 * callback has been invoked. Only contains the beans which have actually
+	 * completed their stop procedure, reflecting the most recent stop of each bean.
+	 * @since 5.3
+	 */
+	public Map<String, Long> getStopDurations() {
+		return Collections.unmodifiableMap(this.stopDurations);
+	}
+
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
 		if (!(beanFactory instanceof ConfigurableListableBeanFactory)) {
@@ -205,23 +273,62 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 			}
 
 
-			if (!bean.isRunning() &&
-					// true：表示只启动 SmartLifecycle 生命周期对象，并且启动 SmartLifecycle对象它的autoStartup是true。
-					// false ：全部启动。
-					(!autoStartupOnly || !(bean instanceof SmartLifecycle) || ((SmartLifecycle) bean).isAutoStartup())) {
-				if (logger.isTraceEnabled()) {
-					logger.trace("Starting bean '" + beanName + "' of type [" + bean.getClass().getName() + "]");
-				}
-				try {
-					//启动当前lifecycle。
-					bean.start();
-				}
-				catch (Throwable ex) {
-					throw new ApplicationContextException("Failed to start bean '" + beanName + "'", ex);
-				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("Successfully started bean '" + beanName + "'");
-				}
+			startBean(beanName, bean, autoStartupOnly);
+		}
+	}
+
+	/**
+	 * Schedule the start of the specified bean on the given executor, to be
+	 * triggered once the beans that it depends on have been started.
+	 * @param lifecycleBeans a Map with bean name as key and Lifecycle instance as value
+	 * @param beanName the name of the bean to start
+	 * @param scheduled the starts scheduled so far within the current phase
+	 * @return a future that completes once the bean has been started
+	 */
+	private CompletableFuture<Void> scheduleStart(Map<String, ? extends Lifecycle> lifecycleBeans, String beanName,
+			boolean autoStartupOnly, Map<String, CompletableFuture<Void>> scheduled, Executor executor) {
+
+		CompletableFuture<Void> future = scheduled.get(beanName);
+		if (future != null) {
+			return future;
+		}
+		Lifecycle bean = lifecycleBeans.remove(beanName);
+		if (bean == null || bean == this) {
+			// Not a Lifecycle bean or already started in a previous phase
+			return CompletableFuture.completedFuture(null);
+		}
+		String[] dependenciesForBean = getBeanFactory().getDependenciesForBean(beanName);
+		CompletableFuture<?>[] dependencies = new CompletableFuture<?>[dependenciesForBean.length];
+		for (int i = 0; i < dependenciesForBean.length; i++) {
+			dependencies[i] = scheduleStart(lifecycleBeans, dependenciesForBean[i], autoStartupOnly, scheduled, executor);
+		}
+		future = CompletableFuture.allOf(dependencies).thenRunAsync(
+				() -> startBean(beanName, bean, autoStartupOnly), executor);
+		scheduled.put(beanName, future);
+		return future;
+	}
+
+	private void startBean(String beanName, Lifecycle bean, boolean autoStartupOnly) {
+		if (!bean.isRunning() &&
+				// true：表示只启动 SmartLifecycle 生命周期对象，并且启动 SmartLifecycle对象它的autoStartup是true。
+				// false ：全部启动。
+				(!autoStartupOnly || !(bean instanceof SmartLifecycle) || ((SmartLifecycle) bean).isAutoStartup())) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Starting bean '" + beanName + "' of type [" + bean.getClass().getName() + "]");
+			}
+			long startTime = System.nanoTime();
+			try {
+				//启动当前lifecycle。
+				bean.start();
+			}
+			catch (Throwable ex) {
+				throw new ApplicationContextException("Failed to start bean '" + beanName + "'", ex);
+			}
+			long duration = System.nanoTime() - startTime;
+			this.startDurations.put(beanName, duration);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Successfully started bean '" + beanName + "' in " +
+						TimeUnit.NANOSECONDS.toMillis(duration) + " ms");
 			}
 		}
 	}
@@ -275,49 +382,92 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 				doStop(lifecycleBeans, dependentBean, latch, countDownBeanNames);
 			}
 
-			try {
+			stopBean(beanName, bean, latch, countDownBeanNames);
+		}
+	}
 
-				if (bean.isRunning()) {
+	/**
+	 * Schedule the stop of the specified bean on the given executor, to be
+	 * triggered once the beans that depend on it have been asked to stop.
+	 * @param lifecycleBeans a Map with bean name as key and Lifecycle instance as value
+	 * @param beanName the name of the bean to stop
+	 * @param scheduled the stops scheduled so far within the current phase
+	 * @return a future that completes once the bean has been asked to stop
+	 */
+	private CompletableFuture<Void> scheduleStop(Map<String, ? extends Lifecycle> lifecycleBeans, String beanName,
+			CountDownLatch latch, Set<String> countDownBeanNames,
+			Map<String, CompletableFuture<Void>> scheduled, Executor executor) {
 
-					// 条件成立：当前bean是SmartLifecycle。
-					if (bean instanceof SmartLifecycle) {
-						if (logger.isTraceEnabled()) {
-							logger.trace("Asking bean '" + beanName + "' of type [" +
-									bean.getClass().getName() + "] to stop");
-						}
-						// 将当前SmartLifecycle beanName 添加到 countDownBeanNames 集合内，该集合表示正在关闭的 smartLifecycle。
-						countDownBeanNames.add(beanName);
-
-						// Smartlifecycle 可以传递一个Callback ，理论上可以支持异步关闭 生命周期 对象了。
-						((SmartLifecycle) bean).stop(() -> {
-							latch.countDown();
-							countDownBeanNames.remove(beanName);
-							if (logger.isDebugEnabled()) {
-								logger.debug("Bean '" + beanName + "' completed its stop procedure");
-							}
-						});
+		CompletableFuture<Void> future = scheduled.get(beanName);
+		if (future != null) {
+			return future;
+		}
+		Lifecycle bean = lifecycleBeans.remove(beanName);
+		if (bean == null) {
+			// Not a Lifecycle bean or already stopped in a previous phase
+			return CompletableFuture.completedFuture(null);
+		}
+		String[] dependentBeans = getBeanFactory().getDependentBeans(beanName);
+		CompletableFuture<?>[] dependents = new CompletableFuture<?>[dependentBeans.length];
+		for (int i = 0; i < dependentBeans.length; i++) {
+			dependents[i] = scheduleStop(lifecycleBeans, dependentBeans[i], latch, countDownBeanNames, scheduled, executor);
+		}
+		// Stop the bean even if one of its dependents could not be stopped
+		future = CompletableFuture.allOf(dependents).exceptionally(ex -> null).thenRunAsync(
+				() -> stopBean(beanName, bean, latch, countDownBeanNames), executor);
+		scheduled.put(beanName, future);
+		return future;
+	}
+
+	private void stopBean(String beanName, Lifecycle bean, CountDownLatch latch, Set<String> countDownBeanNames) {
+		long startTime = System.nanoTime();
+		try {
+			if (bean.isRunning()) {
+
+				// 条件成立：当前bean是SmartLifecycle。
+				if (bean instanceof SmartLifecycle) {
+					if (logger.isTraceEnabled()) {
+						logger.trace("Asking bean '" + beanName + "' of type [" +
+								bean.getClass().getName() + "] to stop");
 					}
-					else {
-						// 普通的lifecycle 对象，直接调用 lifecycle.stop() 。
-						if (logger.isTraceEnabled()) {
-							logger.trace("Stopping bean '" + beanName + "' of type [" +
-									bean.getClass().getName() + "]");
-						}
-						bean.stop();
+					// 将当前SmartLifecycle beanName 添加到 countDownBeanNames 集合内，该集合表示正在关闭的 smartLifecycle。
+					countDownBeanNames.add(beanName);
+
+					// Smartlifecycle 可以传递一个Callback ，理论上可以支持异步关闭 生命周期 对象了。
+					((SmartLifecycle) bean).stop(() -> {
+						long duration = System.nanoTime() - startTime;
+						this.stopDurations.put(beanName, duration);
+						latch.countDown();
+						countDownBeanNames.remove(beanName);
 						if (logger.isDebugEnabled()) {
-							logger.debug("Successfully stopped bean '" + beanName + "'");
+							logger.debug("Bean '" + beanName + "' completed its stop procedure in " +
+									TimeUnit.NANOSECONDS.toMillis(duration) + " ms");
 						}
-					}
+					});
 				}
-				else if (bean instanceof SmartLifecycle) {
-					// Don't wait for beans that aren't running...
-					latch.countDown();
+				else {
+					// 普通的lifecycle 对象，直接调用 lifecycle.stop() 。
+					if (logger.isTraceEnabled()) {
+						logger.trace("Stopping bean '" + beanName + "' of type [" +
+								bean.getClass().getName() + "]");
+					}
+					bean.stop();
+					long duration = System.nanoTime() - startTime;
+					this.stopDurations.put(beanName, duration);
+					if (logger.isDebugEnabled()) {
+						logger.debug("Successfully stopped bean '" + beanName + "' in " +
+								TimeUnit.NANOSECONDS.toMillis(duration) + " ms");
+					}
 				}
 			}
-			catch (Throwable ex) {
-				if (logger.isWarnEnabled()) {
-					logger.warn("Failed to stop bean '" + beanName + "'", ex);
-				}
+			else if (bean instanceof SmartLifecycle) {
+				// Don't wait for beans that aren't running...
+				latch.countDown();
+			}
+		}
+		catch (Throwable ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Failed to stop bean '" + beanName + "'", ex);
 			}
 		}
 	}
@@ -413,6 +563,11 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 			//排序..
 			Collections.sort(this.members);
 
+			Executor executor = taskExecutor;
+			if (executor != null) {
+				startConcurrently(executor);
+				return;
+			}
 
 			for (LifecycleGroupMember member : this.members) {
 				doStart(this.lifecycleBeans, member.name, this.autoStartupOnly);
@@ -420,6 +575,27 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 
 		}
 
+		private void startConcurrently(Executor executor) {
+			Map<String, CompletableFuture<Void>> scheduled = new LinkedHashMap<>();
+			for (LifecycleGroupMember member : this.members) {
+				scheduleStart(this.lifecycleBeans, member.name, this.autoStartupOnly, scheduled, executor);
+			}
+			try {
+				CompletableFuture.allOf(scheduled.values().toArray(new CompletableFuture<?>[0])).get();
+			}
+			catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof ApplicationContextException) {
+					throw (ApplicationContextException) cause;
+				}
+				throw new ApplicationContextException("Failed to start beans in phase " + this.phase, cause);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new ApplicationContextException("Interrupted while starting beans in phase " + this.phase, ex);
+			}
+		}
+
 		public void stop() {
 			if (this.members.isEmpty()) {
 				return;
@@ -443,12 +619,19 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 
 
 
+			Executor executor = taskExecutor;
+			Map<String, CompletableFuture<Void>> scheduled = new LinkedHashMap<>();
+
 			// 处理本分组内的需要关闭的 lifecycle。
 			for (LifecycleGroupMember member : this.members) {
 
 				if (lifecycleBeanNames.contains(member.name)) {
-
-					doStop(this.lifecycleBeans, member.name, latch, countDownBeanNames);
+					if (executor != null) {
+						scheduleStop(this.lifecycleBeans, member.name, latch, countDownBeanNames, scheduled, executor);
+					}
+					else {
+						doStop(this.lifecycleBeans, member.name, latch, countDownBeanNames);
+					}
 				}
 				else if (member.bean instanceof SmartLifecycle) {
 					// Already removed: must have been a dependent bean from another phase
@@ -458,10 +641,29 @@ public class DefaultLifecycleProcessor implements LifecycleProcessor, BeanFactor
 
 
 			try {
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeout);
+				boolean stopsPending = false;
+				if (!scheduled.isEmpty()) {
+					// Wait for all beans to have been asked to stop, within the same timeout
+					try {
+						CompletableFuture.allOf(scheduled.values().toArray(new CompletableFuture<?>[0]))
+								.get(this.timeout, TimeUnit.MILLISECONDS);
+					}
+					catch (ExecutionException | TimeoutException ex) {
+						// Stop failures have been logged already; timeout reported below
+					}
+					for (Map.Entry<String, CompletableFuture<Void>> entry : scheduled.entrySet()) {
+						if (!entry.getValue().isDone()) {
+							countDownBeanNames.add(entry.getKey());
+							stopsPending = true;
+						}
+					}
+				}
+
 				// 关闭分组lifecycle的主线程，会在这里等待，等待latch 归0，或者超时。   30s.
-				latch.await(this.timeout, TimeUnit.MILLISECONDS);
+				latch.await(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
 
-				if (latch.getCount() > 0 && !countDownBeanNames.isEmpty() && logger.isInfoEnabled()) {
+				if ((latch.getCount() > 0 || stopsPending) && !countDownBeanNames.isEmpty() && logger.isInfoEnabled()) {
 					logger.info("Failed to shut down " + countDownBeanNames.size() + " bean" +
 							(countDownBeanNames.size() > 1 ? "s" : "") + " with phase value " +
 							this.phase + " within timeout of " + this.timeout + "ms: " + countDownBeanNames);
@@ -17,7 +17,9 @@
 package org.springframework.context.support;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
@@ -36,6 +38,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
@@ -181,6 +184,18 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 		this.beanFactory.setAllowCircularReferences(allowCircularReferences);
 	}
 
+	/**
+	 * Set the {@code ApplicationStartup} for this application context,
+	 * also setting it on the internal BeanFactory accordingly.
+	 * @since 5.3
+	 * @see org.springframework.beans.factory.config.ConfigurableBeanFactory#setApplicationStartup
+	 */
+	@Override
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		super.setApplicationStartup(applicationStartup);
+		this.beanFactory.setApplicationStartup(applicationStartup);
+	}
+
 	/**
 	 * Set a ResourceLoader to use for this context. If set, the context will
 	 * delegate all {@code getResource} calls to the given ResourceLoader.
@@ -312,6 +327,88 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 	}
 
 
+	//---------------------------------------------------------------------
+	// Support for build-time bean definition snapshots
+	//---------------------------------------------------------------------
+
+	/**
+	 * Process the bean definitions registered with this context so far through
+	 * all {@link org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor
+	 * BeanDefinitionRegistryPostProcessors} (e.g. configuration class parsing and
+	 * component scanning) and capture the resulting bean definitions, without
+	 * instantiating any regular beans.
+	 * <p>Meant to be called at build time: This context cannot be refreshed
+	 * afterwards and should simply be closed. Regular
+	 * {@link org.springframework.beans.factory.config.BeanFactoryPostProcessor
+	 * BeanFactoryPostProcessors} (such as placeholder configurers) are not invoked
+	 * but rather applied at runtime, against the actual environment. The same
+	 * goes for {@code @PropertySource} declarations, which get recorded in the
+	 * snapshot and re-registered with the environment when loading it.
+	 * @return the snapshot, to be written out via {@link BeanDefinitionSnapshot#writeTo}
+	 * @throws IllegalStateException if a bean definition cannot be captured
+	 * @since 5.3
+	 * @see #loadBeanDefinitionSnapshot(Resource)
+	 */
+	public BeanDefinitionSnapshot createBeanDefinitionSnapshot() {
+		prepareRefresh();
+		ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+		prepareBeanFactory(beanFactory);
+		postProcessBeanFactory(beanFactory);
+		beanFactory.registerSingleton(BeanDefinitionSnapshot.PROPERTY_SOURCES_BEAN_NAME, new ArrayList<>());
+		PostProcessorRegistrationDelegate.invokeBeanFactoryPostProcessors(
+				beanFactory, getBeanFactoryPostProcessors(), true);
+		return BeanDefinitionSnapshot.capture(beanFactory);
+	}
+
+	/**
+	 * Register the bean definitions from the given snapshot resource with this
+	 * context, unless the snapshot has become stale against the current classpath.
+	 * <p>Configuration class processing is skipped on {@link #refresh()} then,
+	 * since its outcome is contained in the snapshot already.
+	 * @param resource the resource that the snapshot has been written to
+	 * @return {@code true} if the snapshot has been loaded, or {@code false}
+	 * if it is stale (in which case the caller is expected to register its
+	 * configuration classes or scan for components as usual)
+	 * @throws BeanDefinitionStoreException if the snapshot could not be read
+	 * @since 5.3
+	 * @see #createBeanDefinitionSnapshot()
+	 */
+	public boolean loadBeanDefinitionSnapshot(Resource resource) throws BeanDefinitionStoreException {
+		BeanDefinitionSnapshot snapshot;
+		try (InputStream is = resource.getInputStream()) {
+			snapshot = BeanDefinitionSnapshot.readFrom(is);
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException(resource.getDescription(),
+					"Failed to read bean definition snapshot", ex);
+		}
+		return loadBeanDefinitionSnapshot(snapshot);
+	}
+
+	/**
+	 * Register the bean definitions from the given snapshot with this context,
+	 * unless the snapshot has become stale against the current classpath.
+	 * @param snapshot the snapshot to load
+	 * @return {@code true} if the snapshot has been loaded, or {@code false}
+	 * if it is stale
+	 * @since 5.3
+	 * @see #loadBeanDefinitionSnapshot(Resource)
+	 */
+	public boolean loadBeanDefinitionSnapshot(BeanDefinitionSnapshot snapshot) {
+		Assert.state(!this.refreshed.get(), "Cannot load bean definition snapshot into a refreshed context");
+		ClassLoader classLoader = getClassLoader();
+		if (snapshot.isStale(classLoader)) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Bean definition snapshot is stale against the current classpath - ignoring it");
+			}
+			return false;
+		}
+		snapshot.registerBeanDefinitions(this.beanFactory, classLoader);
+		this.beanFactory.registerSingleton(BeanDefinitionSnapshot.BEAN_NAME, snapshot);
+		return true;
+	}
+
+
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry
 	//---------------------------------------------------------------------
@@ -477,7 +574,7 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 	 * registrations with flexible autowiring for public constructors.
 	 */
 	@SuppressWarnings("serial")
-	private static class ClassDerivedBeanDefinition extends RootBeanDefinition {
+	static class ClassDerivedBeanDefinition extends RootBeanDefinition {
 
 		public ClassDerivedBeanDefinition(Class<?> beanClass) {
 			super(beanClass);
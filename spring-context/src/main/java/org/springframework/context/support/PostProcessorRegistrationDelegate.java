@@ -39,6 +39,8 @@ import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 
 /**
@@ -57,6 +59,20 @@ final class PostProcessorRegistrationDelegate {
 	public static void invokeBeanFactoryPostProcessors(
 			ConfigurableListableBeanFactory beanFactory, List<BeanFactoryPostProcessor> beanFactoryPostProcessors) {
 
+		invokeBeanFactoryPostProcessors(beanFactory, beanFactoryPostProcessors, false);
+	}
+
+	/**
+	 * Invoke the given BeanFactoryPostProcessors as well as the ones registered
+	 * in the given bean factory.
+	 * @param registryPostProcessorsOnly whether to stop after the
+	 * {@code postProcessBeanDefinitionRegistry} phase, not invoking any
+	 * {@code postProcessBeanFactory} callbacks (for capturing the bean
+	 * definitions in a {@link BeanDefinitionSnapshot})
+	 */
+	public static void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory,
+			List<BeanFactoryPostProcessor> beanFactoryPostProcessors, boolean registryPostProcessorsOnly) {
+
 		// Invoke BeanDefinitionRegistryPostProcessors first, if any.
 		// 存储已经执行过的bfpp beanName
 		Set<String> processedBeans = new HashSet<>();
@@ -116,7 +132,7 @@ final class PostProcessorRegistrationDelegate {
 			//添加到registry类型后处理器集合内。
 			registryProcessors.addAll(currentRegistryProcessors);
 			// 调用每个bdrpp的postProcessBeanDefinitionRegistry 方法，向bf内注册bd信息。
-			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
 			// 清空集合。
 			currentRegistryProcessors.clear();
 
@@ -135,7 +151,7 @@ final class PostProcessorRegistrationDelegate {
 
 			sortPostProcessors(currentRegistryProcessors, beanFactory);
 			registryProcessors.addAll(currentRegistryProcessors);
-			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
 			currentRegistryProcessors.clear();
 
 
@@ -159,12 +175,14 @@ final class PostProcessorRegistrationDelegate {
 				//添加到registry类型后处理器集合内。
 				registryProcessors.addAll(currentRegistryProcessors);
 				// 调用每个bdrpp的postProcessBeanDefinitionRegistry 方法，向bf内注册bd信息。
-				invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+				invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
 				//清空当前阶段的集合。
 				currentRegistryProcessors.clear();
 			}
 
-
+			if (registryPostProcessorsOnly) {
+				return;
+			}
 
 
 			// Now, invoke the postProcessBeanFactory callback of all processors handled so far.
@@ -177,6 +195,10 @@ final class PostProcessorRegistrationDelegate {
 		}
 
 		else {
+			if (registryPostProcessorsOnly) {
+				// No registry to post-process
+				return;
+			}
 			// Invoke factory processors registered with the context instance.
 			invokeBeanFactoryPostProcessors(beanFactoryPostProcessors, beanFactory);
 		}
@@ -360,10 +382,18 @@ final class PostProcessorRegistrationDelegate {
 	 * Invoke the given BeanDefinitionRegistryPostProcessor beans.
 	 */
 	private static void invokeBeanDefinitionRegistryPostProcessors(
-			Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry) {
+			Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry,
+			ApplicationStartup applicationStartup) {
 
 		for (BeanDefinitionRegistryPostProcessor postProcessor : postProcessors) {
-			postProcessor.postProcessBeanDefinitionRegistry(registry);
+			StartupStep postProcessBeanDefRegistry = applicationStartup.start("spring.context.beandef-registry.post-process")
+					.tag("postProcessor", postProcessor::toString);
+			try {
+				postProcessor.postProcessBeanDefinitionRegistry(registry);
+			}
+			finally {
+				postProcessBeanDefRegistry.end();
+			}
 		}
 	}
 
@@ -374,7 +404,14 @@ final class PostProcessorRegistrationDelegate {
 			Collection<? extends BeanFactoryPostProcessor> postProcessors, ConfigurableListableBeanFactory beanFactory) {
 
 		for (BeanFactoryPostProcessor postProcessor : postProcessors) {
-			postProcessor.postProcessBeanFactory(beanFactory);
+			StartupStep postProcessBeanFactory = beanFactory.getApplicationStartup().start("spring.context.bean-factory.post-process")
+					.tag("postProcessor", postProcessor::toString);
+			try {
+				postProcessor.postProcessBeanFactory(beanFactory);
+			}
+			finally {
+				postProcessBeanFactory.end();
+			}
 		}
 	}
 
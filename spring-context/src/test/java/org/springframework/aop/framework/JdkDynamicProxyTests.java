@@ -24,12 +24,16 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
 import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.aop.testfixture.interceptor.NopInterceptor;
 import org.springframework.beans.testfixture.beans.IOther;
 import org.springframework.beans.testfixture.beans.ITestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author Rod Johnson
@@ -148,6 +152,51 @@ public class JdkDynamicProxyTests extends AbstractAopProxyTests implements Seria
 		assertThat(proxy.doWithVarargs(MyEnum.A, MyOtherEnum.C)).isTrue();
 	}
 
+	@Test
+	public void testFixedInvocationChains() {
+		TestBean target = new TestBean("tb", 32);
+		target.setSpouse(target);
+		NopInterceptor nop = new NopInterceptor();
+		NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(nop);
+		advisor.setMappedNames("getAge", "unreliableFileOperation");
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addInterface(ITestBean.class);
+		pf.addAdvice(ExposeInvocationInterceptor.INSTANCE);
+		pf.addAdvisor(advisor);
+		pf.setFixedInvocationChains(true);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		assertThat(proxy.getAge()).isEqualTo(32);
+		assertThat(proxy.getAge()).isEqualTo(32);
+		assertThat(nop.getCount()).isEqualTo(2);
+		assertThat(proxy.getName()).isEqualTo("tb");
+		assertThat(proxy.getSpouse()).isSameAs(proxy);
+		assertThat(nop.getCount()).isEqualTo(2);
+		target.setAge(33);
+		assertThat(proxy.getAge()).isEqualTo(33);
+		assertThat(nop.getCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void testFixedInvocationChainsPropagateTargetExceptions() {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addInterface(ITestBean.class);
+		NopInterceptor nop = new NopInterceptor();
+		NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(nop);
+		advisor.setMappedName("unreliableFileOperation");
+		pf.addAdvisor(advisor);
+		pf.setFixedInvocationChains(true);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		assertThatIOException().isThrownBy(proxy::unreliableFileOperation);
+		assertThat(nop.getCount()).isEqualTo(1);
+		IllegalStateException ex = new IllegalStateException();
+		assertThatThrownBy(() -> proxy.exceptional(ex)).isSameAs(ex);
+		assertThat(nop.getCount()).isEqualTo(1);
+	}
+
 
 	public interface Foo {
 
@@ -19,8 +19,10 @@ package org.springframework.cache.concurrent;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -115,6 +117,42 @@ public class ConcurrentMapCacheTests extends AbstractValueAdaptingCacheTests<Con
 			.withMessageContaining("Some garbage");
 	}
 
+	@Test
+	public void testRetrieveCoalescesConcurrentLoads() throws Exception {
+		String key = createRandomKey();
+		AtomicInteger loads = new AtomicInteger();
+		CompletableFuture<String> pending = new CompletableFuture<>();
+
+		CompletableFuture<String> first = this.cache.retrieve(key, () -> {
+			loads.incrementAndGet();
+			return pending;
+		});
+		CompletableFuture<String> second = this.cache.retrieve(key, () -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture("other");
+		});
+		assertThat(first.isDone()).isFalse();
+		assertThat(second.isDone()).isFalse();
+
+		pending.complete("value");
+		assertThat(first.get()).isEqualTo("value");
+		assertThat(second.get()).isEqualTo("value");
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(this.cache.retrieve(key).get().get()).isEqualTo("value");
+	}
+
+	@Test
+	public void testRetrieveWithFailedLoad() throws Exception {
+		String key = createRandomKey();
+		CompletableFuture<String> failed = new CompletableFuture<>();
+		failed.completeExceptionally(new IllegalStateException("failed"));
+
+		assertThat(this.cache.retrieve(key, () -> failed).isCompletedExceptionally()).isTrue();
+		assertThat(this.cache.retrieve(key).get()).isNull();
+		assertThat(this.cache.retrieve(key, () -> CompletableFuture.completedFuture("value")).get())
+				.isEqualTo("value");
+	}
+
 
 	private ConcurrentMapCache createCacheWithStoreByValue() {
 		return new ConcurrentMapCache(CACHE_NAME, this.nativeCache, true,
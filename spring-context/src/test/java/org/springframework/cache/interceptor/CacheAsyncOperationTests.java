@@ -0,0 +1,328 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for caching the resolved values of asynchronous and reactive
+ * return types.
+ */
+public class CacheAsyncOperationTests {
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private AsyncService service;
+
+	private RecordingCacheErrorHandler errorHandler;
+
+	@BeforeEach
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("test");
+		this.service = this.context.getBean(AsyncService.class);
+		this.errorHandler = this.context.getBean(RecordingCacheErrorHandler.class);
+	}
+
+	@AfterEach
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void completableFutureValueIsCached() throws Exception {
+		assertThat(this.service.getFuture("key").get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(this.service.getFuture("key").get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(this.service.getCount()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void pendingFutureIsNotBlockedOn() throws Exception {
+		CompletableFuture<Long> pending = new CompletableFuture<>();
+		this.service.setPending(pending);
+		CompletableFuture<Long> result = this.service.getFuture("key");
+		assertThat(result.isDone()).isFalse();
+		assertThat(this.cache.get("key")).isNull();
+
+		pending.complete(42L);
+		assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+		assertThat(this.cache.get("key").get()).isEqualTo(42L);
+	}
+
+	@Test
+	public void failedFutureIsNotCached() {
+		this.service.setFail(true);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(
+				() -> this.service.getFuture("key").get(5, TimeUnit.SECONDS))
+				.withCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void monoValueIsCached() {
+		assertThat(this.service.getMono("key").block(Duration.ofSeconds(5))).isEqualTo(0L);
+		assertThat(this.service.getMono("key").block(Duration.ofSeconds(5))).isEqualTo(0L);
+		assertThat(this.service.getCount()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void monoIsEvaluatedPerSubscription() {
+		Mono<Long> mono = this.service.getMono("key");
+		assertThat(this.service.getCount()).isEqualTo(0);
+		assertThat(this.cache.get("key")).isNull();
+
+		assertThat(mono.block(Duration.ofSeconds(5))).isEqualTo(0L);
+		assertThat(this.service.getCount()).isEqualTo(1);
+		this.cache.evict("key");
+		assertThat(mono.block(Duration.ofSeconds(5))).isEqualTo(1L);
+		assertThat(this.service.getCount()).isEqualTo(2);
+		assertThat(mono.block(Duration.ofSeconds(5))).isEqualTo(1L);
+		assertThat(this.service.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void fluxIsEvaluatedPerSubscription() {
+		Flux<Long> flux = this.service.getFlux("key");
+		assertThat(this.service.getCount()).isEqualTo(0);
+		assertThat(flux.collectList().block(Duration.ofSeconds(5))).containsExactly(0L, 1L);
+		assertThat(flux.collectList().block(Duration.ofSeconds(5))).containsExactly(0L, 1L);
+		assertThat(this.service.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void fluxValuesAreCachedAsList() {
+		assertThat(this.service.getFlux("key").collectList().block(Duration.ofSeconds(5))).containsExactly(0L, 1L);
+		assertThat(this.service.getFlux("key").collectList().block(Duration.ofSeconds(5))).containsExactly(0L, 1L);
+		assertThat(this.service.getCount()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(Arrays.asList(0L, 1L));
+	}
+
+	@Test
+	public void syncLoadsAreCoalesced() throws Exception {
+		CompletableFuture<Long> pending = new CompletableFuture<>();
+		this.service.setPending(pending);
+		CompletableFuture<Long> first = this.service.getSync("key");
+		CompletableFuture<Long> second = this.service.getSync("key");
+		pending.complete(42L);
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+		assertThat(this.service.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void syncRetrievalFailureIsHandled() throws Exception {
+		assertThat(this.service.getBrokenSync("key").get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(this.service.getBrokenSync("key").get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+		assertThat(this.errorHandler.getErrors()).hasSize(2)
+				.allSatisfy(ex -> assertThat(ex).hasMessage("broken"));
+	}
+
+	@Test
+	public void syncLoadFailureIsNotHandled() {
+		this.service.setFail(true);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(
+				() -> this.service.getSync("key").get(5, TimeUnit.SECONDS))
+				.withCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.errorHandler.getErrors()).isEmpty();
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void putAndEvictApplyResolvedValue() throws Exception {
+		assertThat(this.service.update("key").get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+		assertThat(this.service.getFuture("key").get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(this.service.getCount()).isEqualTo(1);
+
+		this.service.evict("key").get(5, TimeUnit.SECONDS);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void refreshNotSupportedForAsyncReturnType() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.getRefreshed("key"))
+				.withMessageContaining("refreshAfter");
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config extends CachingConfigurerSupport {
+
+		@Bean
+		@Override
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager() {
+				@Override
+				protected Cache createConcurrentMapCache(String name) {
+					if (!"broken".equals(name)) {
+						return super.createConcurrentMapCache(name);
+					}
+					return new ConcurrentMapCache(name) {
+						@Override
+						public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+							throw new IllegalStateException("broken");
+						}
+					};
+				}
+			};
+		}
+
+		@Bean
+		@Override
+		public RecordingCacheErrorHandler errorHandler() {
+			return new RecordingCacheErrorHandler();
+		}
+
+		@Bean
+		public AsyncService asyncService() {
+			return new AsyncService();
+		}
+	}
+
+
+	@CacheConfig(cacheNames = "test")
+	public static class AsyncService {
+
+		final AtomicInteger counter = new AtomicInteger();
+
+		volatile CompletableFuture<Long> pending;
+
+		volatile boolean fail;
+
+		void setPending(CompletableFuture<Long> pending) {
+			this.pending = pending;
+		}
+
+		void setFail(boolean fail) {
+			this.fail = fail;
+		}
+
+		int getCount() {
+			return this.counter.get();
+		}
+
+		@Cacheable
+		public CompletableFuture<Long> getFuture(String key) {
+			return load();
+		}
+
+		@Cacheable
+		public Mono<Long> getMono(String key) {
+			return Mono.fromFuture(load());
+		}
+
+		@Cacheable
+		public Flux<Long> getFlux(String key) {
+			this.counter.getAndIncrement();
+			return Flux.just(0L, 1L);
+		}
+
+		@Cacheable(sync = true)
+		public CompletableFuture<Long> getSync(String key) {
+			return load();
+		}
+
+		@Cacheable(cacheNames = "broken", sync = true)
+		public CompletableFuture<Long> getBrokenSync(String key) {
+			return load();
+		}
+
+		@CachePut
+		public CompletableFuture<Long> update(String key) {
+			return load();
+		}
+
+		@CacheEvict
+		public CompletableFuture<Void> evict(String key) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		@Cacheable(refreshAfter = 100)
+		public CompletableFuture<Long> getRefreshed(String key) {
+			return load();
+		}
+
+		private CompletableFuture<Long> load() {
+			long value = this.counter.getAndIncrement();
+			if (this.fail) {
+				CompletableFuture<Long> failed = new CompletableFuture<>();
+				failed.completeExceptionally(new IllegalStateException("failed"));
+				return failed;
+			}
+			CompletableFuture<Long> pending = this.pending;
+			return (pending != null ? pending : CompletableFuture.supplyAsync(() -> value));
+		}
+	}
+
+
+	static class RecordingCacheErrorHandler extends SimpleCacheErrorHandler {
+
+		private final List<RuntimeException> errors = Collections.synchronizedList(new ArrayList<>());
+
+		List<RuntimeException> getErrors() {
+			return this.errors;
+		}
+
+		@Override
+		public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+			this.errors.add(exception);
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@code @Cacheable(bulk=true)} operations.
+ */
+public class CacheBulkOperationTests {
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private BulkService service;
+
+	@BeforeEach
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("test");
+		this.service = this.context.getBean(BulkService.class);
+	}
+
+	@AfterEach
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void onlyMissingKeysAreLoaded() {
+		this.cache.put(2, "cached-2");
+
+		Map<Integer, String> result = this.service.findAll(Arrays.asList(1, 2, 3));
+		assertThat(result).containsExactly(entry(1, "value-1"), entry(2, "cached-2"), entry(3, "value-3"));
+		assertThat(this.service.getInvocations()).containsExactly(Arrays.asList(1, 3));
+		assertThat(this.cache.get(1).get()).isEqualTo("value-1");
+		assertThat(this.cache.get(3).get()).isEqualTo("value-3");
+	}
+
+	@Test
+	public void allKeysCached() {
+		this.service.findAll(Arrays.asList(1, 2));
+		Map<Integer, String> result = this.service.findAll(Arrays.asList(2, 1));
+		assertThat(result).containsExactly(entry(2, "value-2"), entry(1, "value-1"));
+		assertThat(this.service.getInvocations()).hasSize(1);
+	}
+
+	@Test
+	public void entriesSharedWithSingleKeyMethod() {
+		assertThat(this.service.find(1)).isEqualTo("value-1");
+		this.service.findAll(Arrays.asList(1, 2));
+		assertThat(this.service.getInvocations()).containsExactly(Collections.singletonList(1), Arrays.asList(2));
+		assertThat(this.service.find(2)).isEqualTo("value-2");
+		assertThat(this.service.getInvocations()).hasSize(2);
+	}
+
+	@Test
+	public void keysNotReturnedAreOmitted() {
+		Map<Integer, String> result = this.service.findAll(Arrays.asList(1, -1));
+		assertThat(result).containsExactly(entry(1, "value-1"));
+		assertThat(this.cache.get(-1)).isNull();
+	}
+
+	@Test
+	public void setParameter() {
+		this.cache.put(1, "cached-1");
+		Map<Integer, String> result = this.service.findAllInSet(new LinkedHashSet<>(Arrays.asList(1, 2)));
+		assertThat(result).containsExactly(entry(1, "cached-1"), entry(2, "value-2"));
+		assertThat(this.service.getInvocations()).hasSize(1);
+		assertThat(this.service.getInvocations().get(0)).isInstanceOf(Set.class).containsExactly(2);
+	}
+
+	@Test
+	public void invalidSignature() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.invalid(1))
+				.withMessageContaining("Collection parameter");
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config extends CachingConfigurerSupport {
+
+		@Bean
+		@Override
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager();
+		}
+
+		@Bean
+		public BulkService bulkService() {
+			return new BulkService();
+		}
+	}
+
+
+	@CacheConfig(cacheNames = "test")
+	public static class BulkService {
+
+		final List<Collection<Integer>> invocations = Collections.synchronizedList(new ArrayList<>());
+
+		List<Collection<Integer>> getInvocations() {
+			return this.invocations;
+		}
+
+		@Cacheable
+		public String find(Integer id) {
+			this.invocations.add(Collections.singletonList(id));
+			return "value-" + id;
+		}
+
+		@Cacheable(bulk = true)
+		public Map<Integer, String> findAll(List<Integer> ids) {
+			return load(ids);
+		}
+
+		@Cacheable(bulk = true)
+		public Map<Integer, String> findAllInSet(Set<Integer> ids) {
+			return load(ids);
+		}
+
+		@Cacheable(bulk = true)
+		public String invalid(Integer id) {
+			return "value-" + id;
+		}
+
+		private Map<Integer, String> load(Collection<Integer> ids) {
+			this.invocations.add(ids);
+			Map<Integer, String> result = new HashMap<>();
+			for (Integer id : ids) {
+				if (id >= 0) {
+					result.put(id, "value-" + id);
+				}
+			}
+			return result;
+		}
+	}
+
+}
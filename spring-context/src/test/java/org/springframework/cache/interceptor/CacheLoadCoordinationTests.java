@@ -0,0 +1,332 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for coalesced cache misses, refresh-ahead and negative results
+ * of {@link Cacheable} operations.
+ */
+public class CacheLoadCoordinationTests {
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private SimpleService service;
+
+	@BeforeEach
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("test");
+		this.service = this.context.getBean(SimpleService.class);
+		this.context.getBean(CacheInterceptor.class).setCoalesceCacheMisses(true);
+	}
+
+	@AfterEach
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void concurrentMissesAreCoalesced() throws Exception {
+		this.service.block();
+		CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> this.service.get("key"));
+		assertThat(this.service.awaitEntered()).isTrue();
+
+		Thread waiter = new Thread(() -> assertThat(this.service.get("key")).isEqualTo(0L));
+		waiter.start();
+		awaitWaiting(waiter);
+		this.service.release();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		waiter.join(5000);
+		assertThat(waiter.isAlive()).isFalse();
+		assertThat(this.service.getCount()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void concurrentMissesAreNotCoalescedByDefault() throws Exception {
+		assertThat(new CacheInterceptor().isCoalesceCacheMisses()).isFalse();
+		this.context.getBean(CacheInterceptor.class).setCoalesceCacheMisses(false);
+		this.service.block();
+		CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> this.service.get("key"));
+		assertThat(this.service.awaitEntered()).isTrue();
+
+		CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> this.service.get("key"));
+		awaitCount(2);
+		this.service.release();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+		assertThat(this.service.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void waiterInvokesMethodAfterCoalesceTimeout() throws Exception {
+		this.context.getBean(CacheInterceptor.class).setCoalesceTimeout(50);
+		this.service.block();
+		CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> this.service.get("key"));
+		assertThat(this.service.awaitEntered()).isTrue();
+
+		CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> this.service.get("key"));
+		awaitCount(2);
+		this.service.release();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(0L);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+		assertThat(this.service.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void failedLoadPropagatesToWaiters() throws Exception {
+		this.service.block();
+		this.service.setFail(true);
+		CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> this.service.get("key"));
+		assertThat(this.service.awaitEntered()).isTrue();
+
+		CompletableFuture<Throwable> failure = new CompletableFuture<>();
+		Thread waiter = new Thread(() -> {
+			try {
+				this.service.get("key");
+				failure.complete(null);
+			}
+			catch (Throwable ex) {
+				failure.complete(ex);
+			}
+		});
+		waiter.start();
+		awaitWaiting(waiter);
+		this.service.release();
+
+		assertThat(failure.get(5, TimeUnit.SECONDS)).isInstanceOf(IllegalStateException.class).hasMessage("failed");
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+				.withCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.service.getCount()).isEqualTo(1);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void staleValueIsServedWhileRefreshing() throws Exception {
+		assertThat(this.service.getRefreshed("key")).isEqualTo(0L);
+		assertThat(this.service.getRefreshed("key")).isEqualTo(0L);
+		Thread.sleep(150);
+
+		this.service.block();
+		CompletableFuture<Long> refresh = CompletableFuture.supplyAsync(() -> this.service.getRefreshed("key"));
+		assertThat(this.service.awaitEntered()).isTrue();
+		assertThat(this.service.getRefreshed("key")).isEqualTo(0L);
+		this.service.release();
+
+		assertThat(refresh.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+		assertThat(this.service.getRefreshed("key")).isEqualTo(1L);
+		assertThat(this.service.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void vetoedRefreshIsNotRetriedOnEveryHit() throws Exception {
+		assertThat(this.service.getRefreshedUnlessChanged("key")).isEqualTo(0L);
+		Thread.sleep(150);
+
+		assertThat(this.service.getRefreshedUnlessChanged("key")).isEqualTo(1L);
+		assertThat(this.service.getCount()).isEqualTo(2);
+		assertThat(this.service.getRefreshedUnlessChanged("key")).isEqualTo(0L);
+		assertThat(this.service.getRefreshedUnlessChanged("key")).isEqualTo(0L);
+		assertThat(this.service.getCount()).isEqualTo(2);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+
+		Thread.sleep(150);
+		assertThat(this.service.getRefreshedUnlessChanged("key")).isEqualTo(2L);
+		assertThat(this.service.getCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void negativeResultIsRemembered() {
+		assertThat(this.service.find("key")).isNull();
+		assertThat(this.service.find("key")).isNull();
+		assertThat(this.service.getCount()).isEqualTo(1);
+		assertThat(this.cache.get("key")).isNull();
+
+		this.service.evict("key");
+		assertThat(this.service.find("key")).isNull();
+		assertThat(this.service.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void negativeResultExpires() throws Exception {
+		assertThat(this.service.findBriefly("key")).isNull();
+		assertThat(this.service.findBriefly("key")).isNull();
+		assertThat(this.service.getCount()).isEqualTo(1);
+		Thread.sleep(150);
+		assertThat(this.service.findBriefly("key")).isNull();
+		assertThat(this.service.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void refreshNotSupportedWithSync() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.getSync("key"))
+				.withMessageContaining("refreshAfter");
+	}
+
+	private void awaitCount(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (this.service.getCount() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(this.service.getCount()).isEqualTo(count);
+	}
+
+	private static void awaitWaiting(Thread thread) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (thread.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(thread.getState()).isEqualTo(Thread.State.TIMED_WAITING);
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config extends CachingConfigurerSupport {
+
+		@Bean
+		@Override
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager();
+		}
+
+		@Bean
+		public SimpleService simpleService() {
+			return new SimpleService();
+		}
+	}
+
+
+	@CacheConfig(cacheNames = "test")
+	public static class SimpleService {
+
+		final AtomicInteger counter = new AtomicInteger();
+
+		volatile CountDownLatch entered = new CountDownLatch(0);
+
+		volatile CountDownLatch released = new CountDownLatch(0);
+
+		volatile boolean fail;
+
+		void block() {
+			this.entered = new CountDownLatch(1);
+			this.released = new CountDownLatch(1);
+		}
+
+		void release() {
+			this.released.countDown();
+		}
+
+		boolean awaitEntered() throws InterruptedException {
+			return this.entered.await(5, TimeUnit.SECONDS);
+		}
+
+		void setFail(boolean fail) {
+			this.fail = fail;
+		}
+
+		int getCount() {
+			return this.counter.get();
+		}
+
+		@Cacheable
+		public Long get(String key) {
+			return load();
+		}
+
+		@Cacheable(refreshAfter = 100)
+		public Long getRefreshed(String key) {
+			return load();
+		}
+
+		@Cacheable(refreshAfter = 100, unless = "#result > 0")
+		public Long getRefreshedUnlessChanged(String key) {
+			return load();
+		}
+
+		@Cacheable(unless = "#result == null", negativeTtl = 60000)
+		public Long find(String key) {
+			this.counter.getAndIncrement();
+			return null;
+		}
+
+		@Cacheable(negativeTtl = 100)
+		public Long findBriefly(String key) {
+			this.counter.getAndIncrement();
+			return null;
+		}
+
+		@CacheEvict
+		public void evict(String key) {
+		}
+
+		@Cacheable(sync = true, refreshAfter = 100)
+		public Long getSync(String key) {
+			return load();
+		}
+
+		private Long load() {
+			long value = this.counter.getAndIncrement();
+			this.entered.countDown();
+			try {
+				this.released.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			if (this.fail) {
+				throw new IllegalStateException("failed");
+			}
+			return value;
+		}
+	}
+
+}
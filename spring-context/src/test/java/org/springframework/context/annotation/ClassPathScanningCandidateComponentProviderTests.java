@@ -19,7 +19,9 @@ package org.springframework.context.annotation;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import example.gh24375.AnnotatedComponent;
 import example.profilescan.DevComponent;
@@ -102,6 +104,32 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertBeanDefinitionType(candidates);
 	}
 
+	@Test
+	public void defaultsWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setScanningExecutor(ForkJoinPool.commonPool());
+		testDefault(provider);
+	}
+
+	@Test
+	public void parallelScanFindsSameCandidatesInSameOrder() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.addIncludeFilter(new RegexPatternTypeFilter(Pattern.compile(".*ClassPathScanning.*")));
+		// Present in both main and test classes: resolved per classpath root
+		String basePackage = getClass().getPackage().getName();
+		Set<BeanDefinition> sequential = provider.findCandidateComponents(basePackage);
+		provider.setScanningExecutor(new ForkJoinPool(4));
+		Set<BeanDefinition> parallel = provider.findCandidateComponents(basePackage);
+		assertThat(containsBeanClass(sequential, ClassPathScanningCandidateComponentProvider.class)).isTrue();
+		assertThat(containsBeanClass(sequential, getClass())).isTrue();
+		assertThat(parallel.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList()))
+				.isEqualTo(sequential.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList()));
+	}
+
 	@Test
 	public void antStylePackageWithScan() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
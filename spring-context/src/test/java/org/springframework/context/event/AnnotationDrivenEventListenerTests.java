@@ -22,12 +22,14 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
@@ -443,6 +445,52 @@ public class AnnotationDrivenEventListenerTests {
 		this.eventCollector.assertTotalEventsCount(1);
 	}
 
+	@Test
+	public void batchListenerWithQueuedDelivery() {
+		doLoad(QueuedDeliveryConfiguration.class, BatchEventListener.class);
+		BatchEventListener listener = this.context.getBean(BatchEventListener.class);
+		TestEvent event1 = new TestEvent(this, "OK");
+		TestEvent event2 = new TestEvent(this, "NOT OK");
+		TestEvent event3 = new TestEvent(this, "OK");
+		TestEvent event4 = new TestEvent(this, "OK");
+		this.context.publishEvent(event1);
+		this.context.publishEvent(event2);
+		this.context.publishEvent(event3);
+		this.context.publishEvent(event4);
+		this.eventCollector.assertNoEventReceived(listener);
+
+		this.context.getBean(ManualExecutor.class).runAll();
+		this.eventCollector.assertEvent(listener, Arrays.asList(event1), Arrays.asList(event3, event4));
+		this.eventCollector.assertTotalEventsCount(2);
+
+		SimpleApplicationEventMulticaster multicaster = this.context.getBean(SimpleApplicationEventMulticaster.class);
+		assertThat(multicaster.getListenerQueueMetrics()).hasSize(1);
+		SimpleApplicationEventMulticaster.ListenerQueueMetrics metrics =
+				multicaster.getListenerQueueMetrics().values().iterator().next();
+		assertThat(metrics.getQueueDepth()).isEqualTo(0);
+		assertThat(metrics.getDeliveredCount()).isEqualTo(4);
+		assertThat(metrics.getBatchCount()).isEqualTo(2);
+		assertThat(metrics.getDiscardedCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void batchListenerWithSynchronousDelivery() {
+		load(BatchEventListener.class);
+		BatchEventListener listener = this.context.getBean(BatchEventListener.class);
+		TestEvent event = new TestEvent(this, "OK");
+		this.context.publishEvent(event);
+		this.context.publishEvent(new TestEvent(this, "NOT OK"));
+		this.eventCollector.assertEvent(listener, Collections.singletonList(event));
+		this.eventCollector.assertTotalEventsCount(1);
+	}
+
+	@Test
+	public void batchListenerWithoutListParameter() {
+		assertThatExceptionOfType(BeanInitializationException.class).isThrownBy(() ->
+				load(InvalidBatchEventListener.class))
+			.withMessageContaining("Batch event listener method must declare a single List parameter");
+	}
+
 	@Test
 	public void exceptionPropagated() {
 		load(ExceptionEventListener.class);
@@ -581,6 +629,25 @@ public class AnnotationDrivenEventListenerTests {
 		this.eventCollector.assertTotalEventsCount(4);
 	}
 
+	@Test
+	public void conditionMatchWithRepeatedEvaluation() {
+		load(ConditionalEventListener.class);
+		ConditionalEventInterface listener = this.context.getBean(ConditionalEventInterface.class);
+
+		// Beyond the threshold for compiling the condition expressions
+		int count = 300;
+		for (int i = 0; i < count; i++) {
+			this.context.publishEvent(new TestEvent(this, (i % 2 == 0 ? "OK" : "NOT OK")));
+			this.context.publishEvent(i % 2 == 0 ? "OK" + i : "NOT OK");
+			this.context.publishEvent(i % 2 == 0 ? 42d : 41d);
+			this.context.publishEvent(i % 2 == 0 ? 0L : Long.MAX_VALUE);
+		}
+		this.eventCollector.assertTotalEventsCount(count * 2);
+		assertThat(this.eventCollector.getEvents(listener)).noneMatch(event ->
+				"NOT OK".equals(event) || Double.valueOf(41d).equals(event) ||
+				(event instanceof TestEvent && !((TestEvent) event).msg.equals("OK")));
+	}
+
 	@Test
 	public void conditionDoesNotMatch() {
 		long maxLong = Long.MAX_VALUE;
@@ -827,6 +894,62 @@ public class AnnotationDrivenEventListenerTests {
 	}
 
 
+	@Configuration
+	@Import(BasicConfiguration.class)
+	static class QueuedDeliveryConfiguration {
+
+		@Bean
+		public ManualExecutor executor() {
+			return new ManualExecutor();
+		}
+
+		@Bean
+		public SimpleApplicationEventMulticaster applicationEventMulticaster(ManualExecutor executor) {
+			SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+			multicaster.setTaskExecutor(executor);
+			multicaster.setListenerQueueCapacity(10);
+			multicaster.setMaxBatchSize(2);
+			return multicaster;
+		}
+	}
+
+
+	static class ManualExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable task) {
+			this.tasks.add(task);
+		}
+
+		public void runAll() {
+			while (!this.tasks.isEmpty()) {
+				this.tasks.remove(0).run();
+			}
+		}
+	}
+
+
+	@Component
+	static class BatchEventListener extends AbstractTestEventListener {
+
+		@EventListener(batch = true, condition = "'OK'.equals(#root.event.msg)")
+		public void handle(List<TestEvent> events) {
+			collectEvent(events);
+		}
+	}
+
+
+	@Component
+	static class InvalidBatchEventListener {
+
+		@EventListener(batch = true)
+		public void handle(TestEvent event) {
+		}
+	}
+
+
 	interface SimpleService extends Identifiable {
 
 		void handleIt(TestEvent event);
@@ -16,11 +16,16 @@
 
 package org.springframework.context.event;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.junit.jupiter.api.Test;
@@ -30,6 +35,7 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.testfixture.beans.TestBean;
 import org.springframework.context.ApplicationContext;
@@ -51,10 +57,12 @@ import org.springframework.util.ReflectionUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -151,6 +159,164 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		verify(listener, times(2)).onApplicationEvent(evt);
 	}
 
+	@Test
+	public void simpleApplicationEventMulticasterWithListenerQueue() {
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> listener = mock(ApplicationListener.class);
+		ApplicationEvent evt1 = new MyEvent(this);
+		ApplicationEvent evt2 = new MyEvent(this);
+		ApplicationEvent evt3 = new MyEvent(this);
+		List<Runnable> tasks = new ArrayList<>();
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(2);
+		smc.setOverflowPolicy(SimpleApplicationEventMulticaster.OverflowPolicy.DISCARD_OLDEST);
+		smc.addApplicationListener(listener);
+
+		smc.multicastEvent(evt1);
+		smc.multicastEvent(evt2);
+		smc.multicastEvent(evt3);
+		assertThat(tasks).hasSize(1);
+		assertThat(smc.getListenerQueueMetrics().get(listener).getQueueDepth()).isEqualTo(2);
+		verify(listener, never()).onApplicationEvent(any());
+
+		tasks.remove(0).run();
+		verify(listener, never()).onApplicationEvent(evt1);
+		verify(listener).onApplicationEvent(evt2);
+		verify(listener).onApplicationEvent(evt3);
+		assertThat(tasks).isEmpty();
+		SimpleApplicationEventMulticaster.ListenerQueueMetrics metrics = smc.getListenerQueueMetrics().get(listener);
+		assertThat(metrics.getQueueDepth()).isEqualTo(0);
+		assertThat(metrics.getDeliveredCount()).isEqualTo(2);
+		assertThat(metrics.getDiscardedCount()).isEqualTo(1);
+		assertThat(metrics.getBatchCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterWithListenerQueueAndException() {
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> listener = mock(ApplicationListener.class);
+		ApplicationEvent evt1 = new MyEvent(this);
+		ApplicationEvent evt2 = new MyEvent(this);
+		List<Runnable> tasks = new ArrayList<>();
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(10);
+		smc.addApplicationListener(listener);
+
+		RuntimeException thrown = new RuntimeException();
+		willThrow(thrown).given(listener).onApplicationEvent(evt1);
+		smc.multicastEvent(evt1);
+		smc.multicastEvent(evt2);
+		assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> tasks.remove(0).run())
+				.satisfies(ex -> assertThat(ex).isSameAs(thrown));
+		verify(listener).onApplicationEvent(evt2);
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterWithListenerQueueAndRemovedListener() {
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> listener = mock(ApplicationListener.class);
+		List<Runnable> tasks = new ArrayList<>();
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(10);
+		smc.addApplicationListener(listener);
+
+		smc.multicastEvent(new MyEvent(this));
+		assertThat(smc.getListenerQueueMetrics()).containsKey(listener);
+		smc.removeApplicationListener(listener);
+		assertThat(smc.getListenerQueueMetrics()).isEmpty();
+
+		tasks.remove(0).run();
+		verify(listener, never()).onApplicationEvent(any());
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterFlushesListenerQueues() {
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> listener = mock(ApplicationListener.class);
+		List<Runnable> tasks = new ArrayList<>();
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(10);
+		smc.setListenerQueueShutdownTimeout(0);
+		smc.addApplicationListener(listener);
+
+		smc.multicastEvent(new MyEvent(this));
+		smc.flushListenerQueues();
+		assertThat(smc.getListenerQueueMetrics()).isEmpty();
+
+		tasks.remove(0).run();
+		verify(listener, never()).onApplicationEvent(any());
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterWaitsForListenerQueuesOnFlush() {
+		@SuppressWarnings("unchecked")
+		ApplicationListener<ApplicationEvent> listener = mock(ApplicationListener.class);
+		ApplicationEvent evt = new MyEvent(this);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		CountDownLatch released = new CountDownLatch(1);
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setTaskExecutor(executor);
+		smc.setListenerQueueCapacity(10);
+		smc.addApplicationListener(listener);
+		try {
+			executor.execute(() -> {
+				try {
+					released.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			smc.multicastEvent(evt);
+			verify(listener, never()).onApplicationEvent(any());
+			released.countDown();
+			smc.flushListenerQueues();
+			verify(listener).onApplicationEvent(evt);
+			assertThat(smc.getListenerQueueMetrics()).isEmpty();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void simpleApplicationEventMulticasterWithListenerQueueAndNonSingletonListener() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		RootBeanDefinition listenerDefinition = new RootBeanDefinition(MyNonSingletonListener.class);
+		listenerDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		beanFactory.registerBeanDefinition("listener", listenerDefinition);
+		beanFactory.registerSingleton("singletonListener", new MyNonSingletonListener());
+		ApplicationEvent evt1 = new MyEvent(this);
+		ApplicationEvent evt2 = new MyEvent(this);
+		List<Runnable> tasks = new ArrayList<>();
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster(beanFactory);
+		smc.setTaskExecutor(tasks::add);
+		smc.setListenerQueueCapacity(10);
+		smc.addApplicationListenerBean("listener");
+		smc.addApplicationListenerBean("singletonListener");
+
+		smc.multicastEvent(evt1);
+		smc.multicastEvent(evt2);
+		// one task per event for the prototype listener, one queue for the singleton listener
+		assertThat(tasks).hasSize(3);
+		assertThat(smc.getListenerQueueMetrics()).hasSize(1)
+				.containsKey(beanFactory.getBean("singletonListener", ApplicationListener.class));
+
+		tasks.forEach(Runnable::run);
+		assertThat(MyNonSingletonListener.seenEvents).contains(evt1, evt2);
+		MyNonSingletonListener.seenEvents.clear();
+	}
+
 	@Test
 	public void simpleApplicationEventMulticasterWithException() {
 		@SuppressWarnings("unchecked")
@@ -245,6 +411,34 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		assertThat(listener1.seenEvents.size()).isEqualTo(2);
 	}
 
+	@Test
+	public void listenerChangesOnlyEvictAffectedRetrievers() {
+		MyOrderedListener3 listener1 = new MyOrderedListener3();
+		MyOrderedListener4 listener2 = new MyOrderedListener4(listener1);
+		MyEvent event = new MyEvent(this);
+		MyOtherEvent otherEvent = new MyOtherEvent(this);
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener1);
+		smc.multicastEvent(event);
+		smc.multicastEvent(otherEvent);
+		assertThat(smc.retrieverCache.size()).isEqualTo(2);
+
+		smc.addApplicationListener(listener2);
+		assertThat(smc.retrieverCache.size()).isEqualTo(1);
+		assertThat(smc.getApplicationListeners(event, ResolvableType.forInstance(event)))
+				.containsExactly(listener1, listener2);
+		assertThat(smc.getApplicationListeners(otherEvent, ResolvableType.forInstance(otherEvent)))
+				.containsExactly(listener1);
+		assertThat(smc.retrieverCache.size()).isEqualTo(2);
+
+		smc.removeApplicationListener(listener2);
+		assertThat(smc.retrieverCache.size()).isEqualTo(1);
+		assertThat(smc.getApplicationListeners(event, ResolvableType.forInstance(event)))
+				.containsExactly(listener1);
+		assertThat(smc.getApplicationListeners()).containsExactly(listener1);
+	}
+
 	@Test
 	public void testEventPublicationInterceptor() throws Throwable {
 		MethodInvocation invocation = mock(MethodInvocation.class);
@@ -298,8 +492,9 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		assertThat(listener1.seenEvents.contains(event3)).isTrue();
 		assertThat(listener1.seenEvents.contains(event4)).isTrue();
 
+		// ContextRefreshedEvent retriever not affected by lazy listener2 registration
 		AbstractApplicationEventMulticaster multicaster = context.getBean(AbstractApplicationEventMulticaster.class);
-		assertThat(multicaster.retrieverCache.size()).isEqualTo(2);
+		assertThat(multicaster.retrieverCache.size()).isEqualTo(3);
 
 		context.close();
 	}
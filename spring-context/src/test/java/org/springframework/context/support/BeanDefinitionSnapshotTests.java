@@ -0,0 +1,292 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.componentscan.simple.SimpleComponent;
+import org.springframework.context.annotation.ImportAware;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.type.AnnotationMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BeanDefinitionSnapshot}.
+ */
+public class BeanDefinitionSnapshotTests {
+
+	@Test
+	public void roundTripWithBeanDefinitionSettings() throws IOException {
+		GenericApplicationContext buildContext = new GenericApplicationContext();
+		RootBeanDefinition spouse = new RootBeanDefinition(TestBean.class);
+		spouse.getConstructorArgumentValues().addIndexedArgumentValue(0, "Kerry");
+		spouse.getConstructorArgumentValues().addIndexedArgumentValue(1, "34");
+		spouse.setLazyInit(true);
+		buildContext.registerBeanDefinition("spouse", spouse);
+		buildContext.registerAlias("spouse", "wife");
+
+		RootBeanDefinition tb = new RootBeanDefinition(TestBean.class);
+		tb.getPropertyValues().add("name", "Rod");
+		tb.getPropertyValues().add("spouse", new RuntimeBeanReference("wife"));
+		ManagedList<Object> list = new ManagedList<>();
+		list.add("value");
+		list.add(new RootBeanDefinition(TestBean.class));
+		tb.getPropertyValues().add("someList", list);
+		ManagedMap<Object, Object> map = new ManagedMap<>();
+		map.put("key", 42);
+		tb.getPropertyValues().add("someMap", map);
+		tb.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		tb.setDependsOn("spouse");
+		tb.setAttribute("custom", Boolean.TRUE);
+		buildContext.registerBeanDefinition("tb", tb);
+
+		buildContext.registerBean("derived", TestBean.class);
+
+		BeanDefinitionSnapshot snapshot = roundTrip(buildContext.createBeanDefinitionSnapshot());
+		buildContext.close();
+		assertThat(snapshot.getBeanNames()).containsExactly("spouse", "tb", "derived");
+
+		GenericApplicationContext context = new GenericApplicationContext();
+		assertThat(context.loadBeanDefinitionSnapshot(snapshot)).isTrue();
+		context.refresh();
+
+		BeanDefinition bd = context.getBeanDefinition("tb");
+		assertThat(bd.isPrototype()).isTrue();
+		assertThat(bd.getDependsOn()).containsExactly("spouse");
+		assertThat(bd.getAttribute("custom")).isEqualTo(Boolean.TRUE);
+		assertThat(context.getBeanDefinition("spouse").isLazyInit()).isTrue();
+		assertThat(context.getAliases("spouse")).containsExactly("wife");
+
+		TestBean bean = context.getBean("tb", TestBean.class);
+		assertThat(bean).isNotSameAs(context.getBean("tb"));
+		assertThat(bean.getName()).isEqualTo("Rod");
+		assertThat(bean.getSpouse()).isSameAs(context.getBean("spouse"));
+		assertThat(bean.getSpouse().getName()).isEqualTo("Kerry");
+		assertThat(bean.getSpouse().getAge()).isEqualTo(34);
+		assertThat(bean.getSomeList()).hasSize(2);
+		assertThat(bean.getSomeList().get(0)).isEqualTo("value");
+		assertThat(bean.getSomeList().get(1)).isInstanceOf(TestBean.class);
+		assertThat(bean.getSomeMap().get("key")).isEqualTo(42);
+		assertThat(context.getBeanDefinition("derived"))
+				.isInstanceOf(GenericApplicationContext.ClassDerivedBeanDefinition.class);
+		assertThat(context.getBean("derived")).isInstanceOf(TestBean.class);
+		context.close();
+	}
+
+	@Test
+	public void configurationClassesFromSnapshot() throws IOException {
+		AnnotationConfigApplicationContext buildContext = new AnnotationConfigApplicationContext();
+		buildContext.register(ImportingConfig.class);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		buildContext.createBeanDefinitionSnapshot().writeTo(out);
+		buildContext.close();
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		assertThat(context.loadBeanDefinitionSnapshot(new ByteArrayResource(out.toByteArray()))).isTrue();
+		context.refresh();
+
+		ImportedConfig importedConfig = context.getBean(ImportedConfig.class);
+		assertThat(importedConfig.importMetadata).isNotNull();
+		assertThat(importedConfig.importMetadata.getClassName()).isEqualTo(ImportingConfig.class.getName());
+		assertThat(context.getBean("importedBean")).isSameAs(importedConfig.importedBean());
+		ImportingConfig importingConfig = context.getBean(ImportingConfig.class);
+		assertThat(importingConfig.testBean()).isSameAs(context.getBean("testBean"));
+		context.close();
+	}
+
+	@Test
+	public void staleSnapshotOnClasspathChange(@TempDir Path tempDir) throws IOException {
+		GenericApplicationContext buildContext = new GenericApplicationContext();
+		buildContext.registerBeanDefinition("config", new RootBeanDefinition(ImportingConfig.class));
+		BeanDefinitionSnapshot snapshot = roundTrip(buildContext.createBeanDefinitionSnapshot());
+		buildContext.close();
+		assertThat(snapshot.isStale(getClass().getClassLoader())).isFalse();
+
+		File packageDir = tempDir.resolve(getClass().getPackage().getName().replace('.', '/')).toFile();
+		assertThat(packageDir.mkdirs()).isTrue();
+		Files.write(new File(packageDir, "AddedClass.class").toPath(), new byte[] {1, 2, 3});
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {tempDir.toUri().toURL()}, getClass().getClassLoader())) {
+			assertThat(snapshot.isStale(classLoader)).isTrue();
+			GenericApplicationContext context = new GenericApplicationContext();
+			context.setClassLoader(classLoader);
+			assertThat(context.loadBeanDefinitionSnapshot(snapshot)).isFalse();
+			assertThat(context.containsBeanDefinition("config")).isFalse();
+		}
+	}
+
+	@Test
+	public void staleSnapshotOnNewPackageInScannedBasePackage(@TempDir Path tempDir) throws IOException {
+		AnnotationConfigApplicationContext buildContext = new AnnotationConfigApplicationContext();
+		buildContext.register(ScanningConfig.class);
+		BeanDefinitionSnapshot snapshot = roundTrip(buildContext.createBeanDefinitionSnapshot());
+		buildContext.close();
+		assertThat(snapshot.getBeanNames()).contains("simpleComponent");
+		assertThat(snapshot.isStale(getClass().getClassLoader())).isFalse();
+
+		String basePackage = SimpleComponent.class.getPackage().getName();
+		File packageDir = tempDir.resolve(basePackage.replace('.', '/') + "/added").toFile();
+		assertThat(packageDir.mkdirs()).isTrue();
+		Files.write(new File(packageDir, "AddedComponent.class").toPath(), new byte[] {1, 2, 3});
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {tempDir.toUri().toURL()}, getClass().getClassLoader())) {
+			assertThat(snapshot.isStale(classLoader)).isTrue();
+		}
+	}
+
+	@Test
+	public void beanMethodDefinitionsFromSnapshot() throws Exception {
+		AnnotationConfigApplicationContext buildContext = new AnnotationConfigApplicationContext();
+		buildContext.register(OverloadingConfig.class);
+		BeanDefinitionSnapshot snapshot = roundTrip(buildContext.createBeanDefinitionSnapshot());
+		buildContext.close();
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		assertThat(context.loadBeanDefinitionSnapshot(snapshot)).isTrue();
+		RootBeanDefinition bd = (RootBeanDefinition) context.getBeanDefinition("testBean");
+		assertThat(bd.isFactoryMethodUnique()).isTrue();
+		assertThat(bd.isFactoryMethod(OverloadingConfig.class.getMethod("testBean"))).isTrue();
+		assertThat(bd.isFactoryMethod(OverloadingConfig.class.getMethod("testBean", String.class))).isFalse();
+		context.refresh();
+		assertThat(context.getBean("testBean", TestBean.class).getName()).isEqualTo("configured");
+		context.close();
+	}
+
+	@Test
+	public void propertySourcesFromSnapshot() throws IOException {
+		AnnotationConfigApplicationContext buildContext = new AnnotationConfigApplicationContext();
+		buildContext.register(PropertySourceConfig.class);
+		BeanDefinitionSnapshot snapshot = roundTrip(buildContext.createBeanDefinitionSnapshot());
+		buildContext.close();
+		assertThat(snapshot.getPropertySources(null)).hasSize(2);
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		assertThat(context.loadBeanDefinitionSnapshot(snapshot)).isTrue();
+		context.refresh();
+		assertThat(context.getBean("testBean", TestBean.class).getName()).isEqualTo("p2TestBean");
+		assertThat(context.getEnvironment().getProperty("from.p1")).isEqualTo("p1Value");
+		assertThat(context.getEnvironment().getProperty("from.p2")).isEqualTo("p2Value");
+		context.close();
+	}
+
+	@Test
+	public void captureWithInstanceSupplier() {
+		GenericApplicationContext buildContext = new GenericApplicationContext();
+		buildContext.registerBean("supplied", TestBean.class, () -> new TestBean());
+		assertThatIllegalStateException().isThrownBy(buildContext::createBeanDefinitionSnapshot)
+				.withMessageContaining("supplied");
+	}
+
+
+	private static BeanDefinitionSnapshot roundTrip(BeanDefinitionSnapshot snapshot) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		snapshot.writeTo(out);
+		return BeanDefinitionSnapshot.readFrom(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+
+	@Configuration
+	@Import(ImportedConfig.class)
+	static class ImportingConfig {
+
+		@Bean
+		public TestBean testBean() {
+			return new TestBean("configured");
+		}
+	}
+
+
+	@Configuration
+	@PropertySource("classpath:org/springframework/context/annotation/p1.properties")
+	@Import(PropertySourceImportedConfig.class)
+	static class PropertySourceConfig {
+
+		@Bean
+		public TestBean testBean(@Value("${testbean.name}") String name) {
+			return new TestBean(name);
+		}
+	}
+
+
+	@Configuration
+	@PropertySource("classpath:org/springframework/context/annotation/p2.properties")
+	static class PropertySourceImportedConfig {
+	}
+
+
+	@Configuration
+	@ComponentScan(basePackageClasses = SimpleComponent.class)
+	static class ScanningConfig {
+	}
+
+
+	@Configuration
+	static class OverloadingConfig {
+
+		@Bean
+		public TestBean testBean() {
+			return testBean("configured");
+		}
+
+		public TestBean testBean(String name) {
+			return new TestBean(name);
+		}
+	}
+
+
+	@Configuration
+	static class ImportedConfig implements ImportAware {
+
+		AnnotationMetadata importMetadata;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+
+		@Bean
+		public TestBean importedBean() {
+			return new TestBean("imported");
+		}
+	}
+
+}
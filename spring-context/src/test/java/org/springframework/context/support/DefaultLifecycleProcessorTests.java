@@ -17,6 +17,10 @@
 package org.springframework.context.support;
 
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
@@ -563,6 +567,78 @@ public class DefaultLifecycleProcessorTests {
 		assertThat(getPhase(stoppedBeans.get(4))).isEqualTo(Integer.MIN_VALUE);
 	}
 
+	@Test
+	public void concurrentStartupAndShutdownWithinPhase() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			CountDownLatch startLatch = new CountDownLatch(3);
+			CountDownLatch stopLatch = new CountDownLatch(3);
+			BlockingLifecycleBean bean1 = new BlockingLifecycleBean(startLatch, stopLatch);
+			BlockingLifecycleBean bean2 = new BlockingLifecycleBean(startLatch, stopLatch);
+			BlockingLifecycleBean bean3 = new BlockingLifecycleBean(startLatch, stopLatch);
+			StaticApplicationContext context = createContextWithTaskExecutor(executor);
+			context.getBeanFactory().registerSingleton("bean1", bean1);
+			context.getBeanFactory().registerSingleton("bean2", bean2);
+			context.getBeanFactory().registerSingleton("bean3", bean3);
+			context.refresh();
+			context.start();
+			assertThat(bean1.isRunning()).isTrue();
+			assertThat(bean2.isRunning()).isTrue();
+			assertThat(bean3.isRunning()).isTrue();
+			assertThat(startLatch.getCount()).isEqualTo(0);
+			context.stop();
+			assertThat(bean1.isRunning()).isFalse();
+			assertThat(bean2.isRunning()).isFalse();
+			assertThat(bean3.isRunning()).isFalse();
+			assertThat(stopLatch.getCount()).isEqualTo(0);
+			DefaultLifecycleProcessor processor = context.getBean("lifecycleProcessor", DefaultLifecycleProcessor.class);
+			assertThat(processor.getStartDurations()).containsOnlyKeys("bean1", "bean2", "bean3");
+			assertThat(processor.getStopDurations()).containsOnlyKeys("bean1", "bean2", "bean3");
+			context.close();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void concurrentStartupAndShutdownRespectDependencies() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			CopyOnWriteArrayList<Lifecycle> startedBeans = new CopyOnWriteArrayList<>();
+			CopyOnWriteArrayList<Lifecycle> stoppedBeans = new CopyOnWriteArrayList<>();
+			TestSmartLifecycleBean bean1 = new TestSmartLifecycleBean(1, 0, startedBeans, stoppedBeans);
+			TestSmartLifecycleBean bean2 = new TestSmartLifecycleBean(1, 0, startedBeans, stoppedBeans);
+			TestSmartLifecycleBean bean3 = new TestSmartLifecycleBean(1, 0, startedBeans, stoppedBeans);
+			TestSmartLifecycleBean bean4 = new TestSmartLifecycleBean(2, 0, startedBeans, stoppedBeans);
+			StaticApplicationContext context = createContextWithTaskExecutor(executor);
+			context.getBeanFactory().registerSingleton("bean1", bean1);
+			context.getBeanFactory().registerSingleton("bean2", bean2);
+			context.getBeanFactory().registerSingleton("bean3", bean3);
+			context.getBeanFactory().registerSingleton("bean4", bean4);
+			context.getBeanFactory().registerDependentBean("bean1", "bean2");
+			context.getBeanFactory().registerDependentBean("bean2", "bean3");
+			context.refresh();
+			assertThat(startedBeans).containsExactly(bean1, bean2, bean3, bean4);
+			context.stop();
+			assertThat(stoppedBeans).containsExactly(bean4, bean3, bean2, bean1);
+			DefaultLifecycleProcessor processor = context.getBean("lifecycleProcessor", DefaultLifecycleProcessor.class);
+			assertThat(processor.getStopDurations()).containsOnlyKeys("bean1", "bean2", "bean3", "bean4");
+			context.close();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static StaticApplicationContext createContextWithTaskExecutor(ExecutorService executor) {
+		BeanDefinition beanDefinition = new RootBeanDefinition(DefaultLifecycleProcessor.class);
+		beanDefinition.getPropertyValues().addPropertyValue("taskExecutor", executor);
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.registerBeanDefinition("lifecycleProcessor", beanDefinition);
+		return context;
+	}
+
 
 	private static int getPhase(Lifecycle lifecycle) {
 		return (lifecycle instanceof SmartLifecycle) ?
@@ -672,6 +748,48 @@ public class DefaultLifecycleProcessorTests {
 	}
 
 
+	/**
+	 * Lifecycle bean that only completes its start and stop once all other
+	 * beans sharing the same latches have been started or stopped as well.
+	 */
+	private static class BlockingLifecycleBean extends TestLifecycleBean {
+
+		private final CountDownLatch startLatch;
+
+		private final CountDownLatch stopLatch;
+
+		BlockingLifecycleBean(CountDownLatch startLatch, CountDownLatch stopLatch) {
+			super(null, null);
+			this.startLatch = startLatch;
+			this.stopLatch = stopLatch;
+		}
+
+		@Override
+		public void start() {
+			await(this.startLatch);
+			super.start();
+		}
+
+		@Override
+		public void stop() {
+			await(this.stopLatch);
+			super.stop();
+		}
+
+		private static void await(CountDownLatch latch) {
+			latch.countDown();
+			try {
+				if (!latch.await(5, TimeUnit.SECONDS)) {
+					throw new IllegalStateException("Lifecycle beans not processed concurrently");
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
 	public static class DummySmartLifecycleBean implements SmartLifecycle {
 
 		public boolean running = false;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,27 @@
 
 package org.springframework.context.support;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.FatalBeanException;
 import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.factory.support.SingletonWarmUp;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup.TimedStep;
+import org.springframework.core.metrics.BufferingApplicationStartup.TimedStepNode;
 import org.springframework.util.ObjectUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -201,6 +215,114 @@ public class GenericApplicationContextTests {
 		assertThat(context.getBeansOfType(BeanC.class).values().iterator().next()).isSameAs(context.getBean(BeanC.class));
 	}
 
+	@Test
+	public void applicationStartupRecordsRefreshSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(100);
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.registerBean("a", BeanA.class);
+		context.registerBean("b", BeanB.class, BeanB::new);
+		context.registerBean("c", BeanC.class, BeanC::new);
+		context.refresh();
+
+		assertThat(context.getApplicationStartup()).isSameAs(applicationStartup);
+		assertThat(context.getBeanFactory().getApplicationStartup()).isSameAs(applicationStartup);
+		assertThat(context.getBean(ApplicationStartup.class)).isSameAs(applicationStartup);
+
+		assertThat(applicationStartup.getBufferedSteps()).extracting(TimedStep::getName)
+				.contains("spring.context.beans.post-process", "spring.beans.instantiate");
+		TimedStepNode refresh = applicationStartup.getStepTree().get(0);
+		assertThat(refresh.getStep().getName()).isEqualTo("spring.context.refresh");
+		TimedStepNode beanA = refresh.getChildren().stream()
+				.filter(node -> "a".equals(node.getStep().getTags().get("beanName")))
+				.findFirst().get();
+		assertThat(beanA.getChildren()).extracting(node -> node.getStep().getTags().get("beanName"))
+				.containsExactly("b", "c");
+	}
+
+	@Test
+	public void applicationStartupStepsEndedOnPostProcessingFailure() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(100);
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.addBeanFactoryPostProcessor(beanFactory -> {
+			throw new FatalBeanException("Expected");
+		});
+		assertThatExceptionOfType(FatalBeanException.class).isThrownBy(context::refresh);
+
+		assertThat(applicationStartup.getBufferedSteps()).extracting(TimedStep::getName)
+				.containsExactly("spring.context.bean-factory.post-process",
+						"spring.context.beans.post-process", "spring.context.refresh");
+		applicationStartup.start("probe").end();
+		assertThat(applicationStartup.getStepTree()).extracting(node -> node.getStep().getName())
+				.containsExactly("spring.context.refresh", "probe");
+	}
+
+	@Test
+	public void closeFromBootstrapExecutorIsRejected() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			AtomicReference<Throwable> closeFailure = new AtomicReference<>();
+			GenericApplicationContext context = new GenericApplicationContext();
+			context.registerBean(ConfigurableApplicationContext.BOOTSTRAP_EXECUTOR_BEAN_NAME,
+					Executor.class, () -> executor);
+			context.registerBean("closing", BeanC.class, () -> {
+				try {
+					context.close();
+				}
+				catch (IllegalStateException ex) {
+					closeFailure.set(ex);
+				}
+				return new BeanC();
+			});
+			context.refresh();
+
+			assertThat(closeFailure.get()).isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining("bootstrap executor");
+			assertThat(context.isActive()).isTrue();
+			context.close();
+			assertThat(context.isActive()).isFalse();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void backgroundWarmUpCreatesSingletonsAfterRefresh() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.setBackgroundWarmUp(true);
+		context.registerBean("slow", BeanC.class, () -> {
+			try {
+				latch.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return new BeanC();
+		});
+		context.registerBean("b", BeanB.class, BeanB::new);
+		context.registerBean("eager", BeanC.class, BeanC::new, bd -> bd.setLazyInit(false));
+		context.refresh();
+
+		assertThat(context.getBeanFactory().containsSingleton("eager")).isTrue();
+		SingletonWarmUp warmUp = context.getSingletonWarmUp();
+		assertThat(warmUp).isNotNull();
+		assertThat(warmUp.getBeanNames()).containsExactly("slow", "b");
+		assertThat(context.getBeanDefinition("slow").isLazyInit()).isFalse();
+		assertThat(context.getDefaultListableBeanFactory().getDeferredSingletonNames()).isEmpty();
+		assertThat(warmUp.isCompleted()).isFalse();
+		assertThat(context.getBean("b", BeanB.class).applicationContext).isSameAs(context);
+
+		latch.countDown();
+		assertThat(warmUp.awaitCompletion(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(warmUp.getCompletedCount()).isEqualTo(2);
+		assertThat(warmUp.getCreationTimes()).containsOnlyKeys("slow");
+		assertThat(context.getBeanFactory().containsSingleton("slow")).isTrue();
+		context.close();
+	}
+
 
 	static class BeanA {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,10 @@
 
 package org.springframework.context.testfixture.cache;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
@@ -100,6 +103,27 @@ public abstract class AbstractCacheTests<T extends Cache> {
 		cache.put(key, value);
 	}
 
+	@Test
+	public void testCacheGetAllAndPutAll() {
+		T cache = getCache();
+
+		String key1 = createRandomKey();
+		String key2 = createRandomKey();
+		String key3 = createRandomKey();
+		assertThat(cache.getAll(Arrays.asList(key1, key2, key3))).isEmpty();
+
+		Map<String, Object> entries = new LinkedHashMap<>();
+		entries.put(key1, "one");
+		entries.put(key2, null);
+		cache.putAll(entries);
+		assertThat(cache.get(key1).get()).isEqualTo("one");
+
+		Map<Object, Cache.ValueWrapper> result = cache.getAll(Arrays.asList(key3, key2, key1));
+		assertThat(result).containsOnlyKeys(key1, key2);
+		assertThat(result.get(key1).get()).isEqualTo("one");
+		assertThat(result.get(key2).get()).isNull();
+	}
+
 	@Test
 	public void testCacheClear() throws Exception {
 		T cache = getCache();
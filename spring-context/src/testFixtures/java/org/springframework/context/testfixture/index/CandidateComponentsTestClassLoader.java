@@ -29,7 +29,7 @@ import org.springframework.core.io.Resource;
 /**
  * A test {@link ClassLoader} that can be used in a testing context to control the
  * {@code spring.components} resource that should be loaded. Can also simulate a failure
- * by throwing a configurable {@link IOException}.
+ * by throwing a configurable {@link IOException}. The binary index is never exposed.
  *
  * @author Stephane Nicoll
  */
@@ -91,6 +91,12 @@ public class CandidateComponentsTestClassLoader extends ClassLoader {
 			}
 			throw this.cause;
 		}
+		if (CandidateComponentsIndexLoader.COMPONENTS_INDEX_RESOURCE_LOCATION.equals(name)) {
+			if (this.resourceUrls != null) {
+				return Collections.emptyEnumeration();
+			}
+			throw this.cause;
+		}
 		return super.getResources(name);
 	}
 
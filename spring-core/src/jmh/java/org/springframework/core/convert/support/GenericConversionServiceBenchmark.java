@@ -98,6 +98,61 @@ public class GenericConversionServiceBenchmark {
 		}
 	}
 
+	@Benchmark
+	public void convertStringToInt(SimpleBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.intText, int.class));
+	}
+
+	@Benchmark
+	public void convertStringToLong(SimpleBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.longText, Long.class));
+	}
+
+	@Benchmark
+	public void convertStringToBoolean(SimpleBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.booleanText, boolean.class));
+	}
+
+	@Benchmark
+	public void convertStringToEnum(SimpleBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.enumText, Mode.class));
+	}
+
+	@Benchmark
+	public void convertIntegerToLong(SimpleBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.number, Long.class));
+	}
+
+	@Benchmark
+	public void convertStringToIntWithTypeDescriptors(SimpleBenchmarkState state, Blackhole bh) {
+		bh.consume(state.conversionService.convert(state.intText, state.stringTypeDesc, state.intTypeDesc));
+	}
+
+	@Benchmark
+	public void convertStringToIntBaseline(SimpleBenchmarkState state, Blackhole bh) {
+		bh.consume(Integer.parseInt(state.intText));
+	}
+
+	@State(Scope.Benchmark)
+	public static class SimpleBenchmarkState {
+
+		DefaultConversionService conversionService = new DefaultConversionService();
+
+		String intText = "4242";
+
+		String longText = "42424242424";
+
+		String booleanText = "true";
+
+		String enumText = "Throughput";
+
+		Integer number = 4242;
+
+		TypeDescriptor stringTypeDesc = TypeDescriptor.valueOf(String.class);
+
+		TypeDescriptor intTypeDesc = TypeDescriptor.valueOf(int.class);
+	}
+
 	@State(Scope.Benchmark)
 	public static class BenchmarkState {
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for contended access to a {@link SegmentedLruMap}, compared to the
+ * default static cache implementation and to an access-ordered map under a lock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(8)
+public class SegmentedLruMapBenchmark {
+
+	@Benchmark
+	public void get(BenchmarkData data, ThreadData thread, Blackhole bh) {
+		bh.consume(data.map.get(data.keys[thread.nextIndex()]));
+	}
+
+	@Benchmark
+	public void computeIfAbsentWithEvictions(BenchmarkData data, ThreadData thread, Blackhole bh) {
+		bh.consume(data.map.computeIfAbsent(data.evictingKeys[thread.nextIndex()], data.valueFunction));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		private static final int KEY_COUNT = 1024;
+
+		@Param({"segmentedLruMap", "softSegmentedLruMap", "concurrentReferenceHashMap", "synchronizedLinkedHashMap"})
+		public String mapType;
+
+		@Param({"1024"})
+		public int maxSize;
+
+		Map<Integer, Integer> map;
+
+		Integer[] keys;
+
+		Integer[] evictingKeys;
+
+		final Function<Integer, Integer> valueFunction = key -> key;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.map = createMap();
+			Random random = new Random(42);
+			this.keys = new Integer[KEY_COUNT];
+			this.evictingKeys = new Integer[KEY_COUNT];
+			for (int i = 0; i < KEY_COUNT; i++) {
+				this.keys[i] = random.nextInt(this.maxSize);
+				this.evictingKeys[i] = random.nextInt(this.maxSize * 2);
+			}
+			for (int i = 0; i < this.maxSize; i++) {
+				this.map.put(i, i);
+			}
+		}
+
+		private Map<Integer, Integer> createMap() {
+			switch (this.mapType) {
+				case "segmentedLruMap":
+					return new SegmentedLruMap<>(this.maxSize);
+				case "softSegmentedLruMap":
+					return new SegmentedLruMap<>(this.maxSize, 16, true);
+				case "concurrentReferenceHashMap":
+					return new ConcurrentReferenceHashMap<>(this.maxSize);
+				case "synchronizedLinkedHashMap":
+					int maxSize = this.maxSize;
+					return Collections.synchronizedMap(new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+						@Override
+						protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+							return size() > maxSize;
+						}
+					});
+				default:
+					throw new IllegalStateException("Unknown map type: " + this.mapType);
+			}
+		}
+	}
+
+
+	@State(Scope.Thread)
+	public static class ThreadData {
+
+		private int index = new Random().nextInt(BenchmarkData.KEY_COUNT);
+
+		int nextIndex() {
+			this.index = (this.index + 1) & (BenchmarkData.KEY_COUNT - 1);
+			return this.index;
+		}
+	}
+
+}
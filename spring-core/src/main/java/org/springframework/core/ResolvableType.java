@@ -40,6 +40,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StaticCaches;
 import org.springframework.util.StringUtils;
 
 /**
@@ -91,8 +92,8 @@ public class ResolvableType implements Serializable {
 
 	private static final ResolvableType[] EMPTY_TYPES_ARRAY = new ResolvableType[0];
 
-	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
-			new ConcurrentReferenceHashMap<>(256);
+	private static final Map<ResolvableType, ResolvableType> cache =
+			StaticCaches.createCache("ResolvableType.cache", 256);
 
 
 	/**
@@ -1431,7 +1432,9 @@ public class ResolvableType implements Serializable {
 		}
 
 		// Purge empty entries on access since we don't have a clean-up thread or the like.
-		cache.purgeUnreferencedEntries();
+		if (cache instanceof ConcurrentReferenceHashMap) {
+			((ConcurrentReferenceHashMap<ResolvableType, ResolvableType>) cache).purgeUnreferencedEntries();
+		}
 
 		// Check the cache - we may have a ResolvableType which has been resolved before...
 		ResolvableType resultType = new ResolvableType(type, typeProvider, variableResolver);
@@ -35,8 +35,8 @@ import org.springframework.core.annotation.AnnotationTypeMapping.MirrorSets.Mirr
 import org.springframework.core.annotation.MergedAnnotation.Adapt;
 import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
 import org.springframework.lang.Nullable;
-import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StaticCaches;
 import org.springframework.util.StringUtils;
 
 /**
@@ -113,7 +113,7 @@ public abstract class AnnotationUtils {
 			AnnotationFilter.packages("java.lang.annotation");
 
 	private static final Map<Class<? extends Annotation>, Map<String, DefaultValueHolder>> defaultValuesCache =
-			new ConcurrentReferenceHashMap<>();
+			StaticCaches.createCache("AnnotationUtils.defaultValuesCache", 16);
 
 
 	/**
@@ -1289,6 +1289,7 @@ public abstract class AnnotationUtils {
 	public static void clearCache() {
 		AnnotationTypeMappings.clearCache();
 		AnnotationsScanner.clearCache();
+		TypeMappedAnnotations.clearCache();
 	}
 
 
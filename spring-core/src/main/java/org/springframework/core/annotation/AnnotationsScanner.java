@@ -30,9 +30,9 @@ import org.springframework.core.Ordered;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
 import org.springframework.lang.Nullable;
-import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StaticCaches;
 
 /**
  * Scanner to search for relevant annotations in the annotation hierarchy of an
@@ -51,10 +51,10 @@ abstract class AnnotationsScanner {
 
 
 	private static final Map<AnnotatedElement, Annotation[]> declaredAnnotationCache =
-			new ConcurrentReferenceHashMap<>(256);
+			StaticCaches.createCache("AnnotationsScanner.declaredAnnotationCache", 256);
 
 	private static final Map<Class<?>, Method[]> baseTypeMethodsCache =
-			new ConcurrentReferenceHashMap<>(256);
+			StaticCaches.createCache("AnnotationsScanner.baseTypeMethodsCache", 256);
 
 
 	private AnnotationsScanner() {
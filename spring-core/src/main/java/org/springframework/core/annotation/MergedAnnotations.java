@@ -21,6 +21,7 @@ import java.lang.annotation.Inherited;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Map;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -303,6 +304,10 @@ public interface MergedAnnotations extends Iterable<MergedAnnotation<Annotation>
 	 * Create a new {@link MergedAnnotations} instance containing all
 	 * annotations and meta-annotations from the specified element and,
 	 * depending on the {@link SearchStrategy}, related inherited elements.
+	 * <p>As of 5.3, instances for classes and members are kept in an internal
+	 * store, with their {@code get} and {@code isPresent} results being
+	 * retained for subsequent lookups. The store can be reset through
+	 * {@link AnnotationUtils#clearCache()}.
 	 * @param element the source element
 	 * @param searchStrategy the search strategy to use
 	 * @return a {@link MergedAnnotations} instance containing the merged
@@ -348,6 +353,24 @@ public interface MergedAnnotations extends Iterable<MergedAnnotation<Annotation>
 		return TypeMappedAnnotations.from(element, searchStrategy, repeatableContainers, annotationFilter);
 	}
 
+	/**
+	 * Create {@link MergedAnnotations} instances for all methods declared
+	 * by the specified class in a single call, e.g. for handler method or
+	 * transactional method detection.
+	 * <p>Like the instances returned by {@link #from(AnnotatedElement, SearchStrategy)},
+	 * they are kept in an internal store and reused for subsequent lookups
+	 * of the same method and search strategy.
+	 * @param type the class to introspect
+	 * @param searchStrategy the search strategy to use for each method
+	 * @return an unmodifiable map of {@link MergedAnnotations} instances,
+	 * keyed by method in the order of {@link Class#getDeclaredMethods()}
+	 * @since 5.3
+	 * @see org.springframework.util.ReflectionUtils#getDeclaredMethods(Class)
+	 */
+	static Map<Method, MergedAnnotations> fromMethods(Class<?> type, SearchStrategy searchStrategy) {
+		return TypeMappedAnnotations.fromMethods(type, searchStrategy);
+	}
+
 	/**
 	 * Create a new {@link MergedAnnotations} instance from the specified
 	 * annotations.
@@ -18,18 +18,26 @@ package org.springframework.core.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StaticCaches;
 
 /**
  * {@link MergedAnnotations} implementation that searches for and adapts
@@ -46,6 +54,13 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	static final MergedAnnotations NONE = new TypeMappedAnnotations(
 			null, new Annotation[0], RepeatableContainers.none(), AnnotationFilter.ALL);
 
+	/**
+	 * Store of the instances created for classes and members with the default
+	 * repeatable containers and annotation filter, indexed by search strategy.
+	 */
+	private static final ConcurrentMap<AnnotatedElement, MergedAnnotations[]> store =
+			StaticCaches.createCache("TypeMappedAnnotations.store", 256);
+
 
 	@Nullable
 	private final Object source;
@@ -66,9 +81,15 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	@Nullable
 	private volatile List<Aggregate> aggregates;
 
+	@Nullable
+	private final Map<Object, MergedAnnotation<?>> resolvedAnnotations;
+
+	@Nullable
+	private final Map<Object, Boolean> presentAnnotations;
+
 
 	private TypeMappedAnnotations(AnnotatedElement element, SearchStrategy searchStrategy,
-			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
+			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter, boolean stored) {
 
 		this.source = element;
 		this.element = element;
@@ -76,6 +97,8 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		this.annotations = null;
 		this.repeatableContainers = repeatableContainers;
 		this.annotationFilter = annotationFilter;
+		this.resolvedAnnotations = (stored ? new ConcurrentHashMap<>(4) : null);
+		this.presentAnnotations = (stored ? new ConcurrentHashMap<>(4) : null);
 	}
 
 	private TypeMappedAnnotations(@Nullable Object source, Annotation[] annotations,
@@ -87,6 +110,8 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		this.annotations = annotations;
 		this.repeatableContainers = repeatableContainers;
 		this.annotationFilter = annotationFilter;
+		this.resolvedAnnotations = null;
+		this.presentAnnotations = null;
 	}
 
 
@@ -95,8 +120,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
-		return Boolean.TRUE.equals(scan(annotationType,
-				IsPresent.get(this.repeatableContainers, this.annotationFilter, false)));
+		return isPresent((Object) annotationType);
 	}
 
 	@Override
@@ -104,6 +128,20 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
+		return isPresent((Object) annotationType);
+	}
+
+	private boolean isPresent(Object annotationType) {
+		Map<Object, Boolean> presentAnnotations = this.presentAnnotations;
+		if (presentAnnotations != null) {
+			Boolean present = presentAnnotations.get(annotationType);
+			if (present == null) {
+				present = Boolean.TRUE.equals(scan(annotationType,
+						IsPresent.get(this.repeatableContainers, this.annotationFilter, false)));
+				presentAnnotations.put(annotationType, present);
+			}
+			return present;
+		}
 		return Boolean.TRUE.equals(scan(annotationType,
 				IsPresent.get(this.repeatableContainers, this.annotationFilter, false)));
 	}
@@ -146,9 +184,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return MergedAnnotation.missing();
 		}
-		MergedAnnotation<A> result = scan(annotationType,
-				new MergedAnnotationFinder<>(annotationType, predicate, selector));
-		return (result != null ? result : MergedAnnotation.missing());
+		return get((Object) annotationType, predicate, selector);
 	}
 
 	@Override
@@ -171,6 +207,30 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return MergedAnnotation.missing();
 		}
+		return get((Object) annotationType, predicate, selector);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends Annotation> MergedAnnotation<A> get(Object annotationType,
+			@Nullable Predicate<? super MergedAnnotation<A>> predicate,
+			@Nullable MergedAnnotationSelector<A> selector) {
+
+		Map<Object, MergedAnnotation<?>> resolvedAnnotations = this.resolvedAnnotations;
+		if (resolvedAnnotations != null && predicate == null && selector == null) {
+			MergedAnnotation<?> resolved = resolvedAnnotations.get(annotationType);
+			if (resolved == null) {
+				resolved = find(annotationType, null, null);
+				resolvedAnnotations.put(annotationType, resolved);
+			}
+			return (MergedAnnotation<A>) resolved;
+		}
+		return find(annotationType, predicate, selector);
+	}
+
+	private <A extends Annotation> MergedAnnotation<A> find(Object annotationType,
+			@Nullable Predicate<? super MergedAnnotation<A>> predicate,
+			@Nullable MergedAnnotationSelector<A> selector) {
+
 		MergedAnnotation<A> result = scan(annotationType,
 				new MergedAnnotationFinder<>(annotationType, predicate, selector));
 		return (result != null ? result : MergedAnnotation.missing());
@@ -248,10 +308,35 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	static MergedAnnotations from(AnnotatedElement element, SearchStrategy searchStrategy,
 			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
 
-		if (AnnotationsScanner.isKnownEmpty(element, searchStrategy)) {
-			return NONE;
+		MergedAnnotations[] stored = null;
+		if (isStorable(element, repeatableContainers, annotationFilter)) {
+			stored = store.get(element);
+			if (stored == null) {
+				stored = new MergedAnnotations[SearchStrategy.values().length];
+				MergedAnnotations[] existing = store.putIfAbsent(element, stored);
+				stored = (existing != null ? existing : stored);
+			}
+			MergedAnnotations annotations = stored[searchStrategy.ordinal()];
+			if (annotations != null) {
+				return annotations;
+			}
 		}
-		return new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter);
+		MergedAnnotations annotations = (AnnotationsScanner.isKnownEmpty(element, searchStrategy) ? NONE :
+				new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter, stored != null));
+		if (stored != null) {
+			stored[searchStrategy.ordinal()] = annotations;
+		}
+		return annotations;
+	}
+
+	static Map<Method, MergedAnnotations> fromMethods(Class<?> type, SearchStrategy searchStrategy) {
+		Method[] methods = ReflectionUtils.getDeclaredMethods(type);
+		Map<Method, MergedAnnotations> result = new LinkedHashMap<>(methods.length * 2);
+		for (Method method : methods) {
+			result.put(method, from(method, searchStrategy,
+					RepeatableContainers.standardRepeatables(), AnnotationFilter.PLAIN));
+		}
+		return Collections.unmodifiableMap(result);
 	}
 
 	static MergedAnnotations from(@Nullable Object source, Annotation[] annotations,
@@ -263,6 +348,18 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		return new TypeMappedAnnotations(source, annotations, repeatableContainers, annotationFilter);
 	}
 
+	private static boolean isStorable(AnnotatedElement element,
+			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
+
+		return ((element instanceof Class || element instanceof Member) &&
+				repeatableContainers == RepeatableContainers.standardRepeatables() &&
+				annotationFilter == AnnotationFilter.PLAIN);
+	}
+
+	static void clearCache() {
+		store.clear();
+	}
+
 	private static boolean isMappingForType(AnnotationTypeMapping mapping,
 			AnnotationFilter annotationFilter, @Nullable Object requiredType) {
 
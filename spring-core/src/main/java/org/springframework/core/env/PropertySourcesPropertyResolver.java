@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,23 @@
 
 package org.springframework.core.env;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.SpringProperties;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * {@link PropertyResolver} implementation that resolves property values against
  * an underlying set of {@link PropertySources}.
  *
+ * <p>As of 5.3, the resolver can optionally {@linkplain #setIndexPropertySources
+ * index} its property sources: the outcome of searching the property sources for
+ * a given key is kept in a merged index, turning repeated lookups (including the
+ * ones performed for placeholder resolution) into a single hash probe.
+ *
  * @author Chris Beams
  * @author Juergen Hoeller
  * @since 3.1
@@ -31,9 +42,38 @@ import org.springframework.lang.Nullable;
  */
 public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 
+	/**
+	 * System property that instructs Spring to index the property sources of
+	 * every resolver by default: {@code "spring.env.index"}. Affects standard
+	 * {@link Environment} instances as well.
+	 * <p>The default is "false". Only recommended for applications which do not
+	 * change the contents of their property sources once registered.
+	 * @since 5.3
+	 * @see #setIndexPropertySources
+	 */
+	public static final String INDEX_PROPERTY_SOURCES_PROPERTY_NAME = "spring.env.index";
+
+	/**
+	 * Used as an index entry for keys not found in any property source.
+	 */
+	private static final Object NO_PROPERTY = new Object();
+
+	/**
+	 * Maximum number of absent keys to index. Keys found in a property source are
+	 * bounded by the contents of the (enumerable) property sources, whereas the
+	 * number of distinct keys queried without a match is not.
+	 */
+	private static final int MAX_ABSENT_KEYS = 256;
+
+
 	@Nullable
 	private final PropertySources propertySources;
 
+	private boolean indexPropertySources = SpringProperties.getFlag(INDEX_PROPERTY_SOURCES_PROPERTY_NAME);
+
+	@Nullable
+	private volatile PropertyIndex propertyIndex;
+
 
 	/**
 	 * Create a new resolver against the given property sources.
@@ -44,8 +84,46 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	}
 
 
+	/**
+	 * Set whether to index the property sources of this resolver, keeping track
+	 * of the outcome of each property lookup.
+	 * <p>Only the outcome of searching {@link EnumerablePropertySource enumerable}
+	 * property sources gets indexed: any other property source is searched on each
+	 * lookup. Keys not found in any property source are indexed up to a limit of
+	 * 256 keys, beyond which they are searched on each lookup as well. The index is
+	 * rebuilt when property sources get added, removed or replaced in the given
+	 * {@link MutablePropertySources}; changes to the contents of a property source
+	 * require a {@link #clearPropertyIndex() reset} of the index instead. Other
+	 * {@link PropertySources} implementations cannot signal structural changes
+	 * and are therefore never indexed.
+	 * <p>The default is "false", unless the
+	 * {@link #INDEX_PROPERTY_SOURCES_PROPERTY_NAME "spring.env.index"}
+	 * system property is set to "true".
+	 * @since 5.3
+	 * @see MutablePropertySources#replace
+	 */
+	public void setIndexPropertySources(boolean indexPropertySources) {
+		this.indexPropertySources = indexPropertySources;
+		this.propertyIndex = null;
+	}
+
+	/**
+	 * Clear the property index, if any, picking up changes to the contents
+	 * of the property sources on the next lookup.
+	 * @since 5.3
+	 * @see #setIndexPropertySources
+	 */
+	public void clearPropertyIndex() {
+		this.propertyIndex = null;
+	}
+
+
 	@Override
 	public boolean containsProperty(String key) {
+		PropertyIndex index = obtainPropertyIndex();
+		if (index != null) {
+			return containsIndexedProperty(key, index);
+		}
 		if (this.propertySources != null) {
 			for (PropertySource<?> propertySource : this.propertySources) {
 				if (propertySource.containsProperty(key)) {
@@ -76,6 +154,19 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 
 	@Nullable
 	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
+		PropertyIndex index = obtainPropertyIndex();
+		if (index != null) {
+			IndexedProperty property = findIndexedProperty(key, index);
+			if (property != null) {
+				Object value = property.value;
+				if (resolveNestedPlaceholders && value instanceof String) {
+					value = resolveNestedPlaceholders((String) value);
+				}
+				logKeyFound(key, property.propertySource, value);
+				return convertValueIfNecessary(value, targetValueType);
+			}
+			return null;
+		}
 		if (this.propertySources != null) {
 			for (PropertySource<?> propertySource : this.propertySources) {
 				if (logger.isTraceEnabled()) {
@@ -98,6 +189,89 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		return null;
 	}
 
+	/**
+	 * Return the current property index, if indexing is active.
+	 */
+	@Nullable
+	private PropertyIndex obtainPropertyIndex() {
+		PropertySources propertySources = this.propertySources;
+		if (!this.indexPropertySources || !(propertySources instanceof MutablePropertySources)) {
+			return null;
+		}
+		int modificationCount = ((MutablePropertySources) propertySources).getModificationCount();
+		PropertyIndex index = this.propertyIndex;
+		if (index == null || index.modificationCount != modificationCount) {
+			index = new PropertyIndex(modificationCount);
+			this.propertyIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Check the given key against the property index, asking the property sources
+	 * whether they contain the key and indexing the outcome on a cache miss.
+	 */
+	private boolean containsIndexedProperty(String key, PropertyIndex index) {
+		Boolean contained = index.containedKeys.get(key);
+		if (contained != null) {
+			return contained;
+		}
+		Assert.state(this.propertySources != null, "No PropertySources");
+		// Only index outcomes which do not depend on non-enumerable property sources
+		boolean indexable = true;
+		for (PropertySource<?> propertySource : this.propertySources) {
+			indexable &= (propertySource instanceof EnumerablePropertySource);
+			if (propertySource.containsProperty(key)) {
+				if (indexable) {
+					index.containedKeys.put(key, Boolean.TRUE);
+				}
+				return true;
+			}
+		}
+		if (indexable && index.reserveAbsentKey()) {
+			index.containedKeys.put(key, Boolean.FALSE);
+		}
+		return false;
+	}
+
+	/**
+	 * Find the given key in the property index, searching the property sources
+	 * and indexing the outcome on a cache miss.
+	 * @return the indexed property, or {@code null} if not found
+	 */
+	@Nullable
+	private IndexedProperty findIndexedProperty(String key, PropertyIndex index) {
+		Object entry = index.properties.get(key);
+		if (entry != null) {
+			return (entry != NO_PROPERTY ? (IndexedProperty) entry : null);
+		}
+		Assert.state(this.propertySources != null, "No PropertySources");
+		// Only index outcomes which do not depend on non-enumerable property sources
+		boolean indexable = true;
+		for (PropertySource<?> propertySource : this.propertySources) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Searching for key '" + key + "' in PropertySource '" +
+						propertySource.getName() + "'");
+			}
+			indexable &= (propertySource instanceof EnumerablePropertySource);
+			Object value = propertySource.getProperty(key);
+			if (value != null) {
+				IndexedProperty property = new IndexedProperty(propertySource, value);
+				if (indexable) {
+					index.properties.put(key, property);
+				}
+				return property;
+			}
+		}
+		if (indexable && index.reserveAbsentKey()) {
+			index.properties.put(key, NO_PROPERTY);
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Could not find key '" + key + "' in any property source");
+		}
+		return null;
+	}
+
 	/**
 	 * Log the given key as found in the given {@link PropertySource}, resulting in
 	 * the given value.
@@ -117,4 +291,49 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		}
 	}
 
+
+	/**
+	 * Index of property lookups for a given state of the property sources.
+	 */
+	private static final class PropertyIndex {
+
+		final int modificationCount;
+
+		final Map<String, Object> properties = new ConcurrentHashMap<>(256);
+
+		final Map<String, Boolean> containedKeys = new ConcurrentHashMap<>(64);
+
+		private final AtomicInteger absentKeyCount = new AtomicInteger();
+
+		PropertyIndex(int modificationCount) {
+			this.modificationCount = modificationCount;
+		}
+
+		/**
+		 * Reserve an index entry for a key not found in any property source.
+		 * @return {@code true} if the key may be indexed, {@code false} if the
+		 * limit for absent keys has been reached
+		 */
+		boolean reserveAbsentKey() {
+			return (this.absentKeyCount.get() < MAX_ABSENT_KEYS &&
+					this.absentKeyCount.incrementAndGet() <= MAX_ABSENT_KEYS);
+		}
+	}
+
+
+	/**
+	 * A property value along with the property source it has been found in.
+	 */
+	private static final class IndexedProperty {
+
+		final PropertySource<?> propertySource;
+
+		final Object value;
+
+		IndexedProperty(PropertySource<?> propertySource, Object value) {
+			this.propertySource = propertySource;
+			this.value = value;
+		}
+	}
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Index of the entry names in a jar file, avoiding to iterate over all
+ * entries of the jar file for each location pattern resolved against it.
+ *
+ * <p>Entry names are kept sorted, effectively forming a flattened trie:
+ * the entries below a given root entry path are found through a binary
+ * search for the path prefix. Matching entries are returned in the order
+ * of the jar file, just like when iterating over its entries.
+ *
+ * @since 5.3
+ * @see PathMatchingResourcePatternResolver#doFindPathMatchingJarResources
+ */
+final class JarEntryIndex {
+
+	private final String[] sortedEntryNames;
+
+	private final int[] sortedPositions;
+
+	private final String[] entryNames;
+
+	private final long length;
+
+	private final long lastModified;
+
+
+	private JarEntryIndex(String[] entryNames, long length, long lastModified) {
+		Integer[] order = new Integer[entryNames.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i1, i2) -> entryNames[i1].compareTo(entryNames[i2]));
+		this.sortedEntryNames = new String[entryNames.length];
+		this.sortedPositions = new int[entryNames.length];
+		for (int i = 0; i < order.length; i++) {
+			this.sortedEntryNames[i] = entryNames[order[i]];
+			this.sortedPositions[i] = order[i];
+		}
+		this.entryNames = entryNames;
+		this.length = length;
+		this.lastModified = lastModified;
+	}
+
+
+	/**
+	 * Build an index for the entries of the given jar file.
+	 * @param jarFile the jar file to index
+	 * @param length the length of the jar file, or -1 if not known
+	 * @param lastModified the last modification time of the jar file, or -1 if not known
+	 */
+	static JarEntryIndex of(JarFile jarFile, long length, long lastModified) {
+		List<String> entryNames = new ArrayList<>(jarFile.size());
+		for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+			entryNames.add(entries.nextElement().getName());
+		}
+		return new JarEntryIndex(entryNames.toArray(new String[0]), length, lastModified);
+	}
+
+
+	/**
+	 * Determine whether this index still reflects the jar file with the
+	 * given length and last modification time.
+	 */
+	boolean isUpToDate(long length, long lastModified) {
+		return (this.length == length && this.lastModified == lastModified);
+	}
+
+	/**
+	 * Determine whether the jar file contains an entry with the given name.
+	 */
+	boolean containsEntry(String entryName) {
+		return (Arrays.binarySearch(this.sortedEntryNames, entryName) >= 0);
+	}
+
+	/**
+	 * Return the names of all entries starting with the given prefix,
+	 * in the order of the jar file.
+	 */
+	List<String> getEntryNames(String prefix) {
+		if (prefix.isEmpty()) {
+			return Arrays.asList(this.entryNames);
+		}
+		int from = lowerBound(prefix);
+		int to = from;
+		while (to < this.sortedEntryNames.length && this.sortedEntryNames[to].startsWith(prefix)) {
+			to++;
+		}
+		int[] positions = Arrays.copyOfRange(this.sortedPositions, from, to);
+		Arrays.sort(positions);
+		List<String> result = new ArrayList<>(positions.length);
+		for (int position : positions) {
+			result.add(this.entryNames[position]);
+		}
+		return result;
+	}
+
+	private int lowerBound(String prefix) {
+		int low = 0;
+		int high = this.sortedEntryNames.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.sortedEntryNames[mid].compareTo(prefix) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+}
@@ -32,7 +32,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipException;
@@ -169,6 +171,13 @@ import org.springframework.util.StringUtils;
  * Ant-style pattern in such a case, which will search <i>all</i> class path
  * locations that contain the root package.
  *
+ * <p>As of 5.3, the entry names of each jar file on the file system are indexed
+ * on first traversal, turning subsequent lookups in the same jar file into prefix
+ * lookups. The index is kept until the jar file changes and is shared among all
+ * resolvers for the same {@link DefaultResourceLoader}, such as an application
+ * context, until its {@link DefaultResourceLoader#clearResourceCaches() resource
+ * caches are cleared}.
+ *
  * @author Juergen Hoeller
  * @author Colin Sampaleanu
  * @author Marius Bogoevici
@@ -205,6 +214,8 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	private final Map<Resource, JarEntryIndex> jarEntryIndexCache;
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -213,6 +224,7 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	 */
 	public PathMatchingResourcePatternResolver() {
 		this.resourceLoader = new DefaultResourceLoader();
+		this.jarEntryIndexCache = createJarEntryIndexCache(this.resourceLoader);
 	}
 
 	/**
@@ -224,6 +236,7 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	public PathMatchingResourcePatternResolver(ResourceLoader resourceLoader) {
 		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
 		this.resourceLoader = resourceLoader;
+		this.jarEntryIndexCache = createJarEntryIndexCache(resourceLoader);
 	}
 
 	/**
@@ -235,6 +248,14 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	 */
 	public PathMatchingResourcePatternResolver(@Nullable ClassLoader classLoader) {
 		this.resourceLoader = new DefaultResourceLoader(classLoader);
+		this.jarEntryIndexCache = createJarEntryIndexCache(this.resourceLoader);
+	}
+
+	private static Map<Resource, JarEntryIndex> createJarEntryIndexCache(ResourceLoader resourceLoader) {
+		// Shared with other resolvers for the same DefaultResourceLoader (e.g. an application context)
+		return (resourceLoader instanceof DefaultResourceLoader ?
+				((DefaultResourceLoader) resourceLoader).getResourceCache(JarEntryIndex.class) :
+				new ConcurrentHashMap<>());
 	}
 
 
@@ -598,8 +619,23 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 			// Should usually be the case for traditional JAR files.
 			JarURLConnection jarCon = (JarURLConnection) con;
 			ResourceUtils.useCachesIfNecessary(jarCon);
-			jarFile = jarCon.getJarFile();
 			jarFileUrl = jarCon.getJarFileURL().toExternalForm();
+			JarEntryIndex index = getJarEntryIndex(jarFileUrl);
+			if (index != null) {
+				// Resolve the root entry like JarFile.getJarEntry, also checking for a directory entry
+				String entryName = jarCon.getEntryName();
+				if (entryName == null) {
+					rootEntryPath = "";
+				}
+				else if (index.containsEntry(entryName)) {
+					rootEntryPath = entryName;
+				}
+				else {
+					rootEntryPath = (index.containsEntry(entryName + "/") ? entryName + "/" : "");
+				}
+				return findMatchingJarEntries(index, rootDirResource, jarFileUrl, rootEntryPath, subPattern);
+			}
+			jarFile = jarCon.getJarFile();
 			JarEntry jarEntry = jarCon.getJarEntry();
 			rootEntryPath = (jarEntry != null ? jarEntry.getName() : "");
 			closeJarFile = !jarCon.getUseCaches();
@@ -618,12 +654,20 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 				if (separatorIndex != -1) {
 					jarFileUrl = urlFile.substring(0, separatorIndex);
 					rootEntryPath = urlFile.substring(separatorIndex + 2);  // both separators are 2 chars
+					JarEntryIndex index = getJarEntryIndex(jarFileUrl);
+					if (index != null) {
+						return findMatchingJarEntries(index, rootDirResource, jarFileUrl, rootEntryPath, subPattern);
+					}
 					jarFile = getJarFile(jarFileUrl);
 				}
 				else {
-					jarFile = new JarFile(urlFile);
 					jarFileUrl = urlFile;
 					rootEntryPath = "";
+					JarEntryIndex index = getJarEntryIndex(jarFileUrl);
+					if (index != null) {
+						return findMatchingJarEntries(index, rootDirResource, jarFileUrl, rootEntryPath, subPattern);
+					}
+					jarFile = new JarFile(urlFile);
 				}
 				closeJarFile = true;
 			}
@@ -636,26 +680,8 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		}
 
 		try {
-			if (logger.isTraceEnabled()) {
-				logger.trace("Looking for matching resources in jar file [" + jarFileUrl + "]");
-			}
-			if (!"".equals(rootEntryPath) && !rootEntryPath.endsWith("/")) {
-				// Root entry path must end with slash to allow for proper matching.
-				// The Sun JRE does not return a slash here, but BEA JRockit does.
-				rootEntryPath = rootEntryPath + "/";
-			}
-			Set<Resource> result = new LinkedHashSet<>(8);
-			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
-				JarEntry entry = entries.nextElement();
-				String entryPath = entry.getName();
-				if (entryPath.startsWith(rootEntryPath)) {
-					String relativePath = entryPath.substring(rootEntryPath.length());
-					if (getPathMatcher().match(subPattern, relativePath)) {
-						result.add(rootDirResource.createRelative(relativePath));
-					}
-				}
-			}
-			return result;
+			JarEntryIndex index = buildJarEntryIndex(jarFileUrl, jarFile);
+			return findMatchingJarEntries(index, rootDirResource, jarFileUrl, rootEntryPath, subPattern);
 		}
 		finally {
 			if (closeJarFile) {
@@ -664,6 +690,65 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		}
 	}
 
+	private Set<Resource> findMatchingJarEntries(JarEntryIndex index, Resource rootDirResource,
+			String jarFileUrl, String rootEntryPath, String subPattern) throws IOException {
+
+		if (logger.isTraceEnabled()) {
+			logger.trace("Looking for matching resources in jar file [" + jarFileUrl + "]");
+		}
+		if (!"".equals(rootEntryPath) && !rootEntryPath.endsWith("/")) {
+			// Root entry path must end with slash to allow for proper matching.
+			// The Sun JRE does not return a slash here, but BEA JRockit does.
+			rootEntryPath = rootEntryPath + "/";
+		}
+		Set<Resource> result = new LinkedHashSet<>(8);
+		for (String entryPath : index.getEntryNames(rootEntryPath)) {
+			String relativePath = entryPath.substring(rootEntryPath.length());
+			if (getPathMatcher().match(subPattern, relativePath)) {
+				result.add(rootDirResource.createRelative(relativePath));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the cached entry index for the given jar file, if still up-to-date.
+	 */
+	@Nullable
+	private JarEntryIndex getJarEntryIndex(String jarFileUrl) {
+		File file = getLocalJarFile(jarFileUrl);
+		if (file == null) {
+			return null;
+		}
+		JarEntryIndex index = this.jarEntryIndexCache.get(new FileSystemResource(file));
+		return (index != null && index.isUpToDate(file.length(), file.lastModified()) ? index : null);
+	}
+
+	private JarEntryIndex buildJarEntryIndex(String jarFileUrl, JarFile jarFile) {
+		File file = getLocalJarFile(jarFileUrl);
+		if (file == null) {
+			// Not verifiable against the jar file: use once without caching
+			return JarEntryIndex.of(jarFile, -1, -1);
+		}
+		JarEntryIndex index = JarEntryIndex.of(jarFile, file.length(), file.lastModified());
+		this.jarEntryIndexCache.put(new FileSystemResource(file), index);
+		return index;
+	}
+
+	@Nullable
+	private File getLocalJarFile(String jarFileUrl) {
+		if (jarFileUrl.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
+			try {
+				return new File(ResourceUtils.toURI(jarFileUrl).getSchemeSpecificPart());
+			}
+			catch (URISyntaxException ex) {
+				return new File(jarFileUrl.substring(ResourceUtils.FILE_URL_PREFIX.length()));
+			}
+		}
+		File file = new File(jarFileUrl);
+		return (file.isFile() ? file : null);
+	}
+
 	/**
 	 * Resolve the given jar file URL into a JarFile object.
 	 */
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers {@link StartupStep steps}
+ * in memory and records their start time and duration.
+ *
+ * <p>Steps are buffered once {@link StartupStep#end() ended}, up to the configured
+ * capacity; further steps are silently dropped. The parent of a new step is the
+ * step most recently started (and not yet ended) on the same thread, so nested
+ * bean creation shows up as a hierarchy that can be retrieved with
+ * {@link #getStepTree()}.
+ *
+ * <p>Buffered steps can be filtered through {@link #addFilter(Predicate)},
+ * for example in order to only keep steps matching a given name prefix.
+ *
+ * @since 5.3
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	private final int capacity;
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final Queue<TimedStep> steps = new ConcurrentLinkedQueue<>();
+
+	private final AtomicLong idSequence = new AtomicLong();
+
+	private final ThreadLocal<BufferedStartupStep> currentStep =
+			new NamedThreadLocal<>("Current startup step");
+
+	private Predicate<StartupStep> filter = step -> true;
+
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity.
+	 * @param capacity the maximum number of steps to buffer
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	/**
+	 * Add a predicate filter to the list of existing ones.
+	 * <p>A {@link StartupStep step} that doesn't match all filters will not be
+	 * buffered. Note that filtered steps still act as parents for their
+	 * nested steps.
+	 * @param filter the predicate filter to add
+	 */
+	public void addFilter(Predicate<StartupStep> filter) {
+		Assert.notNull(filter, "Filter must not be null");
+		this.filter = this.filter.and(filter);
+	}
+
+	/**
+	 * Return the configured capacity of this buffer.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	@Override
+	public StartupStep start(String name) {
+		BufferedStartupStep parent = this.currentStep.get();
+		BufferedStartupStep step = new BufferedStartupStep(
+				this.idSequence.getAndIncrement(), name, parent, Instant.now(), System.nanoTime());
+		this.currentStep.set(step);
+		return step;
+	}
+
+	private void record(BufferedStartupStep step) {
+		if (this.currentStep.get() == step) {
+			BufferedStartupStep parent = step.parent;
+			while (parent != null && parent.ended) {
+				parent = parent.parent;
+			}
+			if (parent != null) {
+				this.currentStep.set(parent);
+			}
+			else {
+				this.currentStep.remove();
+			}
+		}
+		if (this.filter.test(step) && this.size.getAndIncrement() < this.capacity) {
+			this.steps.add(new TimedStep(step));
+		}
+	}
+
+	/**
+	 * Return the buffered steps, in the order in which they ended.
+	 */
+	public List<TimedStep> getBufferedSteps() {
+		return new ArrayList<>(this.steps);
+	}
+
+	/**
+	 * Return the buffered steps as a tree, following their parent relationships.
+	 * <p>Root nodes and children are sorted by step id, i.e. in start order.
+	 * Steps whose parent was not buffered (filtered out, dropped or not yet ended)
+	 * are attached to their closest buffered ancestor, or returned as roots.
+	 */
+	public List<TimedStepNode> getStepTree() {
+		List<TimedStep> buffered = new ArrayList<>(this.steps);
+		buffered.sort((step1, step2) -> Long.compare(step1.getId(), step2.getId()));
+		Map<Long, TimedStepNode> nodes = new LinkedHashMap<>(buffered.size());
+		for (TimedStep step : buffered) {
+			nodes.put(step.getId(), new TimedStepNode(step));
+		}
+		List<TimedStepNode> roots = new ArrayList<>();
+		for (TimedStepNode node : nodes.values()) {
+			TimedStepNode parent = null;
+			for (Long parentId : node.getStep().ancestorIds) {
+				parent = nodes.get(parentId);
+				if (parent != null) {
+					break;
+				}
+			}
+			if (parent != null) {
+				parent.children.add(node);
+			}
+			else {
+				roots.add(node);
+			}
+		}
+		return roots;
+	}
+
+
+	/**
+	 * Immutable snapshot of a {@link StartupStep} that ended, along with
+	 * its start time and duration.
+	 */
+	public static final class TimedStep {
+
+		private final long id;
+
+		private final String name;
+
+		@Nullable
+		private final Long parentId;
+
+		private final List<Long> ancestorIds;
+
+		private final Map<String, String> tags;
+
+		private final Instant startTime;
+
+		private final Duration duration;
+
+		private TimedStep(BufferedStartupStep step) {
+			this.id = step.id;
+			this.name = step.name;
+			this.parentId = step.getParentId();
+			List<Long> ancestorIds = new ArrayList<>();
+			for (BufferedStartupStep parent = step.parent; parent != null; parent = parent.parent) {
+				ancestorIds.add(parent.id);
+			}
+			this.ancestorIds = ancestorIds;
+			this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(step.tags));
+			this.startTime = step.startTime;
+			this.duration = Duration.ofNanos(step.endNanos - step.startNanos);
+		}
+
+		public long getId() {
+			return this.id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		@Nullable
+		public Long getParentId() {
+			return this.parentId;
+		}
+
+		public Map<String, String> getTags() {
+			return this.tags;
+		}
+
+		public Instant getStartTime() {
+			return this.startTime;
+		}
+
+		public Duration getDuration() {
+			return this.duration;
+		}
+
+		@Override
+		public String toString() {
+			return this.name + this.tags + " " + this.duration.toMillis() + "ms";
+		}
+	}
+
+
+	/**
+	 * Node in the tree of buffered steps returned by {@link #getStepTree()}.
+	 */
+	public static final class TimedStepNode {
+
+		private final TimedStep step;
+
+		private final List<TimedStepNode> children = new ArrayList<>();
+
+		private TimedStepNode(TimedStep step) {
+			this.step = step;
+		}
+
+		public TimedStep getStep() {
+			return this.step;
+		}
+
+		public List<TimedStepNode> getChildren() {
+			return this.children;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			append(sb, 0);
+			return sb.toString();
+		}
+
+		private void append(StringBuilder sb, int depth) {
+			for (int i = 0; i < depth; i++) {
+				sb.append("  ");
+			}
+			sb.append(this.step).append('\n');
+			for (TimedStepNode child : this.children) {
+				child.append(sb, depth + 1);
+			}
+		}
+	}
+
+
+	private class BufferedStartupStep implements StartupStep {
+
+		private final long id;
+
+		private final String name;
+
+		@Nullable
+		private final BufferedStartupStep parent;
+
+		private final Instant startTime;
+
+		private final long startNanos;
+
+		private final Map<String, String> tags = new LinkedHashMap<>();
+
+		private long endNanos;
+
+		private volatile boolean ended;
+
+		BufferedStartupStep(long id, String name, @Nullable BufferedStartupStep parent,
+				Instant startTime, long startNanos) {
+
+			this.id = id;
+			this.name = name;
+			this.parent = parent;
+			this.startTime = startTime;
+			this.startNanos = startNanos;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		@Nullable
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.id : null);
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(!this.ended, "StartupStep has already ended");
+			this.tags.put(key, value);
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public Tags getTags() {
+			return () -> {
+				Iterator<Map.Entry<String, String>> entries = this.tags.entrySet().iterator();
+				return new Iterator<Tag>() {
+					@Override
+					public boolean hasNext() {
+						return entries.hasNext();
+					}
+					@Override
+					public Tag next() {
+						Map.Entry<String, String> entry = entries.next();
+						return new BufferedTag(entry.getKey(), entry.getValue());
+					}
+				};
+			};
+		}
+
+		@Override
+		public void end() {
+			Assert.state(!this.ended, "StartupStep has already ended");
+			this.endNanos = System.nanoTime();
+			this.ended = true;
+			record(this);
+		}
+	}
+
+
+	private static class BufferedTag implements StartupStep.Tag {
+
+		private final String key;
+
+		private final String value;
+
+		BufferedTag(String key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public String getValue() {
+			return this.value;
+		}
+	}
+
+}
@@ -16,11 +16,13 @@
 
 package org.springframework.core.type.classreading;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
@@ -31,6 +33,10 @@ import org.springframework.lang.Nullable;
  * caching a {@link MetadataReader} instance per Spring {@link Resource} handle
  * (i.e. per ".class" file).
  *
+ * <p>As of 5.3, metadata may additionally be kept in a persistent cache on the
+ * file system, shared across application contexts and JVM runs: see
+ * {@link #setPersistentCacheDirectory} and {@link #PERSISTENT_CACHE_DIRECTORY_PROPERTY_NAME}.
+ *
  * @author Juergen Hoeller
  * @author Costin Leau
  * @since 2.5
@@ -40,10 +46,23 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	/** Default maximum number of entries for a local MetadataReader cache: 256. */
 	public static final int DEFAULT_CACHE_LIMIT = 256;
 
+	/**
+	 * System property that specifies the directory of the persistent metadata
+	 * cache to use by default, e.g. {@code -Dspring.metadata.cache.dir=build/metadata-cache}.
+	 * <p>Not set by default, i.e. metadata is only cached in memory.
+	 * @since 5.3
+	 * @see #setPersistentCacheDirectory
+	 */
+	public static final String PERSISTENT_CACHE_DIRECTORY_PROPERTY_NAME = "spring.metadata.cache.dir";
+
+
 	/** MetadataReader cache: either local or shared at the ResourceLoader level. */
 	@Nullable
 	private Map<Resource, MetadataReader> metadataReaderCache;
 
+	@Nullable
+	private PersistentMetadataCache persistentCache = getDefaultPersistentCache();
+
 
 	/**
 	 * Create a new CachingMetadataReaderFactory for the default class loader,
@@ -114,36 +133,74 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	}
 
 
+	/**
+	 * Specify a directory for a persistent metadata cache, avoiding to parse
+	 * unchanged class files again in subsequent application contexts, including
+	 * across JVM runs. Metadata read in the meantime is written on {@link #clearCache()}.
+	 * <p>Default is the value of the {@value #PERSISTENT_CACHE_DIRECTORY_PROPERTY_NAME}
+	 * property, if any. Specify {@code null} to only cache metadata in memory.
+	 * @since 5.3
+	 */
+	public void setPersistentCacheDirectory(@Nullable File directory) {
+		this.persistentCache = (directory != null ? PersistentMetadataCache.forDirectory(directory) : null);
+	}
+
+
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
 		if (this.metadataReaderCache instanceof ConcurrentMap) {
 			// No synchronization necessary...
 			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
+				metadataReader = loadMetadataReader(resource);
 				this.metadataReaderCache.put(resource, metadataReader);
 			}
 			return metadataReader;
 		}
 		else if (this.metadataReaderCache != null) {
+			MetadataReader metadataReader;
 			synchronized (this.metadataReaderCache) {
-				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
-					this.metadataReaderCache.put(resource, metadataReader);
+				metadataReader = this.metadataReaderCache.get(resource);
+			}
+			if (metadataReader == null) {
+				// Read outside of the lock, allowing for concurrent class file parsing
+				metadataReader = loadMetadataReader(resource);
+				synchronized (this.metadataReaderCache) {
+					MetadataReader existing = this.metadataReaderCache.putIfAbsent(resource, metadataReader);
+					if (existing != null) {
+						metadataReader = existing;
+					}
 				}
-				return metadataReader;
 			}
+			return metadataReader;
 		}
 		else {
+			return loadMetadataReader(resource);
+		}
+	}
+
+	private MetadataReader loadMetadataReader(Resource resource) throws IOException {
+		PersistentMetadataCache persistentCache = this.persistentCache;
+		if (persistentCache == null) {
 			return super.getMetadataReader(resource);
 		}
+		ClassLoader classLoader = getResourceLoader().getClassLoader();
+		MetadataReader metadataReader = persistentCache.getMetadataReader(resource, classLoader);
+		if (metadataReader == null) {
+			metadataReader = super.getMetadataReader(resource);
+			persistentCache.put(resource, metadataReader);
+		}
+		return metadataReader;
 	}
 
 	/**
 	 * Clear the local MetadataReader cache, if any, removing all cached class metadata.
+	 * <p>As of 5.3, also writes newly read metadata to the persistent cache, if any.
 	 */
 	public void clearCache() {
+		if (this.persistentCache != null) {
+			this.persistentCache.flush();
+		}
 		if (this.metadataReaderCache instanceof LocalResourceCache) {
 			synchronized (this.metadataReaderCache) {
 				this.metadataReaderCache.clear();
@@ -156,6 +213,13 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	}
 
 
+	@Nullable
+	private static PersistentMetadataCache getDefaultPersistentCache() {
+		String directory = SpringProperties.getProperty(PERSISTENT_CACHE_DIRECTORY_PROPERTY_NAME);
+		return (directory != null ? PersistentMetadataCache.forDirectory(new File(directory)) : null);
+	}
+
+
 	@SuppressWarnings("serial")
 	private static class LocalResourceCache extends LinkedHashMap<Resource, MetadataReader> {
 
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * File system cache for the {@link SimpleAnnotationMetadata} of class files,
+ * surviving the application (or test) context it has been populated for.
+ *
+ * <p>Metadata is stored in one segment file per jar file or per class file
+ * directory. A jar segment is only valid as long as the jar file itself is
+ * unchanged (same length and last modification time), in which case reading
+ * the metadata of all its classes costs a single file read. Entries of a
+ * directory segment are validated individually against their class file.
+ *
+ * <p>Instances are shared per cache directory. New entries are written to
+ * disk on {@link #flush()}.
+ *
+ * @since 5.3
+ * @see CachingMetadataReaderFactory#setPersistentCacheDirectory
+ */
+final class PersistentMetadataCache {
+
+	private static final int MAGIC = 0x53504D43;
+
+	private static final int VERSION = 1;
+
+	private static final String SEGMENT_FILE_SUFFIX = ".metadata";
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataCache.class);
+
+	private static final ConcurrentMap<File, PersistentMetadataCache> instances = new ConcurrentHashMap<>();
+
+
+	private final File directory;
+
+	private final ConcurrentMap<String, Segment> segments = new ConcurrentHashMap<>();
+
+
+	private PersistentMetadataCache(File directory) {
+		this.directory = directory;
+	}
+
+
+	/**
+	 * Return the shared cache for the given directory.
+	 */
+	static PersistentMetadataCache forDirectory(File directory) {
+		return instances.computeIfAbsent(directory.getAbsoluteFile(), PersistentMetadataCache::new);
+	}
+
+
+	/**
+	 * Return a {@link MetadataReader} for the given resource, if its metadata
+	 * is in the cache and still up-to-date.
+	 * @param resource the class file resource
+	 * @param classLoader the ClassLoader to resolve annotation types against
+	 * @return the cached reader, or {@code null} if none
+	 */
+	@Nullable
+	MetadataReader getMetadataReader(Resource resource, @Nullable ClassLoader classLoader) {
+		Key key = Key.of(resource);
+		if (key == null) {
+			return null;
+		}
+		byte[] content = getSegment(key).get(key);
+		if (content == null) {
+			return null;
+		}
+		try {
+			AnnotationMetadata metadata = SimpleMetadataSerializer.read(
+					new DataInputStream(new ByteArrayInputStream(content)), classLoader);
+			return new SimpleMetadataReader(resource, metadata);
+		}
+		catch (IOException | RuntimeException | LinkageError ex) {
+			// Annotation type not resolvable anymore, for instance: read the class file instead
+			if (logger.isTraceEnabled()) {
+				logger.trace("Ignoring cached metadata for " + resource, ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Add the metadata of the given reader to the cache.
+	 * @param resource the class file resource
+	 * @param metadataReader the reader for the resource
+	 */
+	void put(Resource resource, MetadataReader metadataReader) {
+		AnnotationMetadata metadata = metadataReader.getAnnotationMetadata();
+		if (!(metadata instanceof SimpleAnnotationMetadata)) {
+			return;
+		}
+		Key key = Key.of(resource);
+		if (key == null) {
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try {
+			SimpleMetadataSerializer.write((SimpleAnnotationMetadata) metadata, new DataOutputStream(bytes));
+		}
+		catch (IOException | RuntimeException ex) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Unable to cache metadata for " + resource, ex);
+			}
+			return;
+		}
+		getSegment(key).put(key, bytes.toByteArray());
+	}
+
+	/**
+	 * Write the segments that have been modified since they have been loaded.
+	 */
+	void flush() {
+		for (Segment segment : this.segments.values()) {
+			if (segment.isDirty()) {
+				try {
+					writeSegment(segment);
+				}
+				catch (IOException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Unable to write metadata cache segment for " + segment.location, ex);
+					}
+				}
+			}
+		}
+	}
+
+	private Segment getSegment(Key key) {
+		Segment segment = this.segments.get(key.location);
+		if (segment == null || !segment.matches(key)) {
+			segment = this.segments.compute(key.location, (location, existing) ->
+					(existing != null && existing.matches(key) ? existing : readSegment(key)));
+		}
+		return segment;
+	}
+
+	private Segment readSegment(Key key) {
+		Segment segment = new Segment(key.location, key.locationStamp1, key.locationStamp2);
+		File file = getSegmentFile(key.location);
+		if (!file.isFile()) {
+			return segment;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key.location) ||
+					in.readLong() != key.locationStamp1 || in.readLong() != key.locationStamp2) {
+				// Outdated segment or hash collision: start afresh
+				return segment;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String name = in.readUTF();
+				long stamp1 = in.readLong();
+				long stamp2 = in.readLong();
+				byte[] content = new byte[in.readInt()];
+				in.readFully(content);
+				segment.load(name, new Entry(stamp1, stamp2, content));
+			}
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable metadata cache segment " + file, ex);
+			}
+			return new Segment(key.location, key.locationStamp1, key.locationStamp2);
+		}
+		return segment;
+	}
+
+	private void writeSegment(Segment segment) throws IOException {
+		Files.createDirectories(this.directory.toPath());
+		File file = getSegmentFile(segment.location);
+		Path tempFile = Files.createTempFile(this.directory.toPath(), file.getName(), ".tmp");
+		try {
+			try (OutputStream os = Files.newOutputStream(tempFile)) {
+				segment.writeTo(new DataOutputStream(new BufferedOutputStream(os)));
+			}
+			try {
+				Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private File getSegmentFile(String location) {
+		CRC32 crc = new CRC32();
+		crc.update(location.getBytes(StandardCharsets.UTF_8));
+		String name = new File(location).getName() + "-" + Long.toHexString(crc.getValue());
+		return new File(this.directory, name + SEGMENT_FILE_SUFFIX);
+	}
+
+
+	/**
+	 * Location of a class file: the jar file or directory it is contained
+	 * in, and its name in there, along with the stamps to check them against.
+	 */
+	private static final class Key {
+
+		final String location;
+
+		final long locationStamp1;
+
+		final long locationStamp2;
+
+		final String name;
+
+		final long stamp1;
+
+		final long stamp2;
+
+		private Key(String location, long locationStamp1, long locationStamp2,
+				String name, long stamp1, long stamp2) {
+
+			this.location = location;
+			this.locationStamp1 = locationStamp1;
+			this.locationStamp2 = locationStamp2;
+			this.name = name;
+			this.stamp1 = stamp1;
+			this.stamp2 = stamp2;
+		}
+
+		@Nullable
+		static Key of(Resource resource) {
+			try {
+				URL url = resource.getURL();
+				if (ResourceUtils.isJarURL(url)) {
+					URL jarFileUrl = ResourceUtils.extractJarFileURL(url);
+					if (!ResourceUtils.isFileURL(jarFileUrl)) {
+						return null;
+					}
+					File jarFile = ResourceUtils.getFile(jarFileUrl);
+					String urlFile = url.getFile();
+					String name = urlFile.substring(
+							urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR) + ResourceUtils.JAR_URL_SEPARATOR.length());
+					// Entries are valid as long as the jar file itself is unchanged
+					return new Key(jarFile.getAbsolutePath(), jarFile.length(), jarFile.lastModified(), name, 0, 0);
+				}
+				if (ResourceUtils.isFileURL(url)) {
+					File file = ResourceUtils.getFile(url);
+					File directory = file.getAbsoluteFile().getParentFile();
+					if (directory == null) {
+						return null;
+					}
+					return new Key(directory.getPath(), 0, 0, file.getName(), file.length(), file.lastModified());
+				}
+			}
+			catch (IOException ex) {
+				// Not resolvable in the file system: no caching
+			}
+			return null;
+		}
+	}
+
+
+	private static final class Entry {
+
+		final long stamp1;
+
+		final long stamp2;
+
+		final byte[] content;
+
+		Entry(long stamp1, long stamp2, byte[] content) {
+			this.stamp1 = stamp1;
+			this.stamp2 = stamp2;
+			this.content = content;
+		}
+	}
+
+
+	/**
+	 * Cached entries of a jar file or directory.
+	 */
+	private static final class Segment {
+
+		final String location;
+
+		private final long stamp1;
+
+		private final long stamp2;
+
+		private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+		private volatile boolean dirty;
+
+		Segment(String location, long stamp1, long stamp2) {
+			this.location = location;
+			this.stamp1 = stamp1;
+			this.stamp2 = stamp2;
+		}
+
+		boolean matches(Key key) {
+			return (this.stamp1 == key.locationStamp1 && this.stamp2 == key.locationStamp2);
+		}
+
+		void load(String name, Entry entry) {
+			this.entries.put(name, entry);
+		}
+
+		@Nullable
+		byte[] get(Key key) {
+			Entry entry = this.entries.get(key.name);
+			return (entry != null && entry.stamp1 == key.stamp1 && entry.stamp2 == key.stamp2 ?
+					entry.content : null);
+		}
+
+		void put(Key key, byte[] content) {
+			this.entries.put(key.name, new Entry(key.stamp1, key.stamp2, content));
+			this.dirty = true;
+		}
+
+		boolean isDirty() {
+			return this.dirty;
+		}
+
+		synchronized void writeTo(DataOutputStream out) throws IOException {
+			this.dirty = false;
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(this.location);
+			out.writeLong(this.stamp1);
+			out.writeLong(this.stamp2);
+			Map<String, Entry> entries = new TreeMap<>(this.entries);
+			out.writeInt(entries.size());
+			for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeLong(entry.getValue().stamp1);
+				out.writeLong(entry.getValue().stamp2);
+				out.writeInt(entry.getValue().content.length);
+				out.write(entry.getValue().content);
+			}
+			out.flush();
+		}
+	}
+
+}
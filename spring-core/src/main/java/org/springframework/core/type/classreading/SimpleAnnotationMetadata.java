@@ -156,4 +156,12 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 		return this.annotations;
 	}
 
+	int getAccess() {
+		return this.access;
+	}
+
+	MethodMetadata[] getAnnotatedMethods() {
+		return this.annotatedMethods;
+	}
+
 }
@@ -175,7 +175,7 @@ final class SimpleAnnotationMetadataReadingVisitor extends ClassVisitor {
 	/**
 	 * {@link MergedAnnotation} source.
 	 */
-	private static final class Source {
+	static final class Source {
 
 		private final String className;
 
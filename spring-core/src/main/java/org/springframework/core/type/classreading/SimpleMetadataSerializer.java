@@ -0,0 +1,386 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Compact binary form of {@link SimpleAnnotationMetadata}, as used by the
+ * {@link PersistentMetadataCache}.
+ *
+ * <p>Only directly present annotations are written, along with their
+ * non-default attribute values. Class values are written as class names,
+ * consistent with the values read by ASM, so that reading the metadata back
+ * only loads the annotation types (and enum types, if any).
+ *
+ * @since 5.3
+ */
+final class SimpleMetadataSerializer {
+
+	private static final byte TAG_STRING = 's';
+
+	private static final byte TAG_ENUM = 'e';
+
+	private static final byte TAG_ANNOTATION = '@';
+
+	private static final byte TAG_ARRAY = '[';
+
+
+	private SimpleMetadataSerializer() {
+	}
+
+
+	/**
+	 * Write the given metadata to the given output.
+	 * @throws IllegalStateException if an annotation holds an unsupported value
+	 */
+	static void write(SimpleAnnotationMetadata metadata, DataOutput out) throws IOException {
+		out.writeUTF(metadata.getClassName());
+		out.writeInt(metadata.getAccess());
+		writeNullableString(out, metadata.getEnclosingClassName());
+		out.writeBoolean(metadata.isIndependent());
+		writeNullableString(out, metadata.getSuperClassName());
+		writeStrings(out, metadata.getInterfaceNames());
+		writeStrings(out, metadata.getMemberClassNames());
+		writeAnnotations(out, metadata.getAnnotations());
+		MethodMetadata[] annotatedMethods = metadata.getAnnotatedMethods();
+		out.writeInt(annotatedMethods.length);
+		for (MethodMetadata annotatedMethod : annotatedMethods) {
+			SimpleMethodMetadata method = (SimpleMethodMetadata) annotatedMethod;
+			out.writeUTF(method.getMethodName());
+			out.writeInt(method.getAccess());
+			out.writeUTF(method.getReturnTypeName());
+			Object source = method.getAnnotations().stream().findFirst().map(MergedAnnotation::getSource).orElse(null);
+			out.writeUTF(source instanceof SimpleMethodMetadataReadingVisitor.Source ?
+					((SimpleMethodMetadataReadingVisitor.Source) source).getDescriptor() : "");
+			writeAnnotations(out, method.getAnnotations());
+		}
+	}
+
+	/**
+	 * Read metadata from the given input, resolving annotation types against
+	 * the given class loader.
+	 */
+	static SimpleAnnotationMetadata read(DataInput in, @Nullable ClassLoader classLoader) throws IOException {
+		String className = in.readUTF();
+		int access = in.readInt();
+		String enclosingClassName = readNullableString(in);
+		boolean independentInnerClass = in.readBoolean();
+		String superClassName = readNullableString(in);
+		String[] interfaceNames = readStrings(in);
+		String[] memberClassNames = readStrings(in);
+		MergedAnnotations annotations = readAnnotations(
+				in, classLoader, new SimpleAnnotationMetadataReadingVisitor.Source(className));
+		int methodCount = in.readInt();
+		MethodMetadata[] annotatedMethods = new MethodMetadata[methodCount];
+		for (int i = 0; i < methodCount; i++) {
+			String methodName = in.readUTF();
+			int methodAccess = in.readInt();
+			String returnTypeName = in.readUTF();
+			Object source = new SimpleMethodMetadataReadingVisitor.Source(className, methodName, in.readUTF());
+			annotatedMethods[i] = new SimpleMethodMetadata(methodName, methodAccess, className,
+					returnTypeName, readAnnotations(in, classLoader, source));
+		}
+		return new SimpleAnnotationMetadata(className, access, enclosingClassName, superClassName,
+				independentInnerClass, interfaceNames, memberClassNames, annotatedMethods, annotations);
+	}
+
+
+	private static void writeAnnotations(DataOutput out, MergedAnnotations annotations) throws IOException {
+		List<MergedAnnotation<Annotation>> directAnnotations = new ArrayList<>();
+		annotations.stream().filter(MergedAnnotation::isDirectlyPresent).forEach(directAnnotations::add);
+		out.writeInt(directAnnotations.size());
+		for (MergedAnnotation<?> annotation : directAnnotations) {
+			writeAnnotation(out, annotation);
+		}
+	}
+
+	private static void writeAnnotation(DataOutput out, MergedAnnotation<?> annotation) throws IOException {
+		out.writeUTF(annotation.getType().getName());
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		for (Method attribute : annotation.getType().getDeclaredMethods()) {
+			String name = attribute.getName();
+			if (attribute.getParameterCount() == 0 && attribute.getReturnType() != void.class &&
+					!annotation.hasDefaultValue(name)) {
+				annotation.getValue(name, getValueType(attribute.getReturnType()))
+						.ifPresent(value -> attributes.put(name, value));
+			}
+		}
+		out.writeInt(attributes.size());
+		for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+			out.writeUTF(entry.getKey());
+			writeValue(out, entry.getValue());
+		}
+	}
+
+	private static Class<?> getValueType(Class<?> attributeType) {
+		// Keep class references as names, in line with ASM-based metadata
+		if (attributeType == Class.class) {
+			return String.class;
+		}
+		if (attributeType == Class[].class) {
+			return String[].class;
+		}
+		return Object.class;
+	}
+
+	private static void writeValue(DataOutput out, Object value) throws IOException {
+		if (value.getClass().isArray()) {
+			Class<?> componentType = value.getClass().getComponentType();
+			byte tag = getTag(componentType);
+			out.writeByte(TAG_ARRAY);
+			out.writeByte(tag);
+			if (tag == TAG_ENUM) {
+				out.writeUTF(componentType.getName());
+			}
+			int length = Array.getLength(value);
+			out.writeInt(length);
+			for (int i = 0; i < length; i++) {
+				writeElement(out, tag, Array.get(value, i));
+			}
+		}
+		else {
+			byte tag = getTag(value.getClass());
+			out.writeByte(tag);
+			if (tag == TAG_ENUM) {
+				out.writeUTF(((Enum<?>) value).getDeclaringClass().getName());
+			}
+			writeElement(out, tag, value);
+		}
+	}
+
+	private static byte getTag(Class<?> type) {
+		Class<?> typeToUse = ClassUtils.resolvePrimitiveIfNecessary(type);
+		if (typeToUse == Boolean.class) {
+			return 'Z';
+		}
+		if (typeToUse == Byte.class) {
+			return 'B';
+		}
+		if (typeToUse == Character.class) {
+			return 'C';
+		}
+		if (typeToUse == Short.class) {
+			return 'S';
+		}
+		if (typeToUse == Integer.class) {
+			return 'I';
+		}
+		if (typeToUse == Long.class) {
+			return 'J';
+		}
+		if (typeToUse == Float.class) {
+			return 'F';
+		}
+		if (typeToUse == Double.class) {
+			return 'D';
+		}
+		if (typeToUse == String.class) {
+			return TAG_STRING;
+		}
+		if (Enum.class.isAssignableFrom(typeToUse)) {
+			return TAG_ENUM;
+		}
+		if (MergedAnnotation.class.isAssignableFrom(typeToUse)) {
+			return TAG_ANNOTATION;
+		}
+		throw new IllegalStateException("Unsupported annotation attribute type " + type.getName());
+	}
+
+	private static void writeElement(DataOutput out, byte tag, Object value) throws IOException {
+		switch (tag) {
+			case 'Z':
+				out.writeBoolean((Boolean) value);
+				break;
+			case 'B':
+				out.writeByte((Byte) value);
+				break;
+			case 'C':
+				out.writeChar((Character) value);
+				break;
+			case 'S':
+				out.writeShort((Short) value);
+				break;
+			case 'I':
+				out.writeInt((Integer) value);
+				break;
+			case 'J':
+				out.writeLong((Long) value);
+				break;
+			case 'F':
+				out.writeFloat((Float) value);
+				break;
+			case 'D':
+				out.writeDouble((Double) value);
+				break;
+			case TAG_STRING:
+				out.writeUTF((String) value);
+				break;
+			case TAG_ENUM:
+				out.writeUTF(((Enum<?>) value).name());
+				break;
+			default:
+				writeAnnotation(out, (MergedAnnotation<?>) value);
+		}
+	}
+
+	private static MergedAnnotations readAnnotations(DataInput in, @Nullable ClassLoader classLoader,
+			Object source) throws IOException {
+
+		int count = in.readInt();
+		List<MergedAnnotation<?>> annotations = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			annotations.add(readAnnotation(in, classLoader, source));
+		}
+		return MergedAnnotations.of(annotations);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A extends Annotation> MergedAnnotation<A> readAnnotation(DataInput in,
+			@Nullable ClassLoader classLoader, Object source) throws IOException {
+
+		Class<A> annotationType = (Class<A>) ClassUtils.resolveClassName(in.readUTF(), classLoader);
+		int count = in.readInt();
+		Map<String, Object> attributes = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			attributes.put(name, readValue(in, classLoader, source));
+		}
+		return MergedAnnotation.of(classLoader, source, annotationType, attributes);
+	}
+
+	private static Object readValue(DataInput in, @Nullable ClassLoader classLoader, Object source)
+			throws IOException {
+
+		byte tag = in.readByte();
+		if (tag == TAG_ARRAY) {
+			byte elementTag = in.readByte();
+			Class<?> enumType = (elementTag == TAG_ENUM ?
+					ClassUtils.resolveClassName(in.readUTF(), classLoader) : null);
+			int length = in.readInt();
+			Object array = Array.newInstance(getComponentType(elementTag, enumType), length);
+			for (int i = 0; i < length; i++) {
+				Array.set(array, i, readElement(in, elementTag, enumType, classLoader, source));
+			}
+			return array;
+		}
+		Class<?> enumType = (tag == TAG_ENUM ? ClassUtils.resolveClassName(in.readUTF(), classLoader) : null);
+		return readElement(in, tag, enumType, classLoader, source);
+	}
+
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static Object readElement(DataInput in, byte tag, @Nullable Class<?> enumType,
+			@Nullable ClassLoader classLoader, Object source) throws IOException {
+
+		switch (tag) {
+			case 'Z':
+				return in.readBoolean();
+			case 'B':
+				return in.readByte();
+			case 'C':
+				return in.readChar();
+			case 'S':
+				return in.readShort();
+			case 'I':
+				return in.readInt();
+			case 'J':
+				return in.readLong();
+			case 'F':
+				return in.readFloat();
+			case 'D':
+				return in.readDouble();
+			case TAG_STRING:
+				return in.readUTF();
+			case TAG_ENUM:
+				return Enum.valueOf((Class<? extends Enum>) enumType, in.readUTF());
+			case TAG_ANNOTATION:
+				return readAnnotation(in, classLoader, source);
+			default:
+				throw new IOException("Unknown attribute value tag: " + tag);
+		}
+	}
+
+	private static Class<?> getComponentType(byte tag, @Nullable Class<?> enumType) {
+		switch (tag) {
+			case 'Z':
+				return boolean.class;
+			case 'B':
+				return byte.class;
+			case 'C':
+				return char.class;
+			case 'S':
+				return short.class;
+			case 'I':
+				return int.class;
+			case 'J':
+				return long.class;
+			case 'F':
+				return float.class;
+			case 'D':
+				return double.class;
+			case TAG_ENUM:
+				return (enumType != null ? enumType : Enum.class);
+			case TAG_ANNOTATION:
+				return MergedAnnotation.class;
+			default:
+				return String.class;
+		}
+	}
+
+	@Nullable
+	private static String readNullableString(DataInput in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	private static void writeNullableString(DataOutput out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String[] readStrings(DataInput in) throws IOException {
+		String[] values = new String[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readUTF();
+		}
+		return values;
+	}
+
+	private static void writeStrings(DataOutput out, String[] values) throws IOException {
+		out.writeInt(values.length);
+		for (String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A size-bounded {@link ConcurrentMap} which evicts the least recently used
+ * entries once its maximum size has been reached.
+ *
+ * <p>Entries are distributed across segments by hash. Reads are lock-free,
+ * only marking the entry as recently used, whereas writes and evictions are
+ * guarded by a lock per segment. The maximum size is split evenly across the
+ * segments; eviction happens per segment, approximating least recently used
+ * order through the CLOCK algorithm: entries get evicted in insertion order,
+ * except for entries read since they were last considered for eviction.
+ *
+ * <p>Values may optionally be held through {@link SoftReference soft
+ * references}, so that, similar to {@link ConcurrentReferenceHashMap}, each
+ * value can be garbage collected under memory pressure, with its entry being
+ * removed on a subsequent write to its segment. This is recommended for caches
+ * holding on to classes, since classes of a discarded ClassLoader would
+ * otherwise be kept alive by the map.
+ *
+ * <p>Keeps track of the number of cache hits and misses for {@link #get}
+ * calls as well as of the number of evicted entries, e.g. for monitoring
+ * purposes. {@code null} keys and values are not supported.
+ *
+ * @since 5.3
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see StaticCaches
+ */
+public class SegmentedLruMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	private static final int DEFAULT_SEGMENT_COUNT = 16;
+
+
+	private final int maxSize;
+
+	private final Segment<K, V>[] segments;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	@Nullable
+	private volatile Set<Map.Entry<K, V>> entrySet;
+
+
+	/**
+	 * Create a new {@code SegmentedLruMap} with the given maximum size.
+	 * @param maxSize the maximum number of entries
+	 */
+	public SegmentedLruMap(int maxSize) {
+		this(maxSize, DEFAULT_SEGMENT_COUNT);
+	}
+
+	/**
+	 * Create a new {@code SegmentedLruMap} with the given maximum size.
+	 * @param maxSize the maximum number of entries
+	 * @param segmentCount the number of segments to split the entries into;
+	 * effectively bounded by the maximum size
+	 */
+	public SegmentedLruMap(int maxSize, int segmentCount) {
+		this(maxSize, segmentCount, false);
+	}
+
+	/**
+	 * Create a new {@code SegmentedLruMap} with the given maximum size.
+	 * @param maxSize the maximum number of entries
+	 * @param segmentCount the number of segments to split the entries into;
+	 * effectively bounded by the maximum size
+	 * @param softReferences whether to hold each value through a soft reference,
+	 * allowing it to be garbage collected under memory pressure
+	 */
+	@SuppressWarnings("unchecked")
+	public SegmentedLruMap(int maxSize, int segmentCount, boolean softReferences) {
+		Assert.isTrue(maxSize > 0, "Maximum size must be positive");
+		Assert.isTrue(segmentCount > 0, "Segment count must be positive");
+		this.maxSize = maxSize;
+		int segmentCountToUse = Math.min(segmentCount, maxSize);
+		this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCountToUse];
+		for (int i = 0; i < segmentCountToUse; i++) {
+			int segmentSize = maxSize / segmentCountToUse + (i < maxSize % segmentCountToUse ? 1 : 0);
+			this.segments[i] = new Segment<>(segmentSize, this.evictionCount, softReferences);
+		}
+	}
+
+
+	/**
+	 * Return the maximum number of entries in this map.
+	 */
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Return the number of {@link #get} calls which found an entry.
+	 */
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of {@link #get} calls which did not find an entry.
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries evicted because of the size limit.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+
+
+	@Override
+	@Nullable
+	public V get(Object key) {
+		V value = getSegment(key).get(key);
+		if (value != null) {
+			this.hitCount.increment();
+		}
+		else {
+			this.missCount.increment();
+		}
+		return value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return getSegment(key).containsKey(key);
+	}
+
+	@Override
+	@Nullable
+	public V put(K key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		return getSegment(key).put(key, value, false);
+	}
+
+	@Override
+	@Nullable
+	public V putIfAbsent(K key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		return getSegment(key).put(key, value, true);
+	}
+
+	@Override
+	@Nullable
+	public V remove(Object key) {
+		return getSegment(key).remove(key);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		return getSegment(key).remove(key, value);
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		Assert.notNull(newValue, "Value must not be null");
+		return getSegment(key).replace(key, oldValue, newValue);
+	}
+
+	@Override
+	@Nullable
+	public V replace(K key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		return getSegment(key).replace(key, value);
+	}
+
+	@Override
+	public void clear() {
+		for (Segment<K, V> segment : this.segments) {
+			segment.clear();
+		}
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : this.segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for (Segment<K, V> segment : this.segments) {
+			if (segment.size() > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		Set<Map.Entry<K, V>> entrySet = this.entrySet;
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+			this.entrySet = entrySet;
+		}
+		return entrySet;
+	}
+
+	private Segment<K, V> getSegment(Object key) {
+		Assert.notNull(key, "Key must not be null");
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return this.segments[(hash & Integer.MAX_VALUE) % this.segments.length];
+	}
+
+
+	/**
+	 * A single segment of entries: lock-free reads from a concurrent map, with
+	 * writes and evictions guarded by the segment itself. Eviction follows the
+	 * CLOCK algorithm: entries are kept in insertion order, and an entry read
+	 * since it was last considered for eviction gets a second chance, i.e. is
+	 * moved to the end of the queue instead of being evicted.
+	 */
+	private static final class Segment<K, V> {
+
+		private final int maxSize;
+
+		private final LongAdder evictionCount;
+
+		@Nullable
+		private final ReferenceQueue<V> referenceQueue;
+
+		private final ConcurrentHashMap<Object, Node<V>> entries;
+
+		/** Eviction queue in insertion order, possibly containing removed nodes. */
+		private final ArrayDeque<Node<V>> clock = new ArrayDeque<>();
+
+		Segment(int maxSize, LongAdder evictionCount, boolean softReferences) {
+			this.maxSize = maxSize;
+			this.evictionCount = evictionCount;
+			this.referenceQueue = (softReferences ? new ReferenceQueue<>() : null);
+			this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 256));
+		}
+
+		@Nullable
+		V get(Object key) {
+			Node<V> node = this.entries.get(key);
+			if (node == null) {
+				return null;
+			}
+			node.markReferenced();
+			return node.getValue();
+		}
+
+		boolean containsKey(Object key) {
+			Node<V> node = this.entries.get(key);
+			return (node != null && node.getValue() != null);
+		}
+
+		@Nullable
+		synchronized V put(Object key, V value, boolean onlyIfAbsent) {
+			purgeCollectedEntries();
+			Node<V> existing = this.entries.get(key);
+			V existingValue = (existing != null ? existing.getValue() : null);
+			if (onlyIfAbsent && existingValue != null) {
+				return existingValue;
+			}
+			Node<V> node = new Node<>(key, value, this.referenceQueue);
+			this.entries.put(key, node);
+			this.clock.add(node);
+			evictIfNecessary();
+			return existingValue;
+		}
+
+		@Nullable
+		synchronized V remove(Object key) {
+			purgeCollectedEntries();
+			Node<V> existing = this.entries.remove(key);
+			return (existing != null ? existing.getValue() : null);
+		}
+
+		synchronized boolean remove(Object key, Object value) {
+			purgeCollectedEntries();
+			Node<V> existing = this.entries.get(key);
+			V existingValue = (existing != null ? existing.getValue() : null);
+			if (existingValue != null && existingValue.equals(value)) {
+				this.entries.remove(key);
+				return true;
+			}
+			return false;
+		}
+
+		synchronized boolean replace(Object key, V oldValue, V newValue) {
+			Node<V> existing = this.entries.get(key);
+			V existingValue = (existing != null ? existing.getValue() : null);
+			if (existingValue != null && existingValue.equals(oldValue)) {
+				put(key, newValue, false);
+				return true;
+			}
+			return false;
+		}
+
+		@Nullable
+		synchronized V replace(Object key, V value) {
+			Node<V> existing = this.entries.get(key);
+			return (existing != null && existing.getValue() != null ? put(key, value, false) : null);
+		}
+
+		synchronized void clear() {
+			this.entries.clear();
+			this.clock.clear();
+			if (this.referenceQueue != null) {
+				while (this.referenceQueue.poll() != null) {
+					// Discard references to entries that are gone already
+				}
+			}
+		}
+
+		int size() {
+			return this.entries.size();
+		}
+
+		@SuppressWarnings("unchecked")
+		void collectEntries(List<Map.Entry<K, V>> result) {
+			for (Node<V> node : this.entries.values()) {
+				V value = node.getValue();
+				if (value != null) {
+					result.add(new SimpleImmutableEntry<>((K) node.key, value));
+				}
+			}
+		}
+
+		/**
+		 * Evict entries beyond the maximum size, giving recently read entries a
+		 * second chance. Also discards removed nodes from the eviction queue once
+		 * they make up the majority of it.
+		 */
+		private void evictIfNecessary() {
+			while (this.entries.size() > this.maxSize) {
+				Node<V> node = this.clock.poll();
+				if (node == null) {
+					break;
+				}
+				if (this.entries.get(node.key) != node) {
+					continue;
+				}
+				if (node.clearReferenced()) {
+					this.clock.add(node);
+				}
+				else {
+					this.entries.remove(node.key, node);
+					if (node.getValue() != null) {
+						this.evictionCount.increment();
+					}
+				}
+			}
+			if (this.clock.size() > 2 * Math.max(this.entries.size(), this.maxSize)) {
+				this.clock.removeIf(node -> this.entries.get(node.key) != node);
+			}
+		}
+
+		/**
+		 * Remove the entries whose values have been garbage collected.
+		 */
+		@SuppressWarnings("unchecked")
+		private void purgeCollectedEntries() {
+			if (this.referenceQueue != null) {
+				Reference<? extends V> ref;
+				while ((ref = this.referenceQueue.poll()) != null) {
+					Node<V> node = ((ValueReference<V>) ref).node;
+					this.entries.remove(node.key, node);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * An entry of a segment, holding its value either directly or through
+	 * a soft reference, along with its CLOCK reference bit.
+	 */
+	private static final class Node<V> {
+
+		final Object key;
+
+		@Nullable
+		private final V value;
+
+		@Nullable
+		private final ValueReference<V> valueReference;
+
+		private volatile boolean referenced;
+
+		Node(Object key, V value, @Nullable ReferenceQueue<V> referenceQueue) {
+			this.key = key;
+			if (referenceQueue != null) {
+				this.value = null;
+				this.valueReference = new ValueReference<>(value, referenceQueue, this);
+			}
+			else {
+				this.value = value;
+				this.valueReference = null;
+			}
+		}
+
+		@Nullable
+		V getValue() {
+			return (this.valueReference != null ? this.valueReference.get() : this.value);
+		}
+
+		void markReferenced() {
+			// Avoid a volatile write for entries that are read frequently
+			if (!this.referenced) {
+				this.referenced = true;
+			}
+		}
+
+		/**
+		 * Clear the reference bit of this entry.
+		 * @return whether the entry has been read since the bit was last cleared
+		 * and its value is still available
+		 */
+		boolean clearReferenced() {
+			if (!this.referenced) {
+				return false;
+			}
+			this.referenced = false;
+			return (getValue() != null);
+		}
+	}
+
+
+	private static final class ValueReference<V> extends SoftReference<V> {
+
+		final Node<V> node;
+
+		ValueReference(V value, ReferenceQueue<V> queue, Node<V> node) {
+			super(value, queue);
+			this.node = node;
+		}
+	}
+
+
+	/**
+	 * Entry set view over a snapshot of the current entries, with removal
+	 * being propagated to the map.
+	 */
+	private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+		@Override
+		public Iterator<Map.Entry<K, V>> iterator() {
+			List<Map.Entry<K, V>> snapshot = new ArrayList<>();
+			for (Segment<K, V> segment : segments) {
+				segment.collectEntries(snapshot);
+			}
+			Iterator<Map.Entry<K, V>> iterator = snapshot.iterator();
+			return new Iterator<Map.Entry<K, V>>() {
+				@Nullable
+				private Map.Entry<K, V> last;
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+				@Override
+				public Map.Entry<K, V> next() {
+					this.last = iterator.next();
+					return this.last;
+				}
+				@Override
+				public void remove() {
+					Assert.state(this.last != null, "No element to remove");
+					SegmentedLruMap.this.remove(this.last.getKey(), this.last.getValue());
+					this.last = null;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return SegmentedLruMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			SegmentedLruMap.this.clear();
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Strategy interface for creating the static caches of the framework, e.g.
+ * for reflection metadata, resolved types and introspection results.
+ *
+ * <p>Implementations need to provide a public no-arg constructor and can be
+ * registered through the {@link StaticCaches#FACTORY_PROPERTY_NAME} system
+ * property. The returned maps may discard entries at any time, since callers
+ * recompute missing entries on demand.
+ *
+ * @since 5.3
+ * @see StaticCaches
+ */
+public interface StaticCacheFactory {
+
+	/**
+	 * Create a new cache with the given name.
+	 * @param name the name of the cache, e.g. "ReflectionUtils.declaredMethods"
+	 * @param initialCapacity the expected number of entries
+	 * @return the cache (never {@code null})
+	 */
+	<K, V> ConcurrentMap<K, V> createCache(String name, int initialCapacity);
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Central registry for the static caches of the framework, e.g. in
+ * {@link ReflectionUtils} and {@code ResolvableType}.
+ *
+ * <p>By default, each cache is a {@link ConcurrentReferenceHashMap} with soft
+ * references, as before. If the {@link #MAX_SIZE_PROPERTY_NAME} system property
+ * is set to a positive number, each cache is a {@link SegmentedLruMap} bounded
+ * to the given number of entries instead, evicting least recently used entries
+ * one at a time. Since the static caches hold on to classes, their values are
+ * still softly referenced, not preventing ClassLoaders from being garbage
+ * collected. Alternatively, a custom
+ * {@link StaticCacheFactory} can be specified through the
+ * {@link #FACTORY_PROPERTY_NAME} system property.
+ *
+ * <p>All caches are registered by name, allowing for monitoring of their size
+ * and - for {@link SegmentedLruMap} - of their hit, miss and eviction counts.
+ *
+ * @since 5.3
+ * @see StaticCacheFactory
+ * @see SegmentedLruMap
+ */
+public abstract class StaticCaches {
+
+	/**
+	 * System property that specifies the fully-qualified class name of the
+	 * {@link StaticCacheFactory} to use: {@code "spring.static-caches.factory"}.
+	 */
+	public static final String FACTORY_PROPERTY_NAME = "spring.static-caches.factory";
+
+	/**
+	 * System property that specifies the maximum number of entries for each
+	 * static cache: {@code "spring.static-caches.max-size"}. Ignored if a custom
+	 * {@link #FACTORY_PROPERTY_NAME factory} has been specified.
+	 */
+	public static final String MAX_SIZE_PROPERTY_NAME = "spring.static-caches.max-size";
+
+
+	private static final StaticCacheFactory cacheFactory = determineCacheFactory();
+
+	private static final Map<String, Map<?, ?>> caches = new ConcurrentHashMap<>(16);
+
+
+	/**
+	 * Create a new static cache with the given name, registering it for monitoring.
+	 * @param name the name of the cache, e.g. "ReflectionUtils.declaredMethods"
+	 * @param initialCapacity the expected number of entries
+	 * @return the cache
+	 */
+	public static <K, V> ConcurrentMap<K, V> createCache(String name, int initialCapacity) {
+		ConcurrentMap<K, V> cache = cacheFactory.createCache(name, initialCapacity);
+		Assert.state(cache != null, () -> "StaticCacheFactory returned null for cache '" + name + "'");
+		caches.put(name, cache);
+		return cache;
+	}
+
+	/**
+	 * Return all static caches created so far, keyed by name.
+	 * <p>The returned caches are not supposed to be modified, except for
+	 * clearing them.
+	 */
+	public static Map<String, Map<?, ?>> getCaches() {
+		return Collections.unmodifiableMap(caches);
+	}
+
+	/**
+	 * Return the factory which creates the static caches.
+	 */
+	public static StaticCacheFactory getCacheFactory() {
+		return cacheFactory;
+	}
+
+
+	private static StaticCacheFactory determineCacheFactory() {
+		String factoryClassName = getSystemProperty(FACTORY_PROPERTY_NAME);
+		if (factoryClassName != null) {
+			try {
+				Class<?> factoryClass = ClassUtils.forName(factoryClassName, StaticCaches.class.getClassLoader());
+				Assert.isAssignable(StaticCacheFactory.class, factoryClass);
+				return (StaticCacheFactory) factoryClass.getDeclaredConstructor().newInstance();
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException("Failed to instantiate StaticCacheFactory [" + factoryClassName + "]", ex);
+			}
+		}
+		String maxSize = getSystemProperty(MAX_SIZE_PROPERTY_NAME);
+		int maxSizeToUse = (maxSize != null ? parseMaxSize(maxSize) : -1);
+		if (maxSizeToUse > 0) {
+			return new StaticCacheFactory() {
+				@Override
+				public <K, V> ConcurrentMap<K, V> createCache(String name, int initialCapacity) {
+					return new SegmentedLruMap<>(maxSizeToUse, 16, true);
+				}
+			};
+		}
+		return new StaticCacheFactory() {
+			@Override
+			public <K, V> ConcurrentMap<K, V> createCache(String name, int initialCapacity) {
+				return new ConcurrentReferenceHashMap<>(initialCapacity);
+			}
+		};
+	}
+
+	private static int parseMaxSize(String maxSize) {
+		try {
+			int maxSizeToUse = Integer.parseInt(maxSize.trim());
+			if (maxSizeToUse > 0) {
+				return maxSizeToUse;
+			}
+		}
+		catch (NumberFormatException ex) {
+			// Fall through to warning below
+		}
+		LogFactory.getLog(StaticCaches.class).warn("Ignoring invalid value '" + maxSize + "' for system property '" +
+				MAX_SIZE_PROPERTY_NAME + "': expected a positive number of entries");
+		return -1;
+	}
+
+	@Nullable
+	private static String getSystemProperty(String key) {
+		try {
+			return System.getProperty(key);
+		}
+		catch (Throwable ex) {
+			// Not allowed to read system properties, e.g. under a SecurityManager
+			return null;
+		}
+	}
+
+}
@@ -845,6 +845,30 @@ class MergedAnnotationsTests {
 				Order.class).getDistance()).isEqualTo(0);
 	}
 
+	@Test
+	void fromMethodReturnsStoredInstance() throws Exception {
+		Method method = SubOfImplementsInterfaceWithAnnotatedMethod.class.getMethod("foo");
+		MergedAnnotations annotations = MergedAnnotations.from(method, SearchStrategy.TYPE_HIERARCHY);
+		assertThat(MergedAnnotations.from(method, SearchStrategy.TYPE_HIERARCHY)).isSameAs(annotations);
+		assertThat(MergedAnnotations.from(method, SearchStrategy.DIRECT)).isNotSameAs(annotations);
+		assertThat(annotations.get(Order.class)).isSameAs(annotations.get(Order.class));
+		assertThat(annotations.isPresent(Order.class)).isTrue();
+		assertThat(annotations.isPresent(Transactional.class)).isFalse();
+		AnnotationUtils.clearCache();
+		assertThat(MergedAnnotations.from(method, SearchStrategy.TYPE_HIERARCHY)).isNotSameAs(annotations);
+	}
+
+	@Test
+	void fromMethodsReturnsAnnotationsForAllDeclaredMethods() throws Exception {
+		Map<Method, MergedAnnotations> annotations = MergedAnnotations.fromMethods(
+				SubOfImplementsInterfaceWithAnnotatedMethod.class, SearchStrategy.TYPE_HIERARCHY);
+		Method method = SubOfImplementsInterfaceWithAnnotatedMethod.class.getMethod("foo");
+		assertThat(annotations).containsOnlyKeys(method);
+		assertThat(annotations.get(method).get(Order.class).getDistance()).isEqualTo(0);
+		assertThat(annotations.get(method)).isSameAs(
+				MergedAnnotations.from(method, SearchStrategy.TYPE_HIERARCHY));
+	}
+
 	@Test
 	void getFromMethodWhenInterfaceWhenSuperDoesNotImplementMethod() throws Exception {
 		Method method = SubOfAbstractImplementsInterfaceWithAnnotatedMethod.class.getMethod("foo");
@@ -16,9 +16,13 @@
 
 package org.springframework.core.env;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -164,6 +168,146 @@ class PropertySourcesPropertyResolverTests {
 		assertThat(propertySources).hasSize(2);
 	}
 
+	@Test
+	void getProperty_withIndexedPropertySources() {
+		HashMap<String, Object> map = new HashMap<>();
+		map.put("foo", "bar");
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addFirst(new MapPropertySource("testProperties", map));
+		PropertySourcesPropertyResolver propertyResolver = new PropertySourcesPropertyResolver(propertySources);
+		propertyResolver.setIndexPropertySources(true);
+		assertThat(propertyResolver.getProperty("foo")).isEqualTo("bar");
+		assertThat(propertyResolver.getProperty("other")).isNull();
+		assertThat(propertyResolver.containsProperty("other")).isFalse();
+
+		// indexed until the index gets cleared
+		map.put("foo", "baz");
+		map.put("other", "value");
+		assertThat(propertyResolver.getProperty("foo")).isEqualTo("bar");
+		assertThat(propertyResolver.containsProperty("other")).isFalse();
+		propertyResolver.clearPropertyIndex();
+		assertThat(propertyResolver.getProperty("foo")).isEqualTo("baz");
+		assertThat(propertyResolver.containsProperty("other")).isTrue();
+
+		// structural modifications rebuild the index
+		propertySources.addFirst(new MockPropertySource("local").withProperty("foo", "localValue"));
+		assertThat(propertyResolver.getProperty("foo")).isEqualTo("localValue");
+		propertySources.remove("local");
+		assertThat(propertyResolver.getProperty("foo")).isEqualTo("baz");
+	}
+
+	@Test
+	void getProperty_withIndexedPropertySourcesAndSystemEnvironment() {
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addLast(new SystemEnvironmentPropertySource("env", Collections.singletonMap("FOO_BAR", "env")));
+		propertySources.addLast(new MockPropertySource("local").withProperty("foo.bar", "local"));
+		PropertySourcesPropertyResolver propertyResolver = new PropertySourcesPropertyResolver(propertySources);
+		propertyResolver.setIndexPropertySources(true);
+		assertThat(propertyResolver.getProperty("foo.bar")).isEqualTo("env");
+		assertThat(propertyResolver.getProperty("foo.bar")).isEqualTo("env");
+		assertThat(propertyResolver.resolvePlaceholders("${foo.bar}")).isEqualTo("env");
+	}
+
+	@Test
+	void getProperty_withIndexedPropertySourcesAndNonEnumerablePropertySource() {
+		AtomicInteger counter = new AtomicInteger();
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addLast(new PropertySource<Object>("counter") {
+			@Override
+			public Object getProperty(String name) {
+				return (name.equals("counter") ? counter.incrementAndGet() : null);
+			}
+		});
+		propertySources.addLast(new MockPropertySource("local").withProperty("foo", "bar"));
+		PropertySourcesPropertyResolver propertyResolver = new PropertySourcesPropertyResolver(propertySources);
+		propertyResolver.setIndexPropertySources(true);
+		assertThat(propertyResolver.getProperty("counter", Integer.class)).isEqualTo(1);
+		assertThat(propertyResolver.getProperty("counter", Integer.class)).isEqualTo(2);
+		assertThat(propertyResolver.resolvePlaceholders("${counter}")).isEqualTo("3");
+		assertThat(propertyResolver.resolvePlaceholders("${counter}")).isEqualTo("4");
+		assertThat(propertyResolver.getProperty("foo")).isEqualTo("bar");
+	}
+
+	@Test
+	void containsProperty_withIndexedPropertySourcesAndNullValue() {
+		HashMap<String, Object> map = new HashMap<>();
+		map.put("foo", null);
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addFirst(new MapPropertySource("testProperties", map));
+		PropertySourcesPropertyResolver propertyResolver = new PropertySourcesPropertyResolver(propertySources);
+		propertyResolver.setIndexPropertySources(true);
+		assertThat(propertyResolver.containsProperty("foo")).isTrue();
+		assertThat(propertyResolver.getProperty("foo")).isNull();
+		assertThat(propertyResolver.containsProperty("foo")).isTrue();
+		assertThat(propertyResolver.containsProperty("bar")).isFalse();
+	}
+
+	@Test
+	void getProperty_withIndexingAndImmutablePropertySources() {
+		HashMap<String, Object> map = new HashMap<>();
+		map.put("foo", "bar");
+		PropertySources propertySources = new PropertySources() {
+			private final List<PropertySource<?>> list =
+					Collections.singletonList(new MapPropertySource("testProperties", map));
+			@Override
+			public Iterator<PropertySource<?>> iterator() {
+				return this.list.iterator();
+			}
+			@Override
+			public boolean contains(String name) {
+				return "testProperties".equals(name);
+			}
+			@Override
+			public PropertySource<?> get(String name) {
+				return (contains(name) ? this.list.get(0) : null);
+			}
+		};
+		PropertySourcesPropertyResolver propertyResolver = new PropertySourcesPropertyResolver(propertySources);
+		propertyResolver.setIndexPropertySources(true);
+		assertThat(propertyResolver.getProperty("foo")).isEqualTo("bar");
+		map.put("foo", "baz");
+		assertThat(propertyResolver.getProperty("foo")).isEqualTo("baz");
+	}
+
+	@Test
+	void getProperty_withIndexedPropertySourcesAndManyAbsentKeys() {
+		HashMap<String, Object> map = new HashMap<>();
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addFirst(new MapPropertySource("testProperties", map));
+		PropertySourcesPropertyResolver propertyResolver = new PropertySourcesPropertyResolver(propertySources);
+		propertyResolver.setIndexPropertySources(true);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(propertyResolver.getProperty("key" + i)).isNull();
+			assertThat(propertyResolver.containsProperty("key" + i)).isFalse();
+		}
+
+		// only a limited number of absent keys gets indexed
+		map.put("key0", "value0");
+		map.put("key999", "value999");
+		assertThat(propertyResolver.getProperty("key0")).isNull();
+		assertThat(propertyResolver.containsProperty("key0")).isFalse();
+		assertThat(propertyResolver.getProperty("key999")).isEqualTo("value999");
+		assertThat(propertyResolver.containsProperty("key999")).isTrue();
+	}
+
+	@Test
+	void resolvePlaceholders_withIndexedPropertySources() {
+		MockPropertySource propertySource = new MockPropertySource("local").withProperty("foo", "bar");
+		MutablePropertySources propertySources = new MutablePropertySources();
+		propertySources.addLast(propertySource);
+		PropertySourcesPropertyResolver propertyResolver = new PropertySourcesPropertyResolver(propertySources);
+		propertyResolver.setIndexPropertySources(true);
+		assertThat(propertyResolver.resolveRequiredPlaceholders("${foo}-${baz:def}")).isEqualTo("bar-def");
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				propertyResolver.resolveRequiredPlaceholders("${baz}"));
+
+		propertySource.setProperty("baz", "qux");
+		assertThat(propertyResolver.resolveRequiredPlaceholders("${foo}-${baz:def}")).isEqualTo("bar-def");
+		propertySources.replace("local", propertySource);
+		assertThat(propertyResolver.resolveRequiredPlaceholders("${foo}-${baz:def}")).isEqualTo("bar-qux");
+		assertThat(propertyResolver.resolveRequiredPlaceholders("${baz}")).isEqualTo("qux");
+	}
+
 	@Test
 	void getRequiredProperty() {
 		testProperties.put("exists", "xyz");
@@ -18,15 +18,24 @@ package org.springframework.core.io.support;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
 import org.springframework.util.StringUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -130,6 +139,64 @@ class PathMatchingResourcePatternResolverTests {
 	}
 
 
+	@Test
+	void repeatedPatternsInIndexedJarFile(@TempDir Path tempDir) throws IOException {
+		File jarFile = writeJar(tempDir, "a/", "a/x.txt", "c/", "c/z.txt", "a/b/", "a/b/y.txt", "a/w.txt");
+		String jarUrl = "jar:" + jarFile.toURI() + "!/";
+		assertThat(getFilenames(resolver.getResources(jarUrl + "a/**/*.txt"))).containsExactly("x.txt", "y.txt", "w.txt");
+		assertThat(getFilenames(resolver.getResources(jarUrl + "a/*.txt"))).containsExactly("x.txt", "w.txt");
+		assertThat(getFilenames(resolver.getResources(jarUrl + "c/*.txt"))).containsExactly("z.txt");
+		assertThat(getFilenames(resolver.getResources(jarUrl + "*/*.txt"))).containsExactly("x.txt", "z.txt", "w.txt");
+		assertThat(resolver.getResources(jarUrl + "d/*.txt")).isEmpty();
+	}
+
+	@Test
+	void rootDirectoryWithoutTrailingSlashInIndexedJarFile(@TempDir Path tempDir) throws IOException {
+		File jarFile = writeJar(tempDir, "a/", "a/x.txt", "y.txt");
+		String rootDirUrl = "jar:" + jarFile.toURI() + "!/a";
+		// first lookup builds the index, second one resolves the root entry against it
+		assertThat(getFilenames(resolver.getResources(rootDirUrl + "/*.txt"))).containsExactly("x.txt");
+		Set<Resource> resources = resolver.doFindPathMatchingJarResources(
+				new UrlResource(rootDirUrl), new URL(rootDirUrl), "*.txt");
+		assertThat(getFilenames(resources.toArray(new Resource[0]))).containsExactly("x.txt");
+	}
+
+	@Test
+	void jarEntryIndexSharedPerResourceLoader(@TempDir Path tempDir) throws IOException {
+		File jarFile = writeJar(tempDir, "a/", "a/x.txt");
+		String jarUrl = "jar:" + jarFile.toURI() + "!/";
+		DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+		new PathMatchingResourcePatternResolver(resourceLoader).getResources(jarUrl + "a/*.txt");
+		assertThat(resourceLoader.getResourceCache(JarEntryIndex.class)).hasSize(1);
+		Resource[] resources = new PathMatchingResourcePatternResolver(resourceLoader).getResources(jarUrl + "a/*.txt");
+		assertThat(getFilenames(resources)).containsExactly("x.txt");
+		assertThat(resourceLoader.getResourceCache(JarEntryIndex.class)).hasSize(1);
+		resourceLoader.clearResourceCaches();
+		assertThat(resourceLoader.getResourceCache(JarEntryIndex.class)).isEmpty();
+	}
+
+	private File writeJar(Path directory, String... entryNames) throws IOException {
+		File jarFile = directory.resolve("test.jar").toFile();
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+			for (String entryName : entryNames) {
+				out.putNextEntry(new ZipEntry(entryName));
+				if (!entryName.endsWith("/")) {
+					out.write(entryName.getBytes());
+				}
+				out.closeEntry();
+			}
+		}
+		return jarFile;
+	}
+
+	private List<String> getFilenames(Resource[] resources) {
+		List<String> filenames = new ArrayList<>();
+		for (Resource resource : resources) {
+			filenames.add(resource.getFilename());
+		}
+		return filenames;
+	}
+
 	private void assertProtocolAndFilenames(Resource[] resources, String protocol, String... filenames)
 			throws IOException {
 
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.metrics.BufferingApplicationStartup.TimedStep;
+import org.springframework.core.metrics.BufferingApplicationStartup.TimedStepNode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BufferingApplicationStartup}.
+ */
+class BufferingApplicationStartupTests {
+
+	@Test
+	void bufferStepsWhenEnded() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		StartupStep first = applicationStartup.start("first").tag("key", "value");
+		StartupStep second = applicationStartup.start("second");
+		assertThat(applicationStartup.getBufferedSteps()).isEmpty();
+		second.end();
+		first.end();
+		List<TimedStep> steps = applicationStartup.getBufferedSteps();
+		assertThat(steps).extracting(TimedStep::getName).containsExactly("second", "first");
+		assertThat(steps.get(0).getParentId()).isEqualTo(first.getId());
+		assertThat(steps.get(1).getParentId()).isNull();
+		assertThat(steps.get(1).getTags()).containsEntry("key", "value");
+		assertThat(steps.get(1).getDuration()).isGreaterThanOrEqualTo(steps.get(0).getDuration());
+	}
+
+	@Test
+	void buildStepTree() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		StartupStep root = applicationStartup.start("root");
+		applicationStartup.start("child1").end();
+		StartupStep child2 = applicationStartup.start("child2");
+		applicationStartup.start("grandchild").end();
+		child2.end();
+		root.end();
+		applicationStartup.start("other").end();
+
+		List<TimedStepNode> tree = applicationStartup.getStepTree();
+		assertThat(tree).extracting(node -> node.getStep().getName()).containsExactly("root", "other");
+		TimedStepNode rootNode = tree.get(0);
+		assertThat(rootNode.getChildren()).extracting(node -> node.getStep().getName())
+				.containsExactly("child1", "child2");
+		assertThat(rootNode.getChildren().get(1).getChildren()).extracting(node -> node.getStep().getName())
+				.containsExactly("grandchild");
+	}
+
+	@Test
+	void attachToClosestBufferedAncestorWhenParentIsFiltered() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		applicationStartup.addFilter(step -> !step.getName().equals("filtered"));
+		StartupStep root = applicationStartup.start("root");
+		StartupStep filtered = applicationStartup.start("filtered");
+		applicationStartup.start("nested").end();
+		filtered.end();
+		root.end();
+
+		List<TimedStepNode> tree = applicationStartup.getStepTree();
+		assertThat(tree).hasSize(1);
+		assertThat(tree.get(0).getChildren()).extracting(node -> node.getStep().getName()).containsExactly("nested");
+	}
+
+	@Test
+	void dropStepsWhenCapacityIsReached() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2);
+		applicationStartup.start("first").end();
+		applicationStartup.start("second").end();
+		applicationStartup.start("third").end();
+		assertThat(applicationStartup.getBufferedSteps()).extracting(TimedStep::getName)
+				.containsExactly("first", "second");
+	}
+
+	@Test
+	void failWhenTaggingEndedStep() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2);
+		StartupStep step = applicationStartup.start("first");
+		step.end();
+		assertThatIllegalStateException().isThrownBy(() -> step.tag("key", "value"));
+	}
+
+}
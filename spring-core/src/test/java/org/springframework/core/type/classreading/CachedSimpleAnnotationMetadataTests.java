@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AbstractAnnotationMetadataTests;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ResourceUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SimpleAnnotationMetadata} read from a {@link PersistentMetadataCache}.
+ */
+class CachedSimpleAnnotationMetadataTests extends AbstractAnnotationMetadataTests {
+
+	@TempDir
+	Path cacheDirectory;
+
+
+	@Override
+	protected AnnotationMetadata get(Class<?> source) {
+		try {
+			CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory(source.getClassLoader());
+			factory.setPersistentCacheDirectory(this.cacheDirectory.toFile());
+			MetadataReader metadataReader = factory.getMetadataReader(source.getName());
+			factory.clearCache();
+			Resource resource = metadataReader.getResource();
+			if (!ResourceUtils.isFileURL(resource.getURL()) && !ResourceUtils.isJarURL(resource.getURL())) {
+				// JDK class, not eligible for caching
+				return metadataReader.getAnnotationMetadata();
+			}
+
+			MetadataReader cachedMetadataReader = PersistentMetadataCache.forDirectory(
+					this.cacheDirectory.toFile()).getMetadataReader(resource, source.getClassLoader());
+			assertThat(cachedMetadataReader).isNotNull();
+			return cachedMetadataReader.getAnnotationMetadata();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
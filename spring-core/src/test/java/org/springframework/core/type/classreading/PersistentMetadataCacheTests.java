@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PersistentMetadataCache} and its use in
+ * {@link CachingMetadataReaderFactory}.
+ */
+class PersistentMetadataCacheTests {
+
+	private static final String CLASS_FILE = ClassUtils.convertClassNameToResourcePath(
+			SampleClass.class.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+
+	@TempDir
+	Path tempDir;
+
+
+	@Test
+	void classFileIsNotReadWhenUnchanged() throws IOException {
+		File classFile = copyClassFile(this.tempDir.resolve("classes").toFile());
+		File cacheDirectory = this.tempDir.resolve("cache").toFile();
+		assertSampleMetadata(readMetadata(cacheDirectory, new FileSystemResource(classFile)));
+
+		// Fresh cache instance, reading the segment written above from disk
+		File copiedCacheDirectory = this.tempDir.resolve("cache-copy").toFile();
+		assertThat(copiedCacheDirectory.mkdirs()).isTrue();
+		FileCopyUtils.copy(cacheDirectory.listFiles()[0],
+				new File(copiedCacheDirectory, cacheDirectory.listFiles()[0].getName()));
+		replaceContent(classFile, false);
+		assertSampleMetadata(readMetadata(copiedCacheDirectory, new FileSystemResource(classFile)));
+	}
+
+	@Test
+	void classFileIsReadAgainWhenChanged() throws IOException {
+		File classFile = copyClassFile(this.tempDir.resolve("classes").toFile());
+		File cacheDirectory = this.tempDir.resolve("cache").toFile();
+		readMetadata(cacheDirectory, new FileSystemResource(classFile));
+
+		replaceContent(classFile, true);
+		assertThat(readMetadata(cacheDirectory, new FileSystemResource(classFile)).getClassName())
+				.isEqualTo(NestedAnnotation.class.getName());
+	}
+
+	@Test
+	void jarEntryIsNotReadWhenJarUnchanged() throws IOException {
+		File jarFile = this.tempDir.resolve("sample.jar").toFile();
+		writeJar(jarFile, classFileContent());
+		File cacheDirectory = this.tempDir.resolve("cache").toFile();
+		Resource resource = new UrlResource("jar:" + jarFile.toURI() + "!/" + CLASS_FILE);
+		assertSampleMetadata(readMetadata(cacheDirectory, resource));
+		assertThat(cacheDirectory.listFiles()).hasSize(1);
+
+		// Same length (stored entry) and same last modification time
+		long length = jarFile.length();
+		long lastModified = jarFile.lastModified();
+		writeJar(jarFile, new byte[classFileContent().length]);
+		assertThat(jarFile.length()).isEqualTo(length);
+		assertThat(jarFile.setLastModified(lastModified)).isTrue();
+		assertSampleMetadata(readMetadata(cacheDirectory, resource));
+	}
+
+	@Test
+	void jarEntryIsReadAgainWhenJarChanged() throws IOException {
+		File jarFile = this.tempDir.resolve("sample.jar").toFile();
+		writeJar(jarFile, classFileContent());
+		File cacheDirectory = this.tempDir.resolve("cache").toFile();
+		Resource resource = new UrlResource("jar:" + jarFile.toURI() + "!/" + CLASS_FILE);
+		readMetadata(cacheDirectory, resource);
+
+		writeJar(jarFile, classFileContent(NestedAnnotation.class));
+		assertThat(readMetadata(cacheDirectory, resource).getClassName()).isEqualTo(NestedAnnotation.class.getName());
+	}
+
+
+	private AnnotationMetadata readMetadata(File cacheDirectory, Resource resource) throws IOException {
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory(getClass().getClassLoader());
+		factory.setPersistentCacheDirectory(cacheDirectory);
+		AnnotationMetadata metadata = factory.getMetadataReader(resource).getAnnotationMetadata();
+		factory.clearCache();
+		return metadata;
+	}
+
+	private void assertSampleMetadata(AnnotationMetadata metadata) {
+		assertThat(metadata.getClassName()).isEqualTo(SampleClass.class.getName());
+		assertThat(metadata.getInterfaceNames()).containsExactly(Runnable.class.getName());
+		MergedAnnotation<SampleAnnotation> annotation = metadata.getAnnotations().get(SampleAnnotation.class);
+		assertThat(annotation.getString("value")).isEqualTo("sample");
+		assertThat(annotation.getStringArray("types")).containsExactly(String.class.getName());
+		assertThat(annotation.getEnum("policy", RetentionPolicy.class)).isEqualTo(RetentionPolicy.RUNTIME);
+		assertThat(annotation.getEnumArray("targets", ElementType.class))
+				.containsExactly(ElementType.TYPE, ElementType.METHOD);
+		assertThat(annotation.getIntArray("numbers")).containsExactly(1, 2);
+		assertThat(annotation.getAnnotationArray("nested", NestedAnnotation.class)[0].getString("value"))
+				.isEqualTo("nested");
+		assertThat(metadata.getAnnotations().get(SampleAnnotation.class).getSource().toString())
+				.isEqualTo(SampleClass.class.getName());
+		assertThat(metadata.getAnnotatedMethods(SampleAnnotation.class.getName())).hasSize(1);
+		MethodMetadata method = metadata.getAnnotatedMethods(SampleAnnotation.class.getName()).iterator().next();
+		assertThat(method.getMethodName()).isEqualTo("run");
+		assertThat(method.getReturnTypeName()).isEqualTo("void");
+		assertThat(method.isOverridable()).isTrue();
+		assertThat(method.getAnnotations().get(SampleAnnotation.class).getSource().toString())
+				.isEqualTo(SampleClass.class.getName() + ".run()");
+	}
+
+	private File copyClassFile(File directory) throws IOException {
+		File classFile = new File(directory, CLASS_FILE);
+		assertThat(classFile.getParentFile().mkdirs()).isTrue();
+		FileCopyUtils.copy(classFileContent(), classFile);
+		return classFile;
+	}
+
+	private byte[] classFileContent() throws IOException {
+		return classFileContent(SampleClass.class);
+	}
+
+	private byte[] classFileContent(Class<?> type) throws IOException {
+		return FileCopyUtils.copyToByteArray(getClass().getClassLoader().getResourceAsStream(
+				ClassUtils.convertClassNameToResourcePath(type.getName()) + ClassUtils.CLASS_FILE_SUFFIX));
+	}
+
+	/**
+	 * Replace the content of the given class file, either by another class
+	 * file or by garbage of the same length and with the same last
+	 * modification time.
+	 */
+	private void replaceContent(File classFile, boolean changed) throws IOException {
+		long lastModified = classFile.lastModified();
+		if (changed) {
+			FileCopyUtils.copy(classFileContent(NestedAnnotation.class), classFile);
+			assertThat(classFile.setLastModified(lastModified - 10000)).isTrue();
+		}
+		else {
+			byte[] garbage = new byte[(int) classFile.length()];
+			Arrays.fill(garbage, (byte) 1);
+			FileCopyUtils.copy(garbage, classFile);
+			assertThat(classFile.setLastModified(lastModified)).isTrue();
+		}
+	}
+
+	private void writeJar(File jarFile, byte[] content) throws IOException {
+		try (OutputStream out = Files.newOutputStream(jarFile.toPath());
+				JarOutputStream jar = new JarOutputStream(out)) {
+			JarEntry entry = new JarEntry(CLASS_FILE);
+			entry.setMethod(ZipEntry.STORED);
+			entry.setSize(content.length);
+			CRC32 crc = new CRC32();
+			crc.update(content);
+			entry.setCrc(crc.getValue());
+			jar.putNextEntry(entry);
+			jar.write(content);
+			jar.closeEntry();
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface SampleAnnotation {
+
+		String value() default "";
+
+		Class<?>[] types() default {};
+
+		RetentionPolicy policy() default RetentionPolicy.CLASS;
+
+		ElementType[] targets() default {};
+
+		int[] numbers() default {};
+
+		NestedAnnotation[] nested() default {};
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface NestedAnnotation {
+
+		String value();
+	}
+
+
+	@SampleAnnotation(value = "sample", types = String.class, policy = RetentionPolicy.RUNTIME,
+			targets = {ElementType.TYPE, ElementType.METHOD}, numbers = {1, 2},
+			nested = @NestedAnnotation("nested"))
+	static class SampleClass implements Runnable {
+
+		@Override
+		@SampleAnnotation
+		public void run() {
+		}
+	}
+
+}
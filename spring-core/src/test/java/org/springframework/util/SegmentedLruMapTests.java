@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link SegmentedLruMap} and {@link StaticCaches}.
+ */
+class SegmentedLruMapTests {
+
+	@Test
+	void evictsLeastRecentlyUsedEntry() {
+		SegmentedLruMap<String, String> map = new SegmentedLruMap<>(2, 1);
+		map.put("a", "A");
+		map.put("b", "B");
+		assertThat(map.get("a")).isEqualTo("A");
+		map.put("c", "C");
+		assertThat(map).hasSize(2).containsKeys("a", "c").doesNotContainKey("b");
+		assertThat(map.getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedEntryWithSoftReferences() {
+		SegmentedLruMap<String, String> map = new SegmentedLruMap<>(2, 1, true);
+		map.put("a", "A");
+		map.put("b", "B");
+		assertThat(map.get("a")).isEqualTo("A");
+		map.put("c", "C");
+		assertThat(map).hasSize(2).containsKeys("a", "c").doesNotContainKey("b");
+		assertThat(map.getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void boundedAcrossSegments() {
+		SegmentedLruMap<Integer, Integer> map = new SegmentedLruMap<>(64);
+		for (int i = 0; i < 1000; i++) {
+			map.put(i, i);
+		}
+		assertThat(map.size()).isLessThanOrEqualTo(64);
+		assertThat(map.getEvictionCount()).isEqualTo(1000 - map.size());
+		assertThat(map.getMaxSize()).isEqualTo(64);
+	}
+
+	@Test
+	void countsHitsAndMisses() {
+		SegmentedLruMap<String, String> map = new SegmentedLruMap<>(16);
+		assertThat(map.computeIfAbsent("a", key -> "A")).isEqualTo("A");
+		assertThat(map.computeIfAbsent("a", key -> "X")).isEqualTo("A");
+		assertThat(map.get("b")).isNull();
+		assertThat(map.getHitCount()).isEqualTo(1);
+		assertThat(map.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	void concurrentMapOperations() {
+		SegmentedLruMap<String, String> map = new SegmentedLruMap<>(16);
+		assertThat(map.putIfAbsent("a", "A")).isNull();
+		assertThat(map.putIfAbsent("a", "B")).isEqualTo("A");
+		assertThat(map.replace("a", "B", "C")).isFalse();
+		assertThat(map.replace("a", "A", "C")).isTrue();
+		assertThat(map.replace("b", "B")).isNull();
+		assertThat(map.remove("a", "A")).isFalse();
+		assertThat(map.remove("a", "C")).isTrue();
+		assertThat(map.remove("b", null)).isFalse();
+		assertThat(map).isEmpty();
+		assertThatIllegalArgumentException().isThrownBy(() -> map.put("a", null));
+	}
+
+	@Test
+	void removeThroughKeySet() {
+		SegmentedLruMap<String, String> map = new SegmentedLruMap<>(16);
+		map.put("a", "A");
+		map.put("b", "B");
+		map.keySet().removeIf("a"::equals);
+		assertThat(map).containsOnlyKeys("b");
+		map.entrySet().clear();
+		assertThat(map).isEmpty();
+	}
+
+	@Test
+	void staticCachesAreRegistered() {
+		ReflectionUtils.getDeclaredMethods(getClass());
+		Map<String, Map<?, ?>> caches = StaticCaches.getCaches();
+		assertThat(caches).containsKeys(
+				"ReflectionUtils.declaredMethodsCache", "ReflectionUtils.declaredFieldsCache");
+		assertThat(caches.get("ReflectionUtils.declaredMethodsCache")).isNotEmpty();
+	}
+
+}